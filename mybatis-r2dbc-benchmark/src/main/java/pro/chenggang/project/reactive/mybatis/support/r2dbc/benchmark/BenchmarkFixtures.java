@@ -0,0 +1,213 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.benchmark;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.apache.ibatis.io.Resources;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.ReactiveSqlSessionFactory;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.builder.R2dbcXMLMapperBuilder;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.defaults.DefaultReactiveSqlSessionFactory;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybatisConfiguration;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.mapping.R2dbcEnvironment;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.testsupport.FakeColumnMetadata;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.testsupport.FakeConnectionFactory;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.testsupport.FakeResult;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.testsupport.FakeRowMetadata;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.testsupport.FakeStatementScript;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The shared fixtures of benchmarks, the canned rows are generated once and emitted by every execution.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public final class BenchmarkFixtures {
+
+    public static final String MAPPER_RESOURCE = "pro/chenggang/project/reactive/mybatis/support/r2dbc/benchmark/mapper/BenchmarkMapper.xml";
+    public static final String MAPPER_NAMESPACE = "pro.chenggang.project.reactive.mybatis.support.r2dbc.benchmark.mapper.BenchmarkMapper";
+    public static final int EMPS_PER_DEPT = 4;
+    public static final int WIDE_ENTITY_COLUMNS = 40;
+
+    private static final LocalDateTime CREATE_TIME = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final Class<?>[] WIDE_ENTITY_COLUMN_TYPES = {Long.class, String.class, Integer.class, BigDecimal.class, LocalDateTime.class};
+
+    public static final FakeRowMetadata DEPT_ROW_METADATA = new FakeRowMetadata(Arrays.asList(
+            new FakeColumnMetadata("dept_no", Long.class),
+            new FakeColumnMetadata("dept_name", String.class),
+            new FakeColumnMetadata("location", String.class),
+            new FakeColumnMetadata("create_time", LocalDateTime.class)
+    ));
+
+    public static final FakeRowMetadata DEPT_WITH_EMP_ROW_METADATA = new FakeRowMetadata(Arrays.asList(
+            new FakeColumnMetadata("dept_no", Long.class),
+            new FakeColumnMetadata("dept_name", String.class),
+            new FakeColumnMetadata("location", String.class),
+            new FakeColumnMetadata("create_time", LocalDateTime.class),
+            new FakeColumnMetadata("emp_emp_no", Long.class),
+            new FakeColumnMetadata("emp_emp_name", String.class),
+            new FakeColumnMetadata("emp_job", String.class),
+            new FakeColumnMetadata("emp_dept_no", Long.class),
+            new FakeColumnMetadata("emp_salary", BigDecimal.class),
+            new FakeColumnMetadata("emp_hire_date", LocalDateTime.class)
+    ));
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * New configuration with the benchmark mapper
+     *
+     * @param connectionFactory the connection factory, could be null if no session is opened
+     * @return the configuration
+     */
+    public static R2dbcMybatisConfiguration newConfiguration(ConnectionFactory connectionFactory) {
+        R2dbcMybatisConfiguration configuration = new R2dbcMybatisConfiguration();
+        if (connectionFactory != null) {
+            configuration.setR2dbcEnvironment(new R2dbcEnvironment.Builder("benchmark")
+                    .connectionFactory(connectionFactory)
+                    .build()
+            );
+        }
+        try (InputStream inputStream = Resources.getResourceAsStream(MAPPER_RESOURCE)) {
+            new R2dbcXMLMapperBuilder(inputStream, configuration, MAPPER_RESOURCE, configuration.getSqlFragments()).parse();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return configuration;
+    }
+
+    /**
+     * New reactive sql session factory over a fake connection factory,
+     * the joined statements emit dept with emp rows, the statements with conditions emit a single dept row
+     * and the others emit dept rows
+     *
+     * @param databaseProductName the database product name
+     * @param rows                the dept rows of each query
+     * @return the reactive sql session factory
+     */
+    public static ReactiveSqlSessionFactory newSessionFactory(String databaseProductName, int rows) {
+        FakeResult singleDeptResult = deptResult(1);
+        FakeResult deptResult = deptResult(rows);
+        FakeResult deptWithEmpResult = deptWithEmpResult(rows);
+        FakeConnectionFactory connectionFactory = FakeConnectionFactory.newBuilder()
+                .withDatabaseProductName(databaseProductName)
+                .withStatementScript(FakeStatementScript.containing("JOIN").withResult(deptWithEmpResult).build())
+                .withStatementScript(FakeStatementScript.containing("WHERE").withResult(singleDeptResult).build())
+                .withStatementScript(FakeStatementScript.any().withResult(deptResult).build())
+                .build();
+        R2dbcMybatisConfiguration configuration = newConfiguration(connectionFactory);
+        return DefaultReactiveSqlSessionFactory.newBuilder()
+                .withR2dbcMybatisConfiguration(configuration)
+                .build();
+    }
+
+    /**
+     * The result of dept rows
+     *
+     * @param rows the rows
+     * @return the fake result
+     */
+    public static FakeResult deptResult(int rows) {
+        List<Object[]> values = new ArrayList<>(rows);
+        for (long deptNo = 1; deptNo <= rows; deptNo++) {
+            values.add(deptValues(deptNo));
+        }
+        return FakeResult.ofRows(DEPT_ROW_METADATA, values);
+    }
+
+    /**
+     * The result of dept joined with emp rows, each dept has {@link #EMPS_PER_DEPT} emps
+     *
+     * @param depts the depts
+     * @return the fake result
+     */
+    public static FakeResult deptWithEmpResult(int depts) {
+        List<Object[]> values = new ArrayList<>(depts * EMPS_PER_DEPT);
+        long empNo = 1;
+        for (long deptNo = 1; deptNo <= depts; deptNo++) {
+            Object[] deptValues = deptValues(deptNo);
+            for (int i = 0; i < EMPS_PER_DEPT; i++, empNo++) {
+                Object[] rowValues = Arrays.copyOf(deptValues, DEPT_WITH_EMP_ROW_METADATA.getColumnMetadatas().size());
+                rowValues[4] = empNo;
+                rowValues[5] = "emp-" + empNo;
+                rowValues[6] = "job-" + (empNo % 5);
+                rowValues[7] = deptNo;
+                rowValues[8] = BigDecimal.valueOf(1000 + empNo);
+                rowValues[9] = CREATE_TIME.plusDays(empNo);
+                values.add(rowValues);
+            }
+        }
+        return FakeResult.ofRows(DEPT_WITH_EMP_ROW_METADATA, values);
+    }
+
+    /**
+     * The result of wide entity rows with the first given columns of the wide entity,
+     * the types of columns are Long,String,Integer,BigDecimal and LocalDateTime in turn
+     *
+     * @param rows    the rows
+     * @param columns the columns, at most {@link #WIDE_ENTITY_COLUMNS}
+     * @return the fake result
+     */
+    public static FakeResult wideEntityResult(int rows, int columns) {
+        if (columns < 1 || columns > WIDE_ENTITY_COLUMNS) {
+            throw new IllegalArgumentException("Wide entity columns must be between 1 and " + WIDE_ENTITY_COLUMNS);
+        }
+        List<FakeColumnMetadata> columnMetadatas = new ArrayList<>(columns);
+        for (int column = 1; column <= columns; column++) {
+            columnMetadatas.add(new FakeColumnMetadata(String.format("column_%02d", column), WIDE_ENTITY_COLUMN_TYPES[(column - 1) % WIDE_ENTITY_COLUMN_TYPES.length]));
+        }
+        List<Object[]> values = new ArrayList<>(rows);
+        for (long id = 1; id <= rows; id++) {
+            Object[] rowValues = new Object[columns];
+            for (int column = 1; column <= columns; column++) {
+                rowValues[column - 1] = wideEntityValue(id, column);
+            }
+            values.add(rowValues);
+        }
+        return FakeResult.ofRows(new FakeRowMetadata(columnMetadatas), values);
+    }
+
+    private static Object wideEntityValue(long id, int column) {
+        Class<?> columnType = WIDE_ENTITY_COLUMN_TYPES[(column - 1) % WIDE_ENTITY_COLUMN_TYPES.length];
+        if (Long.class.equals(columnType)) {
+            return id * WIDE_ENTITY_COLUMNS + column;
+        }
+        if (String.class.equals(columnType)) {
+            return "value-" + id + "-" + column;
+        }
+        if (Integer.class.equals(columnType)) {
+            return (int) id + column;
+        }
+        if (BigDecimal.class.equals(columnType)) {
+            return BigDecimal.valueOf(id * 100 + column, 2);
+        }
+        return CREATE_TIME.plusMinutes(id * WIDE_ENTITY_COLUMNS + column);
+    }
+
+    private static Object[] deptValues(long deptNo) {
+        return new Object[]{deptNo, "dept-" + deptNo, "location-" + deptNo, CREATE_TIME.plusHours(deptNo)};
+    }
+}
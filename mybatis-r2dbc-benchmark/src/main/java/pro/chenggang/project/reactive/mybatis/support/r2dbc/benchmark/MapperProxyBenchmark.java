@@ -0,0 +1,87 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.ReactiveSqlSession;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.ReactiveSqlSessionFactory;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.benchmark.mapper.BenchmarkDept;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.benchmark.mapper.BenchmarkMapper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmark of mapper method dispatch through the mapper proxy,
+ * the executor, the placeholder formatter, the parameter binding and the result mapping
+ * against the in-process fake connection factory.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperProxyBenchmark {
+
+    @Param({"MySQL", "PostgreSQL"})
+    public String databaseProductName;
+
+    @Param({"10"})
+    public int rows;
+
+    private BenchmarkMapper benchmarkMapper;
+
+    @Setup
+    public void setup() {
+        ReactiveSqlSessionFactory reactiveSqlSessionFactory = BenchmarkFixtures.newSessionFactory(this.databaseProductName, this.rows);
+        ReactiveSqlSession reactiveSqlSession = reactiveSqlSessionFactory.openSession();
+        this.benchmarkMapper = reactiveSqlSession.getMapper(BenchmarkMapper.class);
+    }
+
+    @Benchmark
+    public BenchmarkDept selectOne() {
+        return this.benchmarkMapper.selectById(1L).block();
+    }
+
+    @Benchmark
+    public void selectMany(Blackhole blackhole) {
+        this.benchmarkMapper.selectAll()
+                .doOnNext(blackhole::consume)
+                .blockLast();
+    }
+
+    @Benchmark
+    public void selectNested(Blackhole blackhole) {
+        this.benchmarkMapper.selectAllWithEmps()
+                .doOnNext(blackhole::consume)
+                .blockLast();
+    }
+}
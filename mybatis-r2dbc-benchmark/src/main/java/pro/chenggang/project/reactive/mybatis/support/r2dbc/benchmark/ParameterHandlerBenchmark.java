@@ -0,0 +1,111 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.benchmark;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybatisConfiguration;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.parameter.DelegateR2dbcParameterHandler;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.R2dbcStatementLog;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.testsupport.FakeResult;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.testsupport.FakeStatement;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmark of {@link DelegateR2dbcParameterHandler#setParameters} with mixed parameter types
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParameterHandlerBenchmark {
+
+    private static final Object[] PARAMETER_VALUES = {
+            1L, "value", 1, new BigDecimal("10.5"), LocalDateTime.of(2024, 1, 1, 0, 0)
+    };
+
+    @Param({"1", "10", "100"})
+    public int parameterCount;
+
+    private R2dbcMybatisConfiguration configuration;
+    private BoundSql boundSql;
+    private ParameterHandler parameterHandler;
+    private R2dbcStatementLog r2dbcStatementLog;
+    private FakeStatement statement;
+
+    @Setup
+    public void setup() {
+        this.configuration = new R2dbcMybatisConfiguration();
+        List<ParameterMapping> parameterMappings = new ArrayList<>(this.parameterCount);
+        Map<String, Object> parameter = new HashMap<>();
+        StringBuilder sql = new StringBuilder("INSERT INTO benchmark VALUES (");
+        for (int i = 0; i < this.parameterCount; i++) {
+            Object value = PARAMETER_VALUES[i % PARAMETER_VALUES.length];
+            String property = "value" + i;
+            sql.append(i == 0 ? "?" : ", ?");
+            parameter.put(property, value);
+            parameterMappings.add(new ParameterMapping.Builder(this.configuration, property, value.getClass()).build());
+        }
+        sql.append(")");
+        MappedStatement mappedStatement = new MappedStatement.Builder(this.configuration,
+                "benchmark.insert",
+                new StaticSqlSource(this.configuration, sql.toString(), parameterMappings),
+                SqlCommandType.INSERT
+        ).build();
+        this.boundSql = mappedStatement.getBoundSql(parameter);
+        this.parameterHandler = this.configuration.newParameterHandler(mappedStatement, parameter, this.boundSql);
+        this.r2dbcStatementLog = this.configuration.getR2dbcStatementLog(mappedStatement);
+        FakeResult updateResult = FakeResult.ofUpdateCount(1);
+        this.statement = new FakeStatement(this.boundSql.getSql(), execution -> Mono.just(updateResult));
+    }
+
+    @Benchmark
+    public FakeStatement setParameters() throws SQLException {
+        new DelegateR2dbcParameterHandler(this.configuration, this.parameterHandler, this.boundSql, this.statement, this.r2dbcStatementLog)
+                .setParameters(null);
+        return this.statement;
+    }
+}
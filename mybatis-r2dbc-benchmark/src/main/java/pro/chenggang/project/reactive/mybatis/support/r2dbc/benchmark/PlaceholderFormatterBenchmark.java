@@ -0,0 +1,108 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.benchmark;
+
+import io.r2dbc.spi.ConnectionMetadata;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybatisConfiguration;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.placeholder.defaults.DefaultPlaceholderFormatter;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.ReactiveExecutorContextAttribute;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.testsupport.FakeConnectionMetadata;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmark of {@link DefaultPlaceholderFormatter} per placeholder dialect,
+ * covers the preformatted static statements and the cached formatting of dynamic sql.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlaceholderFormatterBenchmark {
+
+    @Param({"MySQL", "MariaDB", "PostgreSQL", "Microsoft SQL Server", "Oracle", "H2"})
+    public String databaseProductName;
+
+    @Param({"1", "10"})
+    public int parameterCount;
+
+    private DefaultPlaceholderFormatter placeholderFormatter;
+    private ConnectionMetadata connectionMetadata;
+    private ReactiveExecutorContextAttribute reactiveExecutorContextAttribute;
+    private MappedStatement mappedStatement;
+    private BoundSql boundSql;
+
+    @Setup
+    public void setup() {
+        R2dbcMybatisConfiguration configuration = new R2dbcMybatisConfiguration();
+        List<ParameterMapping> parameterMappings = new ArrayList<>(this.parameterCount);
+        StringBuilder sql = new StringBuilder("SELECT * FROM dept WHERE dept_no IN (");
+        for (int i = 0; i < this.parameterCount; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+            parameterMappings.add(new ParameterMapping.Builder(configuration, "deptNo" + i, Long.class).build());
+        }
+        sql.append(")");
+        this.mappedStatement = new MappedStatement.Builder(configuration,
+                "benchmark.select",
+                new StaticSqlSource(configuration, sql.toString(), parameterMappings),
+                SqlCommandType.SELECT
+        ).build();
+        this.boundSql = this.mappedStatement.getBoundSql(null);
+        this.placeholderFormatter = new DefaultPlaceholderFormatter(
+                configuration.getPlaceholderDialectRegistry(),
+                configuration.getFormattedDialectSqlCacheMaxSize(),
+                configuration.getFormattedDialectSqlCacheExpireDuration()
+        );
+        this.placeholderFormatter.preformatStaticSql(Collections.singletonList(this.mappedStatement));
+        this.connectionMetadata = new FakeConnectionMetadata(this.databaseProductName);
+        this.reactiveExecutorContextAttribute = new ReactiveExecutorContextAttribute();
+    }
+
+    @Benchmark
+    public String staticStatement() {
+        return this.placeholderFormatter.replaceSqlPlaceholder(this.connectionMetadata, this.mappedStatement, this.boundSql, this.reactiveExecutorContextAttribute);
+    }
+
+    @Benchmark
+    public String dynamicSql() {
+        return this.placeholderFormatter.replaceSqlPlaceholder(this.connectionMetadata, this.boundSql, this.reactiveExecutorContextAttribute);
+    }
+}
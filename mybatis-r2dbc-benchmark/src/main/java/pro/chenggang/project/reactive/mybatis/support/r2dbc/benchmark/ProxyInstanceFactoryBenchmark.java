@@ -0,0 +1,74 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.benchmark.mapper.BenchmarkMapper;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.support.ProxyInstanceFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmark of creating mapper proxy instances through {@link ProxyInstanceFactory},
+ * the proxy class of the interface set is looked up from the cache and instantiated with a new invocation handler,
+ * the jdk dynamic proxy is measured as the baseline.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProxyInstanceFactoryBenchmark {
+
+    private InvocationHandler invocationHandler;
+
+    @Setup
+    public void setup() {
+        this.invocationHandler = (proxy, method, args) -> null;
+        ProxyInstanceFactory.newInstanceOfInterfaces(BenchmarkMapper.class, () -> this.invocationHandler);
+    }
+
+    @Benchmark
+    public BenchmarkMapper newInstance() {
+        return ProxyInstanceFactory.newInstanceOfInterfaces(BenchmarkMapper.class, () -> this.invocationHandler);
+    }
+
+    @Benchmark
+    public Object newInstanceWithOtherInterfaces() {
+        return ProxyInstanceFactory.newInstanceOfInterfaces(BenchmarkMapper.class, () -> this.invocationHandler, Runnable.class);
+    }
+
+    @Benchmark
+    public BenchmarkMapper jdkProxyNewInstance() {
+        return (BenchmarkMapper) Proxy.newProxyInstance(BenchmarkMapper.class.getClassLoader(), new Class<?>[]{BenchmarkMapper.class}, this.invocationHandler);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.benchmark;
+
+import io.r2dbc.spi.Row;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybatisConfiguration;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.ReadableResultShape;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.ReadableResultWrapper;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.handler.DefaultReactiveResultHandler;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.handler.ReactiveResultHandler;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.testsupport.FakeResult;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The benchmark of {@link DefaultReactiveResultHandler} mapping the rows of a result,
+ * covers the simple property mapping, the nested collection mapping, the constructor mapping
+ * and the property mapping of a wide entity with 30 or 40 columns.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultHandlerBenchmark {
+
+    @Param({"simple", "nested", "constructor", "wide30", "wide40"})
+    public String mapping;
+
+    @Param({"100"})
+    public int rows;
+
+    private R2dbcMybatisConfiguration configuration;
+    private MappedStatement mappedStatement;
+    private BoundSql boundSql;
+    private List<Row> resultRows;
+
+    @Setup
+    public void setup() {
+        this.configuration = BenchmarkFixtures.newConfiguration(null);
+        FakeResult fakeResult;
+        switch (this.mapping) {
+            case "simple":
+                this.mappedStatement = this.configuration.getMappedStatement(BenchmarkFixtures.MAPPER_NAMESPACE + ".selectAll");
+                fakeResult = BenchmarkFixtures.deptResult(this.rows);
+                break;
+            case "nested":
+                this.mappedStatement = this.configuration.getMappedStatement(BenchmarkFixtures.MAPPER_NAMESPACE + ".selectAllWithEmps");
+                fakeResult = BenchmarkFixtures.deptWithEmpResult(this.rows / BenchmarkFixtures.EMPS_PER_DEPT);
+                break;
+            case "constructor":
+                this.mappedStatement = this.configuration.getMappedStatement(BenchmarkFixtures.MAPPER_NAMESPACE + ".selectAllByConstructor");
+                fakeResult = BenchmarkFixtures.deptResult(this.rows);
+                break;
+            case "wide30":
+                this.mappedStatement = this.configuration.getMappedStatement(BenchmarkFixtures.MAPPER_NAMESPACE + ".selectAllWide");
+                fakeResult = BenchmarkFixtures.wideEntityResult(this.rows, 30);
+                break;
+            case "wide40":
+                this.mappedStatement = this.configuration.getMappedStatement(BenchmarkFixtures.MAPPER_NAMESPACE + ".selectAllWide");
+                fakeResult = BenchmarkFixtures.wideEntityResult(this.rows, 40);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown mapping : " + this.mapping);
+        }
+        this.boundSql = this.mappedStatement.getBoundSql(null);
+        this.resultRows = Flux.from(fakeResult.map((row, rowMetadata) -> row))
+                .collectList()
+                .block();
+    }
+
+    @Benchmark
+    public void handleResult(Blackhole blackhole) {
+        ReactiveResultHandler reactiveResultHandler = new DefaultReactiveResultHandler(this.configuration,
+                this.mappedStatement,
+                this.boundSql,
+                this.configuration.newParameterHandler(this.mappedStatement, null, this.boundSql)
+        );
+        AtomicReference<ReadableResultShape> readableResultShapeReference = new AtomicReference<>();
+        for (Row row : this.resultRows) {
+            ReadableResultWrapper<Row> readableResultWrapper = ReadableResultWrapper.ofRow(row, readableResultShapeReference, this.configuration);
+            reactiveResultHandler.handleResult(readableResultWrapper).subscribe(blackhole::consume);
+        }
+        reactiveResultHandler.getRemainedResults().subscribe(blackhole::consume);
+        reactiveResultHandler.cleanup();
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.benchmark.mapper;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * benchmark emp
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+@Getter
+@Setter
+@ToString
+public class BenchmarkEmp {
+
+    /**
+     * emp no
+     */
+    private Long empNo;
+
+    /**
+     * emp name
+     */
+    private String empName;
+
+    /**
+     * job
+     */
+    private String job;
+
+    /**
+     * dept no
+     */
+    private Long deptNo;
+
+    /**
+     * salary
+     */
+    private BigDecimal salary;
+
+    /**
+     * hire date
+     */
+    private LocalDateTime hireDate;
+
+}
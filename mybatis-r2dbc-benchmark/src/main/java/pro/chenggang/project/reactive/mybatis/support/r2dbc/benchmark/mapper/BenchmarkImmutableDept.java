@@ -0,0 +1,56 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.benchmark.mapper;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * benchmark immutable dept mapped by constructor
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class BenchmarkImmutableDept {
+
+    /**
+     * dept no
+     */
+    private final Long deptNo;
+
+    /**
+     * dept name
+     */
+    private final String deptName;
+
+    /**
+     * location
+     */
+    private final String location;
+
+    /**
+     * create time
+     */
+    private final LocalDateTime createTime;
+
+}
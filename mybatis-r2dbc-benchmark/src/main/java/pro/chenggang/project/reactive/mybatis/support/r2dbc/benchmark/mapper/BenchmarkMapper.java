@@ -0,0 +1,66 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.benchmark.mapper;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The benchmark mapper
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public interface BenchmarkMapper {
+
+    /**
+     * select dept by id
+     *
+     * @param deptNo the dept no
+     * @return the dept
+     */
+    Mono<BenchmarkDept> selectById(Long deptNo);
+
+    /**
+     * select all depts with simple mapping
+     *
+     * @return the depts
+     */
+    Flux<BenchmarkDept> selectAll();
+
+    /**
+     * select all depts with nested emps
+     *
+     * @return the depts with emps
+     */
+    Flux<BenchmarkDeptWithEmps> selectAllWithEmps();
+
+    /**
+     * select all depts with constructor mapping
+     *
+     * @return the immutable depts
+     */
+    Flux<BenchmarkImmutableDept> selectAllByConstructor();
+
+    /**
+     * select all wide entities with 40 columns
+     *
+     * @return the wide entities
+     */
+    Flux<BenchmarkWideEntity> selectAllWide();
+
+}
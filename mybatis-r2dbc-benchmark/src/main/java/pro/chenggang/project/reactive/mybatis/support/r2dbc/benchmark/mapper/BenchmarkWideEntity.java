@@ -0,0 +1,237 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.benchmark.mapper;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * benchmark wide entity with 40 columns
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+@Getter
+@Setter
+@ToString
+public class BenchmarkWideEntity {
+
+    /**
+     * column 01
+     */
+    private Long column01;
+
+    /**
+     * column 02
+     */
+    private String column02;
+
+    /**
+     * column 03
+     */
+    private Integer column03;
+
+    /**
+     * column 04
+     */
+    private BigDecimal column04;
+
+    /**
+     * column 05
+     */
+    private LocalDateTime column05;
+
+    /**
+     * column 06
+     */
+    private Long column06;
+
+    /**
+     * column 07
+     */
+    private String column07;
+
+    /**
+     * column 08
+     */
+    private Integer column08;
+
+    /**
+     * column 09
+     */
+    private BigDecimal column09;
+
+    /**
+     * column 10
+     */
+    private LocalDateTime column10;
+
+    /**
+     * column 11
+     */
+    private Long column11;
+
+    /**
+     * column 12
+     */
+    private String column12;
+
+    /**
+     * column 13
+     */
+    private Integer column13;
+
+    /**
+     * column 14
+     */
+    private BigDecimal column14;
+
+    /**
+     * column 15
+     */
+    private LocalDateTime column15;
+
+    /**
+     * column 16
+     */
+    private Long column16;
+
+    /**
+     * column 17
+     */
+    private String column17;
+
+    /**
+     * column 18
+     */
+    private Integer column18;
+
+    /**
+     * column 19
+     */
+    private BigDecimal column19;
+
+    /**
+     * column 20
+     */
+    private LocalDateTime column20;
+
+    /**
+     * column 21
+     */
+    private Long column21;
+
+    /**
+     * column 22
+     */
+    private String column22;
+
+    /**
+     * column 23
+     */
+    private Integer column23;
+
+    /**
+     * column 24
+     */
+    private BigDecimal column24;
+
+    /**
+     * column 25
+     */
+    private LocalDateTime column25;
+
+    /**
+     * column 26
+     */
+    private Long column26;
+
+    /**
+     * column 27
+     */
+    private String column27;
+
+    /**
+     * column 28
+     */
+    private Integer column28;
+
+    /**
+     * column 29
+     */
+    private BigDecimal column29;
+
+    /**
+     * column 30
+     */
+    private LocalDateTime column30;
+
+    /**
+     * column 31
+     */
+    private Long column31;
+
+    /**
+     * column 32
+     */
+    private String column32;
+
+    /**
+     * column 33
+     */
+    private Integer column33;
+
+    /**
+     * column 34
+     */
+    private BigDecimal column34;
+
+    /**
+     * column 35
+     */
+    private LocalDateTime column35;
+
+    /**
+     * column 36
+     */
+    private Long column36;
+
+    /**
+     * column 37
+     */
+    private String column37;
+
+    /**
+     * column 38
+     */
+    private Integer column38;
+
+    /**
+     * column 39
+     */
+    private BigDecimal column39;
+
+    /**
+     * column 40
+     */
+    private LocalDateTime column40;
+
+}
@@ -26,9 +26,11 @@ import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.scripting.CompiledXMLLanguageDriver;
 
 /**
  * {@link EnableAutoConfiguration Auto-Configuration} for MyBatis's scripting language drivers.
@@ -42,6 +44,19 @@ public class MybatisLanguageDriverAutoConfiguration {
 
     private static final String CONFIGURATION_PROPERTY_PREFIX = "mybatis.scripting-language-driver";
 
+    /**
+     * Configuration class for the compiled xml language driver.
+     */
+    @Configuration
+    @ConditionalOnProperty(value = CONFIGURATION_PROPERTY_PREFIX + ".compiled-xml.enabled", havingValue = "true")
+    public static class CompiledXMLConfiguration {
+        @Bean
+        @ConditionalOnMissingBean
+        CompiledXMLLanguageDriver compiledXMLLanguageDriver() {
+            return new CompiledXMLLanguageDriver();
+        }
+    }
+
     /**
      * Configuration class for mybatis-freemarker 1.1.x or under.
      */
@@ -17,6 +17,7 @@ package pro.chenggang.project.reactive.mybatis.support.r2dbc.spring.configuratio
 
 import io.r2dbc.pool.ConnectionPool;
 import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.pool.SimplePoolMetricsRecorder;
 import io.r2dbc.spi.ConnectionFactories;
 import io.r2dbc.spi.ConnectionFactory;
 import io.r2dbc.spi.ConnectionFactoryOptions;
@@ -72,25 +73,30 @@ import pro.chenggang.project.reactive.mybatis.support.r2dbc.builder.R2dbcXMLConf
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.builder.R2dbcXMLMapperBuilder;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.defaults.DefaultReactiveSqlSessionFactory;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybatisConfiguration;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.ReactiveMybatisExecutor;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.type.R2dbcTypeHandlerAdapter;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.type.converter.MybatisTypeHandlerConverter;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.mapping.R2dbcDatabaseIdProvider;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.mapping.R2dbcEnvironment;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.spring.annotation.R2dbcMapperScan;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.spring.executor.SpringCachingReactiveMybatisExecutor;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.spring.executor.SpringReactiveMybatisExecutor;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.spring.mapper.R2dbcMapperFactoryBean;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.spring.mapper.R2dbcMapperScannerConfigurer;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.spring.properties.R2dbcMybatisConnectionFactoryProperties;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.spring.properties.R2dbcMybatisProperties;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.spring.support.ConnectionFactoryOptionsCustomizer;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.spring.support.PoolMetricsRecorderFactory;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.spring.support.R2dbcMybatisConfigurationCustomizer;
 import reactor.core.publisher.Flux;
+import reactor.pool.PoolMetricsRecorder;
 
 import java.beans.PropertyDescriptor;
 import java.io.IOException;
 import java.lang.reflect.Modifier;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -134,13 +140,15 @@ public class R2dbcMybatisAutoConfiguration {
      *
      * @param r2dbcMybatisConnectionFactoryProperties    the r2dbc mybatis connection factory properties
      * @param connectionFactoryOptionsCustomizerProvider the connection factory options customizer object provider
+     * @param poolMetricsRecorderFactoryProvider         the pool metrics recorder factory object provider
      * @return the connection pool
      */
     @ConditionalOnProperty(value = "spring.r2dbc.mybatis.routing.enabled", havingValue = "false", matchIfMissing = true)
     @ConditionalOnMissingBean(ConnectionFactory.class)
     @Bean(destroyMethod = "dispose")
     public ConnectionPool connectionFactory(R2dbcMybatisConnectionFactoryProperties r2dbcMybatisConnectionFactoryProperties,
-                                            ObjectProvider<ConnectionFactoryOptionsCustomizer> connectionFactoryOptionsCustomizerProvider) {
+                                            ObjectProvider<ConnectionFactoryOptionsCustomizer> connectionFactoryOptionsCustomizerProvider,
+                                            ObjectProvider<PoolMetricsRecorderFactory> poolMetricsRecorderFactoryProvider) {
         String determineConnectionFactoryUrl = r2dbcMybatisConnectionFactoryProperties.determineConnectionFactoryUrl();
         Assert.notNull(determineConnectionFactoryUrl, "R2DBC Connection URL must not be null");
         ConnectionFactoryOptions connectionFactoryOptions = ConnectionFactoryOptions.parse(determineConnectionFactoryUrl);
@@ -159,8 +167,17 @@ public class R2dbcMybatisAutoConfiguration {
             return (ConnectionPool) connectionFactory;
         }
         R2dbcMybatisConnectionFactoryProperties.Pool pool = r2dbcMybatisConnectionFactoryProperties.getPool();
+        String connectionFactoryName = r2dbcMybatisConnectionFactoryProperties.determineConnectionFactoryName();
+        //PoolMetricsRecorder
+        PoolMetricsRecorder poolMetricsRecorder = pool.getMetricsRecorder();
+        if (Objects.isNull(poolMetricsRecorder)) {
+            PoolMetricsRecorderFactory poolMetricsRecorderFactory = poolMetricsRecorderFactoryProvider.getIfAvailable();
+            poolMetricsRecorder = Objects.nonNull(poolMetricsRecorderFactory)
+                    ? poolMetricsRecorderFactory.create(connectionFactoryName)
+                    : new SimplePoolMetricsRecorder();
+        }
         ConnectionPoolConfiguration.Builder builder = ConnectionPoolConfiguration.builder(connectionFactory)
-                .name(r2dbcMybatisConnectionFactoryProperties.determineConnectionFactoryName())
+                .name(connectionFactoryName)
                 .maxSize(pool.getMaxSize())
                 .initialSize(pool.getInitialSize())
                 .maxIdleTime(pool.getMaxIdleTime())
@@ -169,7 +186,7 @@ public class R2dbcMybatisAutoConfiguration {
                 .maxAcquireTime(pool.getMaxAcquireTime())
                 .maxCreateConnectionTime(pool.getMaxCreateConnectionTime())
                 .maxLifeTime(pool.getMaxLifeTime())
-                .metricsRecorder(pool.getMetricsRecorder())
+                .metricsRecorder(poolMetricsRecorder)
                 .validationDepth(pool.getValidationDepth());
         if (hasText(pool.getValidationQuery())) {
             builder.validationQuery(pool.getValidationQuery());
@@ -382,10 +399,13 @@ public class R2dbcMybatisAutoConfiguration {
     @Bean
     @ConditionalOnMissingBean(ReactiveSqlSessionFactory.class)
     public ReactiveSqlSessionFactory reactiveSqlSessionFactoryWithTransaction(R2dbcMybatisConfiguration configuration) {
-        SpringReactiveMybatisExecutor springReactiveMybatisExecutor = new SpringReactiveMybatisExecutor(configuration);
+        ReactiveMybatisExecutor reactiveMybatisExecutor = new SpringReactiveMybatisExecutor(configuration);
+        if (configuration.isCacheEnabled()) {
+            reactiveMybatisExecutor = new SpringCachingReactiveMybatisExecutor(reactiveMybatisExecutor);
+        }
         return DefaultReactiveSqlSessionFactory.newBuilder()
                 .withR2dbcMybatisConfiguration(configuration)
-                .withReactiveMybatisExecutor(springReactiveMybatisExecutor)
+                .withReactiveMybatisExecutor(reactiveMybatisExecutor)
                 .build();
     }
 
@@ -0,0 +1,65 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.spring.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.AutoConfigureBefore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.metrics.StatementMetricsRecorder;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.spring.metrics.MicrometerPoolMetricsRecorder;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.spring.metrics.MicrometerStatementMetricsRecorder;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.spring.support.PoolMetricsRecorderFactory;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.spring.support.R2dbcMybatisConfigurationCustomizer;
+
+/**
+ * The micrometer metrics auto configuration of statements and connection pools,
+ * the pool size gauges are left to the connection pool metrics of spring boot actuator.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+@Configuration
+@ConditionalOnClass(MeterRegistry.class)
+@ConditionalOnBean(MeterRegistry.class)
+@ConditionalOnProperty(value = "r2dbc.mybatis.metrics.enabled", havingValue = "true", matchIfMissing = true)
+@AutoConfigureAfter(name = "org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration")
+@AutoConfigureBefore(R2dbcMybatisAutoConfiguration.class)
+public class R2dbcMybatisMetricsAutoConfiguration {
+
+    @ConditionalOnMissingBean(StatementMetricsRecorder.class)
+    @Bean
+    public MicrometerStatementMetricsRecorder micrometerStatementMetricsRecorder(MeterRegistry meterRegistry) {
+        return new MicrometerStatementMetricsRecorder(meterRegistry);
+    }
+
+    @Bean
+    public R2dbcMybatisConfigurationCustomizer statementMetricsRecorderConfigurationCustomizer(StatementMetricsRecorder statementMetricsRecorder) {
+        return r2dbcMybatisConfiguration -> r2dbcMybatisConfiguration.setStatementMetricsRecorder(statementMetricsRecorder);
+    }
+
+    @ConditionalOnMissingBean(PoolMetricsRecorderFactory.class)
+    @Bean
+    public PoolMetricsRecorderFactory micrometerPoolMetricsRecorderFactory(MeterRegistry meterRegistry) {
+        return connectionFactoryName -> new MicrometerPoolMetricsRecorder(meterRegistry, connectionFactoryName);
+    }
+}
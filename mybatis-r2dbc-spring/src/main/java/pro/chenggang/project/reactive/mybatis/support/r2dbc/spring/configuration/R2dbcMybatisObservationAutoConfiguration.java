@@ -0,0 +1,63 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.spring.configuration;
+
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.AutoConfigureBefore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.observation.MicrometerStatementExecutionObserver;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.observation.R2dbcStatementObservationConvention;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.observation.StatementExecutionObserver;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.spring.routing.R2dbcMybatisRoutingStatementObservationConvention;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.spring.support.R2dbcMybatisConfigurationCustomizer;
+
+/**
+ * The micrometer observation auto configuration of statement executions,
+ * an observation is emitted per statement execution when an {@link ObservationRegistry} is present.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+@Configuration
+@ConditionalOnClass(ObservationRegistry.class)
+@ConditionalOnBean(ObservationRegistry.class)
+@ConditionalOnProperty(value = "r2dbc.mybatis.observation.enabled", havingValue = "true", matchIfMissing = true)
+@AutoConfigureAfter(name = "org.springframework.boot.actuate.autoconfigure.observation.ObservationAutoConfiguration")
+@AutoConfigureBefore(R2dbcMybatisAutoConfiguration.class)
+public class R2dbcMybatisObservationAutoConfiguration {
+
+    @ConditionalOnMissingBean(StatementExecutionObserver.class)
+    @Bean
+    public MicrometerStatementExecutionObserver micrometerStatementExecutionObserver(ObservationRegistry observationRegistry,
+                                                                                     ObjectProvider<R2dbcStatementObservationConvention> observationConventionProvider) {
+        R2dbcStatementObservationConvention observationConvention = observationConventionProvider.getIfAvailable(
+                R2dbcMybatisRoutingStatementObservationConvention::new);
+        return new MicrometerStatementExecutionObserver(observationRegistry, observationConvention);
+    }
+
+    @Bean
+    public R2dbcMybatisConfigurationCustomizer statementExecutionObserverConfigurationCustomizer(StatementExecutionObserver statementExecutionObserver) {
+        return r2dbcMybatisConfiguration -> r2dbcMybatisConfiguration.setStatementExecutionObserver(statementExecutionObserver);
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.spring.executor;
+
+import org.apache.ibatis.cache.TransactionalCacheManager;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.CachingReactiveMybatisExecutor;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.ReactiveMybatisExecutor;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.ReactiveExecutorContext;
+import reactor.core.publisher.Mono;
+
+/**
+ * The type Spring caching reactive mybatis executor.
+ * <p>
+ * Within a spring managed transaction,the second level cache entries staged by the statements
+ * are committed when the transaction commits and discarded when it rolls back,
+ * through a {@link TransactionSynchronization} registered to the current transaction.
+ * Outside a spring managed transaction,the entries are committed as soon as the statement completes.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class SpringCachingReactiveMybatisExecutor extends CachingReactiveMybatisExecutor {
+
+    /**
+     * Instantiates a new Spring caching reactive mybatis executor.
+     *
+     * @param delegate the delegate
+     */
+    public SpringCachingReactiveMybatisExecutor(ReactiveMybatisExecutor delegate) {
+        super(delegate);
+    }
+
+    @Override
+    protected Mono<Boolean> synchronizeWithTransaction(ReactiveExecutorContext reactiveExecutorContext) {
+        return TransactionSynchronizationManager.forCurrentTransaction()
+                .map(transactionSynchronizationManager -> {
+                    if (!transactionSynchronizationManager.isSynchronizationActive()) {
+                        return false;
+                    }
+                    if (reactiveExecutorContext.setTransactionSynchronized()) {
+                        transactionSynchronizationManager.registerSynchronization(
+                                new TransactionalCacheSynchronization(reactiveExecutorContext.getTransactionalCacheManager())
+                        );
+                    }
+                    return true;
+                })
+                .onErrorResume(NoTransactionException.class, e -> Mono.just(false));
+    }
+
+    /**
+     * The type Transactional cache synchronization.
+     */
+    private static class TransactionalCacheSynchronization implements TransactionSynchronization {
+
+        private final TransactionalCacheManager transactionalCacheManager;
+
+        private TransactionalCacheSynchronization(TransactionalCacheManager transactionalCacheManager) {
+            this.transactionalCacheManager = transactionalCacheManager;
+        }
+
+        @Override
+        public Mono<Void> afterCompletion(int status) {
+            return Mono.fromRunnable(() -> {
+                synchronized (transactionalCacheManager) {
+                    if (STATUS_COMMITTED == status) {
+                        transactionalCacheManager.commit();
+                    } else {
+                        transactionalCacheManager.rollback();
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.spring.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import reactor.pool.PoolMetricsRecorder;
+
+import java.util.concurrent.TimeUnit;
+
+import static pro.chenggang.project.reactive.mybatis.support.r2dbc.spring.metrics.MicrometerStatementMetricsRecorder.METRIC_PREFIX;
+
+/**
+ * The micrometer {@link PoolMetricsRecorder} of a connection pool,
+ * records the latencies of connection allocations which the gauges of the pool sizes do not cover.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class MicrometerPoolMetricsRecorder implements PoolMetricsRecorder {
+
+    private final Timer allocationSuccessTimer;
+    private final Timer allocationFailureTimer;
+    private final Timer resetTimer;
+    private final Timer destroyTimer;
+    private final Timer lifetimeTimer;
+    private final Timer idleTimer;
+    private final Counter recycledCounter;
+    private final Counter fastPathCounter;
+    private final Counter slowPathCounter;
+
+    public MicrometerPoolMetricsRecorder(MeterRegistry meterRegistry, String poolName) {
+        Tags tags = Tags.of("name", poolName);
+        this.allocationSuccessTimer = this.timer(meterRegistry, "allocation", tags.and("result", "success"));
+        this.allocationFailureTimer = this.timer(meterRegistry, "allocation", tags.and("result", "failure"));
+        this.resetTimer = this.timer(meterRegistry, "reset", tags);
+        this.destroyTimer = this.timer(meterRegistry, "destroy", tags);
+        this.lifetimeTimer = this.timer(meterRegistry, "lifetime", tags);
+        this.idleTimer = this.timer(meterRegistry, "idle", tags);
+        this.recycledCounter = this.counter(meterRegistry, "recycled", tags);
+        this.fastPathCounter = this.counter(meterRegistry, "acquire", tags.and("path", "fast"));
+        this.slowPathCounter = this.counter(meterRegistry, "acquire", tags.and("path", "slow"));
+    }
+
+    @Override
+    public void recordAllocationSuccessAndLatency(long latencyMs) {
+        this.allocationSuccessTimer.record(latencyMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void recordAllocationFailureAndLatency(long latencyMs) {
+        this.allocationFailureTimer.record(latencyMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void recordResetLatency(long latencyMs) {
+        this.resetTimer.record(latencyMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void recordDestroyLatency(long latencyMs) {
+        this.destroyTimer.record(latencyMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void recordRecycled() {
+        this.recycledCounter.increment();
+    }
+
+    @Override
+    public void recordLifetimeDuration(long millisecondsSinceAllocation) {
+        this.lifetimeTimer.record(millisecondsSinceAllocation, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void recordIdleTime(long millisecondsIdle) {
+        this.idleTimer.record(millisecondsIdle, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void recordSlowPath() {
+        this.slowPathCounter.increment();
+    }
+
+    @Override
+    public void recordFastPath() {
+        this.fastPathCounter.increment();
+    }
+
+    private Timer timer(MeterRegistry meterRegistry, String name, Tags tags) {
+        return Timer.builder(METRIC_PREFIX + ".pool." + name)
+                .tags(tags)
+                .register(meterRegistry);
+    }
+
+    private Counter counter(MeterRegistry meterRegistry, String name, Tags tags) {
+        return Counter.builder(METRIC_PREFIX + ".pool." + name)
+                .tags(tags)
+                .register(meterRegistry);
+    }
+}
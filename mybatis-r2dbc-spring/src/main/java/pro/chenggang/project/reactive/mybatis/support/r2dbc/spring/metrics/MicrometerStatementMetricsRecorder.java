@@ -0,0 +1,172 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.spring.metrics;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.apache.ibatis.mapping.MappedStatement;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.metrics.StatementMetricsRecorder;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.placeholder.PlaceholderFormatter;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.placeholder.defaults.DefaultPlaceholderFormatter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * The micrometer {@link StatementMetricsRecorder}.
+ * <p>
+ * The meters of each statement are registered on its first execution and cached by the statement id,
+ * so that no meter lookup happens on the following executions.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class MicrometerStatementMetricsRecorder implements StatementMetricsRecorder {
+
+    public static final String METRIC_PREFIX = "r2dbc.mybatis";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, StatementMeters> statementMeters = new ConcurrentHashMap<>();
+
+    public MicrometerStatementMetricsRecorder(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void recordConnectionAcquireTime(MappedStatement mappedStatement, long nanos) {
+        this.getStatementMeters(mappedStatement).connectionAcquireTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordFirstRowTime(MappedStatement mappedStatement, long nanos) {
+        this.getStatementMeters(mappedStatement).firstRowTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordTotalTime(MappedStatement mappedStatement, long nanos) {
+        this.getStatementMeters(mappedStatement).executionTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordRows(MappedStatement mappedStatement, long rows) {
+        this.getStatementMeters(mappedStatement).rowsCounter.increment(rows);
+    }
+
+    @Override
+    public void recordError(MappedStatement mappedStatement, Throwable throwable) {
+        Counter.builder(METRIC_PREFIX + ".statement.errors")
+                .description("The errors of statement executions")
+                .tags(this.getStatementMeters(mappedStatement).tags)
+                .tag("exception", throwable.getClass().getSimpleName())
+                .register(this.meterRegistry)
+                .increment();
+    }
+
+    @Override
+    public void bindPlaceholderFormatter(PlaceholderFormatter placeholderFormatter) {
+        if (!(placeholderFormatter instanceof DefaultPlaceholderFormatter)) {
+            return;
+        }
+        DefaultPlaceholderFormatter defaultPlaceholderFormatter = (DefaultPlaceholderFormatter) placeholderFormatter;
+        this.bindCacheStats("formatted", defaultPlaceholderFormatter, DefaultPlaceholderFormatter::getFormattedSqlCacheStats);
+        this.bindCacheStats("pagination", defaultPlaceholderFormatter, DefaultPlaceholderFormatter::getPaginationSqlCacheStats);
+    }
+
+    /**
+     * bind the stats of sql cache of each placeholder dialect as function counters,
+     * the counters are summed up across the placeholder dialects since the dialect caches are created lazily
+     *
+     * @param cacheName                   the cache name
+     * @param defaultPlaceholderFormatter the default placeholder formatter
+     * @param cacheStatsFunction          the cache stats function
+     */
+    private void bindCacheStats(String cacheName,
+                                DefaultPlaceholderFormatter defaultPlaceholderFormatter,
+                                Function<DefaultPlaceholderFormatter, Map<?, CacheStats>> cacheStatsFunction) {
+        Supplier<CacheStats> cacheStatsSupplier = () -> cacheStatsFunction.apply(defaultPlaceholderFormatter)
+                .values()
+                .stream()
+                .reduce(CacheStats.empty(), CacheStats::plus);
+        this.bindCacheCounter(cacheName, "hits", cacheStatsSupplier, CacheStats::hitCount);
+        this.bindCacheCounter(cacheName, "misses", cacheStatsSupplier, CacheStats::missCount);
+        this.bindCacheCounter(cacheName, "evictions", cacheStatsSupplier, CacheStats::evictionCount);
+    }
+
+    private void bindCacheCounter(String cacheName,
+                                  String name,
+                                  Supplier<CacheStats> cacheStatsSupplier,
+                                  ToLongFunction<CacheStats> countFunction) {
+        FunctionCounter.builder(METRIC_PREFIX + ".sql.cache." + name,
+                        cacheStatsSupplier,
+                        supplier -> countFunction.applyAsLong(supplier.get())
+                )
+                .description("The " + name + " of the sql cache")
+                .tag("cache", cacheName)
+                .register(this.meterRegistry);
+    }
+
+    private StatementMeters getStatementMeters(MappedStatement mappedStatement) {
+        StatementMeters meters = this.statementMeters.get(mappedStatement.getId());
+        if (meters != null) {
+            return meters;
+        }
+        return this.statementMeters.computeIfAbsent(mappedStatement.getId(), id -> new StatementMeters(this.meterRegistry, mappedStatement));
+    }
+
+    /**
+     * The meters of a statement
+     */
+    private static class StatementMeters {
+
+        private final Tags tags;
+        private final Timer connectionAcquireTimer;
+        private final Timer firstRowTimer;
+        private final Timer executionTimer;
+        private final Counter rowsCounter;
+
+        private StatementMeters(MeterRegistry meterRegistry, MappedStatement mappedStatement) {
+            this.tags = Tags.of(
+                    "statement", mappedStatement.getId(),
+                    "command", mappedStatement.getSqlCommandType().name()
+            );
+            this.connectionAcquireTimer = Timer.builder(METRIC_PREFIX + ".statement.connection.acquire")
+                    .description("The time to acquire the connection of statement executions")
+                    .tags(this.tags)
+                    .register(meterRegistry);
+            this.firstRowTimer = Timer.builder(METRIC_PREFIX + ".statement.first.row")
+                    .description("The time from the statement executions to their first rows")
+                    .tags(this.tags)
+                    .register(meterRegistry);
+            this.executionTimer = Timer.builder(METRIC_PREFIX + ".statement.execution")
+                    .description("The total time of statement executions")
+                    .tags(this.tags)
+                    .register(meterRegistry);
+            this.rowsCounter = Counter.builder(METRIC_PREFIX + ".statement.rows")
+                    .description("The returned or updated rows of statement executions")
+                    .tags(this.tags)
+                    .register(meterRegistry);
+        }
+    }
+}
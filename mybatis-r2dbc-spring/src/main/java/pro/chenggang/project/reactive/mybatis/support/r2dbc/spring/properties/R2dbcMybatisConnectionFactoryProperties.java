@@ -15,7 +15,6 @@
  */
 package pro.chenggang.project.reactive.mybatis.support.r2dbc.spring.properties;
 
-import io.r2dbc.pool.SimplePoolMetricsRecorder;
 import io.r2dbc.spi.ValidationDepth;
 import lombok.Getter;
 import lombok.Setter;
@@ -203,9 +202,11 @@ public class R2dbcMybatisConnectionFactoryProperties {
         private Duration backgroundEvictionInterval = NO_TIMEOUT;
 
         /**
-         * r2dbc {@link PoolMetricsRecorder} to calculate elapsed time and instrumentation data
+         * r2dbc {@link PoolMetricsRecorder} to calculate elapsed time and instrumentation data,
+         * when not configured, the recorder is created by the PoolMetricsRecorderFactory bean if present,
+         * otherwise a {@link io.r2dbc.pool.SimplePoolMetricsRecorder} is used
          */
-        private PoolMetricsRecorder metricsRecorder = new SimplePoolMetricsRecorder();
+        private PoolMetricsRecorder metricsRecorder;
 
     }
 
@@ -0,0 +1,44 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.spring.routing;
+
+import io.micrometer.common.KeyValues;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.observation.DefaultR2dbcStatementObservationConvention;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.observation.R2dbcStatementObservationContext;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.spring.routing.context.R2dbcMybatisDatabaseRoutingKeyInfo;
+
+/**
+ * The statement observation convention with the database routing key
+ * of {@link R2dbcMybatisDatabaseRoutingKeyInfo} in the reactor context
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class R2dbcMybatisRoutingStatementObservationConvention extends DefaultR2dbcStatementObservationConvention {
+
+    public static final String ROUTING_KEY = "r2dbc.mybatis.routing.key";
+    public static final String NONE_ROUTING_KEY = "none";
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(R2dbcStatementObservationContext context) {
+        String routingKey = context.getContextView()
+                .<R2dbcMybatisDatabaseRoutingKeyInfo>getOrEmpty(R2dbcMybatisDatabaseRoutingKeyInfo.class)
+                .map(R2dbcMybatisDatabaseRoutingKeyInfo::getRoutingKey)
+                .orElse(NONE_ROUTING_KEY);
+        return super.getLowCardinalityKeyValues(context).and(ROUTING_KEY, routingKey);
+    }
+}
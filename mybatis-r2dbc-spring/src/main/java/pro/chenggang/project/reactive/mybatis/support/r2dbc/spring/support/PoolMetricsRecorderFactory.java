@@ -0,0 +1,38 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.spring.support;
+
+import reactor.pool.PoolMetricsRecorder;
+
+/**
+ * Factory of the {@link PoolMetricsRecorder} of the connection pool created on auto-configuration.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+@FunctionalInterface
+public interface PoolMetricsRecorderFactory {
+
+    /**
+     * Create the pool metrics recorder of the connection pool.
+     *
+     * @param connectionFactoryName the connection factory name
+     * @return the pool metrics recorder
+     */
+    PoolMetricsRecorder create(String connectionFactoryName);
+
+}
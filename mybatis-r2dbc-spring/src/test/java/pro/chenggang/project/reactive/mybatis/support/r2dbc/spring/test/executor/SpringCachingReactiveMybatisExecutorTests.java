@@ -0,0 +1,169 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.spring.test.executor;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.AbstractReactiveTransactionManager;
+import org.springframework.transaction.reactive.GenericReactiveTransaction;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybatisConfiguration;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.ReactiveMybatisExecutor;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.ReactiveExecutorContext;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.spring.executor.SpringCachingReactiveMybatisExecutor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+class SpringCachingReactiveMybatisExecutorTests {
+
+    private final R2dbcMybatisConfiguration configuration = new R2dbcMybatisConfiguration();
+    private final Cache cache = new PerpetualCache("test");
+    private final MappedStatement select = new MappedStatement.Builder(configuration, "test.select", new StaticSqlSource(configuration, "SELECT * FROM test"), SqlCommandType.SELECT)
+            .cache(cache)
+            .useCache(true)
+            .build();
+    private final CountingReactiveMybatisExecutor countingExecutor = new CountingReactiveMybatisExecutor();
+    private final SpringCachingReactiveMybatisExecutor cachingExecutor = new SpringCachingReactiveMybatisExecutor(countingExecutor);
+    private final TransactionalOperator transactionalOperator = TransactionalOperator.create(new InMemoryReactiveTransactionManager());
+
+    @Test
+    void rollbackTransactionDiscardStagedEntries() {
+        Mono<List<Object>> rollbackQuery = this.query()
+                .then(Mono.error(new IllegalStateException("rollback")));
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> transactionalOperator.transactional(rollbackQuery).block()
+        );
+        Assertions.assertEquals(0, cache.getSize());
+        Assertions.assertEquals(1, countingExecutor.queryCount.get());
+    }
+
+    @Test
+    void commitTransactionPublishStagedEntries() {
+        Mono<List<Object>> commitQuery = this.query()
+                .doOnNext(result -> Assertions.assertEquals(0, cache.getSize()));
+        transactionalOperator.transactional(commitQuery).block();
+        Assertions.assertEquals(1, cache.getSize());
+        this.query().block();
+        Assertions.assertEquals(1, countingExecutor.queryCount.get());
+    }
+
+    @Test
+    void queryWithoutTransaction() {
+        this.query().block();
+        Assertions.assertEquals(1, cache.getSize());
+    }
+
+    private Mono<List<Object>> query() {
+        return Mono.defer(() -> {
+            ReactiveExecutorContext reactiveExecutorContext = new ReactiveExecutorContext(false, null);
+            reactiveExecutorContext.setWithTransaction();
+            return cachingExecutor.query(select, null, RowBounds.DEFAULT)
+                    .collectList()
+                    .contextWrite(context -> context.put(ReactiveExecutorContext.class, reactiveExecutorContext));
+        });
+    }
+
+    private static class InMemoryReactiveTransactionManager extends AbstractReactiveTransactionManager {
+
+        @Override
+        protected Object doGetTransaction(TransactionSynchronizationManager synchronizationManager) {
+            return new Object();
+        }
+
+        @Override
+        protected Mono<Void> doBegin(TransactionSynchronizationManager synchronizationManager, Object transaction, TransactionDefinition definition) {
+            return Mono.empty();
+        }
+
+        @Override
+        protected Mono<Void> doCommit(TransactionSynchronizationManager synchronizationManager, GenericReactiveTransaction status) {
+            return Mono.empty();
+        }
+
+        @Override
+        protected Mono<Void> doRollback(TransactionSynchronizationManager synchronizationManager, GenericReactiveTransaction status) {
+            return Mono.empty();
+        }
+    }
+
+    private static class CountingReactiveMybatisExecutor implements ReactiveMybatisExecutor {
+
+        private final AtomicInteger queryCount = new AtomicInteger();
+
+        @Override
+        public Mono<Long> update(MappedStatement mappedStatement, Object parameter) {
+            return Mono.just(1L);
+        }
+
+        @Override
+        public Mono<Long> updateBatch(MappedStatement mappedStatement, List<?> parameters) {
+            return Mono.just((long) parameters.size());
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <E> Flux<E> query(MappedStatement mappedStatement, Object parameter, RowBounds rowBounds) {
+            return Flux.defer(() -> Flux.just((E) ("row-" + queryCount.incrementAndGet())));
+        }
+
+        @Override
+        public Mono<List<BatchResult>> flushStatements() {
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<Void> commit(boolean required) {
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<Void> rollback(boolean required) {
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<Void> close(boolean forceRollback) {
+            return Mono.empty();
+        }
+
+        @Override
+        public CacheKey createCacheKey(MappedStatement mappedStatement, Object parameter, RowBounds rowBounds, BoundSql boundSql) {
+            CacheKey cacheKey = new CacheKey();
+            cacheKey.update(mappedStatement.getId());
+            cacheKey.update(boundSql.getSql());
+            return cacheKey;
+        }
+    }
+}
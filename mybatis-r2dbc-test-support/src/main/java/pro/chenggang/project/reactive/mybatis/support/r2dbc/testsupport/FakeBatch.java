@@ -0,0 +1,58 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.testsupport;
+
+import io.r2dbc.spi.Batch;
+import io.r2dbc.spi.Result;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * The fake batch, each sql is executed by the execution function as a {@link FakeStatementExecution} without bindings
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class FakeBatch implements Batch {
+
+    private static final Object[] NO_BINDINGS = new Object[0];
+
+    private final Function<FakeStatementExecution, ? extends Publisher<? extends Result>> executionFunction;
+    private final List<String> sqls = new ArrayList<>();
+
+    public FakeBatch(Function<FakeStatementExecution, ? extends Publisher<? extends Result>> executionFunction) {
+        this.executionFunction = executionFunction;
+    }
+
+    @Override
+    public Batch add(String sql) {
+        this.sqls.add(sql);
+        return this;
+    }
+
+    @Override
+    public Publisher<? extends Result> execute() {
+        return Flux.fromIterable(new ArrayList<>(this.sqls))
+                .map(sql -> new FakeStatementExecution(sql, NO_BINDINGS, Collections.emptyMap(), null, 0))
+                .concatMap(this.executionFunction);
+    }
+}
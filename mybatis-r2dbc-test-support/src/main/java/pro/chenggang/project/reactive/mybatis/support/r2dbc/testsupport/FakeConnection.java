@@ -0,0 +1,162 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.testsupport;
+
+import io.r2dbc.spi.Batch;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionMetadata;
+import io.r2dbc.spi.IsolationLevel;
+import io.r2dbc.spi.R2dbcNonTransientResourceException;
+import io.r2dbc.spi.Statement;
+import io.r2dbc.spi.TransactionDefinition;
+import io.r2dbc.spi.ValidationDepth;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The fake connection creates fake statements executed by the scripts of the {@link FakeConnectionFactory}
+ * and ignores the transaction operations, the connection permit is released when it's closed.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class FakeConnection implements Connection {
+
+    private final FakeConnectionFactory connectionFactory;
+    private final ConnectionMetadata connectionMetadata;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile boolean autoCommit = true;
+
+    FakeConnection(FakeConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+        this.connectionMetadata = new FakeConnectionMetadata(connectionFactory.getMetadata().getName());
+    }
+
+    /**
+     * Whether the connection is closed
+     *
+     * @return true if closed
+     */
+    public boolean isClosed() {
+        return this.closed.get();
+    }
+
+    @Override
+    public Publisher<Void> beginTransaction() {
+        return Mono.empty();
+    }
+
+    @Override
+    public Publisher<Void> beginTransaction(TransactionDefinition definition) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Publisher<Void> close() {
+        return Mono.fromRunnable(() -> {
+            if (this.closed.compareAndSet(false, true)) {
+                this.connectionFactory.release();
+            }
+        });
+    }
+
+    @Override
+    public Publisher<Void> commitTransaction() {
+        return Mono.empty();
+    }
+
+    @Override
+    public Batch createBatch() {
+        this.assertNotClosed();
+        return new FakeBatch(this.connectionFactory::execute);
+    }
+
+    @Override
+    public Publisher<Void> createSavepoint(String name) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Statement createStatement(String sql) {
+        this.assertNotClosed();
+        return new FakeStatement(sql, this.connectionFactory::execute);
+    }
+
+    @Override
+    public boolean isAutoCommit() {
+        return this.autoCommit;
+    }
+
+    @Override
+    public ConnectionMetadata getMetadata() {
+        return this.connectionMetadata;
+    }
+
+    @Override
+    public IsolationLevel getTransactionIsolationLevel() {
+        return IsolationLevel.READ_COMMITTED;
+    }
+
+    @Override
+    public Publisher<Void> releaseSavepoint(String name) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Publisher<Void> rollbackTransaction() {
+        return Mono.empty();
+    }
+
+    @Override
+    public Publisher<Void> rollbackTransactionToSavepoint(String name) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Publisher<Void> setAutoCommit(boolean autoCommit) {
+        return Mono.fromRunnable(() -> this.autoCommit = autoCommit);
+    }
+
+    @Override
+    public Publisher<Void> setLockWaitTimeout(Duration timeout) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Publisher<Void> setStatementTimeout(Duration timeout) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Publisher<Void> setTransactionIsolationLevel(IsolationLevel isolationLevel) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Publisher<Boolean> validate(ValidationDepth depth) {
+        return Mono.fromSupplier(() -> !this.closed.get());
+    }
+
+    private void assertNotClosed() {
+        if (this.closed.get()) {
+            throw new R2dbcNonTransientResourceException("Fake connection is already closed");
+        }
+    }
+}
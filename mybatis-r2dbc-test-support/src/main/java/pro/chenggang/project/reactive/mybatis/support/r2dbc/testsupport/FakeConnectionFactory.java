@@ -0,0 +1,260 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.testsupport;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.R2dbcBadGrammarException;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The in-process scriptable fake connection factory, so that the throughput and the backpressure
+ * could be tested deterministically without a database.
+ * <p>
+ * The result of each statement execution is resolved by the first {@link FakeStatementScript} matching the sql,
+ * and the acquired connections are limited by the max connections and the max pending acquires like a pool does.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class FakeConnectionFactory implements ConnectionFactory {
+
+    private final String databaseProductName;
+    private final List<FakeStatementScript> statementScripts;
+    private final FakeLatency acquireLatency;
+    private final Duration acquireTimeout;
+    private final int defaultFetchSize;
+    private final Scheduler scheduler;
+    private final FakeConnectionFactoryStatistics statistics = new FakeConnectionFactoryStatistics();
+    private final FakeConnectionPermits connectionPermits;
+
+    private FakeConnectionFactory(Builder builder) {
+        this.databaseProductName = builder.databaseProductName;
+        this.statementScripts = Collections.unmodifiableList(new ArrayList<>(builder.statementScripts));
+        this.acquireLatency = builder.acquireLatency;
+        this.acquireTimeout = builder.acquireTimeout;
+        this.defaultFetchSize = builder.defaultFetchSize;
+        this.scheduler = builder.scheduler;
+        this.connectionPermits = new FakeConnectionPermits(builder.maxConnections, builder.maxPendingAcquires, this.statistics);
+    }
+
+    /**
+     * New fake connection factory builder.
+     *
+     * @return the builder
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        Mono<Connection> connection = this.connectionPermits.acquire()
+                .then(Mono.defer(() -> this.acquireLatency.delay(this.scheduler)
+                        .then(Mono.<Connection>fromSupplier(() -> new FakeConnection(this)))
+                        .doOnNext(ignore -> this.statistics.onConnectionAcquired())
+                        // the permit is acquired but the connection is not created
+                        .doOnCancel(this.connectionPermits::release)
+                ));
+        if (this.acquireTimeout == null) {
+            return connection;
+        }
+        return connection.timeout(this.acquireTimeout,
+                Mono.error(() -> new R2dbcTimeoutException("Acquire fake connection timeout after " + this.acquireTimeout)),
+                this.scheduler
+        );
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return () -> this.databaseProductName;
+    }
+
+    public FakeConnectionFactoryStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Execute the statement with the first matched script
+     *
+     * @param execution the execution
+     * @return the fake result
+     */
+    Mono<FakeResult> execute(FakeStatementExecution execution) {
+        return Mono.defer(() -> {
+            this.statistics.onStatementExecuted();
+            FakeStatementScript statementScript = this.findStatementScript(execution.getSql());
+            if (statementScript == null) {
+                return Mono.just(FakeResult.ofError(new R2dbcBadGrammarException("No fake statement script matches the sql : " + execution.getSql())));
+            }
+            int fetchSize = execution.getFetchSize() > 0 ? execution.getFetchSize() : this.defaultFetchSize;
+            return statementScript.getExecutionLatency()
+                    .delay(this.scheduler)
+                    .then(Mono.fromSupplier(() -> statementScript.resolveResult(execution)
+                            .withFetch(fetchSize, statementScript.getFetchLatency(), this.scheduler, this.statistics::onChunkFetched)
+                    ));
+        });
+    }
+
+    /**
+     * Release the permit of a closed connection
+     */
+    void release() {
+        this.statistics.onConnectionClosed();
+        this.connectionPermits.release();
+    }
+
+    private FakeStatementScript findStatementScript(String sql) {
+        for (FakeStatementScript statementScript : this.statementScripts) {
+            if (statementScript.matches(sql)) {
+                return statementScript;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The type Builder.
+     */
+    public static class Builder {
+
+        private final List<FakeStatementScript> statementScripts = new ArrayList<>();
+        private String databaseProductName = "Fake";
+        private int maxConnections = Integer.MAX_VALUE;
+        private int maxPendingAcquires = Integer.MAX_VALUE;
+        private FakeLatency acquireLatency = FakeLatency.none();
+        private Duration acquireTimeout;
+        private int defaultFetchSize;
+        private Scheduler scheduler = Schedulers.parallel();
+
+        /**
+         * The database product name, which determines the dialect of the placeholder formatter
+         *
+         * @param databaseProductName the database product name
+         * @return builder
+         */
+        public Builder withDatabaseProductName(String databaseProductName) {
+            this.databaseProductName = Objects.requireNonNull(databaseProductName, "Database product name could not be null");
+            return this;
+        }
+
+        /**
+         * Add a statement script, the scripts are matched in the added order
+         *
+         * @param statementScript the statement script
+         * @return builder
+         */
+        public Builder withStatementScript(FakeStatementScript statementScript) {
+            this.statementScripts.add(Objects.requireNonNull(statementScript, "Statement script could not be null"));
+            return this;
+        }
+
+        /**
+         * The max connections acquired at the same time, unlimited by default
+         *
+         * @param maxConnections the max connections
+         * @return builder
+         */
+        public Builder withMaxConnections(int maxConnections) {
+            if (maxConnections <= 0) {
+                throw new IllegalArgumentException("Max connections must be greater than zero : " + maxConnections);
+            }
+            this.maxConnections = maxConnections;
+            return this;
+        }
+
+        /**
+         * The max acquires waiting for a connection, the exceeded acquire is rejected, unlimited by default
+         *
+         * @param maxPendingAcquires the max pending acquires
+         * @return builder
+         */
+        public Builder withMaxPendingAcquires(int maxPendingAcquires) {
+            if (maxPendingAcquires < 0) {
+                throw new IllegalArgumentException("Max pending acquires must be greater or equal to zero : " + maxPendingAcquires);
+            }
+            this.maxPendingAcquires = maxPendingAcquires;
+            return this;
+        }
+
+        /**
+         * The latency of creating a connection after the permit is acquired
+         *
+         * @param acquireLatency the acquire latency
+         * @return builder
+         */
+        public Builder withAcquireLatency(FakeLatency acquireLatency) {
+            this.acquireLatency = Objects.requireNonNull(acquireLatency, "Acquire latency could not be null");
+            return this;
+        }
+
+        /**
+         * The timeout of acquiring a connection including the pending time, no timeout by default
+         *
+         * @param acquireTimeout the acquire timeout
+         * @return builder
+         */
+        public Builder withAcquireTimeout(Duration acquireTimeout) {
+            this.acquireTimeout = Objects.requireNonNull(acquireTimeout, "Acquire timeout could not be null");
+            return this;
+        }
+
+        /**
+         * The fetch size of the statements without fetch size, all rows are fetched at once by default
+         *
+         * @param defaultFetchSize the default fetch size
+         * @return builder
+         */
+        public Builder withDefaultFetchSize(int defaultFetchSize) {
+            if (defaultFetchSize < 0) {
+                throw new IllegalArgumentException("Default fetch size must be greater or equal to zero : " + defaultFetchSize);
+            }
+            this.defaultFetchSize = defaultFetchSize;
+            return this;
+        }
+
+        /**
+         * The scheduler of the latencies, a virtual time scheduler makes the latencies deterministic
+         *
+         * @param scheduler the scheduler
+         * @return builder
+         */
+        public Builder withScheduler(Scheduler scheduler) {
+            this.scheduler = Objects.requireNonNull(scheduler, "Scheduler could not be null");
+            return this;
+        }
+
+        /**
+         * build FakeConnectionFactory
+         *
+         * @return fake connection factory
+         */
+        public FakeConnectionFactory build() {
+            return new FakeConnectionFactory(this);
+        }
+    }
+}
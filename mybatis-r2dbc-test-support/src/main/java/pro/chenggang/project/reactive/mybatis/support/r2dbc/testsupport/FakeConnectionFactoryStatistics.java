@@ -0,0 +1,125 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.testsupport;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The statistics of a {@link FakeConnectionFactory}, to assert the concurrency and the backpressure of the tested code
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class FakeConnectionFactoryStatistics {
+
+    private final AtomicInteger acquiredConnections = new AtomicInteger();
+    private final AtomicInteger peakAcquiredConnections = new AtomicInteger();
+    private final AtomicInteger pendingAcquires = new AtomicInteger();
+    private final AtomicLong totalAcquires = new AtomicLong();
+    private final AtomicLong rejectedAcquires = new AtomicLong();
+    private final AtomicLong executedStatements = new AtomicLong();
+    private final AtomicLong fetchedChunks = new AtomicLong();
+
+    /**
+     * Get the count of the connections which are acquired and not closed yet
+     *
+     * @return the acquired connections
+     */
+    public int getAcquiredConnections() {
+        return acquiredConnections.get();
+    }
+
+    /**
+     * Get the max count of the connections which are acquired at the same time
+     *
+     * @return the peak acquired connections
+     */
+    public int getPeakAcquiredConnections() {
+        return peakAcquiredConnections.get();
+    }
+
+    /**
+     * Get the count of the acquires which are waiting for a connection
+     *
+     * @return the pending acquires
+     */
+    public int getPendingAcquires() {
+        return pendingAcquires.get();
+    }
+
+    public long getTotalAcquires() {
+        return totalAcquires.get();
+    }
+
+    /**
+     * Get the count of the acquires which are rejected because of the max pending acquires
+     *
+     * @return the rejected acquires
+     */
+    public long getRejectedAcquires() {
+        return rejectedAcquires.get();
+    }
+
+    /**
+     * Get the count of the statement executions, each binding set of a statement is an execution
+     *
+     * @return the executed statements
+     */
+    public long getExecutedStatements() {
+        return executedStatements.get();
+    }
+
+    /**
+     * Get the count of the fetched chunks of rows
+     *
+     * @return the fetched chunks
+     */
+    public long getFetchedChunks() {
+        return fetchedChunks.get();
+    }
+
+    void onConnectionAcquired() {
+        this.totalAcquires.incrementAndGet();
+        int current = this.acquiredConnections.incrementAndGet();
+        this.peakAcquiredConnections.accumulateAndGet(current, Math::max);
+    }
+
+    void onConnectionClosed() {
+        this.acquiredConnections.decrementAndGet();
+    }
+
+    void onAcquirePending() {
+        this.pendingAcquires.incrementAndGet();
+    }
+
+    void onAcquireNoLongerPending() {
+        this.pendingAcquires.decrementAndGet();
+    }
+
+    void onAcquireRejected() {
+        this.rejectedAcquires.incrementAndGet();
+    }
+
+    void onStatementExecuted() {
+        this.executedStatements.incrementAndGet();
+    }
+
+    void onChunkFetched() {
+        this.fetchedChunks.incrementAndGet();
+    }
+}
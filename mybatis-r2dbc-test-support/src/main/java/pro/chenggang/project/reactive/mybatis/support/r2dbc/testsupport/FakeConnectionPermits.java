@@ -0,0 +1,118 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.testsupport;
+
+import io.r2dbc.spi.R2dbcTransientResourceException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * The connection permits of a {@link FakeConnectionFactory}, which limits the acquired connections like a pool does.
+ * <p>
+ * The pending acquires are granted in FIFO order when a connection is closed.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+class FakeConnectionPermits {
+
+    private final int maxPendingAcquires;
+    private final FakeConnectionFactoryStatistics statistics;
+    private final Deque<PendingAcquire> pendingAcquires = new ArrayDeque<>();
+    // guarded by this
+    private int availablePermits;
+
+    FakeConnectionPermits(int maxConnections, int maxPendingAcquires, FakeConnectionFactoryStatistics statistics) {
+        this.availablePermits = maxConnections;
+        this.maxPendingAcquires = maxPendingAcquires;
+        this.statistics = statistics;
+    }
+
+    /**
+     * Acquire a permit, the permit must be released exactly once after the acquire succeeded
+     *
+     * @return completes when the permit is acquired
+     */
+    Mono<Void> acquire() {
+        return Mono.create(sink -> {
+            PendingAcquire pendingAcquire;
+            synchronized (this) {
+                if (this.availablePermits > 0) {
+                    this.availablePermits--;
+                    pendingAcquire = null;
+                } else if (this.pendingAcquires.size() >= this.maxPendingAcquires) {
+                    this.statistics.onAcquireRejected();
+                    sink.error(new R2dbcTransientResourceException("Too many pending acquires of fake connection, max pending acquires : " + this.maxPendingAcquires));
+                    return;
+                } else {
+                    pendingAcquire = new PendingAcquire(sink);
+                    this.pendingAcquires.addLast(pendingAcquire);
+                    this.statistics.onAcquirePending();
+                }
+            }
+            if (pendingAcquire == null) {
+                sink.success();
+                return;
+            }
+            sink.onCancel(() -> this.cancel(pendingAcquire));
+        });
+    }
+
+    /**
+     * Release a permit, which is handed over to the first pending acquire if any
+     */
+    void release() {
+        PendingAcquire pendingAcquire;
+        synchronized (this) {
+            pendingAcquire = this.pendingAcquires.pollFirst();
+            if (pendingAcquire == null) {
+                this.availablePermits++;
+                return;
+            }
+            pendingAcquire.granted = true;
+            this.statistics.onAcquireNoLongerPending();
+        }
+        pendingAcquire.sink.success();
+    }
+
+    private void cancel(PendingAcquire pendingAcquire) {
+        boolean granted;
+        synchronized (this) {
+            granted = pendingAcquire.granted;
+            if (!granted && this.pendingAcquires.remove(pendingAcquire)) {
+                this.statistics.onAcquireNoLongerPending();
+            }
+        }
+        // the permit was handed over while cancelling
+        if (granted) {
+            this.release();
+        }
+    }
+
+    private static class PendingAcquire {
+
+        private final MonoSink<Void> sink;
+        private boolean granted;
+
+        private PendingAcquire(MonoSink<Void> sink) {
+            this.sink = sink;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.testsupport;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * The latency distribution of the fake operations.
+ * <p>
+ * The random distributions are seeded, so the same sequence of latencies is sampled by every run.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+@FunctionalInterface
+public interface FakeLatency {
+
+    /**
+     * Sample the next latency
+     *
+     * @return the latency, zero means no latency at all
+     */
+    Duration next();
+
+    /**
+     * Delay on the scheduler with the next latency, completes immediately without switching thread when the latency is zero
+     *
+     * @param scheduler the scheduler
+     * @return the delay mono
+     */
+    default Mono<Void> delay(Scheduler scheduler) {
+        Duration latency = this.next();
+        if (latency.isZero() || latency.isNegative()) {
+            return Mono.empty();
+        }
+        return Mono.delay(latency, scheduler).then();
+    }
+
+    /**
+     * No latency
+     *
+     * @return the fake latency
+     */
+    static FakeLatency none() {
+        return () -> Duration.ZERO;
+    }
+
+    /**
+     * Fixed latency
+     *
+     * @param latency the latency
+     * @return the fake latency
+     */
+    static FakeLatency fixed(Duration latency) {
+        Objects.requireNonNull(latency, "Latency could not be null");
+        return () -> latency;
+    }
+
+    /**
+     * Uniformly distributed latency between min (inclusive) and max (exclusive)
+     *
+     * @param min  the min latency
+     * @param max  the max latency
+     * @param seed the random seed
+     * @return the fake latency
+     */
+    static FakeLatency uniform(Duration min, Duration max, long seed) {
+        long minNanos = min.toNanos();
+        long rangeNanos = max.toNanos() - minNanos;
+        if (rangeNanos <= 0) {
+            throw new IllegalArgumentException("Max latency must be greater than min latency, min : " + min + ", max : " + max);
+        }
+        Random random = new Random(seed);
+        return () -> Duration.ofNanos(minNanos + (long) (random.nextDouble() * rangeNanos));
+    }
+
+    /**
+     * Normally distributed latency, the negative samples are truncated to zero
+     *
+     * @param mean              the mean latency
+     * @param standardDeviation the standard deviation
+     * @param seed              the random seed
+     * @return the fake latency
+     */
+    static FakeLatency normal(Duration mean, Duration standardDeviation, long seed) {
+        long meanNanos = mean.toNanos();
+        long standardDeviationNanos = standardDeviation.toNanos();
+        Random random = new Random(seed);
+        return () -> Duration.ofNanos(Math.max(0, meanNanos + (long) (random.nextGaussian() * standardDeviationNanos)));
+    }
+
+    /**
+     * Latency with a long tail, the base latency is used unless the sampled percentile is above the tail percentile
+     *
+     * @param base           the base latency
+     * @param tail           the tail latency
+     * @param tailPercentile the percentile where the tail starts, e.g. 0.99
+     * @param seed           the random seed
+     * @return the fake latency
+     */
+    static FakeLatency withTail(Duration base, Duration tail, double tailPercentile, long seed) {
+        if (tailPercentile <= 0 || tailPercentile >= 1) {
+            throw new IllegalArgumentException("Tail percentile must be between 0 and 1 exclusively : " + tailPercentile);
+        }
+        Random random = new Random(seed);
+        return () -> random.nextDouble() < tailPercentile ? base : tail;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.testsupport;
+
+import io.r2dbc.spi.OutParameterMetadata;
+import io.r2dbc.spi.R2dbcType;
+import io.r2dbc.spi.Type;
+
+/**
+ * The fake out parameter metadata
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class FakeOutParameterMetadata implements OutParameterMetadata {
+
+    private final String name;
+    private final Class<?> javaType;
+    private final Type type;
+
+    public FakeOutParameterMetadata(String name, Class<?> javaType) {
+        this(name, javaType, R2dbcType.VARCHAR);
+    }
+
+    public FakeOutParameterMetadata(String name, Class<?> javaType, Type type) {
+        this.name = name;
+        this.javaType = javaType;
+        this.type = type;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Class<?> getJavaType() {
+        return javaType;
+    }
+
+    @Override
+    public Type getType() {
+        return type;
+    }
+}
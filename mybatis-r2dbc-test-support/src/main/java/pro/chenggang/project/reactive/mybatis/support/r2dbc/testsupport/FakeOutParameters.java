@@ -0,0 +1,52 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.testsupport;
+
+import io.r2dbc.spi.OutParameters;
+import io.r2dbc.spi.OutParametersMetadata;
+
+/**
+ * The fake out parameters with canned values
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class FakeOutParameters implements OutParameters {
+
+    private final FakeOutParametersMetadata outParametersMetadata;
+    private final Object[] values;
+
+    public FakeOutParameters(FakeOutParametersMetadata outParametersMetadata, Object... values) {
+        this.outParametersMetadata = outParametersMetadata;
+        this.values = values;
+    }
+
+    @Override
+    public OutParametersMetadata getMetadata() {
+        return this.outParametersMetadata;
+    }
+
+    @Override
+    public <T> T get(int index, Class<T> type) {
+        return FakeValues.convert(this.values[index], type);
+    }
+
+    @Override
+    public <T> T get(String name, Class<T> type) {
+        return FakeValues.convert(this.values[this.outParametersMetadata.getParameterIndex(name)], type);
+    }
+}
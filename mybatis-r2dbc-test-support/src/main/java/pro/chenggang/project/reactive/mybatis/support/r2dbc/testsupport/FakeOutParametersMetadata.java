@@ -0,0 +1,85 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.testsupport;
+
+import io.r2dbc.spi.OutParameterMetadata;
+import io.r2dbc.spi.OutParametersMetadata;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * The fake out parameters metadata
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class FakeOutParametersMetadata implements OutParametersMetadata {
+
+    private final List<FakeOutParameterMetadata> parameterMetadatas;
+    private final Map<String, Integer> parameterIndexes = new HashMap<>();
+
+    public FakeOutParametersMetadata(List<FakeOutParameterMetadata> parameterMetadatas) {
+        this.parameterMetadatas = Collections.unmodifiableList(parameterMetadatas);
+        for (int i = 0; i < parameterMetadatas.size(); i++) {
+            this.parameterIndexes.putIfAbsent(parameterMetadatas.get(i).getName().toLowerCase(), i);
+        }
+    }
+
+    /**
+     * New fake out parameters metadata of parameters
+     *
+     * @param parameterMetadatas the parameter metadatas
+     * @return the fake out parameters metadata
+     */
+    public static FakeOutParametersMetadata of(FakeOutParameterMetadata... parameterMetadatas) {
+        return new FakeOutParametersMetadata(Arrays.asList(parameterMetadatas));
+    }
+
+    /**
+     * Get the index of the out parameter
+     *
+     * @param name the parameter name, case-insensitive
+     * @return the parameter index
+     */
+    public int getParameterIndex(String name) {
+        Integer index = this.parameterIndexes.get(name.toLowerCase());
+        if (index == null) {
+            throw new NoSuchElementException("Out parameter " + name + " does not exist");
+        }
+        return index;
+    }
+
+    @Override
+    public OutParameterMetadata getParameterMetadata(int index) {
+        return this.parameterMetadatas.get(index);
+    }
+
+    @Override
+    public OutParameterMetadata getParameterMetadata(String name) {
+        return this.parameterMetadatas.get(this.getParameterIndex(name));
+    }
+
+    @Override
+    public List<? extends OutParameterMetadata> getParameterMetadatas() {
+        return this.parameterMetadatas;
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.testsupport;
+
+import io.r2dbc.spi.R2dbcException;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+
+/**
+ * The fake result emits canned rows, out parameters, an update count or an error.
+ * <p>
+ * A fake result is immutable so it could be emitted by any number of executions,
+ * the rows are emitted in chunks of the fetch size of the executed statement,
+ * every chunk except the first one is delayed by the fetch latency like a round trip of a cursor fetch.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class FakeResult implements Result {
+
+    private static final Fetch DEFAULT_FETCH = new Fetch(0, FakeLatency.none(), Schedulers.immediate(), () -> {
+    });
+
+    private final int rowCount;
+    private final IntFunction<FakeRow> rowFunction;
+    private final FakeOutParameters outParameters;
+    private final Long updateCount;
+    private final R2dbcException error;
+    private final Predicate<Segment> segmentFilter;
+    private final Fetch fetch;
+
+    private FakeResult(int rowCount,
+                       IntFunction<FakeRow> rowFunction,
+                       FakeOutParameters outParameters,
+                       Long updateCount,
+                       R2dbcException error,
+                       Predicate<Segment> segmentFilter,
+                       Fetch fetch) {
+        this.rowCount = rowCount;
+        this.rowFunction = rowFunction;
+        this.outParameters = outParameters;
+        this.updateCount = updateCount;
+        this.error = error;
+        this.segmentFilter = segmentFilter;
+        this.fetch = fetch;
+    }
+
+    /**
+     * New fake result of rows
+     *
+     * @param rows the rows
+     * @return the fake result
+     */
+    public static FakeResult ofRows(List<FakeRow> rows) {
+        List<FakeRow> cannedRows = Collections.unmodifiableList(rows);
+        return new FakeResult(cannedRows.size(), cannedRows::get, null, null, null, null, DEFAULT_FETCH);
+    }
+
+    /**
+     * New fake result of rows with the same row metadata
+     *
+     * @param rowMetadata the row metadata
+     * @param values      the values of each row
+     * @return the fake result
+     */
+    public static FakeResult ofRows(FakeRowMetadata rowMetadata, List<Object[]> values) {
+        FakeRow[] rows = values.stream()
+                .map(rowValues -> new FakeRow(rowMetadata, rowValues))
+                .toArray(FakeRow[]::new);
+        return new FakeResult(rows.length, rowIndex -> rows[rowIndex], null, null, null, null, DEFAULT_FETCH);
+    }
+
+    /**
+     * New fake result of generated rows with the same row metadata,
+     * the rows are generated on emission so that a large result does not have to be kept in memory
+     *
+     * @param rowMetadata  the row metadata
+     * @param rowCount     the row count
+     * @param rowGenerator the values generator of the row index
+     * @return the fake result
+     */
+    public static FakeResult ofGeneratedRows(FakeRowMetadata rowMetadata, int rowCount, IntFunction<Object[]> rowGenerator) {
+        Objects.requireNonNull(rowMetadata, "Row metadata could not be null");
+        Objects.requireNonNull(rowGenerator, "Row generator could not be null");
+        return new FakeResult(rowCount, rowIndex -> new FakeRow(rowMetadata, rowGenerator.apply(rowIndex)), null, null, null, null, DEFAULT_FETCH);
+    }
+
+    /**
+     * New fake result of out parameters
+     *
+     * @param outParameters the out parameters
+     * @return the fake result
+     */
+    public static FakeResult ofOutParameters(FakeOutParameters outParameters) {
+        Objects.requireNonNull(outParameters, "Out parameters could not be null");
+        return new FakeResult(0, null, outParameters, null, null, null, DEFAULT_FETCH);
+    }
+
+    /**
+     * New fake result of update count
+     *
+     * @param updateCount the update count
+     * @return the fake result
+     */
+    public static FakeResult ofUpdateCount(long updateCount) {
+        return new FakeResult(0, null, null, updateCount, null, null, DEFAULT_FETCH);
+    }
+
+    /**
+     * New fake result of an error message
+     *
+     * @param error the error
+     * @return the fake result
+     */
+    public static FakeResult ofError(R2dbcException error) {
+        Objects.requireNonNull(error, "Error could not be null");
+        return new FakeResult(0, null, null, null, error, null, DEFAULT_FETCH);
+    }
+
+    /**
+     * Get the canned row count
+     *
+     * @return the row count
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Copy this result with the fetch settings of an execution
+     *
+     * @param fetchSize      the fetch size, non-positive means all rows are fetched at once
+     * @param fetchLatency   the latency of each subsequent fetch
+     * @param scheduler      the scheduler of the latency
+     * @param onChunkFetched the callback of each fetched chunk
+     * @return the fake result
+     */
+    FakeResult withFetch(int fetchSize, FakeLatency fetchLatency, Scheduler scheduler, Runnable onChunkFetched) {
+        return new FakeResult(this.rowCount,
+                this.rowFunction,
+                this.outParameters,
+                this.updateCount,
+                this.error,
+                this.segmentFilter,
+                new Fetch(fetchSize, fetchLatency, scheduler, onChunkFetched)
+        );
+    }
+
+    @Override
+    public Publisher<Long> getRowsUpdated() {
+        if (this.error != null) {
+            return Mono.error(this.error);
+        }
+        return this.updateCount == null ? Mono.empty() : Mono.just(this.updateCount);
+    }
+
+    @Override
+    public <T> Publisher<T> map(BiFunction<Row, RowMetadata, ? extends T> mappingFunction) {
+        if (this.error != null) {
+            return Flux.error(this.error);
+        }
+        return this.rows()
+                .map(row -> mappingFunction.apply(row, row.getMetadata()));
+    }
+
+    @Override
+    public Result filter(Predicate<Segment> filter) {
+        Objects.requireNonNull(filter, "Filter could not be null");
+        Predicate<Segment> combinedFilter = this.segmentFilter == null ? filter : this.segmentFilter.and(filter);
+        return new FakeResult(this.rowCount,
+                this.rowFunction,
+                this.outParameters,
+                this.updateCount,
+                this.error,
+                combinedFilter,
+                this.fetch
+        );
+    }
+
+    @Override
+    public <T> Publisher<T> flatMap(Function<Segment, ? extends Publisher<? extends T>> mappingFunction) {
+        Flux<Segment> segments = this.segments();
+        if (this.segmentFilter != null) {
+            segments = segments.filter(this.segmentFilter);
+        }
+        return segments.concatMap(mappingFunction);
+    }
+
+    private Flux<Segment> segments() {
+        if (this.error != null) {
+            return Flux.just(new FakeMessage(this.error));
+        }
+        if (this.outParameters != null) {
+            FakeOutParameters cannedOutParameters = this.outParameters;
+            return Flux.just((OutSegment) () -> cannedOutParameters);
+        }
+        if (this.updateCount != null) {
+            long count = this.updateCount;
+            return Flux.just((UpdateCount) () -> count);
+        }
+        return this.rows()
+                .map(row -> (RowSegment) () -> row);
+    }
+
+    private Flux<FakeRow> rows() {
+        if (this.rowCount == 0) {
+            return Flux.empty();
+        }
+        int chunkSize = this.fetch.fetchSize > 0 ? Math.min(this.fetch.fetchSize, this.rowCount) : this.rowCount;
+        int chunkCount = (this.rowCount + chunkSize - 1) / chunkSize;
+        return Flux.range(0, chunkCount)
+                .concatMap(chunk -> {
+                    int from = chunk * chunkSize;
+                    int to = Math.min(from + chunkSize, this.rowCount);
+                    Mono<Void> fetchLatency = chunk == 0 ? Mono.empty() : this.fetch.fetchLatency.delay(this.fetch.scheduler);
+                    return fetchLatency
+                            .then(Mono.fromRunnable(this.fetch.onChunkFetched))
+                            .thenMany(Flux.range(from, to - from)
+                                    .map(this.rowFunction::apply)
+                            );
+                }, 1);
+    }
+
+    private static class Fetch {
+
+        private final int fetchSize;
+        private final FakeLatency fetchLatency;
+        private final Scheduler scheduler;
+        private final Runnable onChunkFetched;
+
+        private Fetch(int fetchSize, FakeLatency fetchLatency, Scheduler scheduler, Runnable onChunkFetched) {
+            this.fetchSize = fetchSize;
+            this.fetchLatency = fetchLatency;
+            this.scheduler = scheduler;
+            this.onChunkFetched = onChunkFetched;
+        }
+    }
+
+    private static class FakeMessage implements Message {
+
+        private final R2dbcException exception;
+
+        private FakeMessage(R2dbcException exception) {
+            this.exception = exception;
+        }
+
+        @Override
+        public R2dbcException exception() {
+            return exception;
+        }
+
+        @Override
+        public int errorCode() {
+            return exception.getErrorCode();
+        }
+
+        @Override
+        public String sqlState() {
+            return exception.getSqlState();
+        }
+
+        @Override
+        public String message() {
+            return exception.getMessage();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.testsupport;
+
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.RowMetadata;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * The fake row metadata, shared by all rows of a fake result
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class FakeRowMetadata implements RowMetadata {
+
+    private final List<FakeColumnMetadata> columnMetadatas;
+    private final Map<String, Integer> columnIndexes = new HashMap<>();
+
+    public FakeRowMetadata(List<FakeColumnMetadata> columnMetadatas) {
+        this.columnMetadatas = Collections.unmodifiableList(columnMetadatas);
+        for (int i = 0; i < columnMetadatas.size(); i++) {
+            this.columnIndexes.putIfAbsent(columnMetadatas.get(i).getName().toLowerCase(), i);
+        }
+    }
+
+    /**
+     * New fake row metadata of columns
+     *
+     * @param columnMetadatas the column metadatas
+     * @return the fake row metadata
+     */
+    public static FakeRowMetadata of(FakeColumnMetadata... columnMetadatas) {
+        return new FakeRowMetadata(Arrays.asList(columnMetadatas));
+    }
+
+    /**
+     * Get the index of the column
+     *
+     * @param name the column name, case-insensitive
+     * @return the column index
+     */
+    public int getColumnIndex(String name) {
+        Integer index = this.columnIndexes.get(name.toLowerCase());
+        if (index == null) {
+            throw new NoSuchElementException("Column " + name + " does not exist");
+        }
+        return index;
+    }
+
+    @Override
+    public ColumnMetadata getColumnMetadata(int index) {
+        return this.columnMetadatas.get(index);
+    }
+
+    @Override
+    public ColumnMetadata getColumnMetadata(String name) {
+        return this.columnMetadatas.get(this.getColumnIndex(name));
+    }
+
+    @Override
+    public List<? extends ColumnMetadata> getColumnMetadatas() {
+        return this.columnMetadatas;
+    }
+
+    @Override
+    public boolean contains(String columnName) {
+        return this.columnIndexes.containsKey(columnName.toLowerCase());
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.testsupport;
+
+import io.r2dbc.spi.Parameter;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The fake statement, each binding set is executed by the execution function as a {@link FakeStatementExecution}
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class FakeStatement implements Statement {
+
+    private static final int DEFAULT_BINDING_SIZE = 16;
+
+    private final String sql;
+    private final Function<FakeStatementExecution, ? extends Publisher<? extends Result>> executionFunction;
+    private final List<FakeStatementExecution> addedExecutions = new ArrayList<>();
+    private Object[] bindings = new Object[DEFAULT_BINDING_SIZE];
+    private int bindingCount;
+    private Map<String, Object> namedBindings;
+    private String[] generatedColumns;
+    private int fetchSize;
+
+    public FakeStatement(String sql, Function<FakeStatementExecution, ? extends Publisher<? extends Result>> executionFunction) {
+        this.sql = sql;
+        this.executionFunction = executionFunction;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public int getBindingCount() {
+        return bindingCount;
+    }
+
+    /**
+     * Get the bound value of the index of the current binding set
+     *
+     * @param index the index
+     * @return the bound value
+     */
+    public Object getBinding(int index) {
+        return this.bindings[index];
+    }
+
+    @Override
+    public Statement add() {
+        this.addedExecutions.add(this.currentExecution());
+        this.bindingCount = 0;
+        this.namedBindings = null;
+        return this;
+    }
+
+    @Override
+    public Statement bind(int index, Object value) {
+        if (index >= this.bindings.length) {
+            Object[] newBindings = new Object[Math.max(index + 1, this.bindings.length * 2)];
+            System.arraycopy(this.bindings, 0, newBindings, 0, this.bindings.length);
+            this.bindings = newBindings;
+        }
+        this.bindings[index] = value instanceof Parameter ? ((Parameter) value).getValue() : value;
+        this.bindingCount = Math.max(this.bindingCount, index + 1);
+        return this;
+    }
+
+    @Override
+    public Statement bind(String name, Object value) {
+        if (this.namedBindings == null) {
+            this.namedBindings = new LinkedHashMap<>();
+        }
+        this.namedBindings.put(name, value instanceof Parameter ? ((Parameter) value).getValue() : value);
+        return this;
+    }
+
+    @Override
+    public Statement bindNull(int index, Class<?> type) {
+        return this.bind(index, null);
+    }
+
+    @Override
+    public Statement bindNull(String name, Class<?> type) {
+        return this.bind(name, null);
+    }
+
+    @Override
+    public Statement fetchSize(int rows) {
+        if (rows < 0) {
+            throw new IllegalArgumentException("Fetch size must be greater or equal to zero : " + rows);
+        }
+        this.fetchSize = rows;
+        return this;
+    }
+
+    @Override
+    public Statement returnGeneratedValues(String... columns) {
+        this.generatedColumns = columns;
+        return this;
+    }
+
+    @Override
+    public Publisher<? extends Result> execute() {
+        List<FakeStatementExecution> executions;
+        if (this.addedExecutions.isEmpty()) {
+            executions = Collections.singletonList(this.currentExecution());
+        } else {
+            executions = new ArrayList<>(this.addedExecutions);
+            // the trailing binding set without add() is executed as well, like the drivers do
+            if (this.bindingCount > 0 || this.namedBindings != null) {
+                executions.add(this.currentExecution());
+            }
+        }
+        return Flux.fromIterable(executions)
+                .concatMap(this.executionFunction);
+    }
+
+    private FakeStatementExecution currentExecution() {
+        return new FakeStatementExecution(this.sql,
+                Arrays.copyOf(this.bindings, this.bindingCount),
+                this.namedBindings == null ? Collections.emptyMap() : new LinkedHashMap<>(this.namedBindings),
+                this.generatedColumns,
+                this.fetchSize
+        );
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.testsupport;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A single execution of a fake statement, which is what a {@link FakeStatementScript} resolves the result from.
+ * <p>
+ * Every binding set added by {@link FakeStatement#add()} is a separate execution.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class FakeStatementExecution {
+
+    private final String sql;
+    private final List<Object> bindings;
+    private final Map<String, Object> namedBindings;
+    private final List<String> generatedColumns;
+    private final int fetchSize;
+
+    public FakeStatementExecution(String sql,
+                                  Object[] bindings,
+                                  Map<String, Object> namedBindings,
+                                  String[] generatedColumns,
+                                  int fetchSize) {
+        this.sql = sql;
+        this.bindings = Collections.unmodifiableList(Arrays.asList(bindings));
+        this.namedBindings = Collections.unmodifiableMap(namedBindings);
+        this.generatedColumns = generatedColumns == null ? null : Collections.unmodifiableList(Arrays.asList(generatedColumns));
+        this.fetchSize = fetchSize;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * Get the values bound by index, the {@link io.r2dbc.spi.Parameter}s are unwrapped to their values
+     *
+     * @return the bindings
+     */
+    public List<Object> getBindings() {
+        return bindings;
+    }
+
+    /**
+     * Get the values bound by name, the {@link io.r2dbc.spi.Parameter}s are unwrapped to their values
+     *
+     * @return the named bindings
+     */
+    public Map<String, Object> getNamedBindings() {
+        return namedBindings;
+    }
+
+    /**
+     * Get the generated columns requested by {@link FakeStatement#returnGeneratedValues(String...)}
+     *
+     * @return the generated columns, empty means all generated columns, null means none was requested
+     */
+    public List<String> getGeneratedColumns() {
+        return generatedColumns;
+    }
+
+    /**
+     * Get the fetch size of the statement
+     *
+     * @return the fetch size, zero means the fetch size was not specified
+     */
+    public int getFetchSize() {
+        return fetchSize;
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.testsupport;
+
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * The script of statements matched by sql, which determines the result and the latencies of every execution.
+ * <p>
+ * The execution latency is the time until the result is available,
+ * the fetch latency is the time of fetching each subsequent chunk of rows of the fetch size.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class FakeStatementScript {
+
+    private final Predicate<String> sqlMatcher;
+    private final Function<FakeStatementExecution, FakeResult> resultFunction;
+    private final FakeLatency executionLatency;
+    private final FakeLatency fetchLatency;
+
+    private FakeStatementScript(Predicate<String> sqlMatcher,
+                                Function<FakeStatementExecution, FakeResult> resultFunction,
+                                FakeLatency executionLatency,
+                                FakeLatency fetchLatency) {
+        this.sqlMatcher = sqlMatcher;
+        this.resultFunction = resultFunction;
+        this.executionLatency = executionLatency;
+        this.fetchLatency = fetchLatency;
+    }
+
+    /**
+     * New script builder of statements matched by the sql matcher
+     *
+     * @param sqlMatcher the sql matcher
+     * @return the builder
+     */
+    public static Builder matching(Predicate<String> sqlMatcher) {
+        return new Builder(sqlMatcher);
+    }
+
+    /**
+     * New script builder of statements whose sql contains the sql fragment, case-insensitive
+     *
+     * @param sqlFragment the sql fragment
+     * @return the builder
+     */
+    public static Builder containing(String sqlFragment) {
+        Objects.requireNonNull(sqlFragment, "Sql fragment could not be null");
+        String lowerCaseSqlFragment = sqlFragment.toLowerCase();
+        return new Builder(sql -> sql.toLowerCase().contains(lowerCaseSqlFragment));
+    }
+
+    /**
+     * New script builder of all statements
+     *
+     * @return the builder
+     */
+    public static Builder any() {
+        return new Builder(sql -> true);
+    }
+
+    /**
+     * Whether the sql matches this script
+     *
+     * @param sql the sql
+     * @return true if matched
+     */
+    public boolean matches(String sql) {
+        return this.sqlMatcher.test(sql);
+    }
+
+    /**
+     * Resolve the result of the execution
+     *
+     * @param execution the execution
+     * @return the fake result
+     */
+    public FakeResult resolveResult(FakeStatementExecution execution) {
+        return this.resultFunction.apply(execution);
+    }
+
+    public FakeLatency getExecutionLatency() {
+        return executionLatency;
+    }
+
+    public FakeLatency getFetchLatency() {
+        return fetchLatency;
+    }
+
+    /**
+     * The type Builder.
+     */
+    public static class Builder {
+
+        private final Predicate<String> sqlMatcher;
+        private Function<FakeStatementExecution, FakeResult> resultFunction;
+        private FakeLatency executionLatency = FakeLatency.none();
+        private FakeLatency fetchLatency = FakeLatency.none();
+
+        private Builder(Predicate<String> sqlMatcher) {
+            this.sqlMatcher = Objects.requireNonNull(sqlMatcher, "Sql matcher could not be null");
+        }
+
+        /**
+         * The same result of every execution
+         *
+         * @param result the result
+         * @return the builder
+         */
+        public Builder withResult(FakeResult result) {
+            Objects.requireNonNull(result, "Result could not be null");
+            this.resultFunction = execution -> result;
+            return this;
+        }
+
+        /**
+         * The result resolved from each execution
+         *
+         * @param resultFunction the result function
+         * @return the builder
+         */
+        public Builder withResult(Function<FakeStatementExecution, FakeResult> resultFunction) {
+            this.resultFunction = Objects.requireNonNull(resultFunction, "Result function could not be null");
+            return this;
+        }
+
+        /**
+         * The latency until the result is available
+         *
+         * @param executionLatency the execution latency
+         * @return the builder
+         */
+        public Builder withExecutionLatency(FakeLatency executionLatency) {
+            this.executionLatency = Objects.requireNonNull(executionLatency, "Execution latency could not be null");
+            return this;
+        }
+
+        /**
+         * The latency of fetching each subsequent chunk of rows
+         *
+         * @param fetchLatency the fetch latency
+         * @return the builder
+         */
+        public Builder withFetchLatency(FakeLatency fetchLatency) {
+            this.fetchLatency = Objects.requireNonNull(fetchLatency, "Fetch latency could not be null");
+            return this;
+        }
+
+        /**
+         * build FakeStatementScript
+         *
+         * @return the fake statement script
+         */
+        public FakeStatementScript build() {
+            Objects.requireNonNull(this.resultFunction, "Result could not be null");
+            return new FakeStatementScript(this.sqlMatcher, this.resultFunction, this.executionLatency, this.fetchLatency);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.testsupport;
+
+import java.math.BigDecimal;
+
+/**
+ * The value conversion of the fake readables
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+final class FakeValues {
+
+    private FakeValues() {
+    }
+
+    /**
+     * convert the canned value to the requested type like a driver does for the common numeric types
+     *
+     * @param value the value
+     * @param type  the requested type
+     * @param <T>   the type parameter
+     * @return the converted value
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T convert(Object value, Class<T> type) {
+        if (value == null) {
+            return null;
+        }
+        if (type == Object.class || type.isInstance(value)) {
+            return (T) value;
+        }
+        if (value instanceof Number) {
+            Number number = (Number) value;
+            if (type == Long.class) {
+                return (T) Long.valueOf(number.longValue());
+            }
+            if (type == Integer.class) {
+                return (T) Integer.valueOf(number.intValue());
+            }
+            if (type == Float.class) {
+                return (T) Float.valueOf(number.floatValue());
+            }
+            if (type == Short.class) {
+                return (T) Short.valueOf(number.shortValue());
+            }
+            if (type == Double.class) {
+                return (T) Double.valueOf(number.doubleValue());
+            }
+            if (type == Byte.class) {
+                return (T) Byte.valueOf(number.byteValue());
+            }
+            if (type == BigDecimal.class) {
+                return (T) new BigDecimal(number.toString());
+            }
+        }
+        if (type == String.class) {
+            return (T) value.toString();
+        }
+        throw new IllegalArgumentException("Can not convert " + value.getClass() + " to " + type);
+    }
+}
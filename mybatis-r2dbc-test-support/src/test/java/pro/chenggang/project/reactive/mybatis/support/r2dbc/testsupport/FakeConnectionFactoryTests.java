@@ -0,0 +1,157 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.testsupport;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.OutParameters;
+import io.r2dbc.spi.R2dbcBadGrammarException;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import io.r2dbc.spi.R2dbcTransientResourceException;
+import io.r2dbc.spi.Result;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+class FakeConnectionFactoryTests {
+
+    private static final FakeRowMetadata ROW_METADATA = FakeRowMetadata.of(
+            new FakeColumnMetadata("id", Long.class),
+            new FakeColumnMetadata("name", String.class)
+    );
+
+    @AfterEach
+    void resetVirtualTime() {
+        VirtualTimeScheduler.reset();
+    }
+
+    @Test
+    void emitRowsInChunksOfFetchSize() {
+        VirtualTimeScheduler virtualTimeScheduler = VirtualTimeScheduler.getOrSet();
+        FakeConnectionFactory connectionFactory = FakeConnectionFactory.newBuilder()
+                .withStatementScript(FakeStatementScript.containing("FROM dept")
+                        .withResult(FakeResult.ofGeneratedRows(ROW_METADATA, 10, rowIndex -> new Object[]{rowIndex, "dept-" + rowIndex}))
+                        .withExecutionLatency(FakeLatency.fixed(Duration.ofMillis(5)))
+                        .withFetchLatency(FakeLatency.fixed(Duration.ofMillis(10)))
+                        .build()
+                )
+                .withScheduler(virtualTimeScheduler)
+                .build();
+        Flux<Long> ids = Mono.from(connectionFactory.create())
+                .flatMapMany(connection -> connection.createStatement("SELECT * FROM dept")
+                        .fetchSize(4)
+                        .execute())
+                .concatMap(result -> result.map((row, rowMetadata) -> row.get("id", Long.class)));
+        StepVerifier.withVirtualTime(() -> ids, () -> virtualTimeScheduler, 4)
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(5))
+                .expectNext(0L, 1L, 2L, 3L)
+                .then(() -> Assertions.assertEquals(1, connectionFactory.getStatistics().getFetchedChunks()))
+                .thenRequest(6)
+                .expectNoEvent(Duration.ofMillis(10))
+                .expectNext(4L, 5L, 6L, 7L)
+                .expectNoEvent(Duration.ofMillis(10))
+                .expectNext(8L, 9L)
+                .verifyComplete();
+        Assertions.assertEquals(3, connectionFactory.getStatistics().getFetchedChunks());
+        Assertions.assertEquals(1, connectionFactory.getStatistics().getExecutedStatements());
+    }
+
+    @Test
+    void executeEachBindingSetAndOutParameters() {
+        FakeOutParametersMetadata outParametersMetadata = FakeOutParametersMetadata.of(new FakeOutParameterMetadata("total", Long.class));
+        FakeConnectionFactory connectionFactory = FakeConnectionFactory.newBuilder()
+                .withStatementScript(FakeStatementScript.containing("CALL")
+                        .withResult(FakeResult.ofOutParameters(new FakeOutParameters(outParametersMetadata, 42)))
+                        .build()
+                )
+                .withStatementScript(FakeStatementScript.any()
+                        .withResult(execution -> execution.getBindings().isEmpty()
+                                ? FakeResult.ofUpdateCount(0)
+                                : FakeResult.ofUpdateCount((Long) execution.getBindings().get(0))
+                        )
+                        .build()
+                )
+                .build();
+        Connection connection = Mono.from(connectionFactory.create()).block();
+        List<Long> updateCounts = Flux.from(connection.createStatement("UPDATE dept SET name = ? WHERE id = ?")
+                        .bind(0, 1L).add()
+                        .bind(0, 2L).add()
+                        .bind(0, 3L)
+                        .execute())
+                .concatMap(Result::getRowsUpdated)
+                .collectList()
+                .block();
+        Assertions.assertEquals(List.of(1L, 2L, 3L), updateCounts);
+        Long total = Flux.from(connection.createStatement("CALL total(?)").execute())
+                .concatMap(result -> result.flatMap(segment -> Mono.just(((Result.OutSegment) segment).outParameters())))
+                .map(outParameters -> ((OutParameters) outParameters).get("total", Long.class))
+                .blockFirst();
+        Assertions.assertEquals(42L, total);
+        StepVerifier.create(Flux.from(connection.createBatch().add("DELETE FROM dept").add("DELETE FROM emp").execute())
+                        .concatMap(Result::getRowsUpdated))
+                .expectNext(0L, 0L)
+                .verifyComplete();
+        Assertions.assertEquals(6, connectionFactory.getStatistics().getExecutedStatements());
+        StepVerifier.create(FakeConnectionFactory.newBuilder().build().create()
+                        .flatMapMany(newConnection -> newConnection.createStatement("SELECT 1").execute())
+                        .concatMap(Result::getRowsUpdated))
+                .verifyError(R2dbcBadGrammarException.class);
+    }
+
+    @Test
+    void limitAcquiredConnections() {
+        VirtualTimeScheduler virtualTimeScheduler = VirtualTimeScheduler.getOrSet();
+        FakeConnectionFactory connectionFactory = FakeConnectionFactory.newBuilder()
+                .withMaxConnections(2)
+                .withMaxPendingAcquires(1)
+                .withAcquireTimeout(Duration.ofSeconds(1))
+                .withScheduler(virtualTimeScheduler)
+                .build();
+        FakeConnectionFactoryStatistics statistics = connectionFactory.getStatistics();
+        FakeConnection first = (FakeConnection) connectionFactory.create().block();
+        connectionFactory.create().block();
+        Mono<Connection> pending = connectionFactory.create().cache();
+        pending.subscribe();
+        Assertions.assertEquals(1, statistics.getPendingAcquires());
+        StepVerifier.create(connectionFactory.create())
+                .verifyError(R2dbcTransientResourceException.class);
+        Mono.from(first.close()).block();
+        Assertions.assertTrue(first.isClosed());
+        Assertions.assertNotNull(pending.block());
+        Assertions.assertEquals(0, statistics.getPendingAcquires());
+        Assertions.assertEquals(2, statistics.getAcquiredConnections());
+        Assertions.assertEquals(2, statistics.getPeakAcquiredConnections());
+        Assertions.assertEquals(1, statistics.getRejectedAcquires());
+        StepVerifier.withVirtualTime(connectionFactory::create, () -> virtualTimeScheduler, Long.MAX_VALUE)
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(999))
+                .thenAwait(Duration.ofMillis(1))
+                .verifyError(R2dbcTimeoutException.class);
+        Assertions.assertEquals(0, statistics.getPendingAcquires());
+    }
+}
@@ -18,9 +18,12 @@ package pro.chenggang.project.reactive.mybatis.support.r2dbc;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.R2dbcStatementLog;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.ReactiveExecutorContext;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.ReactiveExecutorContextAttribute;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.StatementDeadline;
 import reactor.core.publisher.Mono;
 import reactor.util.context.Context;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Optional;
 import java.util.function.Consumer;
 
@@ -87,6 +90,39 @@ public interface MybatisReactiveContextManager {
         return initReactiveExecutorContextAttribute(context,attribute -> {});
     }
 
+    /**
+     * Set the deadline of statements executed within the context,
+     * an earlier deadline already present in the context is kept.
+     * <pre>{@code
+     * mapper.selectAll()
+     *     .contextWrite(context -> MybatisReactiveContextManager.withDeadline(context, deadline));
+     * }</pre>
+     *
+     * @param context  the context
+     * @param deadline the deadline
+     * @return the context
+     */
+    static Context withDeadline(Context context, Instant deadline) {
+        StatementDeadline statementDeadline = StatementDeadline.of(deadline);
+        Optional<StatementDeadline> existingDeadline = context.getOrEmpty(StatementDeadline.class)
+                .map(StatementDeadline.class::cast);
+        if (existingDeadline.isPresent() && existingDeadline.get().isBefore(statementDeadline)) {
+            return context;
+        }
+        return context.put(StatementDeadline.class, statementDeadline);
+    }
+
+    /**
+     * Set the deadline of statements executed within the context to the given timeout from subscription.
+     *
+     * @param context the context
+     * @param timeout the timeout
+     * @return the context
+     */
+    static Context withTimeout(Context context, Duration timeout) {
+        return withDeadline(context, StatementDeadline.after(timeout).getDeadline());
+    }
+
     /**
      * init reactive executor context with R2dbcStatementLog
      *
@@ -15,12 +15,18 @@
  */
 package pro.chenggang.project.reactive.mybatis.support.r2dbc;
 
+import org.apache.ibatis.executor.BatchResult;
 import org.apache.ibatis.session.RowBounds;
+import org.reactivestreams.Publisher;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.defaults.BulkInsertProfile;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.defaults.KeysetPagination;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.defaults.ReactiveSqlSessionProfile;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybatisConfiguration;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 /**
  * The interface Reactive sql session.
  *
@@ -90,6 +96,20 @@ public interface ReactiveSqlSession extends MybatisReactiveContextManager {
      */
     <E> Flux<E> selectList(String statement, Object parameter, RowBounds rowBounds);
 
+    /**
+     * Retrieve many mapped objects from the statement key and parameter page by page with keyset pagination.
+     * Each page is re-issued with the sort key values of the last object of previous page,
+     * the next page is prefetched while the current one is draining.
+     * Without transaction each page is executed with its own connection.
+     *
+     * @param <E>              the returned list element type
+     * @param statement        Unique identifier matching the statement to use.
+     * @param parameter        A parameter object to pass to the statement.
+     * @param keysetPagination The keyset pagination
+     * @return List of mapped object
+     */
+    <E> Flux<E> selectKeyset(String statement, Object parameter, KeysetPagination keysetPagination);
+
     /**
      * Execute an insert statement.
      *
@@ -111,6 +131,32 @@ public interface ReactiveSqlSession extends MybatisReactiveContextManager {
      */
     Mono<Long> insert(String statement, Object parameter);
 
+    /**
+     * Execute an insert statement for each parameter streamed from the publisher with {@link BulkInsertProfile#DEFAULT}.
+     *
+     * @param statement  Unique identifier matching the statement to execute.
+     * @param parameters The parameters,each one is passed to one execution of the statement.
+     * @return The total number of rows affected by the insert.
+     * @see #bulkInsert(String, Publisher, BulkInsertProfile)
+     */
+    default Mono<Long> bulkInsert(String statement, Publisher<?> parameters) {
+        return bulkInsert(statement, parameters, BulkInsertProfile.DEFAULT);
+    }
+
+    /**
+     * Execute an insert statement for each parameter streamed from the publisher.
+     * The parameters are requested chunk by chunk and each chunk is executed within a single statement
+     * whose bindings are accumulated with {@link io.r2dbc.spi.Statement#add()},
+     * so only the chunks in flight are kept in memory.
+     * Statements with generated keys or select key are executed one by one within the chunk.
+     *
+     * @param statement         Unique identifier matching the statement to execute.
+     * @param parameters        The parameters,each one is passed to one execution of the statement.
+     * @param bulkInsertProfile The bulk insert profile
+     * @return The total number of rows affected by the insert.
+     */
+    Mono<Long> bulkInsert(String statement, Publisher<?> parameters, BulkInsertProfile bulkInsertProfile);
+
     /**
      * Execute an update statement. The number of rows affected will be returned.
      *
@@ -188,6 +234,15 @@ public interface ReactiveSqlSession extends MybatisReactiveContextManager {
      */
     Mono<Void> rollback(boolean force);
 
+    /**
+     * Flushes batch statements.
+     * Only takes effect with {@link org.apache.ibatis.session.ExecutorType#BATCH} within transaction,
+     * pending batch statements are also flushed before commit and before any query.
+     *
+     * @return the batch results of flushed statements
+     */
+    Mono<List<BatchResult>> flushStatements();
+
     /**
      * close session
      *
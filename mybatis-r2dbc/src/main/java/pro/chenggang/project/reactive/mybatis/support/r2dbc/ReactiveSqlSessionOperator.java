@@ -19,7 +19,12 @@ import org.reactivestreams.Publisher;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.defaults.ReactiveSqlSessionProfile;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuple3;
+import reactor.util.function.Tuple4;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.function.BiFunction;
 
 import static pro.chenggang.project.reactive.mybatis.support.r2dbc.ReactiveSqlSession.DEFAULT_PROFILE;
@@ -108,6 +113,135 @@ public interface ReactiveSqlSessionOperator {
         return executeThenClose(DEFAULT_PROFILE, execution::apply);
     }
 
+    /**
+     * Execute all read-only executions concurrently then close.
+     * Each execution runs within its own non-transactional reactive sql session,
+     * so that executions are not serialized on a shared connection.
+     * At most {@code parallelism} executions (and connections) are in flight,
+     * the results are collected per execution and emitted in the order of executions.
+     *
+     * @param <T>                       the type parameter
+     * @param reactiveSqlSessionProfile the reactive sql session profile,should not enable transaction
+     * @param parallelism               the max executions in flight
+     * @param executions                the executions
+     * @return the results of each execution
+     */
+    default <T> Mono<List<List<T>>> executeAllThenClose(final ReactiveSqlSessionProfile reactiveSqlSessionProfile,
+                                                        int parallelism,
+                                                        List<BiFunction<ReactiveSqlSession, ReactiveSqlSessionProfile, Publisher<T>>> executions) {
+        if (reactiveSqlSessionProfile.isEnableTransaction()) {
+            return Mono.error(new IllegalArgumentException("Concurrent executions can not be executed within transaction"));
+        }
+        if (parallelism < 1) {
+            return Mono.error(new IllegalArgumentException("Parallelism must greater than 0"));
+        }
+        if (executions.isEmpty()) {
+            return Mono.just(Collections.emptyList());
+        }
+        return Flux.fromIterable(executions)
+                .flatMapSequential(execution -> executeThenClose(reactiveSqlSessionProfile, execution).collectList(),
+                        parallelism,
+                        1
+                )
+                .collectList();
+    }
+
+    /**
+     * Execute all read-only executions concurrently then close with {@link ReactiveSqlSessionProfile#nonTransactional()}.
+     *
+     * @param <T>         the type parameter
+     * @param parallelism the max executions in flight
+     * @param executions  the executions
+     * @return the results of each execution
+     * @see #executeAllThenClose(ReactiveSqlSessionProfile, int, List)
+     */
+    default <T> Mono<List<List<T>>> executeAllThenClose(int parallelism,
+                                                        List<BiFunction<ReactiveSqlSession, ReactiveSqlSessionProfile, Publisher<T>>> executions) {
+        return executeAllThenClose(ReactiveSqlSessionProfile.nonTransactional(), parallelism, executions);
+    }
+
+    /**
+     * Execute all read-only executions concurrently then close with {@link ReactiveSqlSessionProfile#nonTransactional()},
+     * all executions are in flight at the same time.
+     *
+     * @param <T>        the type parameter
+     * @param executions the executions
+     * @return the results of each execution
+     * @see #executeAllThenClose(ReactiveSqlSessionProfile, int, List)
+     */
+    default <T> Mono<List<List<T>>> executeAllThenClose(List<BiFunction<ReactiveSqlSession, ReactiveSqlSessionProfile, Publisher<T>>> executions) {
+        return executeAllThenClose(ReactiveSqlSessionProfile.nonTransactional(), Math.max(1, executions.size()), executions);
+    }
+
+    /**
+     * Execute two read-only executions of different result types concurrently then close,
+     * each execution runs within its own reactive sql session with {@link ReactiveSqlSessionProfile#nonTransactional()}.
+     *
+     * @param <T1>       the result type of first execution
+     * @param <T2>       the result type of second execution
+     * @param execution1 the first execution
+     * @param execution2 the second execution
+     * @return the results of each execution
+     * @see #executeAllThenClose(ReactiveSqlSessionProfile, int, List)
+     */
+    default <T1, T2> Mono<Tuple2<List<T1>, List<T2>>> executeAllThenClose(BiFunction<ReactiveSqlSession, ReactiveSqlSessionProfile, Publisher<T1>> execution1,
+                                                                         BiFunction<ReactiveSqlSession, ReactiveSqlSessionProfile, Publisher<T2>> execution2) {
+        return Mono.zip(
+                executeThenClose(ReactiveSqlSessionProfile.nonTransactional(), execution1).collectList(),
+                executeThenClose(ReactiveSqlSessionProfile.nonTransactional(), execution2).collectList()
+        );
+    }
+
+    /**
+     * Execute three read-only executions of different result types concurrently then close,
+     * each execution runs within its own reactive sql session with {@link ReactiveSqlSessionProfile#nonTransactional()}.
+     *
+     * @param <T1>       the result type of first execution
+     * @param <T2>       the result type of second execution
+     * @param <T3>       the result type of third execution
+     * @param execution1 the first execution
+     * @param execution2 the second execution
+     * @param execution3 the third execution
+     * @return the results of each execution
+     * @see #executeAllThenClose(ReactiveSqlSessionProfile, int, List)
+     */
+    default <T1, T2, T3> Mono<Tuple3<List<T1>, List<T2>, List<T3>>> executeAllThenClose(BiFunction<ReactiveSqlSession, ReactiveSqlSessionProfile, Publisher<T1>> execution1,
+                                                                                        BiFunction<ReactiveSqlSession, ReactiveSqlSessionProfile, Publisher<T2>> execution2,
+                                                                                        BiFunction<ReactiveSqlSession, ReactiveSqlSessionProfile, Publisher<T3>> execution3) {
+        return Mono.zip(
+                executeThenClose(ReactiveSqlSessionProfile.nonTransactional(), execution1).collectList(),
+                executeThenClose(ReactiveSqlSessionProfile.nonTransactional(), execution2).collectList(),
+                executeThenClose(ReactiveSqlSessionProfile.nonTransactional(), execution3).collectList()
+        );
+    }
+
+    /**
+     * Execute four read-only executions of different result types concurrently then close,
+     * each execution runs within its own reactive sql session with {@link ReactiveSqlSessionProfile#nonTransactional()}.
+     *
+     * @param <T1>       the result type of first execution
+     * @param <T2>       the result type of second execution
+     * @param <T3>       the result type of third execution
+     * @param <T4>       the result type of fourth execution
+     * @param execution1 the first execution
+     * @param execution2 the second execution
+     * @param execution3 the third execution
+     * @param execution4 the fourth execution
+     * @return the results of each execution
+     * @see #executeAllThenClose(ReactiveSqlSessionProfile, int, List)
+     */
+    default <T1, T2, T3, T4> Mono<Tuple4<List<T1>, List<T2>, List<T3>, List<T4>>> executeAllThenClose(BiFunction<ReactiveSqlSession, ReactiveSqlSessionProfile, Publisher<T1>> execution1,
+                                                                                                      BiFunction<ReactiveSqlSession, ReactiveSqlSessionProfile, Publisher<T2>> execution2,
+                                                                                                      BiFunction<ReactiveSqlSession, ReactiveSqlSessionProfile, Publisher<T3>> execution3,
+                                                                                                      BiFunction<ReactiveSqlSession, ReactiveSqlSessionProfile, Publisher<T4>> execution4) {
+        return Mono.zip(
+                executeThenClose(ReactiveSqlSessionProfile.nonTransactional(), execution1).collectList(),
+                executeThenClose(ReactiveSqlSessionProfile.nonTransactional(), execution2).collectList(),
+                executeThenClose(ReactiveSqlSessionProfile.nonTransactional(), execution3).collectList(),
+                executeThenClose(ReactiveSqlSessionProfile.nonTransactional(), execution4).collectList()
+        );
+    }
+
     /**
      * Execute then close with given reactive sql session.
      * Configure {@code reactiveSqlSessionProfile.forceToRollback()} to require a rollback operation in BiFunction named as execution.
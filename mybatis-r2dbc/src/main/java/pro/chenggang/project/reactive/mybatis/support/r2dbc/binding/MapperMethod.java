@@ -26,7 +26,9 @@ import org.apache.ibatis.reflection.TypeParameterResolver;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
+import org.reactivestreams.Publisher;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.ReactiveSqlSession;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.defaults.KeysetPagination;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -116,6 +118,10 @@ public class MapperMethod {
         switch (command.getType()) {
             case INSERT: {
                 Object param = method.convertArgsToSqlCommandParam(args);
+                if (param instanceof Publisher) {
+                    result = rowCountResult(sqlSession.bulkInsert(command.getName(), (Publisher<?>) param));
+                    break;
+                }
                 result = rowCountResult(sqlSession.insert(command.getName(), param));
                 break;
             }
@@ -140,7 +146,8 @@ public class MapperMethod {
                 }
                 break;
             case FLUSH:
-                throw new UnsupportedOperationException("Unsupported execution command : " + FLUSH);
+                result = sqlSession.flushStatements();
+                break;
             default:
                 throw new BindingException("Unknown execution method for: " + command.getName());
         }
@@ -185,6 +192,10 @@ public class MapperMethod {
 
     private <E> Flux<E> executeForMany(ReactiveSqlSession sqlSession, Object[] args) {
         Object param = method.convertArgsToSqlCommandParam(args);
+        if (method.hasKeysetPagination()) {
+            KeysetPagination keysetPagination = method.extractKeysetPagination(args);
+            return sqlSession.selectKeyset(command.getName(), param, keysetPagination);
+        }
         if (method.hasRowBounds()) {
             RowBounds rowBounds = method.extractRowBounds(args);
             return sqlSession.selectList(command.getName(), param, rowBounds);
@@ -215,10 +226,12 @@ public class MapperMethod {
             );
             if (ms == null) {
                 if (method.getAnnotation(Flush.class) != null) {
-                    throw new UnsupportedOperationException("Unsupported execution command : " + FLUSH);
+                    name = null;
+                    type = FLUSH;
+                } else {
+                    throw new BindingException("Invalid bound statement (not found): "
+                            + mapperInterface.getName() + "." + methodName);
                 }
-                throw new BindingException("Invalid bound statement (not found): "
-                        + mapperInterface.getName() + "." + methodName);
             } else {
                 name = ms.getId();
                 type = ms.getSqlCommandType();
@@ -280,6 +293,7 @@ public class MapperMethod {
         private final Class<?> returnInferredType;
         private final Integer resultHandlerIndex;
         private final Integer rowBoundsIndex;
+        private final Integer keysetPaginationIndex;
         private final ParamNameResolver paramNameResolver;
 
         /**
@@ -302,6 +316,7 @@ public class MapperMethod {
             this.returnsVoid = Void.class.equals(this.returnInferredType);
             this.returnsMany = Flux.class.equals(this.returnType);
             this.rowBoundsIndex = getUniqueParamIndex(method, RowBounds.class);
+            this.keysetPaginationIndex = getUniqueParamIndex(method, KeysetPagination.class);
             this.resultHandlerIndex = getUniqueParamIndex(method, ResultHandler.class);
             this.paramNameResolver = new ParamNameResolver(configuration, method);
             checkReactorType();
@@ -354,6 +369,25 @@ public class MapperMethod {
             return hasRowBounds() ? (RowBounds) args[rowBoundsIndex] : null;
         }
 
+        /**
+         * Has keyset pagination boolean.
+         *
+         * @return the boolean
+         */
+        public boolean hasKeysetPagination() {
+            return keysetPaginationIndex != null;
+        }
+
+        /**
+         * Extract keyset pagination.
+         *
+         * @param args the args
+         * @return the keyset pagination
+         */
+        public KeysetPagination extractKeysetPagination(Object[] args) {
+            return hasKeysetPagination() ? (KeysetPagination) args[keysetPaginationIndex] : null;
+        }
+
         /**
          * Has result handler boolean.
          *
@@ -40,21 +40,27 @@ import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
 import org.apache.ibatis.session.AutoMappingBehavior;
 import org.apache.ibatis.session.AutoMappingUnknownColumnBehavior;
-import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.LocalCacheScope;
 import org.apache.ibatis.type.JdbcType;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybatisConfiguration;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.handler.NestedResultMapLimitPolicy;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.NestedSelectBatch;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.mapping.R2dbcDatabaseIdProvider;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.mapping.R2dbcEnvironment;
 
 import java.io.InputStream;
 import java.io.Reader;
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * The type R2dbc xml config builder.
@@ -193,7 +199,7 @@ public class R2dbcXMLConfigBuilder extends BaseBuilder {
         }
         Properties props = context.getChildrenAsProperties();
         // Check that all settings are known to the configuration class
-        MetaClass metaConfig = MetaClass.forClass(Configuration.class, localReflectorFactory);
+        MetaClass metaConfig = MetaClass.forClass(R2dbcMybatisConfiguration.class, localReflectorFactory);
         for (Object key : props.keySet()) {
             if (!metaConfig.hasSetter(String.valueOf(key))) {
                 throw new BuilderException("The setting " + key + " is not known.  Make sure you spelled it correctly (case sensitive).");
@@ -351,6 +357,61 @@ public class R2dbcXMLConfigBuilder extends BaseBuilder {
                 "argNameBasedConstructorAutoMapping"), false));
         configuration.setDefaultSqlProviderType(resolveClass(props.getProperty("defaultSqlProviderType")));
         configuration.setNullableOnForEach(booleanValueOf(props.getProperty("nullableOnForEach"), false));
+        r2dbcMybatisConfiguration.setStreamingNestedResultMap(booleanValueOf(props.getProperty("streamingNestedResultMap"), false));
+        r2dbcMybatisConfiguration.setNestedResultObjectsLimit(integerValueOf(props.getProperty("nestedResultObjectsLimit"), null));
+        r2dbcMybatisConfiguration.setNestedResultMapLimitPolicy(NestedResultMapLimitPolicy.valueOf(props.getProperty(
+                "nestedResultMapLimitPolicy",
+                "FAIL_FAST"
+        )));
+        r2dbcMybatisConfiguration.setPaginationPushdown(booleanValueOf(props.getProperty("paginationPushdown"), false));
+        r2dbcMybatisConfiguration.setNestedSelectWindowSize(integerValueOf(props.getProperty("nestedSelectWindowSize"), 100));
+        r2dbcMybatisConfiguration.setNestedSelectConcurrency(integerValueOf(props.getProperty("nestedSelectConcurrency"), 1));
+        r2dbcMybatisConfiguration.setStreamingFetchSizeMax(integerValueOf(props.getProperty("streamingFetchSizeMax"), 1_000));
+        r2dbcMybatisConfiguration.setStreamingFetchBufferBytes(integerValueOf(props.getProperty("streamingFetchBufferBytes"), 1_048_576));
+        r2dbcMybatisConfiguration.setCompiledRowMapperEnabled(booleanValueOf(props.getProperty("compiledRowMapperEnabled"), true));
+        this.parsePropertiesTo(props, "nestedSelectBatches", this::parseNestedSelectBatches)
+                .ifPresent(r2dbcMybatisConfiguration::setNestedSelectBatches);
+        this.parsePropertiesTo(props, "streamingStatements", this::parseStreamingStatements)
+                .ifPresent(r2dbcMybatisConfiguration::setStreamingStatements);
+        r2dbcMybatisConfiguration.setSlowQueryThreshold(this.parsePropertiesTo(props, "slowQueryThreshold", Duration::parse).orElse(null));
+        r2dbcMybatisConfiguration.setSlowQueryLogSamplingInterval(this.parsePropertiesTo(props, "slowQueryLogSamplingInterval", Duration::parse)
+                .orElse(Duration.ofSeconds(1))
+        );
+    }
+
+    /**
+     * Parse the nested select batches setting with comma separated {@code nestedQueryId:batchStatementId:keyProperty} entries
+     *
+     * @param value the setting value
+     * @return the nested select batches,the key is the nested select statement id
+     */
+    private Map<String, NestedSelectBatch> parseNestedSelectBatches(String value) {
+        Map<String, NestedSelectBatch> nestedSelectBatches = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            if (entry.trim().isEmpty()) {
+                continue;
+            }
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 3 || Arrays.stream(parts).anyMatch(part -> part.trim().isEmpty())) {
+                throw new BuilderException("Invalid nestedSelectBatches entry '" + entry.trim()
+                        + "', it should be in format of nestedQueryId:batchStatementId:keyProperty");
+            }
+            nestedSelectBatches.put(parts[0].trim(), new NestedSelectBatch(parts[1].trim(), parts[2].trim()));
+        }
+        return nestedSelectBatches;
+    }
+
+    /**
+     * Parse the streaming statements setting with comma separated statement ids
+     *
+     * @param value the setting value
+     * @return the streaming statement ids
+     */
+    private Set<String> parseStreamingStatements(String value) {
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(statementId -> !statementId.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
     }
 
     private void environmentsElement(XNode context) throws Exception {
@@ -15,23 +15,27 @@
  */
 package pro.chenggang.project.reactive.mybatis.support.r2dbc.connection;
 
+import io.r2dbc.spi.Batch;
 import io.r2dbc.spi.Connection;
 import io.r2dbc.spi.ConnectionFactory;
 import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.ConnectionMetadata;
+import io.r2dbc.spi.IsolationLevel;
+import io.r2dbc.spi.Statement;
+import io.r2dbc.spi.TransactionDefinition;
+import io.r2dbc.spi.ValidationDepth;
 import io.r2dbc.spi.Wrapped;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
+import org.reactivestreams.Publisher;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.MybatisReactiveContextManager;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.ReactiveExecutorContext;
-import pro.chenggang.project.reactive.mybatis.support.r2dbc.support.ProxyInstanceFactory;
 import reactor.core.Disposable;
 import reactor.core.publisher.Mono;
 
 import java.io.Closeable;
 import java.io.IOException;
-import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.time.Duration;
 
 /**
  * The type Default transaction support connection factory. without spring
@@ -130,18 +134,14 @@ public class DefaultTransactionSupportConnectionFactory implements ConnectionFac
      * @return
      */
     private Connection createConnectionProxy(Connection connection, boolean suspendClose) {
-        return ProxyInstanceFactory.newInstanceOfInterfaces(
-                Connection.class,
-                () -> new TransactionAwareConnection(connection, suspendClose),
-                Wrapped.class
-        );
+        return new TransactionAwareConnection(connection, suspendClose);
     }
 
 
     /**
-     * Invocation handler that delegates close calls on R2dbc Connections to
+     * Transaction aware connection that delegates close calls on R2dbc Connections to the transaction context
      */
-    private static class TransactionAwareConnection implements InvocationHandler {
+    private static class TransactionAwareConnection implements Connection, Wrapped<Connection> {
 
         private final Connection connection;
         private final boolean suspendClose;
@@ -159,57 +159,150 @@ public class DefaultTransactionSupportConnectionFactory implements ConnectionFac
         }
 
         @Override
-        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-            switch (method.getName()) {
-                case "toString":
-                    return proxyToString(proxy);
-                case "equals":
-                    return (proxy == args[0]);
-                case "hashCode":
-                    return System.identityHashCode(proxy);
-                case "unwrap":
-                    return this.connection;
-                case "close":
-                    if (this.closed) {
-                        return Mono.empty();
-                    }
-                    return MybatisReactiveContextManager.currentContext()
-                            .flatMap(reactiveExecutorContext -> {
-                                //process rollback
-                                if (reactiveExecutorContext.isForceRollback()) {
-                                    return this.handleRollback(reactiveExecutorContext);
-                                }
-                                //process commit
-                                if (reactiveExecutorContext.isForceCommit()) {
-                                    return this.handleCommit(reactiveExecutorContext);
-                                }
-                                //process close connection
-                                if (reactiveExecutorContext.isRequireClosed()) {
-                                    log.debug("[Close connection]close connection");
-                                    return this.executeCloseConnection(reactiveExecutorContext);
-                                }
-                                //if not suspend close connection then process close connection
-                                if (!suspendClose) {
-                                    return this.executeCloseConnection(reactiveExecutorContext);
-                                }
-                                //otherwise, nothing to do ,wait for close connection after all transaction
-                                log.trace("[Close connection]neither rollback or commit,nothing to do");
-                                return Mono.empty();
-                            });
-                case "isClosed":
-                    return this.closed;
-            }
+        public Connection unwrap() {
+            return this.connection;
+        }
 
+        @Override
+        public Publisher<Void> close() {
             if (this.closed) {
-                throw new IllegalStateException("Connection handle already closed");
+                return Mono.empty();
             }
+            return MybatisReactiveContextManager.currentContext()
+                    .flatMap(reactiveExecutorContext -> {
+                        //process rollback
+                        if (reactiveExecutorContext.isForceRollback()) {
+                            return this.handleRollback(reactiveExecutorContext);
+                        }
+                        //process commit
+                        if (reactiveExecutorContext.isForceCommit()) {
+                            return this.handleCommit(reactiveExecutorContext);
+                        }
+                        //process close connection
+                        if (reactiveExecutorContext.isRequireClosed()) {
+                            log.debug("[Close connection]close connection");
+                            return this.executeCloseConnection(reactiveExecutorContext);
+                        }
+                        //if not suspend close connection then process close connection
+                        if (!suspendClose) {
+                            return this.executeCloseConnection(reactiveExecutorContext);
+                        }
+                        //otherwise, nothing to do ,wait for close connection after all transaction
+                        log.trace("[Close connection]neither rollback or commit,nothing to do");
+                        return Mono.empty();
+                    });
+        }
+
+        /**
+         * Is closed.
+         *
+         * @return the boolean
+         */
+        public boolean isClosed() {
+            return this.closed;
+        }
+
+        @Override
+        public Publisher<Void> beginTransaction() {
+            return this.targetConnection().beginTransaction();
+        }
+
+        @Override
+        public Publisher<Void> beginTransaction(TransactionDefinition definition) {
+            return this.targetConnection().beginTransaction(definition);
+        }
+
+        @Override
+        public Publisher<Void> commitTransaction() {
+            return this.targetConnection().commitTransaction();
+        }
+
+        @Override
+        public Batch createBatch() {
+            return this.targetConnection().createBatch();
+        }
+
+        @Override
+        public Publisher<Void> createSavepoint(String name) {
+            return this.targetConnection().createSavepoint(name);
+        }
+
+        @Override
+        public Statement createStatement(String sql) {
+            return this.targetConnection().createStatement(sql);
+        }
 
-            // Invoke method on target Connection.
-            try {
-                return method.invoke(this.connection, args);
-            } catch (InvocationTargetException ex) {
-                throw ex.getTargetException();
+        @Override
+        public boolean isAutoCommit() {
+            return this.targetConnection().isAutoCommit();
+        }
+
+        @Override
+        public ConnectionMetadata getMetadata() {
+            return this.targetConnection().getMetadata();
+        }
+
+        @Override
+        public IsolationLevel getTransactionIsolationLevel() {
+            return this.targetConnection().getTransactionIsolationLevel();
+        }
+
+        @Override
+        public Publisher<Void> releaseSavepoint(String name) {
+            return this.targetConnection().releaseSavepoint(name);
+        }
+
+        @Override
+        public Publisher<Void> rollbackTransaction() {
+            return this.targetConnection().rollbackTransaction();
+        }
+
+        @Override
+        public Publisher<Void> rollbackTransactionToSavepoint(String name) {
+            return this.targetConnection().rollbackTransactionToSavepoint(name);
+        }
+
+        @Override
+        public Publisher<Void> setAutoCommit(boolean autoCommit) {
+            return this.targetConnection().setAutoCommit(autoCommit);
+        }
+
+        @Override
+        public Publisher<Void> setLockWaitTimeout(Duration timeout) {
+            return this.targetConnection().setLockWaitTimeout(timeout);
+        }
+
+        @Override
+        public Publisher<Void> setStatementTimeout(Duration timeout) {
+            return this.targetConnection().setStatementTimeout(timeout);
+        }
+
+        @Override
+        public Publisher<Void> setTransactionIsolationLevel(IsolationLevel isolationLevel) {
+            return this.targetConnection().setTransactionIsolationLevel(isolationLevel);
+        }
+
+        @Override
+        public Publisher<Boolean> validate(ValidationDepth depth) {
+            return this.targetConnection().validate(depth);
+        }
+
+        @Override
+        public String toString() {
+            return "Transaction-support proxy for target Connection [" + this.connection.toString() + "]";
+        }
+
+        /**
+         * get target connection
+         *
+         * @return the target connection
+         * @throws IllegalStateException if connection handle already closed
+         */
+        private Connection targetConnection() {
+            if (this.closed) {
+                throw new IllegalStateException("Connection handle already closed");
             }
+            return this.connection;
         }
 
         /**
@@ -304,15 +397,5 @@ public class DefaultTransactionSupportConnectionFactory implements ConnectionFac
                     .then(Mono.error(e));
         }
 
-        /**
-         * proxy to String
-         *
-         * @param proxy
-         * @return
-         */
-        private String proxyToString(Object proxy) {
-            return "Transaction-support proxy for target Connection [" + this.connection.toString() + "]";
-        }
-
     }
 }
@@ -0,0 +1,117 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.defaults;
+
+/**
+ * The Bulk insert profile.
+ * <p>
+ * Incoming records of a bulk insert are buffered into chunks,
+ * a chunk is closed when it reaches either {@code maxRowsPerChunk} rows
+ * or {@code maxParametersPerChunk} bound parameters (eg: SQL Server allows at most 2100 parameters per statement).
+ * Chunks are executed one after another unless {@code concurrency} is greater than 1 and the session is without transaction.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class BulkInsertProfile {
+
+    /**
+     * The constant DEFAULT of BulkInsertProfile.
+     */
+    public static final BulkInsertProfile DEFAULT = BulkInsertProfile.of(1_000, 2_000, 1);
+
+    private final int maxRowsPerChunk;
+    private final int maxParametersPerChunk;
+    private final int concurrency;
+
+    private BulkInsertProfile(int maxRowsPerChunk, int maxParametersPerChunk, int concurrency) {
+        if (maxRowsPerChunk < 1) {
+            throw new IllegalArgumentException("Max rows per chunk should be greater than 0");
+        }
+        if (maxParametersPerChunk < 1) {
+            throw new IllegalArgumentException("Max parameters per chunk should be greater than 0");
+        }
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Concurrency should be greater than 0");
+        }
+        this.maxRowsPerChunk = maxRowsPerChunk;
+        this.maxParametersPerChunk = maxParametersPerChunk;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Gets max rows per chunk.
+     *
+     * @return the max rows per chunk
+     */
+    public int getMaxRowsPerChunk() {
+        return maxRowsPerChunk;
+    }
+
+    /**
+     * Gets max bound parameters per chunk.
+     *
+     * @return the max parameters per chunk
+     */
+    public int getMaxParametersPerChunk() {
+        return maxParametersPerChunk;
+    }
+
+    /**
+     * Gets the max number of chunks executed concurrently.
+     *
+     * @return the concurrency
+     */
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * Resolve chunk size with the number of bound parameters of a single row,at least 1 row per chunk
+     *
+     * @param parametersPerRow the parameters per row
+     * @return the chunk size
+     */
+    public int resolveChunkSize(int parametersPerRow) {
+        if (parametersPerRow < 1) {
+            return this.maxRowsPerChunk;
+        }
+        return Math.max(1, Math.min(this.maxRowsPerChunk, this.maxParametersPerChunk / parametersPerRow));
+    }
+
+    /**
+     * New bulk insert profile.
+     *
+     * @param maxRowsPerChunk       the max rows per chunk
+     * @param maxParametersPerChunk the max bound parameters per chunk
+     * @param concurrency           the max number of chunks executed concurrently
+     * @return the bulk insert profile
+     */
+    public static BulkInsertProfile of(int maxRowsPerChunk, int maxParametersPerChunk, int concurrency) {
+        return new BulkInsertProfile(maxRowsPerChunk, maxParametersPerChunk, concurrency);
+    }
+
+    /**
+     * New bulk insert profile with max rows per chunk,executed one chunk after another.
+     *
+     * @param maxRowsPerChunk the max rows per chunk
+     * @return the bulk insert profile
+     */
+    public static BulkInsertProfile of(int maxRowsPerChunk) {
+        return new BulkInsertProfile(maxRowsPerChunk, Integer.MAX_VALUE, 1);
+    }
+}
@@ -16,22 +16,28 @@
 package pro.chenggang.project.reactive.mybatis.support.r2dbc.defaults;
 
 import org.apache.ibatis.exceptions.TooManyResultsException;
+import org.apache.ibatis.executor.BatchResult;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.reflection.ParamNameResolver;
+import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.RowBounds;
+import org.reactivestreams.Publisher;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.MybatisReactiveContextManager;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.ReactiveSqlSession;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybatisConfiguration;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.ReactiveMybatisExecutor;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.KeysetSqlSource;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.R2dbcStatementLog;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.ReactiveExecutorContext;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.util.context.Context;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 /**
  * The type Default reactive sql session.
@@ -76,11 +82,72 @@ public class DefaultReactiveSqlSession implements ReactiveSqlSession {
                 .contextWrite(MybatisReactiveContextManager::initReactiveExecutorContextAttribute);
     }
 
+    @Override
+    public <E> Flux<E> selectKeyset(String statement, Object parameter, KeysetPagination keysetPagination) {
+        MappedStatement mappedStatement = configuration.getMappedStatement(statement);
+        if (mappedStatement.hasNestedResultMaps()) {
+            return Flux.error(new UnsupportedOperationException("Keyset pagination is not supported with nested result maps,statement: " + statement));
+        }
+        Object wrappedParameter = this.wrapCollection(parameter);
+        R2dbcStatementLog r2dbcStatementLog = this.configuration.getR2dbcStatementLog(mappedStatement);
+        RowBounds pageBounds = new RowBounds(RowBounds.NO_ROW_OFFSET, keysetPagination.getPageSize());
+        Function<Object[], Mono<List<E>>> pageQuery = lastKeyValues -> {
+            MappedStatement pageStatement = KeysetSqlSource.newPageStatement(mappedStatement, keysetPagination, lastKeyValues);
+            Mono<List<E>> page = reactiveMybatisExecutor.<E>query(pageStatement, wrappedParameter, pageBounds)
+                    .collectList();
+            if (this.reactiveSqlSessionProfile.isEnableTransaction()) {
+                return page;
+            }
+            // each page runs with its own executor context,so that the connection is released once the page is fetched
+            return page.contextWrite(context -> initReactiveExecutorContext(context.delete(ReactiveExecutorContext.class), r2dbcStatementLog));
+        };
+        return pageQuery.apply(null)
+                .expand(page -> {
+                    if (page.size() < keysetPagination.getPageSize()) {
+                        return Mono.empty();
+                    }
+                    Object[] lastKeyValues = KeysetSqlSource.extractKeyValues(configuration, keysetPagination, page.get(page.size() - 1));
+                    return pageQuery.apply(lastKeyValues);
+                })
+                // prefetch one page while the current one is draining
+                .concatMap(Flux::fromIterable, 1)
+                .contextWrite(context -> initReactiveExecutorContext(context, r2dbcStatementLog))
+                .contextWrite(MybatisReactiveContextManager::initReactiveExecutorContextAttribute);
+    }
+
     @Override
     public Mono<Long> insert(String statement, Object parameter) {
         return this.update(statement, parameter);
     }
 
+    @Override
+    public Mono<Long> bulkInsert(String statement, Publisher<?> parameters, BulkInsertProfile bulkInsertProfile) {
+        MappedStatement mappedStatement = configuration.getMappedStatement(statement);
+        R2dbcStatementLog r2dbcStatementLog = this.configuration.getR2dbcStatementLog(mappedStatement);
+        Flux<List<Object>> chunks = Flux.from(parameters)
+                .map(this::wrapCollection)
+                .switchOnFirst((signal, parameterFlux) -> {
+                    if (!signal.hasValue()) {
+                        return parameterFlux.buffer(bulkInsertProfile.getMaxRowsPerChunk());
+                    }
+                    int parametersPerRow = mappedStatement.getBoundSql(signal.get()).getParameterMappings().size();
+                    return parameterFlux.buffer(bulkInsertProfile.resolveChunkSize(parametersPerRow));
+                });
+        Flux<Long> chunkResults;
+        if (bulkInsertProfile.getConcurrency() > 1 && !this.reactiveSqlSessionProfile.isEnableTransaction()) {
+            // each chunk runs with its own executor context,so that the connection is not shared between chunks in flight
+            chunkResults = chunks.flatMap(chunk -> reactiveMybatisExecutor.updateBatch(mappedStatement, chunk)
+                            .contextWrite(context -> initReactiveExecutorContext(context.delete(ReactiveExecutorContext.class), r2dbcStatementLog)),
+                    bulkInsertProfile.getConcurrency()
+            );
+        } else {
+            chunkResults = chunks.concatMap(chunk -> reactiveMybatisExecutor.updateBatch(mappedStatement, chunk));
+        }
+        return chunkResults.reduce(0L, Long::sum)
+                .contextWrite(context -> initReactiveExecutorContext(context, r2dbcStatementLog))
+                .contextWrite(MybatisReactiveContextManager::initReactiveExecutorContextAttribute);
+    }
+
     @Override
     public Mono<Long> update(String statement, Object parameter) {
         MappedStatement mappedStatement = configuration.getMappedStatement(statement);
@@ -108,6 +175,13 @@ public class DefaultReactiveSqlSession implements ReactiveSqlSession {
                 .contextWrite(MybatisReactiveContextManager::initReactiveExecutorContextAttribute);
     }
 
+    @Override
+    public Mono<List<BatchResult>> flushStatements() {
+        return reactiveMybatisExecutor.flushStatements()
+                .contextWrite(this::initReactiveExecutorContext)
+                .contextWrite(MybatisReactiveContextManager::initReactiveExecutorContextAttribute);
+    }
+
     @Override
     public R2dbcMybatisConfiguration getConfiguration() {
         return this.configuration;
@@ -130,6 +204,14 @@ public class DefaultReactiveSqlSession implements ReactiveSqlSession {
         return this.reactiveSqlSessionProfile;
     }
 
+    private ExecutorType getExecutorType() {
+        ExecutorType executorType = this.reactiveSqlSessionProfile.getExecutorType();
+        if (executorType != null) {
+            return executorType;
+        }
+        return this.configuration.getDefaultExecutorType();
+    }
+
     private Object wrapCollection(final Object object) {
         return ParamNameResolver.wrapToMapIfCollection(object, null);
     }
@@ -147,7 +229,8 @@ public class DefaultReactiveSqlSession implements ReactiveSqlSession {
             return context;
         }
         ReactiveExecutorContext newContext = new ReactiveExecutorContext(this.reactiveSqlSessionProfile.isAutoCommit(),
-                this.reactiveSqlSessionProfile.getIsolationLevel()
+                this.reactiveSqlSessionProfile.getIsolationLevel(),
+                this.getExecutorType()
         );
         newContext.setR2dbcStatementLog(r2dbcStatementLog);
         if (this.reactiveSqlSessionProfile.isEnableTransaction()) {
@@ -170,7 +253,8 @@ public class DefaultReactiveSqlSession implements ReactiveSqlSession {
             log.trace("Initialize reactive executor context,context not exist,create new one");
         }
         ReactiveExecutorContext newContext = new ReactiveExecutorContext(this.reactiveSqlSessionProfile.isAutoCommit(),
-                this.reactiveSqlSessionProfile.getIsolationLevel()
+                this.reactiveSqlSessionProfile.getIsolationLevel(),
+                this.getExecutorType()
         );
         if (this.reactiveSqlSessionProfile.isEnableTransaction()) {
             newContext.setWithTransaction();
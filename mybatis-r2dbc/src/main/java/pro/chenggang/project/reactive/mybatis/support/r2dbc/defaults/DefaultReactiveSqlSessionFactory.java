@@ -19,6 +19,7 @@ import io.r2dbc.spi.ConnectionFactory;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.ReactiveSqlSession;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.ReactiveSqlSessionFactory;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybatisConfiguration;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.CachingReactiveMybatisExecutor;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.DefaultReactiveMybatisExecutor;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.ReactiveMybatisExecutor;
 import reactor.core.Disposable;
@@ -119,13 +120,16 @@ public class DefaultReactiveSqlSessionFactory implements ReactiveSqlSessionFacto
         public DefaultReactiveSqlSessionFactory build() {
             Objects.requireNonNull(this.r2dbcMybatisConfiguration, "R2dbcMybatisConfiguration Could not be null");
             Objects.requireNonNull(this.r2dbcMybatisConfiguration.getR2dbcEnvironment(), "R2dbcEnvironment of R2dbcMybatisConfiguration Could not be null");
-            if (Objects.nonNull(this.reactiveMybatisExecutor)) {
-                return new DefaultReactiveSqlSessionFactory(this.r2dbcMybatisConfiguration,
-                        this.reactiveMybatisExecutor
-                );
+            ReactiveMybatisExecutor targetReactiveMybatisExecutor = this.reactiveMybatisExecutor;
+            if (Objects.isNull(targetReactiveMybatisExecutor)) {
+                targetReactiveMybatisExecutor = new DefaultReactiveMybatisExecutor(this.r2dbcMybatisConfiguration);
+            }
+            if (this.r2dbcMybatisConfiguration.isCacheEnabled()
+                    && !(targetReactiveMybatisExecutor instanceof CachingReactiveMybatisExecutor)) {
+                targetReactiveMybatisExecutor = new CachingReactiveMybatisExecutor(targetReactiveMybatisExecutor);
             }
             return new DefaultReactiveSqlSessionFactory(this.r2dbcMybatisConfiguration,
-                    new DefaultReactiveMybatisExecutor(this.r2dbcMybatisConfiguration)
+                    targetReactiveMybatisExecutor
             );
         }
     }
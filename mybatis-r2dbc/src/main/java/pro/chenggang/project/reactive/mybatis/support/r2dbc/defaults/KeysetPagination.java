@@ -0,0 +1,146 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.defaults;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The Keyset pagination.
+ * <p>
+ * Results are fetched page by page ordered by the sort keys,
+ * the next page is queried with the sort key values of the last result of current page
+ * (eg: {@code WHERE k1 > ? OR (k1 = ? AND k2 > ?)}) instead of an offset,
+ * so that deep pages cost the same as the first one.
+ * The sort keys should be non-null and unique in combination.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class KeysetPagination {
+
+    private final int pageSize;
+    private final List<SortKey> sortKeys;
+    private final boolean descending;
+
+    private KeysetPagination(int pageSize, List<SortKey> sortKeys, boolean descending) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size should be greater than 0");
+        }
+        if (sortKeys.isEmpty()) {
+            throw new IllegalArgumentException("At least one sort key is required");
+        }
+        this.pageSize = pageSize;
+        this.sortKeys = Collections.unmodifiableList(new ArrayList<>(sortKeys));
+        this.descending = descending;
+    }
+
+    /**
+     * Gets page size.
+     *
+     * @return the page size
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Gets sort keys.
+     *
+     * @return the sort keys
+     */
+    public List<SortKey> getSortKeys() {
+        return sortKeys;
+    }
+
+    /**
+     * Is descending.
+     *
+     * @return the boolean
+     */
+    public boolean isDescending() {
+        return descending;
+    }
+
+    /**
+     * New keyset pagination in ascending order.
+     *
+     * @param pageSize the page size
+     * @param sortKeys the sort keys
+     * @return the keyset pagination
+     */
+    public static KeysetPagination of(int pageSize, SortKey... sortKeys) {
+        return new KeysetPagination(pageSize, Arrays.asList(sortKeys), false);
+    }
+
+    /**
+     * New keyset pagination in descending order.
+     *
+     * @param pageSize the page size
+     * @param sortKeys the sort keys
+     * @return the keyset pagination
+     */
+    public static KeysetPagination descending(int pageSize, SortKey... sortKeys) {
+        return new KeysetPagination(pageSize, Arrays.asList(sortKeys), true);
+    }
+
+    /**
+     * The sort key.
+     */
+    public static class SortKey {
+
+        private final String column;
+        private final String property;
+
+        private SortKey(String column, String property) {
+            this.column = Objects.requireNonNull(column, "The column of sort key can not be null");
+            this.property = Objects.requireNonNull(property, "The property of sort key can not be null");
+        }
+
+        /**
+         * New sort key.
+         *
+         * @param column   the column (or column alias) in the result of statement
+         * @param property the property of mapped result object
+         * @return the sort key
+         */
+        public static SortKey of(String column, String property) {
+            return new SortKey(column, property);
+        }
+
+        /**
+         * Gets column.
+         *
+         * @return the column
+         */
+        public String getColumn() {
+            return column;
+        }
+
+        /**
+         * Gets property.
+         *
+         * @return the property
+         */
+        public String getProperty() {
+            return property;
+        }
+    }
+}
@@ -16,6 +16,7 @@
 package pro.chenggang.project.reactive.mybatis.support.r2dbc.defaults;
 
 import io.r2dbc.spi.IsolationLevel;
+import org.apache.ibatis.session.ExecutorType;
 
 /**
  * The Reactive sql session profile.
@@ -29,6 +30,7 @@ public class ReactiveSqlSessionProfile {
     private final boolean autoCommit;
     private final IsolationLevel isolationLevel;
     private final boolean enableTransaction;
+    private final ExecutorType executorType;
     private boolean forceToRollback;
 
     /**
@@ -58,6 +60,15 @@ public class ReactiveSqlSessionProfile {
         return enableTransaction;
     }
 
+    /**
+     * Gets executor type,null means using the default executor type of configuration.
+     *
+     * @return the executor type
+     */
+    public ExecutorType getExecutorType() {
+        return executorType;
+    }
+
     /**
      * Configure session force to rollback.
      */
@@ -74,13 +85,17 @@ public class ReactiveSqlSessionProfile {
         return this.forceToRollback;
     }
 
-    private ReactiveSqlSessionProfile(boolean autoCommit, IsolationLevel isolationLevel, boolean enableTransaction) {
+    private ReactiveSqlSessionProfile(boolean autoCommit,
+                                      IsolationLevel isolationLevel,
+                                      boolean enableTransaction,
+                                      ExecutorType executorType) {
         if (enableTransaction) {
             autoCommit = false;
         }
         this.autoCommit = autoCommit;
         this.isolationLevel = isolationLevel;
         this.enableTransaction = enableTransaction;
+        this.executorType = executorType;
     }
 
     /**
@@ -94,7 +109,7 @@ public class ReactiveSqlSessionProfile {
     public static ReactiveSqlSessionProfile of(boolean autoCommit,
                                                IsolationLevel isolationLevel,
                                                boolean enableTransaction) {
-        return new ReactiveSqlSessionProfile(autoCommit, isolationLevel, enableTransaction);
+        return new ReactiveSqlSessionProfile(autoCommit, isolationLevel, enableTransaction, null);
     }
 
     /**
@@ -105,7 +120,18 @@ public class ReactiveSqlSessionProfile {
      * @return the reactive sql session profile
      */
     public static ReactiveSqlSessionProfile of(boolean autoCommit, boolean enableTransaction) {
-        return new ReactiveSqlSessionProfile(autoCommit, null, enableTransaction);
+        return new ReactiveSqlSessionProfile(autoCommit, null, enableTransaction, null);
+    }
+
+    /**
+     * New reactive sql session profile with auto commit and without transaction,
+     * it's used by concurrent read-only executions which run within their own reactive sql sessions.
+     * A new profile is returned each time since the profile could be forced to rollback.
+     *
+     * @return the reactive sql session profile
+     */
+    public static ReactiveSqlSessionProfile nonTransactional() {
+        return new ReactiveSqlSessionProfile(true, null, false, null);
     }
 
     /**
@@ -115,6 +141,33 @@ public class ReactiveSqlSessionProfile {
      * @return the reactive sql session profile
      */
     public static ReactiveSqlSessionProfile of(IsolationLevel isolationLevel) {
-        return new ReactiveSqlSessionProfile(false, isolationLevel, true);
+        return new ReactiveSqlSessionProfile(false, isolationLevel, true, null);
+    }
+
+    /**
+     * New reactive sql session profile with executor type.
+     * {@link ExecutorType#BATCH} only takes effect when transaction is enabled
+     *
+     * @param autoCommit        the auto commit
+     * @param isolationLevel    the isolation level
+     * @param enableTransaction the enable transaction
+     * @param executorType      the executor type
+     * @return the reactive sql session profile
+     */
+    public static ReactiveSqlSessionProfile of(boolean autoCommit,
+                                               IsolationLevel isolationLevel,
+                                               boolean enableTransaction,
+                                               ExecutorType executorType) {
+        return new ReactiveSqlSessionProfile(autoCommit, isolationLevel, enableTransaction, executorType);
+    }
+
+    /**
+     * New reactive sql session profile with executor type and transaction enabled
+     *
+     * @param executorType the executor type
+     * @return the reactive sql session profile
+     */
+    public static ReactiveSqlSessionProfile of(ExecutorType executorType) {
+        return new ReactiveSqlSessionProfile(false, null, true, executorType);
     }
 }
\ No newline at end of file
@@ -18,14 +18,22 @@ package pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate;
 import io.r2dbc.spi.Blob;
 import io.r2dbc.spi.Clob;
 import io.r2dbc.spi.R2dbcType;
+import org.apache.ibatis.builder.BuilderException;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeHandler;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.ReactiveSqlSession;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.metrics.StatementMetricsRecorder;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.observation.StatementExecutionObserver;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.placeholder.PlaceholderDialect;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.placeholder.PlaceholderDialectRegistry;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.placeholder.defaults.DefaultPlaceholderDialectRegistry;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.handler.CompiledRowMapperFactory;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.handler.NestedResultMapLimitPolicy;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.NestedSelectBatch;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.R2dbcStatementLog;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.R2dbcStatementLogFactory;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.type.R2dbcTypeHandlerAdapter;
@@ -36,17 +44,24 @@ import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.type.mappin
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.type.support.ForceToUseR2dbcTypeHandlerAdapter;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.mapping.R2dbcEnvironment;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.mapping.R2dbcVendorDatabaseIdProvider;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.scripting.CompiledXMLLanguageDriver;
 
 import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringReader;
 import java.sql.SQLXML;
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -94,6 +109,106 @@ public class R2dbcMybatisConfiguration extends Configuration {
      * The Formatted dialect sql cache expire duration.
      */
     protected Duration formattedDialectSqlCacheExpireDuration = Duration.ofHours(6);
+    /**
+     * The max pending executions of batch executor before flushing.
+     */
+    protected Integer batchSize = 1_000;
+
+    /**
+     * Whether nested result maps of statements with resultOrdered=false are mapped in streaming mode,
+     * the result must be ordered by the {@code <id>} columns of the parent object,otherwise the query fails.
+     */
+    protected boolean streamingNestedResultMap = false;
+
+    /**
+     * The max nested result objects retained by a query with unordered nested result mapping,null means unlimited.
+     */
+    protected Integer nestedResultObjectsLimit;
+
+    /**
+     * The policy applied when nested result objects exceed the limit.
+     */
+    protected NestedResultMapLimitPolicy nestedResultMapLimitPolicy = NestedResultMapLimitPolicy.FAIL_FAST;
+
+    /**
+     * Whether the row bounds of queries are pushed down to the sql with pagination clause of placeholder dialect.
+     */
+    protected boolean paginationPushdown = false;
+
+    /**
+     * The max parent objects whose nested selects are resolved together.
+     */
+    protected Integer nestedSelectWindowSize = 100;
+
+    /**
+     * The max nested select executions in flight when the query is not within transaction.
+     */
+    protected Integer nestedSelectConcurrency = 1;
+
+    /**
+     * The window within which subscribed lazy nested selects are coalesced.
+     */
+    protected Duration lazyLoadBatchWindow = Duration.ofMillis(10);
+
+    /**
+     * The max fetch size of streaming statements.
+     */
+    protected Integer streamingFetchSizeMax = 1_000;
+
+    /**
+     * The max bytes of rows fetched at once by streaming statements.
+     */
+    protected Integer streamingFetchBufferBytes = 1_048_576;
+
+    /**
+     * The ids of streaming statements.
+     */
+    protected final Set<String> streamingStatements = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The batch statements of nested selects,the key is the nested select statement id.
+     */
+    protected final Map<String, NestedSelectBatch> nestedSelectBatches = new ConcurrentHashMap<>();
+
+    /**
+     * The default elapsed time threshold of slow queries,null means slow query log is disabled.
+     */
+    protected Duration slowQueryThreshold;
+
+    /**
+     * The elapsed time thresholds of slow queries,the key is the statement id.
+     */
+    protected final Map<String, Duration> slowQueryThresholds = new ConcurrentHashMap<>();
+
+    /**
+     * The min interval between two slow query records of the same statement.
+     */
+    protected Duration slowQueryLogSamplingInterval = Duration.ofSeconds(1);
+
+    /**
+     * The parameter property names whose bind values are masked in slow query records.
+     */
+    protected final Set<String> slowQueryMaskedParameters = new CopyOnWriteArraySet<>(Arrays.asList("password", "secret", "token"));
+
+    /**
+     * The recorder of statement execution metrics,null means statement metrics are not recorded.
+     */
+    protected StatementMetricsRecorder statementMetricsRecorder;
+
+    /**
+     * The observer of statement executions,null means statement executions are not observed.
+     */
+    protected StatementExecutionObserver statementExecutionObserver;
+
+    /**
+     * Whether rows of simple result maps are mapped by row mappers compiled per result map and column layout.
+     */
+    protected boolean compiledRowMapperEnabled = true;
+
+    /**
+     * The compiled row mapper factory.
+     */
+    protected final CompiledRowMapperFactory compiledRowMapperFactory = new CompiledRowMapperFactory(this);
 
     private R2dbcEnvironment r2dbcEnvironment;
 
@@ -132,6 +247,7 @@ public class R2dbcMybatisConfiguration extends Configuration {
     private void registerInternalTypeAlias() {
         typeAliasRegistry.registerAlias("R2DBC_VENDOR", R2dbcVendorDatabaseIdProvider.class);
         typeAliasRegistry.registerAlias("ForceToUseR2dbcTypeHandlerAdapter", ForceToUseR2dbcTypeHandlerAdapter.class);
+        typeAliasRegistry.registerAlias("COMPILED_XML", CompiledXMLLanguageDriver.class);
     }
 
     /**
@@ -198,6 +314,26 @@ public class R2dbcMybatisConfiguration extends Configuration {
         this.r2dbcStatementLogFactory.initR2dbcStatementLog(ms);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Nested select is only supported with property mappings,
+     * constructor arguments are required before the nested selects of the result object could be loaded.
+     *
+     * @throws BuilderException if any constructor mapping of the result map is a nested select
+     */
+    @Override
+    public void addResultMap(ResultMap rm) {
+        for (ResultMapping constructorResultMapping : rm.getConstructorResultMappings()) {
+            if (constructorResultMapping.getNestedQueryId() != null) {
+                throw new BuilderException("Nested select '" + constructorResultMapping.getNestedQueryId()
+                        + "' of constructor mapping in result map '" + rm.getId()
+                        + "' is not supported,nested select could only be mapped to properties");
+            }
+        }
+        super.addResultMap(rm);
+    }
+
     /**
      * Add R2dbc type handler adapter.
      *
@@ -331,6 +467,481 @@ public class R2dbcMybatisConfiguration extends Configuration {
         this.formattedDialectSqlCacheExpireDuration = formattedDialectSqlCacheExpireDuration;
     }
 
+    /**
+     * get batch size
+     *
+     * @return the max pending executions of batch executor before flushing
+     */
+    public Integer getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Sets batch size.
+     *
+     * @param batchSize the max pending executions of batch executor before flushing
+     */
+    public void setBatchSize(Integer batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must greater than 0");
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Is streaming nested result map.
+     *
+     * @return the boolean
+     */
+    public boolean isStreamingNestedResultMap() {
+        return streamingNestedResultMap;
+    }
+
+    /**
+     * Sets streaming nested result map.
+     * <p>
+     * In streaming mode,rows of the same parent object (identified by the {@code <id>} columns of the result map) are expected to be adjacent,
+     * a parent object is emitted as soon as a row of another parent arrives,
+     * and the nested objects of completed parents are evicted,
+     * so the memory is proportional to a single parent instead of the whole result,only the row keys of emitted parents are kept.
+     * It is the same as configuring {@code resultOrdered=true} on every statement with nested result maps.
+     * <p>
+     * NOTE: the sql must order the result by the {@code <id>} columns of the parent object,
+     * a row of a parent object which has already been emitted fails the query with an ExecutorException
+     * instead of splitting the parent object.
+     *
+     * @param streamingNestedResultMap the streaming nested result map
+     */
+    public void setStreamingNestedResultMap(boolean streamingNestedResultMap) {
+        this.streamingNestedResultMap = streamingNestedResultMap;
+    }
+
+    /**
+     * Gets nested result objects limit.
+     *
+     * @return the nested result objects limit,null means unlimited
+     */
+    public Integer getNestedResultObjectsLimit() {
+        return nestedResultObjectsLimit;
+    }
+
+    /**
+     * Sets the max nested result objects retained by a query with unordered nested result mapping.
+     * Queries mapped in streaming mode only retain a single parent object and are not limited.
+     *
+     * @param nestedResultObjectsLimit the nested result objects limit,null means unlimited
+     */
+    public void setNestedResultObjectsLimit(Integer nestedResultObjectsLimit) {
+        if (nestedResultObjectsLimit != null && nestedResultObjectsLimit < 1) {
+            throw new IllegalArgumentException("Nested result objects limit must greater than 0");
+        }
+        this.nestedResultObjectsLimit = nestedResultObjectsLimit;
+    }
+
+    /**
+     * Gets nested result map limit policy.
+     *
+     * @return the nested result map limit policy
+     */
+    public NestedResultMapLimitPolicy getNestedResultMapLimitPolicy() {
+        return nestedResultMapLimitPolicy;
+    }
+
+    /**
+     * Sets the policy applied when nested result objects exceed the limit.
+     *
+     * @param nestedResultMapLimitPolicy the nested result map limit policy
+     */
+    public void setNestedResultMapLimitPolicy(NestedResultMapLimitPolicy nestedResultMapLimitPolicy) {
+        Objects.requireNonNull(nestedResultMapLimitPolicy, "The NestedResultMapLimitPolicy can not be null");
+        this.nestedResultMapLimitPolicy = nestedResultMapLimitPolicy;
+    }
+
+    /**
+     * Is pagination pushdown.
+     *
+     * @return the boolean
+     */
+    public boolean isPaginationPushdown() {
+        return paginationPushdown;
+    }
+
+    /**
+     * Sets whether the row bounds of queries are pushed down to the sql with pagination clause of placeholder dialect,
+     * so that only the rows within row bounds are fetched from database.
+     * Queries with nested result maps,callable statements and dialects without pagination support
+     * still apply row bounds to the mapped results.
+     *
+     * @param paginationPushdown the pagination pushdown
+     */
+    public void setPaginationPushdown(boolean paginationPushdown) {
+        this.paginationPushdown = paginationPushdown;
+    }
+
+    /**
+     * Gets nested select window size.
+     *
+     * @return the nested select window size
+     */
+    public Integer getNestedSelectWindowSize() {
+        return nestedSelectWindowSize;
+    }
+
+    /**
+     * Sets the max parent objects whose nested selects are resolved together.
+     *
+     * @param nestedSelectWindowSize the nested select window size
+     */
+    public void setNestedSelectWindowSize(Integer nestedSelectWindowSize) {
+        if (nestedSelectWindowSize == null || nestedSelectWindowSize < 1) {
+            throw new IllegalArgumentException("Nested select window size must greater than 0");
+        }
+        this.nestedSelectWindowSize = nestedSelectWindowSize;
+    }
+
+    /**
+     * Gets nested select concurrency.
+     *
+     * @return the nested select concurrency
+     */
+    public Integer getNestedSelectConcurrency() {
+        return nestedSelectConcurrency;
+    }
+
+    /**
+     * Sets the max nested select executions in flight,
+     * nested selects within transaction share the connection and are always executed sequentially.
+     *
+     * @param nestedSelectConcurrency the nested select concurrency
+     */
+    public void setNestedSelectConcurrency(Integer nestedSelectConcurrency) {
+        if (nestedSelectConcurrency == null || nestedSelectConcurrency < 1) {
+            throw new IllegalArgumentException("Nested select concurrency must greater than 0");
+        }
+        this.nestedSelectConcurrency = nestedSelectConcurrency;
+    }
+
+    /**
+     * Gets lazy load batch window.
+     *
+     * @return the lazy load batch window
+     */
+    public Duration getLazyLoadBatchWindow() {
+        return lazyLoadBatchWindow;
+    }
+
+    /**
+     * Sets the window within which subscribed lazy nested selects of Mono/Flux properties are coalesced.
+     *
+     * @param lazyLoadBatchWindow the lazy load batch window
+     */
+    public void setLazyLoadBatchWindow(Duration lazyLoadBatchWindow) {
+        if (lazyLoadBatchWindow == null || lazyLoadBatchWindow.isNegative()) {
+            throw new IllegalArgumentException("Lazy load batch window can not be negative");
+        }
+        this.lazyLoadBatchWindow = lazyLoadBatchWindow;
+    }
+
+    /**
+     * Gets streaming fetch size max.
+     *
+     * @return the streaming fetch size max
+     */
+    public Integer getStreamingFetchSizeMax() {
+        return streamingFetchSizeMax;
+    }
+
+    /**
+     * Sets the max fetch size of streaming statements,
+     * the fetch size of a streaming statement is derived from the first downstream demand and bounded by this value.
+     *
+     * @param streamingFetchSizeMax the streaming fetch size max
+     */
+    public void setStreamingFetchSizeMax(Integer streamingFetchSizeMax) {
+        if (streamingFetchSizeMax == null || streamingFetchSizeMax < 1) {
+            throw new IllegalArgumentException("Streaming fetch size max must greater than 0");
+        }
+        this.streamingFetchSizeMax = streamingFetchSizeMax;
+    }
+
+    /**
+     * Gets streaming fetch buffer bytes.
+     *
+     * @return the streaming fetch buffer bytes
+     */
+    public Integer getStreamingFetchBufferBytes() {
+        return streamingFetchBufferBytes;
+    }
+
+    /**
+     * Sets the max bytes of rows fetched at once by streaming statements,
+     * the fetch size is bounded by this value divided by the estimated row size.
+     *
+     * @param streamingFetchBufferBytes the streaming fetch buffer bytes
+     */
+    public void setStreamingFetchBufferBytes(Integer streamingFetchBufferBytes) {
+        if (streamingFetchBufferBytes == null || streamingFetchBufferBytes < 1) {
+            throw new IllegalArgumentException("Streaming fetch buffer bytes must greater than 0");
+        }
+        this.streamingFetchBufferBytes = streamingFetchBufferBytes;
+    }
+
+    /**
+     * Register the streaming statement.
+     * <p>
+     * The fetch size of a streaming statement is always set and derived from the first downstream demand,
+     * so that the driver fetches rows on demand instead of materializing the whole result.
+     *
+     * @param statementId the statement id
+     */
+    public void addStreamingStatement(String statementId) {
+        Objects.requireNonNull(statementId, "The statement id can not be null");
+        this.streamingStatements.add(statementId);
+    }
+
+    /**
+     * Gets the ids of streaming statements.
+     *
+     * @return the unmodifiable streaming statement ids
+     */
+    public Set<String> getStreamingStatements() {
+        return Collections.unmodifiableSet(this.streamingStatements);
+    }
+
+    /**
+     * Sets the streaming statements,all the registered streaming statements are replaced.
+     * <p>
+     * In XML configuration,it's configured by the {@code streamingStatements} setting with comma separated statement ids.
+     *
+     * @param streamingStatements the streaming statement ids
+     * @see #addStreamingStatement(String)
+     */
+    public void setStreamingStatements(Set<String> streamingStatements) {
+        this.streamingStatements.clear();
+        streamingStatements.forEach(this::addStreamingStatement);
+    }
+
+    /**
+     * Whether the statement is registered as streaming statement.
+     *
+     * @param statementId the statement id
+     * @return the boolean
+     */
+    public boolean isStreamingStatement(String statementId) {
+        return this.streamingStatements.contains(statementId);
+    }
+
+    /**
+     * Register the batch statement of nested select.
+     * <p>
+     * The batch statement receives the distinct keys as a list parameter named {@code list} or {@code collection},
+     * and the returned objects are matched to parent objects by the value of {@code keyProperty}.
+     *
+     * @param nestedQueryId    the nested select statement id
+     * @param batchStatementId the batch statement id
+     * @param keyProperty      the key property of returned objects
+     */
+    public void addNestedSelectBatch(String nestedQueryId, String batchStatementId, String keyProperty) {
+        Objects.requireNonNull(nestedQueryId, "The nested query id can not be null");
+        Objects.requireNonNull(batchStatementId, "The batch statement id can not be null");
+        Objects.requireNonNull(keyProperty, "The key property can not be null");
+        this.nestedSelectBatches.put(nestedQueryId, new NestedSelectBatch(batchStatementId, keyProperty));
+    }
+
+    /**
+     * Gets the batch statements of nested selects.
+     *
+     * @return the unmodifiable nested select batches,the key is the nested select statement id
+     */
+    public Map<String, NestedSelectBatch> getNestedSelectBatches() {
+        return Collections.unmodifiableMap(this.nestedSelectBatches);
+    }
+
+    /**
+     * Sets the batch statements of nested selects,all the registered batch statements are replaced.
+     * <p>
+     * In XML configuration,it's configured by the {@code nestedSelectBatches} setting
+     * with comma separated {@code nestedQueryId:batchStatementId:keyProperty} entries.
+     *
+     * @param nestedSelectBatches the nested select batches,the key is the nested select statement id
+     * @see #addNestedSelectBatch(String, String, String)
+     */
+    public void setNestedSelectBatches(Map<String, NestedSelectBatch> nestedSelectBatches) {
+        this.nestedSelectBatches.clear();
+        nestedSelectBatches.forEach((nestedQueryId, nestedSelectBatch) -> this.addNestedSelectBatch(nestedQueryId,
+                nestedSelectBatch.getBatchStatementId(),
+                nestedSelectBatch.getKeyProperty()
+        ));
+    }
+
+    /**
+     * Gets the batch statement of nested select.
+     *
+     * @param nestedQueryId the nested select statement id
+     * @return the nested select batch,null if not registered
+     */
+    public NestedSelectBatch getNestedSelectBatch(String nestedQueryId) {
+        return this.nestedSelectBatches.get(nestedQueryId);
+    }
+
+    /**
+     * Gets slow query threshold.
+     *
+     * @return the slow query threshold
+     */
+    public Duration getSlowQueryThreshold() {
+        return slowQueryThreshold;
+    }
+
+    /**
+     * Sets the default elapsed time threshold of slow queries,
+     * statements exceed the threshold are recorded by slow query log,null means slow query log is disabled.
+     *
+     * @param slowQueryThreshold the slow query threshold
+     */
+    public void setSlowQueryThreshold(Duration slowQueryThreshold) {
+        if (slowQueryThreshold != null && slowQueryThreshold.isNegative()) {
+            throw new IllegalArgumentException("Slow query threshold can not be negative");
+        }
+        this.slowQueryThreshold = slowQueryThreshold;
+    }
+
+    /**
+     * Register the elapsed time threshold of slow queries of the statement,
+     * which overrides the default slow query threshold.
+     *
+     * @param statementId the statement id
+     * @param threshold   the slow query threshold
+     */
+    public void addSlowQueryThreshold(String statementId, Duration threshold) {
+        Objects.requireNonNull(statementId, "The statement id can not be null");
+        Objects.requireNonNull(threshold, "The slow query threshold can not be null");
+        if (threshold.isNegative()) {
+            throw new IllegalArgumentException("Slow query threshold can not be negative");
+        }
+        this.slowQueryThresholds.put(statementId, threshold);
+    }
+
+    /**
+     * Gets the elapsed time threshold of slow queries of the statement.
+     *
+     * @param statementId the statement id
+     * @return the slow query threshold,null if slow query log is disabled for the statement
+     */
+    public Duration getSlowQueryThreshold(String statementId) {
+        if (this.slowQueryThresholds.isEmpty()) {
+            return this.slowQueryThreshold;
+        }
+        return this.slowQueryThresholds.getOrDefault(statementId, this.slowQueryThreshold);
+    }
+
+    /**
+     * Gets slow query log sampling interval.
+     *
+     * @return the slow query log sampling interval
+     */
+    public Duration getSlowQueryLogSamplingInterval() {
+        return slowQueryLogSamplingInterval;
+    }
+
+    /**
+     * Sets the min interval between two slow query records of the same statement,
+     * slow executions of hot statements within the interval are only counted and reported with the next record.
+     *
+     * @param slowQueryLogSamplingInterval the slow query log sampling interval
+     */
+    public void setSlowQueryLogSamplingInterval(Duration slowQueryLogSamplingInterval) {
+        if (slowQueryLogSamplingInterval == null || slowQueryLogSamplingInterval.isNegative()) {
+            throw new IllegalArgumentException("Slow query log sampling interval can not be null or negative");
+        }
+        this.slowQueryLogSamplingInterval = slowQueryLogSamplingInterval;
+    }
+
+    /**
+     * Register the parameter property name whose bind values are masked in slow query records,
+     * a parameter is masked if its property name contains the name ignoring case.
+     *
+     * @param parameterName the parameter property name
+     */
+    public void addSlowQueryMaskedParameter(String parameterName) {
+        Objects.requireNonNull(parameterName, "The masked parameter name can not be null");
+        this.slowQueryMaskedParameters.add(parameterName.toLowerCase(Locale.ENGLISH));
+    }
+
+    /**
+     * Gets the parameter property names whose bind values are masked in slow query records.
+     *
+     * @return the unmodifiable masked parameter names
+     */
+    public Set<String> getSlowQueryMaskedParameters() {
+        return Collections.unmodifiableSet(this.slowQueryMaskedParameters);
+    }
+
+    /**
+     * Gets statement metrics recorder.
+     *
+     * @return the statement metrics recorder
+     */
+    public StatementMetricsRecorder getStatementMetricsRecorder() {
+        return statementMetricsRecorder;
+    }
+
+    /**
+     * Sets the recorder of statement execution metrics,null means statement metrics are not recorded,
+     * it should be set before the reactive sql session factory is built.
+     *
+     * @param statementMetricsRecorder the statement metrics recorder
+     */
+    public void setStatementMetricsRecorder(StatementMetricsRecorder statementMetricsRecorder) {
+        this.statementMetricsRecorder = statementMetricsRecorder;
+    }
+
+    /**
+     * Gets the observer of statement executions
+     *
+     * @return the statement execution observer
+     */
+    public StatementExecutionObserver getStatementExecutionObserver() {
+        return statementExecutionObserver;
+    }
+
+    /**
+     * Sets the observer of statement executions,null means statement executions are not observed.
+     *
+     * @param statementExecutionObserver the statement execution observer
+     */
+    public void setStatementExecutionObserver(StatementExecutionObserver statementExecutionObserver) {
+        this.statementExecutionObserver = statementExecutionObserver;
+    }
+
+    /**
+     * Is compiled row mapper enabled.
+     *
+     * @return the boolean
+     */
+    public boolean isCompiledRowMapperEnabled() {
+        return compiledRowMapperEnabled;
+    }
+
+    /**
+     * Sets whether rows of simple result maps are mapped by row mappers compiled per result map and column layout,
+     * result maps which could not be compiled are always mapped by reflection.
+     *
+     * @param compiledRowMapperEnabled the compiled row mapper enabled
+     */
+    public void setCompiledRowMapperEnabled(boolean compiledRowMapperEnabled) {
+        this.compiledRowMapperEnabled = compiledRowMapperEnabled;
+    }
+
+    /**
+     * Gets compiled row mapper factory.
+     *
+     * @return the compiled row mapper factory
+     */
+    public CompiledRowMapperFactory getCompiledRowMapperFactory() {
+        return compiledRowMapperFactory;
+    }
+
     /**
      * Register r2dbc type mapping.
      *
@@ -35,10 +35,14 @@ import org.mybatis.dynamic.sql.select.SelectModel;
 import org.mybatis.dynamic.sql.select.render.SelectStatementProvider;
 import org.mybatis.dynamic.sql.update.UpdateDSLCompleter;
 import org.mybatis.dynamic.sql.update.render.UpdateStatementProvider;
+import org.reactivestreams.Publisher;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.defaults.BulkInsertProfile;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.ReactiveExecutorContext;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.Function;
 import java.util.function.UnaryOperator;
@@ -139,6 +143,61 @@ public class ReactiveMyBatis3Utils {
         return mapper.applyAsInt(insertMultiple(records, table, completer));
     }
 
+    /**
+     * Insert records streamed from the publisher with chunked multi-row insert statements,
+     * a chunk is closed when reaching either max rows or max bound parameters of the bulk insert profile.
+     * Chunks are executed concurrently only when there is no reactive executor context in subscriber context,
+     * otherwise they are executed one after another on the bound connection.
+     *
+     * @param <R>               the record type
+     * @param mapper            the mapper function,eg: {@code mapper::insertMultiple}
+     * @param records           the records
+     * @param table             the table
+     * @param completer         the completer
+     * @param bulkInsertProfile the bulk insert profile
+     * @return the total number of rows affected
+     */
+    public static <R> Mono<Long> bulkInsert(ToMonoIntFunction<MultiRowInsertStatementProvider<R>> mapper,
+            Publisher<R> records, SqlTable table, UnaryOperator<MultiRowInsertDSL<R>> completer,
+            BulkInsertProfile bulkInsertProfile) {
+        return Mono.deferContextual(contextView -> {
+            Flux<List<R>> chunks = Flux.from(records)
+                    .switchOnFirst((signal, recordFlux) -> {
+                        if (!signal.hasValue()) {
+                            return recordFlux.buffer(bulkInsertProfile.getMaxRowsPerChunk());
+                        }
+                        String singleRowInsertStatement = insertMultiple(Collections.singletonList(signal.get()), table, completer)
+                                .getInsertStatement();
+                        int parametersPerRow = countBoundParameters(singleRowInsertStatement);
+                        return recordFlux.buffer(bulkInsertProfile.resolveChunkSize(parametersPerRow));
+                    });
+            Function<List<R>, Mono<Long>> chunkInsert = chunk -> mapper.applyAsInt(insertMultiple(chunk, table, completer))
+                    .map(Integer::longValue);
+            Flux<Long> chunkResults;
+            if (bulkInsertProfile.getConcurrency() > 1 && !contextView.hasKey(ReactiveExecutorContext.class)) {
+                chunkResults = chunks.flatMap(chunkInsert, bulkInsertProfile.getConcurrency());
+            } else {
+                chunkResults = chunks.concatMap(chunkInsert);
+            }
+            return chunkResults.reduce(0L, Long::sum);
+        });
+    }
+
+    public static <R> Mono<Long> bulkInsert(ToMonoIntFunction<MultiRowInsertStatementProvider<R>> mapper,
+            Publisher<R> records, SqlTable table, UnaryOperator<MultiRowInsertDSL<R>> completer) {
+        return bulkInsert(mapper, records, table, completer, BulkInsertProfile.DEFAULT);
+    }
+
+    private static int countBoundParameters(String statement) {
+        int count = 0;
+        int index = statement.indexOf("#{");
+        while (index >= 0) {
+            count++;
+            index = statement.indexOf("#{", index + 2);
+        }
+        return count;
+    }
+
     public static <R> Mono<Integer> insertMultipleWithGeneratedKeys(ToMonoIntBiFunction<String, List<R>> mapper,
                                                           Collection<R> records, SqlTable table, 
                                                           UnaryOperator<MultiRowInsertDSL<R>> completer) {
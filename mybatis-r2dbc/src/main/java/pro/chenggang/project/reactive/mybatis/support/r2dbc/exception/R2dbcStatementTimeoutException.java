@@ -0,0 +1,51 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.exception;
+
+import io.r2dbc.spi.R2dbcTimeoutException;
+
+/**
+ * The type R2dbc statement timeout exception.
+ * <p>
+ * Raised when a statement does not complete within its statement timeout or the deadline of current Reactor Context.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class R2dbcStatementTimeoutException extends R2dbcTimeoutException {
+
+    private static final long serialVersionUID = -3816224087306137021L;
+
+    /**
+     * Instantiates a new R2dbc statement timeout exception.
+     *
+     * @param reason the reason
+     */
+    public R2dbcStatementTimeoutException(String reason) {
+        super(reason);
+    }
+
+    /**
+     * Instantiates a new R2dbc statement timeout exception.
+     *
+     * @param reason the reason
+     * @param cause  the cause
+     */
+    public R2dbcStatementTimeoutException(String reason, Throwable cause) {
+        super(reason, cause);
+    }
+}
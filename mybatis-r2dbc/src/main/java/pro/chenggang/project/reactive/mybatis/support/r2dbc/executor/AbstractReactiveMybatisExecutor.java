@@ -17,17 +17,44 @@ package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor;
 
 import io.r2dbc.spi.Connection;
 import io.r2dbc.spi.ConnectionFactory;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.BatchResult;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.LocalCacheScope;
 import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.type.TypeHandlerRegistry;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.MybatisReactiveContextManager;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.connection.ConnectionCloseHolder;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybatisConfiguration;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.exception.R2dbcStatementTimeoutException;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.metrics.StatementExecutionMetrics;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.metrics.StatementMetricsRecorder;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.observation.StatementExecutionObserver;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.PendingBatchStatement;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.ReactiveExecutorContext;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.StatementDeadline;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * The type Abstract reactive mybatis executor.
@@ -66,49 +93,155 @@ public abstract class AbstractReactiveMybatisExecutor implements ReactiveMybatis
         return MybatisReactiveContextManager.currentContext()
                 .flatMap(reactiveExecutorContext -> {
                     reactiveExecutorContext.setDirty();
+                    reactiveExecutorContext.clearLocalCache();
+                    BoundSql boundSql = this.getObservedBoundSql(mappedStatement, parameter);
+                    if (reactiveExecutorContext.isBatchExecution()) {
+                        // the execution is only accumulated,the timeout is applied when statements are flushed
+                        return this.inConnection(
+                                this.connectionFactory,
+                                mappedStatement,
+                                boundSql,
+                                connection -> this.doUpdateWithConnection(connection, mappedStatement, parameter)
+                        );
+                    }
                     return this.inConnection(
                             this.connectionFactory,
-                            connection -> this.doUpdateWithConnection(connection, mappedStatement, parameter)
+                            mappedStatement,
+                            boundSql,
+                            connection -> this.withStatementTimeout(connection, mappedStatement.getId(), mappedStatement.getTimeout(),
+                                    this.doUpdateWithConnection(connection, mappedStatement, parameter)
+                            )
+                    );
+                });
+    }
+
+    @Override
+    public Mono<Long> updateBatch(MappedStatement mappedStatement, List<?> parameters) {
+        if (parameters.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return MybatisReactiveContextManager.currentContext()
+                .flatMap(reactiveExecutorContext -> {
+                    reactiveExecutorContext.setDirty();
+                    reactiveExecutorContext.clearLocalCache();
+                    // the batch is observed with the bound sql of its first parameter
+                    return this.inConnection(
+                            this.connectionFactory,
+                            mappedStatement,
+                            this.getObservedBoundSql(mappedStatement, parameters.get(0)),
+                            connection -> this.withStatementTimeout(connection, mappedStatement.getId(), mappedStatement.getTimeout(),
+                                    this.doUpdateBatchWithConnection(connection, mappedStatement, parameters)
+                            )
                     );
                 });
     }
 
     @Override
     public <E> Flux<E> query(MappedStatement mappedStatement, Object parameter, RowBounds rowBounds) {
+        return Flux.defer(() -> this.query(mappedStatement, parameter, rowBounds, mappedStatement.getBoundSql(parameter)));
+    }
+
+    @Override
+    public <E> Flux<E> query(MappedStatement mappedStatement, Object parameter, RowBounds rowBounds, BoundSql boundSql) {
         return MybatisReactiveContextManager.currentContext()
                 .flatMapMany(reactiveExecutorContext -> {
                     if(mappedStatement.isDirtySelect()){
                         reactiveExecutorContext.setDirty();
                     }
-                    return this.inConnectionMany(
-                            this.connectionFactory,
-                            connection -> this.doQueryWithConnection(connection, mappedStatement, parameter, rowBounds)
-                    );
+                    if (mappedStatement.isFlushCacheRequired()) {
+                        reactiveExecutorContext.clearLocalCache();
+                    }
+                    Flux<E> queryFlux;
+                    if (!this.isLocalCacheApplicable(reactiveExecutorContext, mappedStatement)) {
+                        queryFlux = this.inConnectionMany(
+                                this.connectionFactory,
+                                mappedStatement,
+                                boundSql,
+                                connection -> this.withStatementTimeout(connection, mappedStatement.getId(), mappedStatement.getTimeout(),
+                                        this.doQueryWithConnection(connection, mappedStatement, parameter, rowBounds, boundSql)
+                                )
+                        );
+                    } else {
+                        CacheKey cacheKey = this.createCacheKey(mappedStatement, parameter, rowBounds, boundSql);
+                        queryFlux = this.queryFromLocalCache(reactiveExecutorContext, cacheKey, () -> this.inConnectionMany(
+                                this.connectionFactory,
+                                mappedStatement,
+                                boundSql,
+                                connection -> this.withStatementTimeout(connection, mappedStatement.getId(), mappedStatement.getTimeout(),
+                                        this.doQueryWithConnection(connection, mappedStatement, parameter, rowBounds, boundSql)
+                                )
+                        ));
+                    }
+                    // pending batch statements should be visible to the query
+                    if (reactiveExecutorContext.hasPendingBatchStatements()) {
+                        return this.flushStatements().thenMany(queryFlux);
+                    }
+                    return queryFlux;
                 });
 
     }
 
     @Override
-    public Mono<Void> commit(boolean required) {
+    public Mono<List<BatchResult>> flushStatements() {
         return MybatisReactiveContextManager.currentContext()
                 .flatMap(reactiveExecutorContext -> {
-                    reactiveExecutorContext.setForceCommit(reactiveExecutorContext.isDirty() || required);
-                    return Mono.justOrEmpty(reactiveExecutorContext.getConnection())
-                            .flatMap(connection -> Mono.from(connection.close()))
-                            .then(Mono.defer(() -> {
-                                reactiveExecutorContext.resetDirty();
-                                return Mono.empty();
-                            }));
+                    List<PendingBatchStatement> pendingBatchStatements = reactiveExecutorContext.drainPendingBatchStatements();
+                    if (pendingBatchStatements.isEmpty()) {
+                        return Mono.just(Collections.emptyList());
+                    }
+                    // pending statements are executed together,the longest statement timeout is applied
+                    Integer timeout = pendingBatchStatements.stream()
+                            .map(pendingBatchStatement -> pendingBatchStatement.getBatchResult().getMappedStatement().getTimeout())
+                            .filter(Objects::nonNull)
+                            .max(Integer::compareTo)
+                            .orElse(null);
+                    // the flush is observed as an execution of its first pending statement
+                    PendingBatchStatement firstPendingBatchStatement = pendingBatchStatements.get(0);
+                    return this.inConnection(
+                            this.connectionFactory,
+                            firstPendingBatchStatement.getBatchResult().getMappedStatement(),
+                            firstPendingBatchStatement.getBoundSql(),
+                            connection -> this.withStatementTimeout(connection, "flush statements", timeout,
+                                    this.doFlushStatementsWithConnection(connection, pendingBatchStatements)
+                                            .map(batchResults -> batchResults.stream()
+                                                    .flatMapToInt(batchResult -> IntStream.of(batchResult.getUpdateCounts()))
+                                                    .asLongStream()
+                                                    .sum()
+                                            )
+                            )
+                    ).then(Mono.fromSupplier(() -> pendingBatchStatements.stream()
+                            .map(PendingBatchStatement::getBatchResult)
+                            .collect(Collectors.toList())
+                    ));
                 });
     }
 
+    @Override
+    public Mono<Void> commit(boolean required) {
+        return MybatisReactiveContextManager.currentContext()
+                .flatMap(reactiveExecutorContext -> this.flushStatements()
+                        .then(Mono.defer(() -> {
+                            reactiveExecutorContext.setForceCommit(reactiveExecutorContext.isDirty() || required);
+                            reactiveExecutorContext.clearLocalCache();
+                            return Mono.justOrEmpty(reactiveExecutorContext.getConnection())
+                                    .flatMap(connection -> this.closeContextConnection(reactiveExecutorContext, connection))
+                                    .then(Mono.defer(() -> {
+                                        reactiveExecutorContext.resetDirty();
+                                        return Mono.empty();
+                                    }));
+                        }))
+                );
+    }
+
     @Override
     public Mono<Void> rollback(boolean required) {
         return MybatisReactiveContextManager.currentContext()
                 .flatMap(reactiveExecutorContext -> {
                     reactiveExecutorContext.setForceRollback(reactiveExecutorContext.isDirty() || required);
+                    reactiveExecutorContext.clearLocalCache();
+                    reactiveExecutorContext.drainPendingBatchStatements();
                     return Mono.justOrEmpty(reactiveExecutorContext.getConnection())
-                            .flatMap(connection -> Mono.from(connection.close()))
+                            .flatMap(connection -> this.closeContextConnection(reactiveExecutorContext, connection))
                             .then(Mono.defer(() -> {
                                 reactiveExecutorContext.resetDirty();
                                 return Mono.empty();
@@ -121,9 +254,11 @@ public abstract class AbstractReactiveMybatisExecutor implements ReactiveMybatis
         return MybatisReactiveContextManager.currentContext()
                 .flatMap(reactiveExecutorContext -> {
                     reactiveExecutorContext.setForceRollback(forceRollback);
+                    reactiveExecutorContext.clearLocalCache();
+                    reactiveExecutorContext.drainPendingBatchStatements();
                     reactiveExecutorContext.setRequireClosed(true);
                     return Mono.justOrEmpty(reactiveExecutorContext.getConnection())
-                            .flatMap(connection -> Mono.from(connection.close()))
+                            .flatMap(connection -> this.closeContextConnection(reactiveExecutorContext, connection))
                             .then(Mono.defer(() -> {
                                 reactiveExecutorContext.resetDirty();
                                 return Mono.empty();
@@ -131,6 +266,99 @@ public abstract class AbstractReactiveMybatisExecutor implements ReactiveMybatis
                 });
     }
 
+    @Override
+    public CacheKey createCacheKey(MappedStatement mappedStatement, Object parameter, RowBounds rowBounds, BoundSql boundSql) {
+        CacheKey cacheKey = new CacheKey();
+        cacheKey.update(mappedStatement.getId());
+        cacheKey.update(rowBounds.getOffset());
+        cacheKey.update(rowBounds.getLimit());
+        cacheKey.update(boundSql.getSql());
+        List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+        TypeHandlerRegistry typeHandlerRegistry = this.configuration.getTypeHandlerRegistry();
+        MetaObject metaObject = null;
+        for (ParameterMapping parameterMapping : parameterMappings) {
+            if (parameterMapping.getMode() == ParameterMode.OUT) {
+                continue;
+            }
+            Object value;
+            String propertyName = parameterMapping.getProperty();
+            if (boundSql.hasAdditionalParameter(propertyName)) {
+                value = boundSql.getAdditionalParameter(propertyName);
+            } else if (parameter == null) {
+                value = null;
+            } else if (typeHandlerRegistry.hasTypeHandler(parameter.getClass())) {
+                value = parameter;
+            } else {
+                if (metaObject == null) {
+                    metaObject = this.configuration.newMetaObject(parameter);
+                }
+                value = metaObject.getValue(propertyName);
+            }
+            cacheKey.update(value);
+        }
+        if (this.configuration.getR2dbcEnvironment() != null) {
+            cacheKey.update(this.configuration.getR2dbcEnvironment().getId());
+        }
+        return cacheKey;
+    }
+
+    /**
+     * Whether the local cache is applicable
+     * <p>
+     * Local cache only works within transaction,callable statements are always executed
+     *
+     * @param reactiveExecutorContext the reactive executor context
+     * @param mappedStatement         the mapped statement
+     * @return the boolean
+     */
+    protected boolean isLocalCacheApplicable(ReactiveExecutorContext reactiveExecutorContext, MappedStatement mappedStatement) {
+        return reactiveExecutorContext.isWithTransaction()
+                && mappedStatement.getStatementType() != StatementType.CALLABLE;
+    }
+
+    /**
+     * query from local cache
+     * <p>
+     * Identical queries of the same context share one execution,
+     * with {@link LocalCacheScope#STATEMENT} the shared result is evicted once the execution is completed,
+     * failed executions are always evicted.
+     *
+     * @param <E>                     the type parameter
+     * @param reactiveExecutorContext the reactive executor context
+     * @param cacheKey                the cache key
+     * @param queryAction             the query action
+     * @return flux
+     */
+    @SuppressWarnings("unchecked")
+    protected <E> Flux<E> queryFromLocalCache(ReactiveExecutorContext reactiveExecutorContext,
+                                              CacheKey cacheKey,
+                                              Supplier<Flux<E>> queryAction) {
+        Map<CacheKey, Flux<Object>> localCache = reactiveExecutorContext.getLocalCache();
+        Flux<Object> cachedFlux = localCache.get(cacheKey);
+        if (cachedFlux != null) {
+            if (log.isTraceEnabled()) {
+                log.trace("Query from local cache with cache key : " + cacheKey);
+            }
+            return (Flux<E>) cachedFlux;
+        }
+        boolean statementScope = this.configuration.getLocalCacheScope() == LocalCacheScope.STATEMENT;
+        AtomicReference<Flux<Object>> cachedFluxReference = new AtomicReference<>();
+        Flux<Object> newCachedFlux = Flux.defer(() -> (Flux<Object>) queryAction.get())
+                .doOnError(throwable -> localCache.remove(cacheKey, cachedFluxReference.get()))
+                .doOnComplete(() -> {
+                    if (statementScope) {
+                        localCache.remove(cacheKey, cachedFluxReference.get());
+                    }
+                })
+                .cache();
+        cachedFluxReference.set(newCachedFlux);
+        Flux<Object> existingCachedFlux = localCache.putIfAbsent(cacheKey, newCachedFlux);
+        if (existingCachedFlux != null) {
+            return (Flux<E>) existingCachedFlux;
+        }
+        return (Flux<E>) newCachedFlux;
+    }
+
     /**
      * do update with connection actually
      *
@@ -141,6 +369,25 @@ public abstract class AbstractReactiveMybatisExecutor implements ReactiveMybatis
      */
     protected abstract Mono<Long> doUpdateWithConnection(Connection connection, MappedStatement mappedStatement, Object parameter);
 
+    /**
+     * do update batch with connection actually
+     *
+     * @param connection      the connection
+     * @param mappedStatement the mapped statement
+     * @param parameters      the parameters
+     * @return mono
+     */
+    protected abstract Mono<Long> doUpdateBatchWithConnection(Connection connection, MappedStatement mappedStatement, List<?> parameters);
+
+    /**
+     * do flush pending batch statements with connection actually
+     *
+     * @param connection             the connection
+     * @param pendingBatchStatements the pending batch statements in execution order
+     * @return the batch results
+     */
+    protected abstract Mono<List<BatchResult>> doFlushStatementsWithConnection(Connection connection, List<PendingBatchStatement> pendingBatchStatements);
+
     /**
      * do query with connection actually
      *
@@ -149,9 +396,138 @@ public abstract class AbstractReactiveMybatisExecutor implements ReactiveMybatis
      * @param mappedStatement the mapped statement
      * @param parameter       the parameter
      * @param rowBounds       the row bounds
+     * @param boundSql        the bound sql of the parameter
+     * @return flux
+     */
+    protected abstract <E> Flux<E> doQueryWithConnection(Connection connection, MappedStatement mappedStatement, Object parameter, RowBounds rowBounds, BoundSql boundSql);
+
+    /**
+     * Apply statement timeout to the execution.
+     * <p>
+     * The timeout is the statement timeout in seconds (or {@code defaultStatementTimeout}),
+     * shortened to the remaining time of {@link StatementDeadline} in current context.
+     * It is applied with {@link Connection#setStatementTimeout(Duration)},
+     * and enforced on client side as well in case the driver does not support statement timeout:
+     * the execution is cancelled if the first result is not emitted within the timeout,
+     * the following results are not timed on client side since streamed rows are paced by the subscriber,
+     * and the whole execution is cancelled when the deadline of context is exceeded.
+     * <p>
+     * The statement timeout is reset before the connection is released whether the execution completes,fails or is cancelled.
+     * Within a transaction the connection is kept by the context,so the applied timeout is tracked by the context
+     * and only set again when the next statement requires another one,it is reset when the transaction ends.
+     *
+     * @param <T>                  the type parameter
+     * @param connection           the connection
+     * @param statementDescription the statement description
+     * @param timeoutSeconds       the timeout in seconds,null or non-positive means no timeout
+     * @param execution            the execution
      * @return flux
      */
-    protected abstract <E> Flux<E> doQueryWithConnection(Connection connection, MappedStatement mappedStatement, Object parameter, RowBounds rowBounds);
+    protected <T> Flux<T> withStatementTimeout(Connection connection, String statementDescription, Integer timeoutSeconds, Flux<T> execution) {
+        return Flux.deferContextual(contextView -> {
+            Duration timeout = timeoutSeconds == null || timeoutSeconds <= 0 ? null : Duration.ofSeconds(timeoutSeconds);
+            Optional<StatementDeadline> optionalDeadline = contextView.getOrEmpty(StatementDeadline.class);
+            Duration remaining = null;
+            if (optionalDeadline.isPresent()) {
+                StatementDeadline statementDeadline = optionalDeadline.get();
+                remaining = statementDeadline.remaining();
+                if (remaining.isZero()) {
+                    return Flux.error(new R2dbcStatementTimeoutException("Deadline " + statementDeadline.getDeadline() + " exceeded before executing : " + statementDescription));
+                }
+                if (timeout == null || remaining.compareTo(timeout) < 0) {
+                    timeout = remaining;
+                }
+            }
+            // the connection bound to a transaction is reused by the following statements of the context
+            ReactiveExecutorContext transactionContext = contextView.<ReactiveExecutorContext>getOrEmpty(ReactiveExecutorContext.class)
+                    .filter(ReactiveExecutorContext::isWithTransaction)
+                    .orElse(null);
+            if (timeout == null) {
+                if (transactionContext == null) {
+                    return execution;
+                }
+                return this.applyStatementTimeout(connection, transactionContext, Duration.ZERO)
+                        .thenMany(execution);
+            }
+            final Duration statementTimeout = timeout;
+            Flux<T> firstResultTimedExecution = execution.timeout(Mono.delay(statementTimeout), item -> Mono.never());
+            final Flux<T> timedExecution = (remaining == null ? firstResultTimedExecution : firstResultTimedExecution
+                    .takeUntilOther(Mono.delay(remaining).then(Mono.error(new TimeoutException()))))
+                    .onErrorMap(TimeoutException.class,
+                            throwable -> new R2dbcStatementTimeoutException("Statement timeout after " + statementTimeout + " : " + statementDescription, throwable)
+                    );
+            if (transactionContext != null) {
+                return this.applyStatementTimeout(connection, transactionContext, statementTimeout)
+                        .thenMany(timedExecution);
+            }
+            return Flux.usingWhen(
+                    this.setStatementTimeout(connection, statementTimeout).thenReturn(connection),
+                    ignore -> timedExecution,
+                    this::resetStatementTimeout,
+                    (target, throwable) -> this.resetStatementTimeout(target),
+                    this::resetStatementTimeout
+            );
+        });
+    }
+
+    /**
+     * Apply statement timeout to the execution.
+     *
+     * @param <T>                  the type parameter
+     * @param connection           the connection
+     * @param statementDescription the statement description
+     * @param timeoutSeconds       the timeout in seconds,null or non-positive means no timeout
+     * @param execution            the execution
+     * @return mono
+     * @see #withStatementTimeout(Connection, String, Integer, Flux)
+     */
+    protected <T> Mono<T> withStatementTimeout(Connection connection, String statementDescription, Integer timeoutSeconds, Mono<T> execution) {
+        return this.withStatementTimeout(connection, statementDescription, timeoutSeconds, execution.flux())
+                .singleOrEmpty();
+    }
+
+    private Mono<Void> setStatementTimeout(Connection connection, Duration statementTimeout) {
+        return Mono.from(connection.setStatementTimeout(statementTimeout))
+                .onErrorResume(throwable -> {
+                    log.debug("Set statement timeout failed,fallback to client side timeout : " + throwable.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> resetStatementTimeout(Connection connection) {
+        return Mono.from(connection.setStatementTimeout(Duration.ZERO))
+                .onErrorResume(throwable -> Mono.empty());
+    }
+
+    /**
+     * apply statement timeout to the connection bound to the context,
+     * nothing is executed if the timeout is already applied
+     *
+     * @param connection              the connection
+     * @param reactiveExecutorContext the reactive executor context
+     * @param statementTimeout        the statement timeout,{@link Duration#ZERO} means no timeout
+     * @return mono
+     */
+    private Mono<Void> applyStatementTimeout(Connection connection, ReactiveExecutorContext reactiveExecutorContext, Duration statementTimeout) {
+        if (statementTimeout.equals(reactiveExecutorContext.getAppliedStatementTimeout())) {
+            return Mono.empty();
+        }
+        return this.setStatementTimeout(connection, statementTimeout)
+                .doOnSuccess(ignore -> reactiveExecutorContext.setAppliedStatementTimeout(statementTimeout));
+    }
+
+    /**
+     * close the connection bound to the context,
+     * the statement timeout applied to the connection is reset before closing
+     *
+     * @param reactiveExecutorContext the reactive executor context
+     * @param connection              the connection
+     * @return mono
+     */
+    private Mono<Void> closeContextConnection(ReactiveExecutorContext reactiveExecutorContext, Connection connection) {
+        return this.applyStatementTimeout(connection, reactiveExecutorContext, Duration.ZERO)
+                .then(Mono.from(connection.close()));
+    }
 
     /**
      * in connection
@@ -199,6 +575,92 @@ public abstract class AbstractReactiveMybatisExecutor implements ReactiveMybatis
                 ConnectionCloseHolder::close);
     }
 
+    /**
+     * get the bound sql of the update for the statement execution observer,
+     * the bound sql is only built if the statement execution observer is configured
+     *
+     * @param mappedStatement the mapped statement
+     * @param parameter       the parameter
+     * @return the bound sql,null if the statement execution observer is not configured
+     */
+    private BoundSql getObservedBoundSql(MappedStatement mappedStatement, Object parameter) {
+        if (Objects.isNull(configuration.getStatementExecutionObserver())) {
+            return null;
+        }
+        return mappedStatement.getBoundSql(parameter);
+    }
+
+    /**
+     * in connection of the mapped statement,
+     * the execution is observed if the statement execution observer is configured,
+     * and the execution metrics of the statement are recorded if the statement metrics recorder is configured
+     *
+     * @param connectionFactory the connection factory
+     * @param mappedStatement   the mapped statement
+     * @param boundSql          the bound sql of the statement,null if the statement execution observer is not configured
+     * @param action            the action
+     * @return mono
+     */
+    protected Mono<Long> inConnection(ConnectionFactory connectionFactory, MappedStatement mappedStatement, BoundSql boundSql, Function<Connection, Mono<Long>> action) {
+        StatementMetricsRecorder statementMetricsRecorder = configuration.getStatementMetricsRecorder();
+        Mono<Long> execution;
+        if (Objects.isNull(statementMetricsRecorder)) {
+            execution = this.inConnection(connectionFactory, action);
+        } else {
+            execution = Mono.defer(() -> {
+                StatementExecutionMetrics statementExecutionMetrics = new StatementExecutionMetrics(statementMetricsRecorder, mappedStatement);
+                return this.inConnection(connectionFactory, connection -> {
+                            statementExecutionMetrics.onConnectionAcquired();
+                            return action.apply(connection);
+                        })
+                        .doOnNext(statementExecutionMetrics::onUpdateCount)
+                        .doOnError(statementExecutionMetrics::onError)
+                        .doFinally(statementExecutionMetrics::onFinally);
+            });
+        }
+        StatementExecutionObserver statementExecutionObserver = configuration.getStatementExecutionObserver();
+        if (Objects.isNull(statementExecutionObserver)) {
+            return execution;
+        }
+        return statementExecutionObserver.observe(mappedStatement, boundSql, execution);
+    }
+
+    /**
+     * in connection many of the mapped statement,
+     * the execution is observed if the statement execution observer is configured,
+     * and the execution metrics of the statement are recorded if the statement metrics recorder is configured
+     *
+     * @param <T>               the type parameter
+     * @param connectionFactory the connection factory
+     * @param mappedStatement   the mapped statement
+     * @param boundSql          the bound sql of the statement
+     * @param action            the action
+     * @return flux
+     */
+    protected <T> Flux<T> inConnectionMany(ConnectionFactory connectionFactory, MappedStatement mappedStatement, BoundSql boundSql, Function<Connection, Flux<T>> action) {
+        StatementMetricsRecorder statementMetricsRecorder = configuration.getStatementMetricsRecorder();
+        Flux<T> execution;
+        if (Objects.isNull(statementMetricsRecorder)) {
+            execution = this.inConnectionMany(connectionFactory, action);
+        } else {
+            execution = Flux.defer(() -> {
+                StatementExecutionMetrics statementExecutionMetrics = new StatementExecutionMetrics(statementMetricsRecorder, mappedStatement);
+                return this.inConnectionMany(connectionFactory, connection -> {
+                            statementExecutionMetrics.onConnectionAcquired();
+                            return action.apply(connection)
+                                    .doOnNext(row -> statementExecutionMetrics.onRow());
+                        })
+                        .doOnError(statementExecutionMetrics::onError)
+                        .doFinally(statementExecutionMetrics::onFinally);
+            });
+        }
+        StatementExecutionObserver statementExecutionObserver = configuration.getStatementExecutionObserver();
+        if (Objects.isNull(statementExecutionObserver)) {
+            return execution;
+        }
+        return statementExecutionObserver.observeMany(mappedStatement, boundSql, execution);
+    }
+
     /**
      * Release the {@link Connection}.
      *
@@ -0,0 +1,296 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cache.TransactionalCacheManager;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.session.RowBounds;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.MybatisReactiveContextManager;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.ReactiveExecutorContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The type Caching reactive mybatis executor.
+ * <p>
+ * Serve queries from the second level cache of mapper namespace ({@code <cache/>} or {@code @CacheNamespace}),
+ * entries are staged in the {@link TransactionalCacheManager} of current {@link ReactiveExecutorContext}
+ * and only become visible to other sessions after commit.
+ * Without transaction,staged entries are committed as soon as the statement completes.
+ * When the context joins an external transaction (see {@link #synchronizeWithTransaction(ReactiveExecutorContext)}),
+ * staged entries are committed or discarded when that transaction completes.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class CachingReactiveMybatisExecutor implements ReactiveMybatisExecutor {
+
+    private final ReactiveMybatisExecutor delegate;
+
+    /**
+     * Instantiates a new Caching reactive mybatis executor.
+     *
+     * @param delegate the delegate
+     */
+    public CachingReactiveMybatisExecutor(ReactiveMybatisExecutor delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Gets delegate.
+     *
+     * @return the delegate
+     */
+    public ReactiveMybatisExecutor getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public Mono<Long> update(MappedStatement mappedStatement, Object parameter) {
+        if (mappedStatement.getCache() == null) {
+            return this.delegate.update(mappedStatement, parameter);
+        }
+        return MybatisReactiveContextManager.currentContext()
+                .flatMap(reactiveExecutorContext -> {
+                    this.flushCacheIfRequired(reactiveExecutorContext, mappedStatement);
+                    return this.synchronizeWithTransaction(reactiveExecutorContext)
+                            .flatMap(transactional -> this.delegate.update(mappedStatement, parameter)
+                                    .doFinally(signalType -> this.commitIfWithoutTransaction(reactiveExecutorContext, transactional))
+                            );
+                });
+    }
+
+    @Override
+    public Mono<Long> updateBatch(MappedStatement mappedStatement, List<?> parameters) {
+        if (mappedStatement.getCache() == null) {
+            return this.delegate.updateBatch(mappedStatement, parameters);
+        }
+        return MybatisReactiveContextManager.currentContext()
+                .flatMap(reactiveExecutorContext -> {
+                    this.flushCacheIfRequired(reactiveExecutorContext, mappedStatement);
+                    return this.synchronizeWithTransaction(reactiveExecutorContext)
+                            .flatMap(transactional -> this.delegate.updateBatch(mappedStatement, parameters)
+                                    .doFinally(signalType -> this.commitIfWithoutTransaction(reactiveExecutorContext, transactional))
+                            );
+                });
+    }
+
+    @Override
+    public <E> Flux<E> query(MappedStatement mappedStatement, Object parameter, RowBounds rowBounds) {
+        if (mappedStatement.getCache() == null) {
+            return this.delegate.query(mappedStatement, parameter, rowBounds);
+        }
+        return Flux.defer(() -> this.query(mappedStatement, parameter, rowBounds, mappedStatement.getBoundSql(parameter)));
+    }
+
+    @Override
+    public <E> Flux<E> query(MappedStatement mappedStatement, Object parameter, RowBounds rowBounds, BoundSql boundSql) {
+        Cache cache = mappedStatement.getCache();
+        if (cache == null) {
+            return this.delegate.query(mappedStatement, parameter, rowBounds, boundSql);
+        }
+        return MybatisReactiveContextManager.currentContext()
+                .flatMapMany(reactiveExecutorContext -> this.synchronizeWithTransaction(reactiveExecutorContext)
+                        .flatMapMany(transactional -> this.queryWithCache(reactiveExecutorContext, transactional, cache, mappedStatement, parameter, rowBounds, boundSql))
+                );
+    }
+
+    /**
+     * query with second level cache
+     *
+     * @param <E>                     the type parameter
+     * @param reactiveExecutorContext the reactive executor context
+     * @param transactional           whether staged entries wait for a transaction to complete
+     * @param cache                   the cache
+     * @param mappedStatement         the mapped statement
+     * @param parameter               the parameter
+     * @param rowBounds               the row bounds
+     * @param boundSql                the bound sql
+     * @return the flux
+     */
+    @SuppressWarnings("unchecked")
+    private <E> Flux<E> queryWithCache(ReactiveExecutorContext reactiveExecutorContext,
+                                       boolean transactional,
+                                       Cache cache,
+                                       MappedStatement mappedStatement,
+                                       Object parameter,
+                                       RowBounds rowBounds,
+                                       BoundSql boundSql) {
+        this.flushCacheIfRequired(reactiveExecutorContext, mappedStatement);
+        if (!mappedStatement.isUseCache()) {
+            return this.delegate.<E>query(mappedStatement, parameter, rowBounds, boundSql)
+                    .doFinally(signalType -> this.commitIfWithoutTransaction(reactiveExecutorContext, transactional));
+        }
+        this.ensureNoOutParams(mappedStatement, boundSql);
+        CacheKey cacheKey = this.delegate.createCacheKey(mappedStatement, parameter, rowBounds, boundSql);
+        TransactionalCacheManager transactionalCacheManager = reactiveExecutorContext.getTransactionalCacheManager();
+        List<E> cachedList;
+        synchronized (transactionalCacheManager) {
+            cachedList = (List<E>) transactionalCacheManager.getObject(cache, cacheKey);
+        }
+        if (cachedList != null) {
+            return Flux.fromIterable(cachedList);
+        }
+        List<E> resultList = new ArrayList<>();
+        return this.delegate.<E>query(mappedStatement, parameter, rowBounds, boundSql)
+                .doOnNext(resultList::add)
+                .doOnComplete(() -> {
+                    synchronized (transactionalCacheManager) {
+                        transactionalCacheManager.putObject(cache, cacheKey, resultList);
+                    }
+                })
+                .doFinally(signalType -> this.commitIfWithoutTransaction(reactiveExecutorContext, transactional));
+    }
+
+    @Override
+    public Mono<List<BatchResult>> flushStatements() {
+        return this.delegate.flushStatements();
+    }
+
+    @Override
+    public Mono<Void> commit(boolean required) {
+        return MybatisReactiveContextManager.currentContext()
+                .flatMap(reactiveExecutorContext -> this.delegate.commit(required)
+                        .then(Mono.fromRunnable(() -> {
+                            if (reactiveExecutorContext.isTransactionSynchronized()) {
+                                return;
+                            }
+                            TransactionalCacheManager transactionalCacheManager = reactiveExecutorContext.getTransactionalCacheManager();
+                            synchronized (transactionalCacheManager) {
+                                transactionalCacheManager.commit();
+                            }
+                        }))
+                );
+    }
+
+    @Override
+    public Mono<Void> rollback(boolean required) {
+        return MybatisReactiveContextManager.currentContext()
+                .flatMap(reactiveExecutorContext -> this.delegate.rollback(required)
+                        .then(Mono.fromRunnable(() -> {
+                            if (reactiveExecutorContext.isTransactionSynchronized()) {
+                                return;
+                            }
+                            TransactionalCacheManager transactionalCacheManager = reactiveExecutorContext.getTransactionalCacheManager();
+                            synchronized (transactionalCacheManager) {
+                                transactionalCacheManager.rollback();
+                            }
+                        }))
+                );
+    }
+
+    @Override
+    public Mono<Void> close(boolean forceRollback) {
+        return MybatisReactiveContextManager.currentContext()
+                .flatMap(reactiveExecutorContext -> this.delegate.close(forceRollback)
+                        .then(Mono.fromRunnable(() -> {
+                            if (reactiveExecutorContext.isTransactionSynchronized()) {
+                                return;
+                            }
+                            TransactionalCacheManager transactionalCacheManager = reactiveExecutorContext.getTransactionalCacheManager();
+                            synchronized (transactionalCacheManager) {
+                                if (forceRollback) {
+                                    transactionalCacheManager.rollback();
+                                } else {
+                                    transactionalCacheManager.commit();
+                                }
+                            }
+                        }))
+                );
+    }
+
+    @Override
+    public CacheKey createCacheKey(MappedStatement mappedStatement, Object parameter, RowBounds rowBounds, BoundSql boundSql) {
+        return this.delegate.createCacheKey(mappedStatement, parameter, rowBounds, boundSql);
+    }
+
+    /**
+     * flush cache if required
+     *
+     * @param reactiveExecutorContext the reactive executor context
+     * @param mappedStatement         the mapped statement
+     */
+    private void flushCacheIfRequired(ReactiveExecutorContext reactiveExecutorContext, MappedStatement mappedStatement) {
+        Cache cache = mappedStatement.getCache();
+        if (cache != null && mappedStatement.isFlushCacheRequired()) {
+            TransactionalCacheManager transactionalCacheManager = reactiveExecutorContext.getTransactionalCacheManager();
+            synchronized (transactionalCacheManager) {
+                transactionalCacheManager.clear(cache);
+            }
+        }
+    }
+
+    /**
+     * Synchronize the staged cache entries of current context with a transaction.
+     * <p>
+     * Returns whether the staged entries have to wait for a transaction to complete,
+     * by default they wait for the commit/rollback/close of the session when the context is with transaction.
+     * Integrations managing transactions outside the session should register a callback committing or rolling back
+     * the {@link TransactionalCacheManager} of the context on completion,
+     * and mark the context with {@link ReactiveExecutorContext#setTransactionSynchronized()}.
+     *
+     * @param reactiveExecutorContext the reactive executor context
+     * @return whether the staged entries wait for a transaction to complete
+     */
+    protected Mono<Boolean> synchronizeWithTransaction(ReactiveExecutorContext reactiveExecutorContext) {
+        return Mono.just(reactiveExecutorContext.isWithTransaction() || reactiveExecutorContext.isTransactionSynchronized());
+    }
+
+    /**
+     * commit staged cache entries if current statement is not within a transaction
+     *
+     * @param reactiveExecutorContext the reactive executor context
+     * @param transactional           whether staged entries wait for a transaction to complete
+     */
+    private void commitIfWithoutTransaction(ReactiveExecutorContext reactiveExecutorContext, boolean transactional) {
+        if (transactional) {
+            return;
+        }
+        TransactionalCacheManager transactionalCacheManager = reactiveExecutorContext.getTransactionalCacheManager();
+        synchronized (transactionalCacheManager) {
+            transactionalCacheManager.commit();
+        }
+    }
+
+    /**
+     * ensure no out params
+     *
+     * @param mappedStatement the mapped statement
+     * @param boundSql        the bound sql
+     */
+    private void ensureNoOutParams(MappedStatement mappedStatement, BoundSql boundSql) {
+        if (mappedStatement.getStatementType() != StatementType.CALLABLE) {
+            return;
+        }
+        for (ParameterMapping parameterMapping : boundSql.getParameterMappings()) {
+            if (parameterMapping.getMode() != ParameterMode.IN) {
+                throw new ExecutorException("Caching stored procedures with OUT params is not supported.  Please configure useCache=false in " + mappedStatement.getId() + " statement.");
+            }
+        }
+    }
+}
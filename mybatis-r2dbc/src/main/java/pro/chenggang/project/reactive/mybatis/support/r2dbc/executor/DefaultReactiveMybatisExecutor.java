@@ -15,11 +15,14 @@
  */
 package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor;
 
+import io.r2dbc.spi.Batch;
 import io.r2dbc.spi.Connection;
 import io.r2dbc.spi.OutParameters;
 import io.r2dbc.spi.Result;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.Statement;
+import org.apache.ibatis.executor.BatchExecutor;
+import org.apache.ibatis.executor.BatchResult;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.SelectKeyGenerator;
@@ -29,32 +32,53 @@ import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.mapping.StatementType;
 import org.apache.ibatis.session.RowBounds;
+import org.reactivestreams.Publisher;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.MybatisReactiveContextManager;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybatisConfiguration;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.exception.GeneratedKeysException;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.exception.R2dbcParameterException;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.key.DefaultR2dbcKeyGenerator;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.key.KeyGeneratorType;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.key.NoKeyR2dbcKeyGenerator;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.key.R2dbcKeyGenerator;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.key.SelectR2dbcKeyGenerator;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.parameter.DelegateR2dbcParameterHandler;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.placeholder.PaginationSql;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.placeholder.PlaceholderFormatter;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.placeholder.defaults.DefaultPlaceholderFormatter;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.ReadableResultShape;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.ReadableResultWrapper;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.SpilledRow;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.handler.DefaultReactiveResultHandler;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.handler.ReactiveResultHandler;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.AdaptiveFetchSize;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.KeysetSqlSource;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.LazyNestedSelectLoader;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.NestedSelectLoad;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.NestedSelectLoader;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.PendingBatchStatement;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.R2dbcSlowQueryLog;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.R2dbcStatementLog;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.ReactiveExecutorContext;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.ReactiveExecutorContextAttribute;
-import pro.chenggang.project.reactive.mybatis.support.r2dbc.support.ProxyInstanceFactory;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuples;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.key.KeyGeneratorType.SELECT_KEY_AFTER;
@@ -77,6 +101,23 @@ public class DefaultReactiveMybatisExecutor extends AbstractReactiveMybatisExecu
      */
     protected PlaceholderFormatter placeholderFormatter;
 
+    /**
+     * The Nested select loader.
+     */
+    protected NestedSelectLoader nestedSelectLoader;
+    /**
+     * The lazy nested select loader of Mono/Flux properties
+     */
+    protected LazyNestedSelectLoader lazyNestedSelectLoader;
+    /**
+     * The adaptive fetch size of streaming statements
+     */
+    protected AdaptiveFetchSize adaptiveFetchSize;
+    /**
+     * The slow query log
+     */
+    protected R2dbcSlowQueryLog slowQueryLog;
+
     /**
      * Instantiates a new Default reactive mybatis executor.
      *
@@ -84,11 +125,28 @@ public class DefaultReactiveMybatisExecutor extends AbstractReactiveMybatisExecu
      */
     public DefaultReactiveMybatisExecutor(R2dbcMybatisConfiguration configuration) {
         super(configuration, configuration.getR2dbcEnvironment().getConnectionFactory());
-        this.placeholderFormatter = new DefaultPlaceholderFormatter(
+        DefaultPlaceholderFormatter defaultPlaceholderFormatter = new DefaultPlaceholderFormatter(
                 configuration.getPlaceholderDialectRegistry(),
                 configuration.getFormattedDialectSqlCacheMaxSize(),
                 configuration.getFormattedDialectSqlCacheExpireDuration()
         );
+        defaultPlaceholderFormatter.preformatStaticSql(configuration.getMappedStatements());
+        this.placeholderFormatter = defaultPlaceholderFormatter;
+        if (Objects.nonNull(configuration.getStatementMetricsRecorder())) {
+            configuration.getStatementMetricsRecorder().bindPlaceholderFormatter(this.placeholderFormatter);
+        }
+        this.nestedSelectLoader = new NestedSelectLoader(configuration);
+        // lazy loads run within the reactor context of the subscriber of the property,
+        // the executor context is replaced since the transaction of parent query may already be finished,
+        // while the attributes of the subscriber's context are kept
+        this.lazyNestedSelectLoader = new LazyNestedSelectLoader(configuration,
+                this.nestedSelectLoader,
+                (nestedQuery, nestedParameter) -> this.queryNestedSelect(nestedQuery, nestedParameter)
+                        .contextWrite(context -> context.put(ReactiveExecutorContext.class, new ReactiveExecutorContext(true, null)))
+                        .contextWrite(MybatisReactiveContextManager::initReactiveExecutorContextAttribute)
+        );
+        this.adaptiveFetchSize = new AdaptiveFetchSize(configuration);
+        this.slowQueryLog = new R2dbcSlowQueryLog(configuration);
     }
 
     @Override
@@ -99,9 +157,21 @@ public class DefaultReactiveMybatisExecutor extends AbstractReactiveMybatisExecu
                         log.trace("Do update with connection from context : " + reactiveExecutorContext);
                     }
                 })
-                .map(ReactiveExecutorContext::getR2dbcStatementLog)
-                .flatMap(r2dbcStatementLog -> {
+                .flatMap(reactiveExecutorContext -> {
+                    R2dbcStatementLog r2dbcStatementLog = reactiveExecutorContext.getR2dbcStatementLog();
                     R2dbcKeyGenerator r2dbcKeyGenerator = this.getR2dbcKeyGenerator(mappedStatement);
+                    if (reactiveExecutorContext.isBatchExecution()) {
+                        if (this.isBatchSupported(mappedStatement, r2dbcKeyGenerator)) {
+                            return MybatisReactiveContextManager.currentContextAttribute()
+                                    .flatMap(attribute -> this.doBatchUpdateWithConnection(connection, mappedStatement, parameter, reactiveExecutorContext, attribute, r2dbcStatementLog));
+                        }
+                        // statement which could not be batched is executed after pending batch statements
+                        List<PendingBatchStatement> pendingBatchStatements = reactiveExecutorContext.drainPendingBatchStatements();
+                        if (!pendingBatchStatements.isEmpty()) {
+                            return this.doFlushStatementsWithConnection(connection, pendingBatchStatements)
+                                    .then(Mono.defer(() -> this.doUpdateWithConnection(connection, mappedStatement, parameter)));
+                        }
+                    }
                     return MybatisReactiveContextManager.currentContextAttribute()
                             .flatMap(attribute -> r2dbcKeyGenerator.processSelectKey(SELECT_KEY_BEFORE, mappedStatement, parameter)
                                     .flatMapMany(ignoreResult -> {
@@ -111,16 +181,21 @@ public class DefaultReactiveMybatisExecutor extends AbstractReactiveMybatisExecu
                                         StatementHandler handler = configuration.newStatementHandler(null, mappedStatement, parameter, RowBounds.DEFAULT, null, null);
                                         ParameterHandler parameterHandler = handler.getParameterHandler();
                                         Statement statement = this.createStatementInternal(connection, boundSql, mappedStatement, parameterHandler, RowBounds.DEFAULT, isSimpleReturnedGeneratedKeys, attribute, r2dbcStatementLog);
+                                        final long executionStartNanos = System.nanoTime();
                                         if(isSimpleReturnedGeneratedKeys){
                                             return Flux.from(statement
                                                                   .fetchSize(mappedStatement.getKeyProperties().length)
                                                                   .execute()
                                                     )
                                                     .checkpoint("[DefaultReactiveExecutor] SQL: \"" + boundSqlStatement + "\" ")
-                                                    .concatMap(result -> result.map((row, rowMetadata) -> {
-                                                        ReadableResultWrapper<Row> readableResultWrapper = ReadableResultWrapper.ofRow(row,configuration);
-                                                        return r2dbcKeyGenerator.processGeneratedKeyResult(readableResultWrapper, parameter);
-                                                    }));
+                                                    .concatMap(result -> {
+                                                        final AtomicReference<ReadableResultShape> readableResultShapeReference = new AtomicReference<>();
+                                                        return result.map((row, rowMetadata) -> {
+                                                            ReadableResultWrapper<Row> readableResultWrapper = ReadableResultWrapper.ofRow(row, readableResultShapeReference, configuration);
+                                                            return r2dbcKeyGenerator.processGeneratedKeyResult(readableResultWrapper, parameter);
+                                                        });
+                                                    })
+                                                    .transform(updateCounts -> this.logUpdateIfSlow(updateCounts, mappedStatement, boundSql, parameter, executionStartNanos));
                                         }
                                         final ReactiveResultHandler reactiveResultHandler = new DefaultReactiveResultHandler(configuration, mappedStatement, boundSql, parameterHandler);
                                         boolean anyOutParameterExist = boundSql.getParameterMappings()
@@ -163,7 +238,8 @@ public class DefaultReactiveMybatisExecutor extends AbstractReactiveMybatisExecu
                                                                 });
                                                     }
                                                     return Mono.from(result.getRowsUpdated());
-                                                });
+                                                })
+                                                .transform(updateCounts -> this.logUpdateIfSlow(updateCounts, mappedStatement, boundSql, parameter, executionStartNanos));
                                     })
                                     .collect(Collectors.summingLong(Long::longValue))
                                     .defaultIfEmpty(0L)
@@ -176,7 +252,89 @@ public class DefaultReactiveMybatisExecutor extends AbstractReactiveMybatisExecu
     }
 
     @Override
-    protected <E> Flux<E> doQueryWithConnection(Connection connection, MappedStatement mappedStatement, Object parameter, RowBounds rowBounds) {
+    protected Mono<Long> doUpdateBatchWithConnection(Connection connection, MappedStatement mappedStatement, List<?> parameters) {
+        return MybatisReactiveContextManager.currentContext()
+                .flatMap(reactiveExecutorContext -> {
+                    R2dbcStatementLog r2dbcStatementLog = reactiveExecutorContext.getR2dbcStatementLog();
+                    R2dbcKeyGenerator r2dbcKeyGenerator = this.getR2dbcKeyGenerator(mappedStatement);
+                    List<PendingBatchStatement> pendingBatchStatements = reactiveExecutorContext.drainPendingBatchStatements();
+                    Mono<List<BatchResult>> pendingBatchFlush = pendingBatchStatements.isEmpty()
+                            ? Mono.empty()
+                            : this.doFlushStatementsWithConnection(connection, pendingBatchStatements);
+                    if (!this.isBatchSupported(mappedStatement, r2dbcKeyGenerator)) {
+                        return pendingBatchFlush.then(Flux.fromIterable(parameters)
+                                .concatMap(parameter -> this.doUpdateWithConnection(connection, mappedStatement, parameter))
+                                .reduce(0L, Long::sum)
+                        );
+                    }
+                    return MybatisReactiveContextManager.currentContextAttribute()
+                            .flatMap(attribute -> {
+                                List<PendingBatchStatement> batchStatements = new ArrayList<>();
+                                for (Object parameter : parameters) {
+                                    this.accumulateBatchStatement(batchStatements, connection, mappedStatement, parameter, attribute, r2dbcStatementLog);
+                                }
+                                return pendingBatchFlush.then(this.doFlushStatementsWithConnection(connection, batchStatements));
+                            })
+                            .map(batchResults -> batchResults.stream()
+                                    .flatMapToInt(batchResult -> IntStream.of(batchResult.getUpdateCounts()))
+                                    .asLongStream()
+                                    .sum()
+                            );
+                });
+    }
+
+    @Override
+    protected Mono<List<BatchResult>> doFlushStatementsWithConnection(Connection connection, List<PendingBatchStatement> pendingBatchStatements) {
+        // consecutive parameterless statements are executed within one batch
+        List<List<PendingBatchStatement>> executionGroups = new ArrayList<>();
+        List<PendingBatchStatement> parameterlessGroup = null;
+        for (PendingBatchStatement pendingBatchStatement : pendingBatchStatements) {
+            if (!pendingBatchStatement.isParameterless()) {
+                parameterlessGroup = null;
+                executionGroups.add(Collections.singletonList(pendingBatchStatement));
+                continue;
+            }
+            if (parameterlessGroup == null) {
+                parameterlessGroup = new ArrayList<>();
+                executionGroups.add(parameterlessGroup);
+            }
+            parameterlessGroup.add(pendingBatchStatement);
+        }
+        return Flux.fromIterable(executionGroups)
+                .concatMap(executionGroup -> {
+                    if (executionGroup.get(0).isParameterless()) {
+                        return this.executeParameterlessBatchStatements(connection, executionGroup);
+                    }
+                    return this.executeBatchStatement(executionGroup.get(0));
+                })
+                .then(Mono.fromSupplier(() -> pendingBatchStatements.stream()
+                        .map(PendingBatchStatement::getBatchResult)
+                        .collect(Collectors.toList())
+                ));
+    }
+
+    @Override
+    protected <E> Flux<E> doQueryWithConnection(Connection connection, MappedStatement mappedStatement, Object parameter, RowBounds rowBounds, BoundSql boundSql) {
+        if (!this.adaptiveFetchSize.isStreaming(mappedStatement)) {
+            return this.doQueryWithConnection(connection, mappedStatement, parameter, rowBounds, boundSql, null);
+        }
+        // the statement is executed once the first demand is known,so that the fetch size follows the demand
+        return AdaptiveFetchSize.onFirstDemand(demand -> this.doQueryWithConnection(connection, mappedStatement, parameter, rowBounds, boundSql, demand));
+    }
+
+    /**
+     * do query with connection
+     *
+     * @param <E>             the type parameter
+     * @param connection      the connection
+     * @param mappedStatement the mapped statement
+     * @param parameter       the parameter
+     * @param rowBounds       the row bounds
+     * @param originalBoundSql the bound sql of the parameter
+     * @param streamingDemand the first downstream demand of streaming statement,null if the statement is not streamed
+     * @return the flux
+     */
+    private <E> Flux<E> doQueryWithConnection(Connection connection, MappedStatement mappedStatement, Object parameter, RowBounds rowBounds, BoundSql originalBoundSql, Long streamingDemand) {
         return MybatisReactiveContextManager.currentContext()
                 .doOnNext(reactiveExecutorContext -> {
                     if (log.isTraceEnabled()) {
@@ -186,11 +344,15 @@ public class DefaultReactiveMybatisExecutor extends AbstractReactiveMybatisExecu
                 .map(ReactiveExecutorContext::getR2dbcStatementLog)
                 .flatMapMany(r2dbcStatementLog -> MybatisReactiveContextManager.currentContextAttribute()
                         .flatMapMany(attribute -> {
-                            BoundSql boundSql = mappedStatement.getBoundSql(parameter);
+                            BoundSql boundSql = this.paginateIfApplicable(connection, mappedStatement, originalBoundSql, rowBounds, attribute);
+                            boolean paginationPushedDown = boundSql != originalBoundSql;
                             String boundSqlStatement = boundSql.getSql();
                             StatementHandler handler = configuration.newStatementHandler(null, mappedStatement, parameter, rowBounds, null, null);
                             ParameterHandler parameterHandler = handler.getParameterHandler();
                             Statement statement = this.createStatementInternal(connection, boundSql, mappedStatement, parameterHandler, rowBounds, false, attribute, r2dbcStatementLog);
+                            if (streamingDemand != null) {
+                                statement.fetchSize(this.adaptiveFetchSize.resolveFetchSize(mappedStatement, rowBounds, streamingDemand));
+                            }
                             final ReactiveResultHandler reactiveResultHandler = new DefaultReactiveResultHandler(configuration, mappedStatement, boundSql, parameterHandler);
                             boolean anyOutParameterExist = boundSql.getParameterMappings()
                                     .stream()
@@ -198,13 +360,18 @@ public class DefaultReactiveMybatisExecutor extends AbstractReactiveMybatisExecu
                                             ParameterMode.OUT.equals(parameterMapping.getMode())
                                                     || ParameterMode.INOUT.equals(parameterMapping.getMode())
                                     );
-                            return Flux.from(statement.execute())
+                            final long executionStartNanos = System.nanoTime();
+                            // only results with rows are result sets,update counts and out parameters don't consume a result map
+                            final AtomicInteger nextResultSetIndex = new AtomicInteger();
+                            Flux<E> resultFlux = Flux.from(statement.execute())
                                     .checkpoint("[DefaultReactiveExecutor] SQL: \"" + boundSqlStatement + "\"")
-                                    .skip(rowBounds.getOffset())
-                                    .take(rowBounds.getLimit(), true)
                                     .concatMap(result -> {
+                                        final AtomicInteger resultSetIndex = new AtomicInteger(-1);
+                                        // all rows of the same result share the same readable result shape
+                                        final AtomicReference<ReadableResultShape> readableResultShapeReference = new AtomicReference<>();
+                                        final Publisher<E> resultObjects;
                                         if (anyOutParameterExist) {
-                                            return result.filter(segment -> segment instanceof Result.Message
+                                            resultObjects = result.filter(segment -> segment instanceof Result.Message
                                                             || segment instanceof Result.RowSegment
                                                             || segment instanceof Result.OutSegment
                                                     )
@@ -214,11 +381,13 @@ public class DefaultReactiveMybatisExecutor extends AbstractReactiveMybatisExecu
                                                         }
                                                         // row data
                                                         if (segment instanceof Result.RowSegment) {
+                                                            this.recordRowMetadataIfStreaming(mappedStatement, streamingDemand, readableResultShapeReference, ((Result.RowSegment) segment).row());
                                                             ReadableResultWrapper<Row> readableResultWrapper = ReadableResultWrapper.ofRow(
                                                                     ((Result.RowSegment) segment).row(),
+                                                                    readableResultShapeReference,
                                                                     configuration
                                                             );
-                                                            return reactiveResultHandler.handleResult(readableResultWrapper);
+                                                            return reactiveResultHandler.handleResult(readableResultWrapper, this.resolveResultSetIndex(resultSetIndex, nextResultSetIndex));
                                                         }
                                                         // output parameters
                                                         if (segment instanceof Result.OutSegment) {
@@ -231,36 +400,397 @@ public class DefaultReactiveMybatisExecutor extends AbstractReactiveMybatisExecu
                                                         log.trace("[DoQuery]Ignore process result's segment : " + segment.getClass());
                                                         return Mono.<E>empty();
                                                     });
+                                        } else if (reactiveResultHandler.isSpillable()) {
+                                            // rows are captured on the driver thread,and handled where spilling to temporary files is allowed to block
+                                            final AtomicReference<SpilledRow.Metadata> spilledRowMetadataReference = new AtomicReference<>();
+                                            resultObjects = Flux.from(result.filter(segment -> segment instanceof Result.Message
+                                                                    || segment instanceof Result.RowSegment
+                                                            )
+                                                            .flatMap(segment -> {
+                                                                if (segment instanceof Result.Message) {
+                                                                    return Mono.error(((Result.Message) segment).exception());
+                                                                }
+                                                                this.resolveResultSetIndex(resultSetIndex, nextResultSetIndex);
+                                                                SpilledRow spilledRow = SpilledRow.capture(((Result.RowSegment) segment).row(), spilledRowMetadataReference.get());
+                                                                spilledRowMetadataReference.set(spilledRow.getMetadata());
+                                                                return Mono.just(spilledRow);
+                                                            })
+                                                    )
+                                                    .publishOn(Schedulers.boundedElastic())
+                                                    .concatMap(spilledRow -> {
+                                                        ReadableResultWrapper<Row> readableResultWrapper = ReadableResultWrapper.ofRow(
+                                                                spilledRow,
+                                                                readableResultShapeReference,
+                                                                configuration
+                                                        );
+                                                        return reactiveResultHandler.handleResult(readableResultWrapper, resultSetIndex.get());
+                                                    });
+                                        } else {
+                                            resultObjects = result.filter(segment -> segment instanceof Result.Message
+                                                            || segment instanceof Result.RowSegment
+                                                    )
+                                                    .flatMap(segment -> {
+                                                        if (segment instanceof Result.Message) {
+                                                            return Mono.error(((Result.Message) segment).exception());
+                                                        }
+                                                        this.recordRowMetadataIfStreaming(mappedStatement, streamingDemand, readableResultShapeReference, ((Result.RowSegment) segment).row());
+                                                        ReadableResultWrapper<Row> readableResultWrapper = ReadableResultWrapper.ofRow(
+                                                                ((Result.RowSegment) segment).row(),
+                                                                readableResultShapeReference,
+                                                                configuration
+                                                        );
+                                                        return reactiveResultHandler.handleResult(readableResultWrapper, this.resolveResultSetIndex(resultSetIndex, nextResultSetIndex));
+                                                    });
                                         }
-                                        return result.filter(segment -> segment instanceof Result.Message
-                                                        || segment instanceof Result.RowSegment
-                                                )
-                                                .flatMap(segment -> {
-                                                    if (segment instanceof Result.Message) {
-                                                        return Mono.error(((Result.Message) segment).exception());
+                                        // each result set is completed before the rows of the next result set are handled
+                                        return Flux.from(resultObjects)
+                                                .concatWith(Flux.defer(() -> {
+                                                    if (resultSetIndex.get() < 0) {
+                                                        return Flux.empty();
                                                     }
-                                                    ReadableResultWrapper<Row> readableResultWrapper = ReadableResultWrapper.ofRow(
-                                                            ((Result.RowSegment) segment).row(),
-                                                            configuration
-                                                    );
-                                                    return reactiveResultHandler.handleResult(readableResultWrapper);
-                                                });
+                                                    return reactiveResultHandler.<E>completeResult(resultSetIndex.get());
+                                                }));
                                     })
                                     .concatWith(Flux.defer(reactiveResultHandler::getRemainedResults))
                                     .doOnCancel(() -> {
                                         //clean up reactiveResultHandler
                                         reactiveResultHandler.cleanup();
                                         r2dbcStatementLog.logTotal(reactiveResultHandler.getResultRowTotalCount());
+                                        this.slowQueryLog.logIfSlow(mappedStatement, boundSql, parameter, reactiveResultHandler.getResultRowTotalCount(), executionStartNanos);
                                     })
                                     .doOnComplete(() -> {
                                         //clean up reactiveResultHandler
                                         reactiveResultHandler.cleanup();
                                         r2dbcStatementLog.logTotal(reactiveResultHandler.getResultRowTotalCount());
-                                    });
+                                        this.slowQueryLog.logIfSlow(mappedStatement, boundSql, parameter, reactiveResultHandler.getResultRowTotalCount(), executionStartNanos);
+                                    })
+                                    .doOnError(throwable -> reactiveResultHandler.cleanup());
+                            if (!paginationPushedDown && hasRowBounds(rowBounds)) {
+                                // row bounds apply to the mapped results when not pushed down to the sql
+                                resultFlux = resultFlux.skip(rowBounds.getOffset())
+                                        .take(rowBounds.getLimit(), true);
+                            }
+                            if (!nestedSelectLoader.hasNestedQueries(mappedStatement)) {
+                                return resultFlux;
+                            }
+                            return this.loadNestedSelects(resultFlux, reactiveResultHandler);
                         }));
 
     }
 
+    /**
+     * resolve the index of the result set the current result belongs to,
+     * the index is assigned when the first row of the result is handled
+     *
+     * @param resultSetIndex     the result set index of current result,-1 if not assigned yet
+     * @param nextResultSetIndex the next result set index of the statement
+     * @return the result set index
+     */
+    private int resolveResultSetIndex(AtomicInteger resultSetIndex, AtomicInteger nextResultSetIndex) {
+        int index = resultSetIndex.get();
+        if (index < 0) {
+            index = nextResultSetIndex.getAndIncrement();
+            resultSetIndex.set(index);
+        }
+        return index;
+    }
+
+    /**
+     * record the update into slow query log if it exceeds the slow query threshold,
+     * the update counts are returned as is if slow query log is disabled for the statement
+     *
+     * @param updateCounts        the update counts
+     * @param mappedStatement     the mapped statement
+     * @param boundSql            the executed bound sql
+     * @param parameter           the parameter
+     * @param executionStartNanos the nano time when the statement is executed
+     * @return the update counts
+     */
+    private Flux<Long> logUpdateIfSlow(Flux<Long> updateCounts, MappedStatement mappedStatement, BoundSql boundSql, Object parameter, long executionStartNanos) {
+        if (!this.slowQueryLog.isEnabled(mappedStatement)) {
+            return updateCounts;
+        }
+        return updateCounts.reduce(0L, Long::sum)
+                .doOnNext(totalUpdateRowCount -> this.slowQueryLog.logIfSlow(mappedStatement, boundSql, parameter, totalUpdateRowCount, executionStartNanos))
+                .flux();
+    }
+
+    /**
+     * record the row metadata of streaming statement with the first row of each result
+     *
+     * @param mappedStatement              the mapped statement
+     * @param streamingDemand              the first downstream demand of streaming statement
+     * @param readableResultShapeReference the readable result shape reference of the result
+     * @param row                          the row
+     */
+    private void recordRowMetadataIfStreaming(MappedStatement mappedStatement,
+                                              Long streamingDemand,
+                                              AtomicReference<ReadableResultShape> readableResultShapeReference,
+                                              Row row) {
+        if (streamingDemand != null && readableResultShapeReference.get() == null) {
+            this.adaptiveFetchSize.recordRowMetadata(mappedStatement, row.getMetadata());
+        }
+    }
+
+    /**
+     * paginate the bound sql with pagination clause of placeholder dialect if applicable,
+     * the pagination parameters are bound as additional parameters of the paginated bound sql
+     *
+     * @param connection                       the connection
+     * @param mappedStatement                  the mapped statement
+     * @param boundSql                         the original bound sql
+     * @param rowBounds                        the row bounds
+     * @param reactiveExecutorContextAttribute the reactive executor context attribute
+     * @return the paginated bound sql or the original bound sql if not applicable
+     */
+    private BoundSql paginateIfApplicable(Connection connection,
+                                          MappedStatement mappedStatement,
+                                          BoundSql boundSql,
+                                          RowBounds rowBounds,
+                                          ReactiveExecutorContextAttribute reactiveExecutorContextAttribute) {
+        // keyset pages are always limited by the dialect
+        boolean pushdown = configuration.isPaginationPushdown() || mappedStatement.getSqlSource() instanceof KeysetSqlSource;
+        if (!pushdown
+                || !hasRowBounds(rowBounds)
+                || mappedStatement.hasNestedResultMaps()
+                || StatementType.CALLABLE.equals(mappedStatement.getStatementType())) {
+            return boundSql;
+        }
+        boolean withOffset = rowBounds.getOffset() > RowBounds.NO_ROW_OFFSET;
+        return this.placeholderFormatter.getPaginationSql(connection.getMetadata(), boundSql.getSql(), withOffset, reactiveExecutorContextAttribute)
+                .map(paginationSql -> {
+                    List<ParameterMapping> parameterMappings = new ArrayList<>(boundSql.getParameterMappings());
+                    for (PaginationSql.Parameter paginationParameter : paginationSql.getParameters()) {
+                        parameterMappings.add(new ParameterMapping.Builder(configuration, paginationParameter.getPropertyName(), Integer.class).build());
+                    }
+                    BoundSql paginatedBoundSql = new BoundSql(configuration, paginationSql.getSql(), parameterMappings, boundSql.getParameterObject());
+                    boundSql.getAdditionalParameters().forEach(paginatedBoundSql::setAdditionalParameter);
+                    for (PaginationSql.Parameter paginationParameter : paginationSql.getParameters()) {
+                        paginatedBoundSql.setAdditionalParameter(paginationParameter.getPropertyName(), paginationParameter.getValue(rowBounds));
+                    }
+                    return paginatedBoundSql;
+                })
+                .orElse(boundSql);
+    }
+
+    /**
+     * whether row bounds limit the results
+     *
+     * @param rowBounds the row bounds
+     * @return the boolean
+     */
+    private static boolean hasRowBounds(RowBounds rowBounds) {
+        return rowBounds.getOffset() > RowBounds.NO_ROW_OFFSET || rowBounds.getLimit() < RowBounds.NO_ROW_LIMIT;
+    }
+
+    /**
+     * resolve nested selects of result objects before they are emitted.
+     * <p>
+     * The result objects are resolved window by window,within transaction the connection is shared and nested selects
+     * of each window are executed after all rows are consumed,otherwise nested selects acquire their own connections.
+     *
+     * @param <E>                   the type parameter
+     * @param resultFlux            the result flux
+     * @param reactiveResultHandler the reactive result handler
+     * @return flux
+     */
+    private <E> Flux<E> loadNestedSelects(Flux<E> resultFlux, ReactiveResultHandler reactiveResultHandler) {
+        return MybatisReactiveContextManager.currentContext()
+                .flatMapMany(reactiveExecutorContext -> {
+                    if (reactiveExecutorContext.isWithTransaction()) {
+                        // the shared connection has to finish the parent query before any nested select is issued,
+                        // so windows are queued without backpressure and their nested selects are loaded one window after another
+                        return resultFlux.buffer(configuration.getNestedSelectWindowSize())
+                                .map(window -> Tuples.of(window, this.drainEagerNestedSelectLoads(reactiveResultHandler)))
+                                .onBackpressureBuffer()
+                                .concatMap(windowLoads -> nestedSelectLoader.load(windowLoads.getT2(), this::queryNestedSelect, 1)
+                                                .thenMany(Flux.fromIterable(windowLoads.getT1())),
+                                        1
+                                );
+                    }
+                    return resultFlux.buffer(configuration.getNestedSelectWindowSize())
+                            .concatMap(window -> nestedSelectLoader.load(this.drainEagerNestedSelectLoads(reactiveResultHandler),
+                                                    (nestedQuery, nestedParameter) -> this.queryNestedSelect(nestedQuery, nestedParameter)
+                                                            .contextWrite(context -> context.put(ReactiveExecutorContext.class,
+                                                                    new ReactiveExecutorContext(reactiveExecutorContext.isAutoCommit(), reactiveExecutorContext.getIsolationLevel())
+                                                            )),
+                                                    configuration.getNestedSelectConcurrency()
+                                            )
+                                            .thenMany(Flux.fromIterable(window)),
+                                    1
+                            );
+                });
+    }
+
+    /**
+     * drain the nested select loads of result handler,
+     * lazy loads are resolved with publishers which load the properties when subscribed
+     *
+     * @param reactiveResultHandler the reactive result handler
+     * @return the eager nested select loads
+     */
+    private List<NestedSelectLoad> drainEagerNestedSelectLoads(ReactiveResultHandler reactiveResultHandler) {
+        List<NestedSelectLoad> eagerLoads = new ArrayList<>();
+        for (NestedSelectLoad nestedSelectLoad : reactiveResultHandler.drainNestedSelectLoads()) {
+            if (nestedSelectLoad.isLazy()) {
+                lazyNestedSelectLoader.resolve(nestedSelectLoad);
+            } else {
+                eagerLoads.add(nestedSelectLoad);
+            }
+        }
+        return eagerLoads;
+    }
+
+    /**
+     * query nested select with the statement log of nested query
+     *
+     * @param nestedQuery     the nested query
+     * @param nestedParameter the nested parameter
+     * @return flux
+     */
+    private Flux<Object> queryNestedSelect(MappedStatement nestedQuery, Object nestedParameter) {
+        return MybatisReactiveContextManager.currentContext()
+                .flatMapMany(reactiveExecutorContext -> {
+                    R2dbcStatementLog r2dbcStatementLog = reactiveExecutorContext.getR2dbcStatementLog();
+                    reactiveExecutorContext.setR2dbcStatementLog(configuration.getR2dbcStatementLog(nestedQuery));
+                    return this.query(nestedQuery, nestedParameter, RowBounds.DEFAULT)
+                            .doFinally(signalType -> reactiveExecutorContext.setR2dbcStatementLog(r2dbcStatementLog));
+                });
+    }
+
+    /**
+     * do batch update with connection,the execution is accumulated into pending batch statements of context
+     *
+     * @param connection                       the connection
+     * @param mappedStatement                  the mapped statement
+     * @param parameter                        the parameter
+     * @param reactiveExecutorContext          the reactive executor context
+     * @param reactiveExecutorContextAttribute the reactive executor context attribute
+     * @param r2dbcStatementLog                the r2dbc statement log
+     * @return mono
+     */
+    private Mono<Long> doBatchUpdateWithConnection(Connection connection,
+                                                   MappedStatement mappedStatement,
+                                                   Object parameter,
+                                                   ReactiveExecutorContext reactiveExecutorContext,
+                                                   ReactiveExecutorContextAttribute reactiveExecutorContextAttribute,
+                                                   R2dbcStatementLog r2dbcStatementLog) {
+        List<PendingBatchStatement> pendingBatchStatements = reactiveExecutorContext.getPendingBatchStatements();
+        boolean reachBatchSize;
+        synchronized (pendingBatchStatements) {
+            this.accumulateBatchStatement(pendingBatchStatements, connection, mappedStatement, parameter, reactiveExecutorContextAttribute, r2dbcStatementLog);
+            reachBatchSize = pendingBatchStatements.stream()
+                    .mapToInt(PendingBatchStatement::getExecutionCount)
+                    .sum() >= configuration.getBatchSize();
+        }
+        if (reachBatchSize) {
+            return this.doFlushStatementsWithConnection(connection, reactiveExecutorContext.drainPendingBatchStatements())
+                    .thenReturn((long) BatchExecutor.BATCH_UPDATE_RETURN_VALUE);
+        }
+        return Mono.just((long) BatchExecutor.BATCH_UPDATE_RETURN_VALUE);
+    }
+
+    /**
+     * accumulate the execution into the last pending batch statement if matched,otherwise create a new one
+     *
+     * @param pendingBatchStatements           the pending batch statements
+     * @param connection                       the connection
+     * @param mappedStatement                  the mapped statement
+     * @param parameter                        the parameter
+     * @param reactiveExecutorContextAttribute the reactive executor context attribute
+     * @param r2dbcStatementLog                the r2dbc statement log
+     */
+    private void accumulateBatchStatement(List<PendingBatchStatement> pendingBatchStatements,
+                                          Connection connection,
+                                          MappedStatement mappedStatement,
+                                          Object parameter,
+                                          ReactiveExecutorContextAttribute reactiveExecutorContextAttribute,
+                                          R2dbcStatementLog r2dbcStatementLog) {
+        BoundSql boundSql = mappedStatement.getBoundSql(parameter);
+        String sql = boundSql.getSql();
+        StatementHandler handler = configuration.newStatementHandler(null, mappedStatement, parameter, RowBounds.DEFAULT, null, null);
+        ParameterHandler parameterHandler = handler.getParameterHandler();
+        PendingBatchStatement lastPendingBatchStatement = pendingBatchStatements.isEmpty() ? null : pendingBatchStatements.get(pendingBatchStatements.size() - 1);
+        if (lastPendingBatchStatement != null && lastPendingBatchStatement.matches(mappedStatement, sql)) {
+            if (!lastPendingBatchStatement.isParameterless()) {
+                Statement statement = lastPendingBatchStatement.getStatement().add();
+                this.bindParametersInternal(statement, boundSql, parameterHandler, r2dbcStatementLog);
+            }
+            lastPendingBatchStatement.addExecution(parameter);
+            return;
+        }
+        Statement statement = null;
+        if (boundSql.getParameterMappings().isEmpty()) {
+            r2dbcStatementLog.logSql(sql);
+        } else {
+            statement = this.createStatementInternal(connection, boundSql, mappedStatement, parameterHandler, RowBounds.DEFAULT, false, reactiveExecutorContextAttribute, r2dbcStatementLog);
+        }
+        pendingBatchStatements.add(new PendingBatchStatement(mappedStatement, boundSql, statement, r2dbcStatementLog, parameter));
+    }
+
+    /**
+     * execute batch statement with accumulated bindings
+     *
+     * @param pendingBatchStatement the pending batch statement
+     * @return mono
+     */
+    private Mono<Void> executeBatchStatement(PendingBatchStatement pendingBatchStatement) {
+        return Flux.from(pendingBatchStatement.getStatement().execute())
+                .checkpoint("[DefaultReactiveExecutor]Batch SQL: \"" + pendingBatchStatement.getSql() + "\" ")
+                .concatMap(result -> Flux.from(result.getRowsUpdated()).reduce(0L, Long::sum))
+                .collectList()
+                .doOnNext(updateCounts -> {
+                    pendingBatchStatement.setUpdateCounts(updateCounts);
+                    pendingBatchStatement.getR2dbcStatementLog().logUpdates(updateCounts.stream().mapToLong(Long::longValue).sum());
+                })
+                .then();
+    }
+
+    /**
+     * execute parameterless batch statements with {@link Batch}
+     *
+     * @param connection             the connection
+     * @param pendingBatchStatements the parameterless pending batch statements
+     * @return mono
+     */
+    private Mono<Void> executeParameterlessBatchStatements(Connection connection, List<PendingBatchStatement> pendingBatchStatements) {
+        Batch batch = connection.createBatch();
+        for (PendingBatchStatement pendingBatchStatement : pendingBatchStatements) {
+            for (int i = 0; i < pendingBatchStatement.getExecutionCount(); i++) {
+                batch.add(pendingBatchStatement.getSql());
+            }
+        }
+        return Flux.from(batch.execute())
+                .checkpoint("[DefaultReactiveExecutor]Batch of " + pendingBatchStatements.size() + " parameterless SQL")
+                .concatMap(result -> Flux.from(result.getRowsUpdated()).reduce(0L, Long::sum))
+                .collectList()
+                .doOnNext(updateCounts -> {
+                    int offset = 0;
+                    for (PendingBatchStatement pendingBatchStatement : pendingBatchStatements) {
+                        int from = Math.min(offset, updateCounts.size());
+                        offset += pendingBatchStatement.getExecutionCount();
+                        List<Long> statementUpdateCounts = updateCounts.subList(from, Math.min(offset, updateCounts.size()));
+                        pendingBatchStatement.setUpdateCounts(statementUpdateCounts);
+                        pendingBatchStatement.getR2dbcStatementLog().logUpdates(statementUpdateCounts.stream().mapToLong(Long::longValue).sum());
+                    }
+                })
+                .then();
+    }
+
+    /**
+     * Whether the mapped statement could be executed in batch
+     * <p>
+     * Statements with generated keys,select key or callable statements are always executed immediately
+     *
+     * @param mappedStatement   the mapped statement
+     * @param r2dbcKeyGenerator the r2dbc key generator
+     * @return the boolean
+     */
+    private boolean isBatchSupported(MappedStatement mappedStatement, R2dbcKeyGenerator r2dbcKeyGenerator) {
+        return KeyGeneratorType.NONE.equals(r2dbcKeyGenerator.keyGeneratorType())
+                && !StatementType.CALLABLE.equals(mappedStatement.getStatementType());
+    }
+
     /**
      * create statement internal
      *
@@ -283,32 +813,22 @@ public class DefaultReactiveMybatisExecutor extends AbstractReactiveMybatisExecu
                                               ReactiveExecutorContextAttribute reactiveExecutorContextAttribute,
                                               R2dbcStatementLog r2dbcStatementLog) {
         r2dbcStatementLog.logSql(originalBoundSql.getSql());
-        String formattedSql = this.placeholderFormatter.replaceSqlPlaceholder(connection.getMetadata(), originalBoundSql, reactiveExecutorContextAttribute);
+        String formattedSql = this.placeholderFormatter.replaceSqlPlaceholder(connection.getMetadata(), mappedStatement, originalBoundSql, reactiveExecutorContextAttribute);
         Statement statement = connection.createStatement(formattedSql);
         if (returnedGeneratedKeys) {
             statement.returnGeneratedValues(mappedStatement.getKeyColumns());
         }
-        ParameterHandler delegateParameterHandler = ProxyInstanceFactory.newInstanceOfInterfaces(
-                ParameterHandler.class,
-                () -> new DelegateR2dbcParameterHandler(
-                        this.configuration,
-                        originalParameterHandler,
-                        statement,
-                        r2dbcStatementLog)
-        );
-        try {
-            delegateParameterHandler.setParameters(null);
-        } catch (SQLException e) {
-            throw new R2dbcParameterException(e);
-        }
+        this.bindParametersInternal(statement, originalBoundSql, originalParameterHandler, r2dbcStatementLog);
         Integer mappedStatementFetchSize = mappedStatement.getFetchSize();
         Integer defaultFetchSize = configuration.getDefaultFetchSize();
         /*
          * If fetch size is configured by MappedStatement or Configuration
-         * then take the min value between configured fetch size and limit value in rowBounds
+         * then take the min value between configured fetch size and limit value in rowBounds,
+         * negative fetch size is the streaming hint and resolved by adaptive fetch size
          */
         Stream.of(mappedStatementFetchSize,defaultFetchSize)
                 .filter(Objects::nonNull)
+                .filter(configuredFetchSize -> configuredFetchSize >= 0)
                 .min(Integer::compareTo)
                 .ifPresent(configuredFetchSize -> {
                     int fetchSize = Integer.min(configuredFetchSize, rowBounds.getLimit());
@@ -317,6 +837,32 @@ public class DefaultReactiveMybatisExecutor extends AbstractReactiveMybatisExecu
         return statement;
     }
 
+    /**
+     * bind parameters internal
+     *
+     * @param statement                the r2dbc statement
+     * @param originalBoundSql         the original bound sql
+     * @param originalParameterHandler the original parameter handler
+     * @param r2dbcStatementLog        the r2dbc statement log
+     */
+    private void bindParametersInternal(Statement statement,
+                                        BoundSql originalBoundSql,
+                                        ParameterHandler originalParameterHandler,
+                                        R2dbcStatementLog r2dbcStatementLog) {
+        ParameterHandler delegateParameterHandler = new DelegateR2dbcParameterHandler(
+                this.configuration,
+                originalParameterHandler,
+                originalBoundSql,
+                statement,
+                r2dbcStatementLog
+        );
+        try {
+            delegateParameterHandler.setParameters(null);
+        } catch (SQLException e) {
+            throw new R2dbcParameterException(e);
+        }
+    }
+
     /**
      * get r2dbc key generator
      *
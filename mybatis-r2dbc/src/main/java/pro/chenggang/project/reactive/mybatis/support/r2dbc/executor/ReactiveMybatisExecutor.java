@@ -15,11 +15,16 @@
  */
 package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor;
 
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.session.RowBounds;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 /**
  * The interface Reactive mybatis executor.
  *
@@ -37,6 +42,16 @@ public interface ReactiveMybatisExecutor {
      */
     Mono<Long> update(MappedStatement mappedStatement, Object parameter);
 
+    /**
+     * execute update with multiple parameters at once,
+     * the executions are bound to the same statement with {@link io.r2dbc.spi.Statement#add()} if possible
+     *
+     * @param mappedStatement the mapped statement
+     * @param parameters      the parameters
+     * @return the total number of updated rows
+     */
+    Mono<Long> updateBatch(MappedStatement mappedStatement, List<?> parameters);
+
     /**
      * execute query
      *
@@ -48,6 +63,28 @@ public interface ReactiveMybatisExecutor {
      */
     <E> Flux<E> query(MappedStatement mappedStatement, Object parameter, RowBounds rowBounds);
 
+    /**
+     * execute query with the bound sql already built from the parameter,
+     * so that the sql source is not evaluated again
+     *
+     * @param <E>             the type parameter
+     * @param mappedStatement the mapped statement
+     * @param parameter       the parameter
+     * @param rowBounds       the row bounds
+     * @param boundSql        the bound sql of the parameter
+     * @return flux
+     */
+    default <E> Flux<E> query(MappedStatement mappedStatement, Object parameter, RowBounds rowBounds, BoundSql boundSql) {
+        return this.query(mappedStatement, parameter, rowBounds);
+    }
+
+    /**
+     * flush pending batch statements
+     *
+     * @return the batch results of flushed statements
+     */
+    Mono<List<BatchResult>> flushStatements();
+
     /**
      * commit transaction
      *
@@ -72,4 +109,15 @@ public interface ReactiveMybatisExecutor {
      */
     Mono<Void> close(boolean forceRollback);
 
+    /**
+     * create cache key
+     *
+     * @param mappedStatement the mapped statement
+     * @param parameter       the parameter
+     * @param rowBounds       the row bounds
+     * @param boundSql        the bound sql
+     * @return the cache key
+     */
+    CacheKey createCacheKey(MappedStatement mappedStatement, Object parameter, RowBounds rowBounds, BoundSql boundSql);
+
 }
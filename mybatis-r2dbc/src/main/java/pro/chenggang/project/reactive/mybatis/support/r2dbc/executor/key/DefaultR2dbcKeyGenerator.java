@@ -27,9 +27,7 @@ import org.apache.ibatis.type.TypeHandlerRegistry;
 import org.apache.ibatis.util.MapUtil;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybatisConfiguration;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.ReadableResultWrapper;
-import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.TypeHandleContext;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.handler.DelegateR2dbcResultRowDataHandler;
-import pro.chenggang.project.reactive.mybatis.support.r2dbc.support.ProxyInstanceFactory;
 import reactor.core.publisher.Mono;
 
 import java.sql.ResultSet;
@@ -254,7 +252,7 @@ public class DefaultR2dbcKeyGenerator implements R2dbcKeyGenerator {
         private final int columnPosition;
         private final String paramName;
         private final String propertyName;
-        private final TypeHandler<?> delegatedTypeHandler;
+        private final DelegateR2dbcResultRowDataHandler delegatedTypeHandler;
         private TypeHandler<?> typeHandler;
 
         /**
@@ -283,14 +281,10 @@ public class DefaultR2dbcKeyGenerator implements R2dbcKeyGenerator {
          *
          * @return TypeHandler
          */
-        private TypeHandler<?> initDelegateTypeHandler() {
-            return ProxyInstanceFactory.newInstanceOfInterfaces(
-                    TypeHandler.class,
-                    () -> new DelegateR2dbcResultRowDataHandler(
-                            this.r2dbcMybatisConfiguration.getNotSupportedDataTypes(),
-                            this.r2dbcMybatisConfiguration.getR2dbcTypeHandlerAdapterRegistry()
-                    ),
-                    TypeHandleContext.class
+        private DelegateR2dbcResultRowDataHandler initDelegateTypeHandler() {
+            return new DelegateR2dbcResultRowDataHandler(
+                    this.r2dbcMybatisConfiguration.getNotSupportedDataTypes(),
+                    this.r2dbcMybatisConfiguration.getR2dbcTypeHandlerAdapterRegistry()
             );
         }
 
@@ -320,7 +314,7 @@ public class DefaultR2dbcKeyGenerator implements R2dbcKeyGenerator {
                 if (typeHandler == null) {
                     // Error?
                 } else {
-                    ((TypeHandleContext) this.delegatedTypeHandler).contextWith(propertyType,
+                    this.delegatedTypeHandler.contextWith(propertyType,
                             typeHandler,
                             readableResultWrapper
                     );
@@ -0,0 +1,103 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.metrics;
+
+import org.apache.ibatis.mapping.MappedStatement;
+import reactor.core.publisher.SignalType;
+
+/**
+ * The metrics of a single statement execution, which reports to the {@link StatementMetricsRecorder}.
+ * <p>
+ * It's created when the execution is subscribed and is not shared between executions.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class StatementExecutionMetrics {
+
+    private final StatementMetricsRecorder statementMetricsRecorder;
+    private final MappedStatement mappedStatement;
+    private final long startNanos;
+    // signals of an execution are serialized
+    private long connectionAcquiredNanos;
+    private long rows;
+    private boolean recorded;
+
+    /**
+     * Instantiates a new statement execution metrics started from now.
+     *
+     * @param statementMetricsRecorder the statement metrics recorder
+     * @param mappedStatement          the mapped statement
+     */
+    public StatementExecutionMetrics(StatementMetricsRecorder statementMetricsRecorder, MappedStatement mappedStatement) {
+        this.statementMetricsRecorder = statementMetricsRecorder;
+        this.mappedStatement = mappedStatement;
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * The connection of the statement is acquired.
+     */
+    public void onConnectionAcquired() {
+        long now = System.nanoTime();
+        this.connectionAcquiredNanos = now;
+        statementMetricsRecorder.recordConnectionAcquireTime(mappedStatement, now - startNanos);
+    }
+
+    /**
+     * A row of query is emitted.
+     */
+    public void onRow() {
+        long currentRows = this.rows;
+        if (currentRows == 0 && this.connectionAcquiredNanos != 0) {
+            statementMetricsRecorder.recordFirstRowTime(mappedStatement, System.nanoTime() - this.connectionAcquiredNanos);
+        }
+        this.rows = currentRows + 1;
+    }
+
+    /**
+     * The update count of update is emitted,the negative return value of accumulated batch update is recorded as no row.
+     *
+     * @param updateCount the update count
+     */
+    public void onUpdateCount(Long updateCount) {
+        this.rows = updateCount == null || updateCount < 0 ? 0L : updateCount;
+    }
+
+    /**
+     * The execution is failed.
+     *
+     * @param throwable the throwable
+     */
+    public void onError(Throwable throwable) {
+        statementMetricsRecorder.recordError(mappedStatement, throwable);
+    }
+
+    /**
+     * The execution is terminated or cancelled.
+     *
+     * @param signalType the signal type
+     */
+    public void onFinally(SignalType signalType) {
+        if (this.recorded) {
+            return;
+        }
+        this.recorded = true;
+        statementMetricsRecorder.recordTotalTime(mappedStatement, System.nanoTime() - startNanos);
+        statementMetricsRecorder.recordRows(mappedStatement, this.rows);
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.metrics;
+
+import org.apache.ibatis.mapping.MappedStatement;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.placeholder.PlaceholderFormatter;
+
+/**
+ * The recorder of statement execution metrics,
+ * which is notified by the executor of each statement executed with a connection of the connection factory.
+ * <p>
+ * Implementations should be cheap and thread-safe, they are invoked on the hot path of statement executions.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public interface StatementMetricsRecorder {
+
+    /**
+     * Record the time to acquire the connection of the statement.
+     *
+     * @param mappedStatement the mapped statement
+     * @param nanos           the elapsed nanos
+     */
+    void recordConnectionAcquireTime(MappedStatement mappedStatement, long nanos);
+
+    /**
+     * Record the time from the statement execution to its first row, only recorded for queries returning rows.
+     *
+     * @param mappedStatement the mapped statement
+     * @param nanos           the elapsed nanos
+     */
+    void recordFirstRowTime(MappedStatement mappedStatement, long nanos);
+
+    /**
+     * Record the total time of the statement including connection acquisition,
+     * recorded when the statement is completed, failed or cancelled.
+     *
+     * @param mappedStatement the mapped statement
+     * @param nanos           the elapsed nanos
+     */
+    void recordTotalTime(MappedStatement mappedStatement, long nanos);
+
+    /**
+     * Record the returned rows of queries or the updated rows of updates.
+     *
+     * @param mappedStatement the mapped statement
+     * @param rows            the rows
+     */
+    void recordRows(MappedStatement mappedStatement, long rows);
+
+    /**
+     * Record the error of the statement.
+     *
+     * @param mappedStatement the mapped statement
+     * @param throwable       the error
+     */
+    void recordError(MappedStatement mappedStatement, Throwable throwable);
+
+    /**
+     * Bind the placeholder formatter of the executor, so that metrics of its sql caches could be exposed.
+     *
+     * @param placeholderFormatter the placeholder formatter
+     */
+    default void bindPlaceholderFormatter(PlaceholderFormatter placeholderFormatter) {
+    }
+}
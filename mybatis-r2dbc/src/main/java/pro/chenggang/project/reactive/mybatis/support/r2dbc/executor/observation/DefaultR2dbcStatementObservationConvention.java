@@ -0,0 +1,68 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.observation;
+
+import io.micrometer.common.KeyValues;
+
+import java.util.Objects;
+
+/**
+ * The default observation convention of statement executions.
+ * <p>
+ * The statement id and the sql command are low cardinality key values,
+ * the normalized sql is a high cardinality key value since dynamic sql produces an unbounded number of statements,
+ * the rows are a high cardinality key value as well.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class DefaultR2dbcStatementObservationConvention implements R2dbcStatementObservationConvention {
+
+    public static final String OBSERVATION_NAME = "r2dbc.mybatis.statement";
+    public static final String STATEMENT_KEY = "r2dbc.mybatis.statement.id";
+    public static final String COMMAND_KEY = "r2dbc.mybatis.statement.command";
+    public static final String SQL_KEY = "db.statement";
+    public static final String ROWS_KEY = "r2dbc.mybatis.statement.rows";
+
+    @Override
+    public String getName() {
+        return OBSERVATION_NAME;
+    }
+
+    @Override
+    public String getContextualName(R2dbcStatementObservationContext context) {
+        return context.getMappedStatement().getSqlCommandType().name().toLowerCase() + " " + context.getMappedStatement().getId();
+    }
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(R2dbcStatementObservationContext context) {
+        return KeyValues.of(
+                STATEMENT_KEY, context.getMappedStatement().getId(),
+                COMMAND_KEY, context.getMappedStatement().getSqlCommandType().name()
+        );
+    }
+
+    @Override
+    public KeyValues getHighCardinalityKeyValues(R2dbcStatementObservationContext context) {
+        KeyValues keyValues = KeyValues.of(ROWS_KEY, String.valueOf(context.getRows()));
+        String sql = context.getSql();
+        if (Objects.isNull(sql)) {
+            return keyValues;
+        }
+        return keyValues.and(SQL_KEY, sql);
+    }
+}
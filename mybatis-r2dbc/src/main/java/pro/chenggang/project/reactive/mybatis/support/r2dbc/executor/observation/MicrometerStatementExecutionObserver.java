@@ -0,0 +1,96 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.observation;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+/**
+ * The micrometer {@link StatementExecutionObserver}, emits an {@link Observation} per statement execution.
+ * <p>
+ * The parent observation is taken from the reactor context instead of thread-locals,
+ * and the observation of the statement is put into the reactor context of the execution,
+ * so that the observations of the underlying driver are parented by it.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class MicrometerStatementExecutionObserver implements StatementExecutionObserver {
+
+    /**
+     * The reactor context key of the current observation, same as the key of micrometer's ObservationThreadLocalAccessor
+     */
+    public static final String OBSERVATION_CONTEXT_KEY = "micrometer.observation";
+
+    private static final R2dbcStatementObservationConvention DEFAULT_CONVENTION = new DefaultR2dbcStatementObservationConvention();
+
+    private final ObservationRegistry observationRegistry;
+    private final R2dbcStatementObservationConvention customConvention;
+
+    public MicrometerStatementExecutionObserver(ObservationRegistry observationRegistry) {
+        this(observationRegistry, null);
+    }
+
+    public MicrometerStatementExecutionObserver(ObservationRegistry observationRegistry, R2dbcStatementObservationConvention customConvention) {
+        this.observationRegistry = observationRegistry;
+        this.customConvention = customConvention;
+    }
+
+    @Override
+    public Mono<Long> observe(MappedStatement mappedStatement, BoundSql boundSql, Mono<Long> execution) {
+        if (this.observationRegistry.isNoop()) {
+            return execution;
+        }
+        return Mono.deferContextual(contextView -> {
+            R2dbcStatementObservationContext observationContext = new R2dbcStatementObservationContext(mappedStatement, boundSql, contextView);
+            Observation observation = this.startObservation(observationContext, contextView);
+            return execution
+                    // the negative return value of accumulated batch update is not a row count
+                    .doOnNext(rows -> observationContext.setRows(Math.max(rows, 0L)))
+                    .doOnError(observation::error)
+                    .doFinally(signalType -> observation.stop())
+                    .contextWrite(context -> context.put(OBSERVATION_CONTEXT_KEY, observation));
+        });
+    }
+
+    @Override
+    public <T> Flux<T> observeMany(MappedStatement mappedStatement, BoundSql boundSql, Flux<T> execution) {
+        if (this.observationRegistry.isNoop()) {
+            return execution;
+        }
+        return Flux.deferContextual(contextView -> {
+            R2dbcStatementObservationContext observationContext = new R2dbcStatementObservationContext(mappedStatement, boundSql, contextView);
+            Observation observation = this.startObservation(observationContext, contextView);
+            return execution
+                    .doOnNext(resultObject -> observationContext.incrementRows())
+                    .doOnError(observation::error)
+                    .doFinally(signalType -> observation.stop())
+                    .contextWrite(context -> context.put(OBSERVATION_CONTEXT_KEY, observation));
+        });
+    }
+
+    private Observation startObservation(R2dbcStatementObservationContext observationContext, ContextView contextView) {
+        return Observation.createNotStarted(this.customConvention, DEFAULT_CONVENTION, () -> observationContext, this.observationRegistry)
+                .parentObservation(contextView.getOrDefault(OBSERVATION_CONTEXT_KEY, null))
+                .start();
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.observation;
+
+import io.micrometer.observation.Observation;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import reactor.util.context.ContextView;
+
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * The observation context of a statement execution
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class R2dbcStatementObservationContext extends Observation.Context {
+
+    private static final Pattern WHITESPACES = Pattern.compile("\\s+");
+
+    private final MappedStatement mappedStatement;
+    private final BoundSql boundSql;
+    private final ContextView contextView;
+    private String sql;
+    // signals of an execution are serialized
+    private long rows;
+
+    public R2dbcStatementObservationContext(MappedStatement mappedStatement, BoundSql boundSql, ContextView contextView) {
+        this.mappedStatement = mappedStatement;
+        this.boundSql = boundSql;
+        this.contextView = contextView;
+    }
+
+    public MappedStatement getMappedStatement() {
+        return mappedStatement;
+    }
+
+    /**
+     * Get the reactor context of the execution,
+     * the attributes of the subscriber such as the routing key could be retrieved from it
+     *
+     * @return the context view
+     */
+    public ContextView getContextView() {
+        return contextView;
+    }
+
+    /**
+     * Get the normalized sql of the statement,
+     * the sql keeps the bind markers instead of the bind values and has its whitespaces collapsed,
+     * it is resolved from the bound sql built by the executor only once on the first access.
+     *
+     * @return the normalized sql,null if the bound sql is not available before the execution
+     */
+    public String getSql() {
+        if (Objects.isNull(this.sql) && Objects.nonNull(this.boundSql)) {
+            this.sql = WHITESPACES.matcher(this.boundSql.getSql()).replaceAll(" ").trim();
+        }
+        return this.sql;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public void setRows(long rows) {
+        this.rows = rows;
+    }
+
+    public void incrementRows() {
+        this.rows++;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.observation;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The observer of statement executions, which wraps each statement execution of the executor,
+ * including the acquisition of its connection.
+ * <p>
+ * This interface has no dependency on any observation library,
+ * so that the configuration could hold it without the observation library on the classpath.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @see MicrometerStatementExecutionObserver
+ * @since 2.0.0
+ */
+public interface StatementExecutionObserver {
+
+    /**
+     * Observe the execution of an update statement.
+     *
+     * @param mappedStatement the mapped statement
+     * @param boundSql        the bound sql of the statement, the bound sql of the first execution for batch statements
+     * @param execution       the execution emits the updated rows
+     * @return the observed execution
+     */
+    Mono<Long> observe(MappedStatement mappedStatement, BoundSql boundSql, Mono<Long> execution);
+
+    /**
+     * Observe the execution of a query statement.
+     *
+     * @param <T>             the type parameter
+     * @param mappedStatement the mapped statement
+     * @param boundSql        the bound sql of the statement
+     * @param execution       the execution emits the result objects
+     * @return the observed execution
+     */
+    <T> Flux<T> observeMany(MappedStatement mappedStatement, BoundSql boundSql, Flux<T> execution);
+
+}
@@ -32,23 +32,13 @@ import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybati
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.R2dbcStatementLog;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.type.R2dbcTypeHandlerAdapter;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.type.R2dbcTypeHandlerAdapterRegistry;
-import pro.chenggang.project.reactive.mybatis.support.r2dbc.support.ProxyInstanceFactory;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.Method;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
-import static org.apache.ibatis.mapping.ParameterMode.IN;
 import static org.apache.ibatis.mapping.ParameterMode.OUT;
 import static pro.chenggang.project.reactive.mybatis.support.r2dbc.support.ParameterBindingHelper.toParameter;
 
@@ -58,15 +48,14 @@ import static pro.chenggang.project.reactive.mybatis.support.r2dbc.support.Param
  * @author Gang Cheng
  * @version 1.0.0
  */
-public class DelegateR2dbcParameterHandler implements InvocationHandler {
+public class DelegateR2dbcParameterHandler implements ParameterHandler {
 
     private static final Log log = LogFactory.getLog(DelegateR2dbcParameterHandler.class);
     private final R2dbcMybatisConfiguration configuration;
     private final ParameterHandler parameterHandler;
-    private final Map<Class<?>, Field> parameterHandlerFieldMap;
+    private final BoundSql boundSql;
     private final Statement delegateStatement;
-    private final PreparedStatement delegatedPreparedStatement;
-    private final AtomicReference<ParameterHandlerContext> parameterHandlerContextReference = new AtomicReference<>();
+    private final DelegateR2dbcPreparedStatement delegatedPreparedStatement;
     private final R2dbcStatementLog r2dbcStatementLog;
 
     /**
@@ -74,85 +63,56 @@ public class DelegateR2dbcParameterHandler implements InvocationHandler {
      *
      * @param r2dbcMybatisConfiguration the R2dbc mybatis configuration
      * @param parameterHandler          the parameter handler
+     * @param boundSql                  the bound sql
      * @param statement                 the statement
      * @param r2dbcStatementLog         the statement log helper
      */
     public DelegateR2dbcParameterHandler(R2dbcMybatisConfiguration r2dbcMybatisConfiguration,
                                          ParameterHandler parameterHandler,
+                                         BoundSql boundSql,
                                          Statement statement,
                                          R2dbcStatementLog r2dbcStatementLog) {
         this.configuration = r2dbcMybatisConfiguration;
         this.parameterHandler = parameterHandler;
+        this.boundSql = boundSql;
         this.delegateStatement = statement;
         this.r2dbcStatementLog = r2dbcStatementLog;
-        this.delegatedPreparedStatement = initDelegatedPreparedStatement();
-        parameterHandlerFieldMap = Stream.of(parameterHandler.getClass().getDeclaredFields())
-                .collect(Collectors.toMap(
-                        Field::getType,
-                        field -> {
-                            field.setAccessible(true);
-                            return field;
-                        }
-                ));
-    }
-
-    /**
-     * init delegated prepared statement
-     *
-     * @return PreparedStatement
-     */
-    private PreparedStatement initDelegatedPreparedStatement() {
-        return ProxyInstanceFactory.newInstanceOfInterfaces(
-                PreparedStatement.class,
-                () -> new DelegateR2dbcStatement(
-                        this.delegateStatement,
-                        this.configuration.getNotSupportedDataTypes()
-                )
+        this.delegatedPreparedStatement = new DelegateR2dbcPreparedStatement(
+                this.delegateStatement,
+                this.configuration.getNotSupportedDataTypes()
         );
     }
 
     @Override
-    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-        String methodName = method.getName();
-        if (!Objects.equals("setParameters", methodName)) {
-            return method.invoke(parameterHandler, args);
-        }
-        this.setParameters(this.delegatedPreparedStatement);
-        return null;
+    public Object getParameterObject() {
+        return parameterHandler.getParameterObject();
     }
 
     /**
-     * get field
+     * set parameters into the delegated r2dbc statement, the original prepared statement is ignored
      *
-     * @param parameterHandler
-     * @param fieldType
-     * @param <T>
-     * @return
+     * @param ps the ps
      */
-    private <T> T getField(ParameterHandler parameterHandler, Class<T> fieldType) {
-        Field field = this.parameterHandlerFieldMap.get(fieldType);
-        try {
-            return (T) field.get(parameterHandler);
-        } catch (IllegalAccessException e) {
-            //ignore
-        }
-        return null;
+    @Override
+    public void setParameters(PreparedStatement ps) {
+        this.setParametersInternal(this.delegatedPreparedStatement);
     }
 
     /**
      * delegate set parameters
      *
-     * @param ps the ps
+     * @param ps the delegated prepared statement
      */
-    public void setParameters(PreparedStatement ps) {
-        BoundSql boundSql = this.getField(this.parameterHandler, BoundSql.class);
-        TypeHandlerRegistry typeHandlerRegistry = this.getField(this.parameterHandler, TypeHandlerRegistry.class);
+    private void setParametersInternal(DelegateR2dbcPreparedStatement ps) {
+        TypeHandlerRegistry typeHandlerRegistry = configuration.getTypeHandlerRegistry();
         R2dbcTypeHandlerAdapterRegistry r2dbcTypeHandlerAdapterRegistry = configuration.getR2dbcTypeHandlerAdapterRegistry();
         Object parameterObject = parameterHandler.getParameterObject();
         List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
         ParameterHandlerContext parameterHandlerContext = new ParameterHandlerContext();
-        DelegateR2dbcParameterHandler.this.parameterHandlerContextReference.getAndSet(parameterHandlerContext);
-        List<Object> columnValues = new ArrayList<>();
+        ps.setParameterHandlerContext(parameterHandlerContext);
+        // column values are only collected when they are logged
+        List<Object> columnValues = r2dbcStatementLog.isDebugEnabled() ? new ArrayList<>() : null;
+        MetaObject metaObject = null;
         if (parameterMappings != null) {
             for (int i = 0; i < parameterMappings.size(); i++) {
                 ParameterMapping parameterMapping = parameterMappings.get(i);
@@ -163,7 +123,9 @@ public class DelegateR2dbcParameterHandler implements InvocationHandler {
                     this.delegateStatement.bind(i,
                             toParameter(OUT, parameterMapping.getJavaType(), r2dbcType, null)
                     );
-                    columnValues.add(null);
+                    if (columnValues != null) {
+                        columnValues.add(null);
+                    }
                     continue;
                 }
                 Object value;
@@ -176,7 +138,9 @@ public class DelegateR2dbcParameterHandler implements InvocationHandler {
                 } else if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
                     value = parameterObject;
                 } else {
-                    MetaObject metaObject = configuration.newMetaObject(parameterObject);
+                    if (metaObject == null) {
+                        metaObject = configuration.newMetaObject(parameterObject);
+                    }
                     value = metaObject.getValue(propertyName);
                 }
                 if (value == null && jdbcType == null) {
@@ -188,7 +152,9 @@ public class DelegateR2dbcParameterHandler implements InvocationHandler {
                         this.delegateStatement.bind(i,
                                 toParameter(parameterMode, parameterMapping.getJavaType(), r2dbcType, null)
                         );
-                        columnValues.add(null);
+                        if (columnValues != null) {
+                            columnValues.add(null);
+                        }
                         continue;
                     }
                     // if parameterMapping's javaType isn't Object.class
@@ -201,7 +167,9 @@ public class DelegateR2dbcParameterHandler implements InvocationHandler {
                     parameterHandlerContext.setR2dbcType(r2dbcType);
                     parameterHandlerContext.setParameterMode(parameterMode);
                     if (r2dbcTypeHandlerAdapterRegistry.hasR2dbcTypeHandlerAdapter(value.getClass())) {
-                        log.debug("Found r2dbc type handler adapter for type : " + value.getClass());
+                        if (log.isDebugEnabled()) {
+                            log.debug("Found r2dbc type handler adapter for type : " + value.getClass());
+                        }
                         R2dbcTypeHandlerAdapter r2dbcTypeHandlerAdapter = r2dbcTypeHandlerAdapterRegistry.getR2dbcTypeHandlerAdapter(
                                 value.getClass());
                         r2dbcTypeHandlerAdapter.setParameter(delegateStatement, parameterHandlerContext, value);
@@ -209,7 +177,9 @@ public class DelegateR2dbcParameterHandler implements InvocationHandler {
                         TypeHandler typeHandler = parameterMapping.getTypeHandler();
                         typeHandler.setParameter(ps, i, value, jdbcType);
                     }
-                    columnValues.add(value);
+                    if (columnValues != null) {
+                        columnValues.add(value);
+                    }
                 } catch (TypeException | SQLException e) {
                     throw new TypeException("Could not set parameters for mapping: " + parameterMapping + ". Cause: " + e,
                             e
@@ -220,73 +190,4 @@ public class DelegateR2dbcParameterHandler implements InvocationHandler {
         r2dbcStatementLog.logParameters(columnValues);
     }
 
-
-    /**
-     * delegate Prepare statement
-     */
-    private class DelegateR2dbcStatement implements InvocationHandler {
-
-        private final Statement statement;
-        private final Set<Class<?>> notSupportedDataTypes;
-
-        /**
-         * Instantiates a new Delegate R2dbc statement.
-         *
-         * @param statement                the statement
-         * @param notSupportedDataTypes    the not supported data types
-         */
-        DelegateR2dbcStatement(Statement statement,Set<Class<?>> notSupportedDataTypes) {
-            this.statement = statement;
-            this.notSupportedDataTypes = notSupportedDataTypes;
-        }
-
-        @Override
-        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-            String methodName = method.getName();
-            if (methodName.equals("equals") || methodName.equals("hashCode") || methodName.equals("toString")) {
-                return method.invoke(proxy, args);
-            }
-            if (!methodName.startsWith("set")) {
-                //Does not handle non-set methods
-                return null;
-            }
-            int index = (int) args[0];
-            Object parameter = args[1];
-            Class<?> parameterClass = parameter.getClass();
-            //not supported types
-            if (notSupportedDataTypes.contains(parameterClass)) {
-                throw new IllegalArgumentException("Unsupported Parameter type : " + parameterClass);
-            }
-            ParameterHandlerContext parameterHandlerContext = DelegateR2dbcParameterHandler.this.parameterHandlerContextReference.get();
-            // for r2dbc-mssql with 0.9 version of r2dbc-spi, there is a bug fixed with 1.0 version of r2dbc-spi
-            // link source src/main/java/io/r2dbc/mssql/codec/DefaultCodecs.java#getServerType(Parameter parameter) in r2dbc-mssql
-            if (IN.equals(parameterHandlerContext.getParameterMode())) {
-                // if r2dbc type is not null ,then use binding with Parameter method
-                // otherwise use binding with value method directly
-                if(Objects.nonNull(parameterHandlerContext.getR2dbcType())){
-                    statement.bind(index,
-                            toParameter(parameterHandlerContext.getParameterMode(),
-                                    parameterHandlerContext.getJavaType(),
-                                    parameterHandlerContext.getR2dbcType(),
-                                    parameter
-                            )
-                    );
-                }else{
-                    statement.bind(index, parameter);
-                }
-                return null;
-            }
-            //INOUT
-            statement.bind(index,
-                    toParameter(parameterHandlerContext.getParameterMode(),
-                            parameterHandlerContext.getJavaType(),
-                            parameterHandlerContext.getR2dbcType(),
-                            parameter
-                    )
-            );
-            return null;
-        }
-
-    }
-
 }
@@ -0,0 +1,652 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.parameter;
+
+import io.r2dbc.spi.Statement;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.Objects;
+import java.util.Set;
+
+import static org.apache.ibatis.mapping.ParameterMode.IN;
+import static pro.chenggang.project.reactive.mybatis.support.r2dbc.support.ParameterBindingHelper.toParameter;
+
+/**
+ * The type Delegate R2dbc prepared statement.
+ * <p>
+ * Implements {@link PreparedStatement} directly and binds every parameter set by mybatis's {@link org.apache.ibatis.type.TypeHandler}
+ * into the R2dbc {@link Statement}, the operations except parameter binding are not supported.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class DelegateR2dbcPreparedStatement implements PreparedStatement {
+
+    private final Statement statement;
+    private final Set<Class<?>> notSupportedDataTypes;
+    private ParameterHandlerContext parameterHandlerContext;
+
+    /**
+     * Instantiates a new Delegate R2dbc prepared statement.
+     *
+     * @param statement             the statement
+     * @param notSupportedDataTypes the not supported data types
+     */
+    public DelegateR2dbcPreparedStatement(Statement statement, Set<Class<?>> notSupportedDataTypes) {
+        this.statement = statement;
+        this.notSupportedDataTypes = notSupportedDataTypes;
+    }
+
+    /**
+     * Sets parameter handler context of current binding parameter.
+     *
+     * @param parameterHandlerContext the parameter handler context
+     */
+    public void setParameterHandlerContext(ParameterHandlerContext parameterHandlerContext) {
+        this.parameterHandlerContext = parameterHandlerContext;
+    }
+
+    /**
+     * Bind parameter.
+     *
+     * @param index     the index
+     * @param parameter the parameter
+     */
+    protected void bindParameter(int index, Object parameter) {
+        if (parameter == null) {
+            this.bindNull(index);
+            return;
+        }
+        Class<?> parameterClass = parameter.getClass();
+        //not supported types
+        if (notSupportedDataTypes.contains(parameterClass)) {
+            throw new IllegalArgumentException("Unsupported Parameter type : " + parameterClass);
+        }
+        // for r2dbc-mssql with 0.9 version of r2dbc-spi, there is a bug fixed with 1.0 version of r2dbc-spi
+        // link source src/main/java/io/r2dbc/mssql/codec/DefaultCodecs.java#getServerType(Parameter parameter) in r2dbc-mssql
+        if (IN.equals(parameterHandlerContext.getParameterMode())) {
+            // if r2dbc type is not null ,then use binding with Parameter method
+            // otherwise use binding with value method directly
+            if (Objects.nonNull(parameterHandlerContext.getR2dbcType())) {
+                statement.bind(index,
+                        toParameter(parameterHandlerContext.getParameterMode(),
+                                parameterHandlerContext.getJavaType(),
+                                parameterHandlerContext.getR2dbcType(),
+                                parameter
+                        )
+                );
+            } else {
+                statement.bind(index, parameter);
+            }
+            return;
+        }
+        //INOUT
+        statement.bind(index,
+                toParameter(parameterHandlerContext.getParameterMode(),
+                        parameterHandlerContext.getJavaType(),
+                        parameterHandlerContext.getR2dbcType(),
+                        parameter
+                )
+        );
+    }
+
+    /**
+     * Bind null.
+     *
+     * @param index the index
+     */
+    protected void bindNull(int index) {
+        statement.bind(index,
+                toParameter(parameterHandlerContext.getParameterMode(),
+                        parameterHandlerContext.getJavaType(),
+                        parameterHandlerContext.getR2dbcType(),
+                        null
+                )
+        );
+    }
+
+    /**
+     * Unsupported operation sql exception.
+     *
+     * @param methodName the method name
+     * @return the sql exception
+     */
+    private SQLException unsupportedOperation(String methodName) {
+        return new SQLFeatureNotSupportedException("Unsupported operation : " + methodName + " , only parameter binding is supported by the delegated PreparedStatement");
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType) throws SQLException {
+        this.bindNull(parameterIndex);
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException {
+        this.bindNull(parameterIndex);
+    }
+
+    @Override
+    public void setBoolean(int parameterIndex, boolean x) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setByte(int parameterIndex, byte x) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setShort(int parameterIndex, short x) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setInt(int parameterIndex, int x) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setLong(int parameterIndex, long x) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setFloat(int parameterIndex, float x) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setDouble(int parameterIndex, double x) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setString(int parameterIndex, String x) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setNString(int parameterIndex, String x) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setBytes(int parameterIndex, byte[] x) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setDate(int parameterIndex, Date x) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setDate(int parameterIndex, Date x, Calendar calendar) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setTime(int parameterIndex, Time x) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setTime(int parameterIndex, Time x, Calendar calendar) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, Timestamp x, Calendar calendar) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, int targetSqlType, int scaleOrLength) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setURL(int parameterIndex, URL x) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setRowId(int parameterIndex, RowId x) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setRef(int parameterIndex, Ref x) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setArray(int parameterIndex, Array x) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, InputStream x) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, Blob x) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, InputStream x, long length) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Reader x) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Clob x) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Reader x, long length) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, Reader x) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, NClob x) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, Reader x, long length) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setSQLXML(int parameterIndex, SQLXML x) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x, long length) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    @Deprecated
+    public void setUnicodeStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x, long length) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader x) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader x, int length) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader x, long length) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setNCharacterStream(int parameterIndex, Reader x) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public void setNCharacterStream(int parameterIndex, Reader x, long length) throws SQLException {
+        this.bindParameter(parameterIndex, x);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Unable to unwrap to " + iface);
+    }
+
+    @Override
+    public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+        throw unsupportedOperation("execute");
+    }
+
+    @Override
+    public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+        throw unsupportedOperation("execute");
+    }
+
+    @Override
+    public boolean execute(String sql, String[] columnNames) throws SQLException {
+        throw unsupportedOperation("execute");
+    }
+
+    @Override
+    public boolean execute(String sql) throws SQLException {
+        throw unsupportedOperation("execute");
+    }
+
+    @Override
+    public boolean execute() throws SQLException {
+        throw unsupportedOperation("execute");
+    }
+
+    @Override
+    public boolean getMoreResults(int current) throws SQLException {
+        throw unsupportedOperation("getMoreResults");
+    }
+
+    @Override
+    public boolean getMoreResults() throws SQLException {
+        throw unsupportedOperation("getMoreResults");
+    }
+
+    @Override
+    public boolean isCloseOnCompletion() throws SQLException {
+        throw unsupportedOperation("isCloseOnCompletion");
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return false;
+    }
+
+    @Override
+    public boolean isPoolable() throws SQLException {
+        throw unsupportedOperation("isPoolable");
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this);
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        throw unsupportedOperation("executeBatch");
+    }
+
+    @Override
+    public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        throw unsupportedOperation("executeUpdate");
+    }
+
+    @Override
+    public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        throw unsupportedOperation("executeUpdate");
+    }
+
+    @Override
+    public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+        throw unsupportedOperation("executeUpdate");
+    }
+
+    @Override
+    public int executeUpdate(String sql) throws SQLException {
+        throw unsupportedOperation("executeUpdate");
+    }
+
+    @Override
+    public int executeUpdate() throws SQLException {
+        throw unsupportedOperation("executeUpdate");
+    }
+
+    @Override
+    public int getFetchDirection() throws SQLException {
+        throw unsupportedOperation("getFetchDirection");
+    }
+
+    @Override
+    public int getFetchSize() throws SQLException {
+        throw unsupportedOperation("getFetchSize");
+    }
+
+    @Override
+    public int getMaxFieldSize() throws SQLException {
+        throw unsupportedOperation("getMaxFieldSize");
+    }
+
+    @Override
+    public int getMaxRows() throws SQLException {
+        throw unsupportedOperation("getMaxRows");
+    }
+
+    @Override
+    public int getQueryTimeout() throws SQLException {
+        throw unsupportedOperation("getQueryTimeout");
+    }
+
+    @Override
+    public int getResultSetConcurrency() throws SQLException {
+        throw unsupportedOperation("getResultSetConcurrency");
+    }
+
+    @Override
+    public int getResultSetHoldability() throws SQLException {
+        throw unsupportedOperation("getResultSetHoldability");
+    }
+
+    @Override
+    public int getResultSetType() throws SQLException {
+        throw unsupportedOperation("getResultSetType");
+    }
+
+    @Override
+    public int getUpdateCount() throws SQLException {
+        throw unsupportedOperation("getUpdateCount");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        throw unsupportedOperation("getConnection");
+    }
+
+    @Override
+    public ParameterMetaData getParameterMetaData() throws SQLException {
+        throw unsupportedOperation("getParameterMetaData");
+    }
+
+    @Override
+    public ResultSetMetaData getMetaData() throws SQLException {
+        throw unsupportedOperation("getMetaData");
+    }
+
+    @Override
+    public ResultSet executeQuery(String sql) throws SQLException {
+        throw unsupportedOperation("executeQuery");
+    }
+
+    @Override
+    public ResultSet executeQuery() throws SQLException {
+        throw unsupportedOperation("executeQuery");
+    }
+
+    @Override
+    public ResultSet getGeneratedKeys() throws SQLException {
+        throw unsupportedOperation("getGeneratedKeys");
+    }
+
+    @Override
+    public ResultSet getResultSet() throws SQLException {
+        throw unsupportedOperation("getResultSet");
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        throw unsupportedOperation("getWarnings");
+    }
+
+    @Override
+    public void addBatch(String sql) throws SQLException {
+        throw unsupportedOperation("addBatch");
+    }
+
+    @Override
+    public void addBatch() throws SQLException {
+        throw unsupportedOperation("addBatch");
+    }
+
+    @Override
+    public void cancel() throws SQLException {
+        throw unsupportedOperation("cancel");
+    }
+
+    @Override
+    public void clearBatch() throws SQLException {
+        throw unsupportedOperation("clearBatch");
+    }
+
+    @Override
+    public void clearParameters() throws SQLException {
+        throw unsupportedOperation("clearParameters");
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        throw unsupportedOperation("clearWarnings");
+    }
+
+    @Override
+    public void closeOnCompletion() throws SQLException {
+        throw unsupportedOperation("closeOnCompletion");
+    }
+
+    @Override
+    public void close() throws SQLException {
+        //nothing to close
+    }
+
+    @Override
+    public void setCursorName(String sql) throws SQLException {
+        throw unsupportedOperation("setCursorName");
+    }
+
+    @Override
+    public void setEscapeProcessing(boolean value) throws SQLException {
+        throw unsupportedOperation("setEscapeProcessing");
+    }
+
+    @Override
+    public void setFetchDirection(int parameterIndex) throws SQLException {
+        throw unsupportedOperation("setFetchDirection");
+    }
+
+    @Override
+    public void setFetchSize(int parameterIndex) throws SQLException {
+        throw unsupportedOperation("setFetchSize");
+    }
+
+    @Override
+    public void setMaxFieldSize(int parameterIndex) throws SQLException {
+        throw unsupportedOperation("setMaxFieldSize");
+    }
+
+    @Override
+    public void setMaxRows(int parameterIndex) throws SQLException {
+        throw unsupportedOperation("setMaxRows");
+    }
+
+    @Override
+    public void setPoolable(boolean value) throws SQLException {
+        throw unsupportedOperation("setPoolable");
+    }
+
+    @Override
+    public void setQueryTimeout(int parameterIndex) throws SQLException {
+        throw unsupportedOperation("setQueryTimeout");
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.placeholder;
+
+import org.apache.ibatis.session.RowBounds;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The sql rewritten with pagination clause of a placeholder dialect.
+ * <p>
+ * The pagination clause uses default placeholder {@code ?} for pagination parameters,
+ * so that the rewritten sql is formatted by the placeholder dialect like any other sql.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class PaginationSql {
+
+    private final String sql;
+    private final List<Parameter> parameters;
+
+    private PaginationSql(String sql, List<Parameter> parameters) {
+        this.sql = sql;
+        this.parameters = parameters;
+    }
+
+    /**
+     * New pagination sql.
+     *
+     * @param sql        the sql with pagination clause
+     * @param parameters the pagination parameters in the order of placeholders
+     * @return the pagination sql
+     */
+    public static PaginationSql of(String sql, Parameter... parameters) {
+        return new PaginationSql(sql, Collections.unmodifiableList(new ArrayList<>(Arrays.asList(parameters))));
+    }
+
+    /**
+     * Gets sql.
+     *
+     * @return the sql
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * Gets pagination parameters in the order of placeholders.
+     *
+     * @return the parameters
+     */
+    public List<Parameter> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * The pagination parameter.
+     */
+    public enum Parameter {
+
+        /**
+         * The offset of row bounds.
+         */
+        OFFSET("_rowBoundsOffset"),
+
+        /**
+         * The limit of row bounds.
+         */
+        LIMIT("_rowBoundsLimit"),
+        ;
+
+        private final String propertyName;
+
+        Parameter(String propertyName) {
+            this.propertyName = propertyName;
+        }
+
+        /**
+         * Gets the property name of additional parameter.
+         *
+         * @return the property name
+         */
+        public String getPropertyName() {
+            return propertyName;
+        }
+
+        /**
+         * Gets the value from row bounds.
+         *
+         * @param rowBounds the row bounds
+         * @return the value
+         */
+        public int getValue(RowBounds rowBounds) {
+            return this == OFFSET ? rowBounds.getOffset() : rowBounds.getLimit();
+        }
+    }
+}
@@ -94,6 +94,17 @@ public interface PlaceholderDialect {
         return 0;
     }
 
+    /**
+     * Get the sql with pagination clause,the sql is trimmed and has no trailing semicolon.
+     *
+     * @param sql        the sql
+     * @param withOffset whether the offset of row bounds is specified
+     * @return the pagination sql,null if pagination is not supported
+     */
+    default PaginationSql getPaginationSql(String sql, boolean withOffset) {
+        return null;
+    }
+
     /**
      * Property name post process .
      *
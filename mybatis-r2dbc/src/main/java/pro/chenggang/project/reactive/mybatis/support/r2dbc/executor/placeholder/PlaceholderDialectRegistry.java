@@ -18,6 +18,8 @@ package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.placeholde
 import io.r2dbc.spi.ConnectionMetadata;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.ReactiveExecutorContextAttribute;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Optional;
 import java.util.Set;
 
@@ -43,6 +45,15 @@ public interface PlaceholderDialectRegistry {
      */
     Set<Class<? extends PlaceholderDialect>> getAllPlaceholderDialectTypes();
 
+    /**
+     * Get all registered PlaceholderDialect
+     *
+     * @return all registered PlaceholderDialect
+     */
+    default Collection<PlaceholderDialect> getAllPlaceholderDialects() {
+        return Collections.emptyList();
+    }
+
     /**
      * Gets placeholder dialect.
      *
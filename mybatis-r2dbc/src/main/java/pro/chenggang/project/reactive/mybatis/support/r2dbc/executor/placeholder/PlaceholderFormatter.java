@@ -17,8 +17,11 @@ package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.placeholde
 
 import io.r2dbc.spi.ConnectionMetadata;
 import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.ReactiveExecutorContextAttribute;
 
+import java.util.Optional;
+
 /**
  * The Placeholder formatter.
  *
@@ -37,4 +40,31 @@ public interface PlaceholderFormatter {
      * @return the string
      */
     String replaceSqlPlaceholder(ConnectionMetadata connectionMetadata, BoundSql boundSql, ReactiveExecutorContextAttribute reactiveExecutorContextAttribute);
+
+    /**
+     * Replace sql placeholder string of the mapped statement,
+     * the formatted sql of statements with static sql source could be reused without formatting again.
+     *
+     * @param connectionMetadata               the connection metadata
+     * @param mappedStatement                  the mapped statement
+     * @param boundSql                         the bound sql
+     * @param reactiveExecutorContextAttribute the reactive executor context attribute
+     * @return the string
+     */
+    default String replaceSqlPlaceholder(ConnectionMetadata connectionMetadata, MappedStatement mappedStatement, BoundSql boundSql, ReactiveExecutorContextAttribute reactiveExecutorContextAttribute) {
+        return this.replaceSqlPlaceholder(connectionMetadata, boundSql, reactiveExecutorContextAttribute);
+    }
+
+    /**
+     * Get the sql with pagination clause of the placeholder dialect.
+     *
+     * @param connectionMetadata               the connection metadata
+     * @param sql                              the original sql
+     * @param withOffset                       whether the offset of row bounds is specified
+     * @param reactiveExecutorContextAttribute the reactive executor context attribute
+     * @return the pagination sql,empty if the placeholder dialect not found or pagination is not supported
+     */
+    default Optional<PaginationSql> getPaginationSql(ConnectionMetadata connectionMetadata, String sql, boolean withOffset, ReactiveExecutorContextAttribute reactiveExecutorContextAttribute) {
+        return Optional.empty();
+    }
 }
@@ -26,6 +26,8 @@ import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.placeholder
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.placeholder.dialect.SQLServerPlaceholderDialect;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.ReactiveExecutorContextAttribute;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
@@ -68,6 +70,11 @@ public class DefaultPlaceholderDialectRegistry implements PlaceholderDialectRegi
                 .collect(Collectors.toSet());
     }
 
+    @Override
+    public Collection<PlaceholderDialect> getAllPlaceholderDialects() {
+        return Collections.unmodifiableCollection(this.placeholderDialects.values());
+    }
+
     @Override
     public Optional<PlaceholderDialect> getPlaceholderDialect(ConnectionMetadata connectionMetadata, ReactiveExecutorContextAttribute reactiveExecutorContextAttribute) {
         String name = Optional.ofNullable(reactiveExecutorContextAttribute.getAttribute().get(PLACEHOLDER_DIALECT_NAME_ATTRIBUTE_KEY))
@@ -17,25 +17,35 @@ package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.placeholde
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import io.r2dbc.spi.ConnectionMetadata;
+import org.apache.ibatis.builder.StaticSqlSource;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.scripting.defaults.RawSqlSource;
 import org.apache.ibatis.util.MapUtil;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.placeholder.PaginationSql;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.placeholder.PlaceholderDialect;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.placeholder.PlaceholderDialectRegistry;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.placeholder.PlaceholderFormatter;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.ReactiveExecutorContextAttribute;
 
 import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import static pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.placeholder.PlaceholderDialect.DEFAULT_PLACEHOLDER;
+import static pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.placeholder.PlaceholderDialect.PLACEHOLDER_DIALECT_NAME_ATTRIBUTE_KEY;
 
 /**
  * Default placeholder formatter
@@ -47,10 +57,18 @@ import static pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.plac
 public class DefaultPlaceholderFormatter implements PlaceholderFormatter {
 
     private static final Log log = LogFactory.getLog(DefaultPlaceholderFormatter.class);
+    // the cached value of sql which could not be paginated by the dialect
+    private static final PaginationSql UNSUPPORTED_PAGINATION_SQL = PaginationSql.of("");
 
     private final PlaceholderDialectRegistry placeholderDialectRegistry;
     //Class<? extends PlaceholderDialect --> Cache< original SQL , formatted SQL >
     private final ConcurrentHashMap<Class<? extends PlaceholderDialect>, Cache<String, String>> formattedSqlCache = new ConcurrentHashMap<>();
+    //Class<? extends PlaceholderDialect --> Cache< offset flag + original SQL , pagination SQL >
+    private final ConcurrentHashMap<Class<? extends PlaceholderDialect>, Cache<String, PaginationSql>> paginationSqlCache = new ConcurrentHashMap<>();
+    //statement id --> formatted SQL of static statement
+    private final ConcurrentHashMap<String, StaticFormattedSql> staticFormattedSqls = new ConcurrentHashMap<>();
+    //dialect name or database product name --> resolved placeholder dialect
+    private final ConcurrentHashMap<String, Optional<PlaceholderDialect>> resolvedPlaceholderDialects = new ConcurrentHashMap<>();
 
     public DefaultPlaceholderFormatter(PlaceholderDialectRegistry placeholderDialectRegistry, Integer sqlCacheMaxSize, Duration sqlCacheExpireDuration) {
         this.placeholderDialectRegistry = placeholderDialectRegistry;
@@ -60,15 +78,51 @@ public class DefaultPlaceholderFormatter implements PlaceholderFormatter {
                     .maximumSize(sqlCacheMaxSize)
                     .expireAfterAccess(sqlCacheExpireDuration)
                     .initialCapacity(10)
+                    .recordStats()
                     .build();
             this.formattedSqlCache.put(placeholderDialectType, cache);
+            Cache<String, PaginationSql> paginationCache = Caffeine.newBuilder()
+                    .maximumSize(sqlCacheMaxSize)
+                    .expireAfterAccess(sqlCacheExpireDuration)
+                    .initialCapacity(10)
+                    .recordStats()
+                    .build();
+            this.paginationSqlCache.put(placeholderDialectType, paginationCache);
+        }
+    }
+
+    /**
+     * format the sql of statements with static sql source with all registered placeholder dialects ahead,
+     * statements with dynamic sql source are skipped
+     *
+     * @param mappedStatements the mapped statements
+     */
+    public void preformatStaticSql(Collection<?> mappedStatements) {
+        for (Object candidate : mappedStatements) {
+            // the mapped statements of configuration may contain ambiguous short name entries
+            if (!(candidate instanceof MappedStatement)) {
+                continue;
+            }
+            StaticFormattedSql staticFormattedSql = this.getStaticFormattedSql((MappedStatement) candidate);
+            if (Objects.isNull(staticFormattedSql)) {
+                continue;
+            }
+            for (PlaceholderDialect placeholderDialect : placeholderDialectRegistry.getAllPlaceholderDialects()) {
+                if (!Objects.equals(placeholderDialect.getMarker(), DEFAULT_PLACEHOLDER)) {
+                    staticFormattedSql.getFormattedSql(placeholderDialect);
+                }
+            }
         }
     }
 
     @Override
     public String replaceSqlPlaceholder(ConnectionMetadata connectionMetadata, BoundSql boundSql, ReactiveExecutorContextAttribute reactiveExecutorContextAttribute) {
-        Optional<PlaceholderDialect> optionalPlaceholderDialect = placeholderDialectRegistry
-                .getPlaceholderDialect(connectionMetadata, reactiveExecutorContextAttribute)
+        return this.replaceSqlPlaceholder(connectionMetadata, null, boundSql, reactiveExecutorContextAttribute);
+    }
+
+    @Override
+    public String replaceSqlPlaceholder(ConnectionMetadata connectionMetadata, MappedStatement mappedStatement, BoundSql boundSql, ReactiveExecutorContextAttribute reactiveExecutorContextAttribute) {
+        Optional<PlaceholderDialect> optionalPlaceholderDialect = this.resolvePlaceholderDialect(connectionMetadata, reactiveExecutorContextAttribute)
                 .filter(placeholderDialect -> !Objects.equals(placeholderDialect.getMarker(), DEFAULT_PLACEHOLDER));
         String originalSql = boundSql.getSql();
         if (!optionalPlaceholderDialect.isPresent()) {
@@ -78,16 +132,127 @@ public class DefaultPlaceholderFormatter implements PlaceholderFormatter {
             return originalSql;
         }
         PlaceholderDialect placeholderDialect = optionalPlaceholderDialect.get();
+        if (Objects.nonNull(mappedStatement)) {
+            StaticFormattedSql staticFormattedSql = this.getStaticFormattedSql(mappedStatement);
+            // the bound sql may be rewritten, e.g. paginated
+            if (Objects.nonNull(staticFormattedSql) && staticFormattedSql.originalSql.equals(originalSql)) {
+                return staticFormattedSql.getFormattedSql(placeholderDialect);
+            }
+        }
         Cache<String, String> cache = this.formattedSqlCache.get(placeholderDialect.getClass());
         if (Objects.isNull(cache)) {
             throw new IllegalStateException("Placeholder dialect found,but Placeholder dialect sql cache is null,Placeholder dialect type : " + placeholderDialect.getClass());
         }
-        return MapUtil.computeIfAbsent(cache.asMap(),
-                originalSql,
-                statementId -> this.formatPlaceholderInternal(placeholderDialect, boundSql)
+        return cache.get(originalSql, key -> this.formatPlaceholderInternal(placeholderDialect, boundSql));
+    }
+
+    @Override
+    public Optional<PaginationSql> getPaginationSql(ConnectionMetadata connectionMetadata, String sql, boolean withOffset, ReactiveExecutorContextAttribute reactiveExecutorContextAttribute) {
+        Optional<PlaceholderDialect> optionalPlaceholderDialect = this.resolvePlaceholderDialect(connectionMetadata, reactiveExecutorContextAttribute);
+        if (!optionalPlaceholderDialect.isPresent()) {
+            return Optional.empty();
+        }
+        PlaceholderDialect placeholderDialect = optionalPlaceholderDialect.get();
+        Cache<String, PaginationSql> cache = this.paginationSqlCache.get(placeholderDialect.getClass());
+        if (Objects.isNull(cache)) {
+            throw new IllegalStateException("Placeholder dialect found,but pagination sql cache is null,Placeholder dialect type : " + placeholderDialect.getClass());
+        }
+        PaginationSql paginationSql = cache.get((withOffset ? "OFFSET:" : "LIMIT:") + sql,
+                key -> this.paginateInternal(placeholderDialect, sql, withOffset)
+        );
+        return paginationSql == UNSUPPORTED_PAGINATION_SQL ? Optional.empty() : Optional.of(paginationSql);
+    }
+
+    /**
+     * Get the stats of formatted sql cache of dynamic statements
+     *
+     * @return the cache stats of each placeholder dialect type
+     */
+    public Map<Class<? extends PlaceholderDialect>, CacheStats> getFormattedSqlCacheStats() {
+        Map<Class<? extends PlaceholderDialect>, CacheStats> cacheStats = new HashMap<>();
+        this.formattedSqlCache.forEach((placeholderDialectType, cache) -> cacheStats.put(placeholderDialectType, cache.stats()));
+        return cacheStats;
+    }
+
+    /**
+     * Get the stats of pagination sql cache
+     *
+     * @return the cache stats of each placeholder dialect type
+     */
+    public Map<Class<? extends PlaceholderDialect>, CacheStats> getPaginationSqlCacheStats() {
+        Map<Class<? extends PlaceholderDialect>, CacheStats> cacheStats = new HashMap<>();
+        this.paginationSqlCache.forEach((placeholderDialectType, cache) -> cacheStats.put(placeholderDialectType, cache.stats()));
+        return cacheStats;
+    }
+
+    /**
+     * resolve placeholder dialect,
+     * the resolved placeholder dialect is memorized by the dialect name attribute or the database product name
+     * since a connection factory always connects to the same database product
+     *
+     * @param connectionMetadata               the connection metadata
+     * @param reactiveExecutorContextAttribute the reactive executor context attribute
+     * @return the placeholder dialect
+     */
+    protected Optional<PlaceholderDialect> resolvePlaceholderDialect(ConnectionMetadata connectionMetadata, ReactiveExecutorContextAttribute reactiveExecutorContextAttribute) {
+        Object placeholderDialectName = reactiveExecutorContextAttribute.getAttribute().get(PLACEHOLDER_DIALECT_NAME_ATTRIBUTE_KEY);
+        String name = placeholderDialectName instanceof String ? (String) placeholderDialectName : connectionMetadata.getDatabaseProductName();
+        if (Objects.isNull(name)) {
+            return placeholderDialectRegistry.getPlaceholderDialect(connectionMetadata, reactiveExecutorContextAttribute);
+        }
+        return MapUtil.computeIfAbsent(this.resolvedPlaceholderDialects,
+                name,
+                key -> placeholderDialectRegistry.getPlaceholderDialect(connectionMetadata, reactiveExecutorContextAttribute)
         );
     }
 
+    /**
+     * get static formatted sql of the mapped statement
+     *
+     * @param mappedStatement the mapped statement
+     * @return the static formatted sql or null if the sql source is not static
+     */
+    private StaticFormattedSql getStaticFormattedSql(MappedStatement mappedStatement) {
+        StaticFormattedSql staticFormattedSql = this.staticFormattedSqls.get(mappedStatement.getId());
+        if (Objects.nonNull(staticFormattedSql)) {
+            return staticFormattedSql;
+        }
+        SqlSource sqlSource = mappedStatement.getSqlSource();
+        if (!(sqlSource instanceof StaticSqlSource) && !(sqlSource instanceof RawSqlSource)) {
+            return null;
+        }
+        return MapUtil.computeIfAbsent(this.staticFormattedSqls,
+                mappedStatement.getId(),
+                statementId -> new StaticFormattedSql(sqlSource.getBoundSql(null))
+        );
+    }
+
+    /**
+     * paginate internal
+     *
+     * @param placeholderDialect the placeholder dialect
+     * @param sql                the original sql
+     * @param withOffset         whether the offset of row bounds is specified
+     * @return the pagination sql or UNSUPPORTED_PAGINATION_SQL
+     */
+    protected PaginationSql paginateInternal(PlaceholderDialect placeholderDialect, String sql, boolean withOffset) {
+        String trimmedSql = sql.trim();
+        while (trimmedSql.endsWith(";")) {
+            trimmedSql = trimmedSql.substring(0, trimmedSql.length() - 1).trim();
+        }
+        PaginationSql paginationSql = placeholderDialect.getPaginationSql(trimmedSql, withOffset);
+        if (paginationSql == null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Pagination not supported with (" + placeholderDialect.getClass().getSimpleName() + ")");
+            }
+            return UNSUPPORTED_PAGINATION_SQL;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Pagination SQL  => " + paginationSql.getSql());
+        }
+        return paginationSql;
+    }
+
     /**
      * format placeholder internal
      *
@@ -145,4 +310,26 @@ public class DefaultPlaceholderFormatter implements PlaceholderFormatter {
         return builder.toString();
     }
 
+    /**
+     * The formatted sql of static statement
+     */
+    private class StaticFormattedSql {
+
+        private final BoundSql boundSql;
+        private final String originalSql;
+        //Class<? extends PlaceholderDialect --> formatted SQL
+        private final ConcurrentHashMap<Class<? extends PlaceholderDialect>, String> formattedSqls = new ConcurrentHashMap<>();
+
+        private StaticFormattedSql(BoundSql boundSql) {
+            this.boundSql = boundSql;
+            this.originalSql = boundSql.getSql();
+        }
+
+        private String getFormattedSql(PlaceholderDialect placeholderDialect) {
+            return MapUtil.computeIfAbsent(this.formattedSqls,
+                    placeholderDialect.getClass(),
+                    placeholderDialectType -> formatPlaceholderInternal(placeholderDialect, this.boundSql)
+            );
+        }
+    }
 }
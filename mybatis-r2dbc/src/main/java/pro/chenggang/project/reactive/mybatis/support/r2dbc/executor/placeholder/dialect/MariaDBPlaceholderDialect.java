@@ -15,6 +15,7 @@
  */
 package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.placeholder.dialect;
 
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.placeholder.PaginationSql;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.placeholder.PlaceholderDialect;
 
 /**
@@ -36,4 +37,12 @@ public class MariaDBPlaceholderDialect implements PlaceholderDialect {
         return DIALECT_NAME;
     }
 
+    @Override
+    public PaginationSql getPaginationSql(String sql, boolean withOffset) {
+        if (withOffset) {
+            return PaginationSql.of(sql + " LIMIT ?, ?", PaginationSql.Parameter.OFFSET, PaginationSql.Parameter.LIMIT);
+        }
+        return PaginationSql.of(sql + " LIMIT ?", PaginationSql.Parameter.LIMIT);
+    }
+
 }
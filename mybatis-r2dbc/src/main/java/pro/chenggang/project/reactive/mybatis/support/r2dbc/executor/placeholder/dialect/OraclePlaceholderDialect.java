@@ -15,6 +15,8 @@
  */
 package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.placeholder.dialect;
 
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.placeholder.PaginationSql;
+
 import java.util.Objects;
 import java.util.regex.Pattern;
 
@@ -52,4 +54,13 @@ public class OraclePlaceholderDialect implements NamePlaceholderDialect {
         return PROPERTY_PATTERN.matcher(propertyName).replaceAll("_");
     }
 
+    @Override
+    public PaginationSql getPaginationSql(String sql, boolean withOffset) {
+        // row limiting clause is supported since Oracle 12c
+        if (withOffset) {
+            return PaginationSql.of(sql + " OFFSET ? ROWS FETCH NEXT ? ROWS ONLY", PaginationSql.Parameter.OFFSET, PaginationSql.Parameter.LIMIT);
+        }
+        return PaginationSql.of(sql + " FETCH FIRST ? ROWS ONLY", PaginationSql.Parameter.LIMIT);
+    }
+
 }
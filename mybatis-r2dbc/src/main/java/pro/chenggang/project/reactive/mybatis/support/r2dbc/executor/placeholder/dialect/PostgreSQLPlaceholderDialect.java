@@ -15,6 +15,7 @@
  */
 package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.placeholder.dialect;
 
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.placeholder.PaginationSql;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.placeholder.PlaceholderDialect;
 
 /**
@@ -45,4 +46,12 @@ public class PostgreSQLPlaceholderDialect implements PlaceholderDialect {
     public int startIndex() {
         return 1;
     }
+
+    @Override
+    public PaginationSql getPaginationSql(String sql, boolean withOffset) {
+        if (withOffset) {
+            return PaginationSql.of(sql + " LIMIT ? OFFSET ?", PaginationSql.Parameter.LIMIT, PaginationSql.Parameter.OFFSET);
+        }
+        return PaginationSql.of(sql + " LIMIT ?", PaginationSql.Parameter.LIMIT);
+    }
 }
@@ -15,6 +15,8 @@
  */
 package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.placeholder.dialect;
 
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.placeholder.PaginationSql;
+
 import java.util.Objects;
 import java.util.regex.Pattern;
 
@@ -34,6 +36,8 @@ public class SQLServerPlaceholderDialect implements NamePlaceholderDialect {
 
     private static final Pattern PROPERTY_PATTERN = Pattern.compile("\\.|[^@$\\d\\w_]");
 
+    private static final Pattern ORDER_BY_PATTERN = Pattern.compile("\\bORDER\\s+BY\\b", Pattern.CASE_INSENSITIVE);
+
     @Override
     public String name() {
         return DIALECT_NAME;
@@ -54,4 +58,14 @@ public class SQLServerPlaceholderDialect implements NamePlaceholderDialect {
         }
         return PROPERTY_PATTERN.matcher(propertyName).replaceAll("_");
     }
+
+    @Override
+    public PaginationSql getPaginationSql(String sql, boolean withOffset) {
+        // OFFSET ... FETCH NEXT requires ORDER BY clause
+        if (!ORDER_BY_PATTERN.matcher(sql).find()) {
+            return null;
+        }
+        return PaginationSql.of(sql + " OFFSET ? ROWS FETCH NEXT ? ROWS ONLY", PaginationSql.Parameter.OFFSET, PaginationSql.Parameter.LIMIT);
+    }
+
 }
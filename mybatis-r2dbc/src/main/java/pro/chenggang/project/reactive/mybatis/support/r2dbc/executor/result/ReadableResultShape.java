@@ -0,0 +1,240 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result;
+
+import io.r2dbc.spi.ReadableMetadata;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.type.ObjectTypeHandler;
+import org.apache.ibatis.type.TypeHandler;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+import org.apache.ibatis.type.UnknownTypeHandler;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybatisConfiguration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The shape of readable results.
+ * <p>
+ * The column names, java types and class names are computed once from the readable metadata of a result,
+ * then shared by all readable rows of the same result. The type handlers and the mapped/unmapped column names
+ * are resolved lazily and memoized, they only depend on the shape itself.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class ReadableResultShape {
+
+    private final TypeHandlerRegistry typeHandlerRegistry;
+    private final List<String> columnNames;
+    private final List<Class<?>> javaTypes;
+    private final List<String> classNames;
+    private final Map<String, Map<Class<?>, TypeHandler<?>>> typeHandlerMap = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, List<String>>> mappedColumnNamesMap = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, List<String>>> unMappedColumnNamesMap = new ConcurrentHashMap<>();
+
+    private ReadableResultShape(List<? extends ReadableMetadata> readableMetadataList,
+                                TypeHandlerRegistry typeHandlerRegistry) {
+        this.typeHandlerRegistry = typeHandlerRegistry;
+        List<String> columnNames = new ArrayList<>(readableMetadataList.size());
+        List<Class<?>> javaTypes = new ArrayList<>(readableMetadataList.size());
+        List<String> classNames = new ArrayList<>(readableMetadataList.size());
+        readableMetadataList.forEach(columnMetadata -> {
+            //jdbc provide ResultSetMetaData#getColumnLabel(int index) to get column label
+            //bug r2dbc ColumnMetadata doesn't provide any method to get column label
+            columnNames.add(columnMetadata.getName());
+            Class<?> javaType = columnMetadata.getJavaType();
+            if (null == javaType) {
+                javaType = Object.class;
+            }
+            javaTypes.add(javaType);
+            classNames.add(javaType.getSimpleName());
+        });
+        this.columnNames = Collections.unmodifiableList(columnNames);
+        this.javaTypes = Collections.unmodifiableList(javaTypes);
+        this.classNames = Collections.unmodifiableList(classNames);
+    }
+
+    /**
+     * New readable result shape.
+     *
+     * @param readableMetadataList      the readable metadata list
+     * @param r2dbcMybatisConfiguration the r2dbc mybatis configuration
+     * @return the readable result shape
+     */
+    public static ReadableResultShape of(List<? extends ReadableMetadata> readableMetadataList,
+                                         R2dbcMybatisConfiguration r2dbcMybatisConfiguration) {
+        return new ReadableResultShape(readableMetadataList, r2dbcMybatisConfiguration.getTypeHandlerRegistry());
+    }
+
+    /**
+     * Gets column names.
+     *
+     * @return the column names
+     */
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    /**
+     * Gets java types.
+     *
+     * @return the java types
+     */
+    public List<Class<?>> getJavaTypes() {
+        return javaTypes;
+    }
+
+    /**
+     * Gets class names.
+     *
+     * @return the class names
+     */
+    public List<String> getClassNames() {
+        return classNames;
+    }
+
+    /**
+     * Gets the type handler to use when reading the result set.
+     * Tries to get from the TypeHandlerRegistry by searching for the property type.
+     * If not found it gets the column JDBC type and tries to get a handler for it.
+     *
+     * @param propertyType the property type
+     * @param columnName   the column name
+     * @return the type handler
+     */
+    public TypeHandler<?> getTypeHandler(Class<?> propertyType, String columnName) {
+        Map<Class<?>, TypeHandler<?>> columnHandlers = typeHandlerMap.computeIfAbsent(columnName, key -> new ConcurrentHashMap<>());
+        TypeHandler<?> handler = columnHandlers.get(propertyType);
+        if (handler == null) {
+            handler = typeHandlerRegistry.getTypeHandler(propertyType, null);
+            // Replicate logic of UnknownTypeHandler#resolveTypeHandler
+            // See issue #59 comment 10
+            if (handler == null || handler instanceof UnknownTypeHandler) {
+                final int index = columnNames.indexOf(columnName);
+                final Class<?> javaType = resolveClass(classNames.get(index));
+                if (javaType != null) {
+                    handler = typeHandlerRegistry.getTypeHandler(javaType);
+                }
+            }
+            if (handler == null || handler instanceof UnknownTypeHandler) {
+                handler = new ObjectTypeHandler();
+            }
+            columnHandlers.put(propertyType, handler);
+        }
+        return handler;
+    }
+
+    /**
+     * Gets mapped column names.
+     *
+     * @param resultMap    the result map
+     * @param columnPrefix the column prefix
+     * @return the mapped column names
+     */
+    public List<String> getMappedColumnNames(ResultMap resultMap, String columnPrefix) {
+        List<String> mappedColumnNames = getCachedColumnNames(mappedColumnNamesMap, resultMap, columnPrefix);
+        if (mappedColumnNames == null) {
+            loadMappedAndUnmappedColumnNames(resultMap, columnPrefix);
+            mappedColumnNames = getCachedColumnNames(mappedColumnNamesMap, resultMap, columnPrefix);
+        }
+        return mappedColumnNames;
+    }
+
+    /**
+     * Gets unmapped column names.
+     *
+     * @param resultMap    the result map
+     * @param columnPrefix the column prefix
+     * @return the unmapped column names
+     */
+    public List<String> getUnmappedColumnNames(ResultMap resultMap, String columnPrefix) {
+        List<String> unMappedColumnNames = getCachedColumnNames(unMappedColumnNamesMap, resultMap, columnPrefix);
+        if (unMappedColumnNames == null) {
+            loadMappedAndUnmappedColumnNames(resultMap, columnPrefix);
+            unMappedColumnNames = getCachedColumnNames(unMappedColumnNamesMap, resultMap, columnPrefix);
+        }
+        return unMappedColumnNames;
+    }
+
+    private Class<?> resolveClass(String className) {
+        try {
+            // #699 className could be null
+            if (className != null) {
+                return Resources.classForName(className);
+            }
+        } catch (ClassNotFoundException e) {
+            // ignore
+        }
+        return null;
+    }
+
+    private void loadMappedAndUnmappedColumnNames(ResultMap resultMap, String columnPrefix) {
+        List<String> mappedColumnNames = new ArrayList<>();
+        List<String> unmappedColumnNames = new ArrayList<>();
+        final String upperColumnPrefix = columnPrefix == null ? null : columnPrefix.toUpperCase(Locale.ENGLISH);
+        final Set<String> mappedColumns = prependPrefixes(resultMap.getMappedColumns(), upperColumnPrefix);
+        for (String columnName : columnNames) {
+            final String upperColumnName = columnName.toUpperCase(Locale.ENGLISH);
+            if (mappedColumns.contains(upperColumnName)) {
+                mappedColumnNames.add(upperColumnName);
+            } else {
+                unmappedColumnNames.add(columnName);
+            }
+        }
+        mappedColumnNamesMap.computeIfAbsent(resultMap.getId(), key -> new ConcurrentHashMap<>())
+                .put(getPrefixKey(columnPrefix), Collections.unmodifiableList(mappedColumnNames));
+        unMappedColumnNamesMap.computeIfAbsent(resultMap.getId(), key -> new ConcurrentHashMap<>())
+                .put(getPrefixKey(columnPrefix), Collections.unmodifiableList(unmappedColumnNames));
+    }
+
+    private List<String> getCachedColumnNames(Map<String, Map<String, List<String>>> columnNamesMap,
+                                              ResultMap resultMap,
+                                              String columnPrefix) {
+        Map<String, List<String>> prefixedColumnNames = columnNamesMap.get(resultMap.getId());
+        if (prefixedColumnNames == null) {
+            return null;
+        }
+        return prefixedColumnNames.get(getPrefixKey(columnPrefix));
+    }
+
+    /**
+     * null and empty column prefix are treated the same while resolving mapped columns
+     */
+    private String getPrefixKey(String columnPrefix) {
+        return columnPrefix == null ? "" : columnPrefix;
+    }
+
+    private Set<String> prependPrefixes(Set<String> columnNames, String prefix) {
+        if (columnNames == null || columnNames.isEmpty() || prefix == null || prefix.length() == 0) {
+            return columnNames == null ? Collections.emptySet() : columnNames;
+        }
+        final Set<String> prefixed = new HashSet<>();
+        for (String columnName : columnNames) {
+            prefixed.add(prefix + columnName);
+        }
+        return prefixed;
+    }
+
+}
@@ -19,22 +19,12 @@ import io.r2dbc.spi.OutParameters;
 import io.r2dbc.spi.Readable;
 import io.r2dbc.spi.ReadableMetadata;
 import io.r2dbc.spi.Row;
-import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.mapping.ResultMap;
-import org.apache.ibatis.type.ObjectTypeHandler;
 import org.apache.ibatis.type.TypeHandler;
-import org.apache.ibatis.type.TypeHandlerRegistry;
-import org.apache.ibatis.type.UnknownTypeHandler;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybatisConfiguration;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
-import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
@@ -118,6 +108,32 @@ public class ReadableResultWrapper<T extends Readable> {
         );
     }
 
+    /**
+     * New result wrapper of row readable which shares the readable result shape of the same result.
+     * <p>
+     * The readable result shape is computed with the first row and then reused by the following rows.
+     *
+     * @param row                       the row
+     * @param shapeReference            the readable result shape reference of the result which the row belongs to
+     * @param r2dbcMybatisConfiguration the r2dbc mybatis configuration
+     * @return the readable result wrapper
+     */
+    public static ReadableResultWrapper<Row> ofRow(Row row,
+                                                   AtomicReference<ReadableResultShape> shapeReference,
+                                                   R2dbcMybatisConfiguration r2dbcMybatisConfiguration) {
+        ReadableResultShape readableResultShape = shapeReference.get();
+        if (readableResultShape == null) {
+            readableResultShape = ReadableResultShape.of(ROW_METADATA_EXTRACTOR.apply(row), r2dbcMybatisConfiguration);
+            shapeReference.set(readableResultShape);
+        }
+        return new ReadableResultWrapper<>(
+                row,
+                readableResultShape,
+                ROW_METADATA_EXTRACTOR_BY_INDEX,
+                ROW_METADATA_EXTRACTOR_BY_NAME
+        );
+    }
+
     /**
      * New result wrapper of out parameters.
      *
@@ -137,16 +153,9 @@ public class ReadableResultWrapper<T extends Readable> {
     }
 
     private final T readable;
+    private final ReadableResultShape readableResultShape;
     private final BiFunction<T, Integer, ReadableMetadata> metadataExtractorByIndex;
     private final BiFunction<T, String, ReadableMetadata> metadataExtractorByName;
-    private final TypeHandlerRegistry typeHandlerRegistry;
-    private final List<String> columnNames = new ArrayList<>();
-    private final List<Class<?>> javaTypes = new ArrayList<>();
-    private final List<String> classNames = new ArrayList<>();
-    private final Map<String, Map<Class<?>, TypeHandler<?>>> typeHandlerMap = new HashMap<>();
-    private final Map<String, List<String>> mappedColumnNamesMap = new HashMap<>();
-    private final Map<String, List<String>> unMappedColumnNamesMap = new HashMap<>();
-
 
     /**
      * Instantiates a new Row result wrapper.
@@ -162,21 +171,29 @@ public class ReadableResultWrapper<T extends Readable> {
                                  BiFunction<T, Integer, ReadableMetadata> metadataExtractorByIndex,
                                  BiFunction<T, String, ReadableMetadata> metadataExtractorByName,
                                  R2dbcMybatisConfiguration configuration) {
+        this(readable,
+                ReadableResultShape.of(allMetadataExtractor.apply(readable), configuration),
+                metadataExtractorByIndex,
+                metadataExtractorByName
+        );
+    }
+
+    /**
+     * Instantiates a new Row result wrapper with an existing readable result shape.
+     *
+     * @param readable                 the readable
+     * @param readableResultShape      the readable result shape
+     * @param metadataExtractorByIndex the metadata extractor by index
+     * @param metadataExtractorByName  the metadata extractor by name
+     */
+    public ReadableResultWrapper(T readable,
+                                 ReadableResultShape readableResultShape,
+                                 BiFunction<T, Integer, ReadableMetadata> metadataExtractorByIndex,
+                                 BiFunction<T, String, ReadableMetadata> metadataExtractorByName) {
         this.readable = readable;
+        this.readableResultShape = readableResultShape;
         this.metadataExtractorByIndex = metadataExtractorByIndex;
         this.metadataExtractorByName = metadataExtractorByName;
-        this.typeHandlerRegistry = configuration.getTypeHandlerRegistry();
-        allMetadataExtractor.apply(readable).forEach(columnMetadata -> {
-            //jdbc provide ResultSetMetaData#getColumnLabel(int index) to get column label
-            //bug r2dbc ColumnMetadata doesn't provide any method to get column label
-            columnNames.add(columnMetadata.getName());
-            Class<?> javaType = columnMetadata.getJavaType();
-            if (null == javaType) {
-                javaType = Object.class;
-            }
-            javaTypes.add(javaType);
-            classNames.add(javaType.getSimpleName());
-        });
     }
 
 
@@ -209,13 +226,22 @@ public class ReadableResultWrapper<T extends Readable> {
         return this.metadataExtractorByName.apply(this.readable, name);
     }
 
+    /**
+     * Gets readable result shape.
+     *
+     * @return the readable result shape
+     */
+    public ReadableResultShape getReadableResultShape() {
+        return readableResultShape;
+    }
+
     /**
      * Gets column names.
      *
      * @return the column names
      */
     public List<String> getColumnNames() {
-        return this.columnNames;
+        return readableResultShape.getColumnNames();
     }
 
     /**
@@ -224,7 +250,7 @@ public class ReadableResultWrapper<T extends Readable> {
      * @return the class names
      */
     public List<String> getClassNames() {
-        return Collections.unmodifiableList(classNames);
+        return readableResultShape.getClassNames();
     }
 
     /**
@@ -233,7 +259,7 @@ public class ReadableResultWrapper<T extends Readable> {
      * @return the java types
      */
     public List<Class<?>> getJavaTypes() {
-        return javaTypes;
+        return readableResultShape.getJavaTypes();
     }
 
     /**
@@ -246,60 +272,7 @@ public class ReadableResultWrapper<T extends Readable> {
      * @return the type handler
      */
     public TypeHandler<?> getTypeHandler(Class<?> propertyType, String columnName) {
-        TypeHandler<?> handler = null;
-        Map<Class<?>, TypeHandler<?>> columnHandlers = typeHandlerMap.get(columnName);
-        if (columnHandlers == null) {
-            columnHandlers = new HashMap<>();
-            typeHandlerMap.put(columnName, columnHandlers);
-        } else {
-            handler = columnHandlers.get(propertyType);
-        }
-        if (handler == null) {
-            handler = typeHandlerRegistry.getTypeHandler(propertyType, null);
-            // Replicate logic of UnknownTypeHandler#resolveTypeHandler
-            // See issue #59 comment 10
-            if (handler == null || handler instanceof UnknownTypeHandler) {
-                final int index = columnNames.indexOf(columnName);
-                final Class<?> javaType = resolveClass(classNames.get(index));
-                if (javaType != null) {
-                    handler = typeHandlerRegistry.getTypeHandler(javaType);
-                }
-            }
-            if (handler == null || handler instanceof UnknownTypeHandler) {
-                handler = new ObjectTypeHandler();
-            }
-            columnHandlers.put(propertyType, handler);
-        }
-        return handler;
-    }
-
-    private Class<?> resolveClass(String className) {
-        try {
-            // #699 className could be null
-            if (className != null) {
-                return Resources.classForName(className);
-            }
-        } catch (ClassNotFoundException e) {
-            // ignore
-        }
-        return null;
-    }
-
-    private void loadMappedAndUnmappedColumnNames(ResultMap resultMap, String columnPrefix) {
-        List<String> mappedColumnNames = new ArrayList<>();
-        List<String> unmappedColumnNames = new ArrayList<>();
-        final String upperColumnPrefix = columnPrefix == null ? null : columnPrefix.toUpperCase(Locale.ENGLISH);
-        final Set<String> mappedColumns = prependPrefixes(resultMap.getMappedColumns(), upperColumnPrefix);
-        for (String columnName : columnNames) {
-            final String upperColumnName = columnName.toUpperCase(Locale.ENGLISH);
-            if (mappedColumns.contains(upperColumnName)) {
-                mappedColumnNames.add(upperColumnName);
-            } else {
-                unmappedColumnNames.add(columnName);
-            }
-        }
-        mappedColumnNamesMap.put(getMapKey(resultMap, columnPrefix), mappedColumnNames);
-        unMappedColumnNamesMap.put(getMapKey(resultMap, columnPrefix), unmappedColumnNames);
+        return readableResultShape.getTypeHandler(propertyType, columnName);
     }
 
     /**
@@ -310,12 +283,7 @@ public class ReadableResultWrapper<T extends Readable> {
      * @return the mapped column names
      */
     public List<String> getMappedColumnNames(ResultMap resultMap, String columnPrefix) {
-        List<String> mappedColumnNames = mappedColumnNamesMap.get(getMapKey(resultMap, columnPrefix));
-        if (mappedColumnNames == null) {
-            loadMappedAndUnmappedColumnNames(resultMap, columnPrefix);
-            mappedColumnNames = mappedColumnNamesMap.get(getMapKey(resultMap, columnPrefix));
-        }
-        return mappedColumnNames;
+        return readableResultShape.getMappedColumnNames(resultMap, columnPrefix);
     }
 
     /**
@@ -326,27 +294,7 @@ public class ReadableResultWrapper<T extends Readable> {
      * @return the unmapped column names
      */
     public List<String> getUnmappedColumnNames(ResultMap resultMap, String columnPrefix) {
-        List<String> unMappedColumnNames = unMappedColumnNamesMap.get(getMapKey(resultMap, columnPrefix));
-        if (unMappedColumnNames == null) {
-            loadMappedAndUnmappedColumnNames(resultMap, columnPrefix);
-            unMappedColumnNames = unMappedColumnNamesMap.get(getMapKey(resultMap, columnPrefix));
-        }
-        return unMappedColumnNames;
-    }
-
-    private String getMapKey(ResultMap resultMap, String columnPrefix) {
-        return resultMap.getId() + ":" + columnPrefix;
-    }
-
-    private Set<String> prependPrefixes(Set<String> columnNames, String prefix) {
-        if (columnNames == null || columnNames.isEmpty() || prefix == null || prefix.length() == 0) {
-            return columnNames == null ? Collections.emptySet() : columnNames;
-        }
-        final Set<String> prefixed = new HashSet<>();
-        for (String columnName : columnNames) {
-            prefixed.add(prefix + columnName);
-        }
-        return prefixed;
+        return readableResultShape.getUnmappedColumnNames(resultMap, columnPrefix);
     }
 
 }
@@ -0,0 +1,246 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result;
+
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Type;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * The row captured from a {@link Row} with column values in memory,which could be written to a spill file.
+ * <p>
+ * Column values are read once with {@link Row#get(int)},
+ * {@link ByteBuffer} values are copied to byte array,
+ * and values are converted between numeric types when reading with another numeric type.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class SpilledRow implements Row {
+
+    private final Metadata metadata;
+    private final Object[] values;
+
+    private SpilledRow(Metadata metadata, Object[] values) {
+        this.metadata = metadata;
+        this.values = values;
+    }
+
+    /**
+     * Capture row.
+     *
+     * @param row      the row
+     * @param metadata the metadata shared by rows of the same result,created if null
+     * @return the spilled row
+     */
+    public static SpilledRow capture(Row row, Metadata metadata) {
+        Metadata rowMetadata = metadata == null ? Metadata.of(row.getMetadata()) : metadata;
+        int columnCount = rowMetadata.getColumnMetadatas().size();
+        Object[] values = new Object[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            Object value = row.get(i);
+            if (value instanceof ByteBuffer) {
+                ByteBuffer byteBuffer = ((ByteBuffer) value).duplicate();
+                byte[] bytes = new byte[byteBuffer.remaining()];
+                byteBuffer.get(bytes);
+                value = bytes;
+            }
+            values[i] = value;
+        }
+        return new SpilledRow(rowMetadata, values);
+    }
+
+    /**
+     * Restore spilled row from values.
+     *
+     * @param metadata the metadata
+     * @param values   the values
+     * @return the spilled row
+     */
+    public static SpilledRow restore(Metadata metadata, Object[] values) {
+        return new SpilledRow(metadata, values);
+    }
+
+    /**
+     * Get values.
+     *
+     * @return the values
+     */
+    public Object[] getValues() {
+        return values;
+    }
+
+    @Override
+    public Metadata getMetadata() {
+        return this.metadata;
+    }
+
+    @Override
+    public <T> T get(int index, Class<T> type) {
+        if (index < 0 || index >= values.length) {
+            throw new IndexOutOfBoundsException("Column index " + index + " is out of range of " + values.length + " columns");
+        }
+        return convert(values[index], type);
+    }
+
+    @Override
+    public <T> T get(String name, Class<T> type) {
+        return this.get(this.metadata.indexOf(name), type);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T convert(Object value, Class<T> type) {
+        if (value == null || Object.class.equals(type) || type.isInstance(value)) {
+            return (T) value;
+        }
+        if (value instanceof byte[] && ByteBuffer.class.equals(type)) {
+            return (T) ByteBuffer.wrap((byte[]) value);
+        }
+        if (value instanceof Number) {
+            Number number = (Number) value;
+            if (Long.class.equals(type)) {
+                return (T) Long.valueOf(number.longValue());
+            }
+            if (Integer.class.equals(type)) {
+                return (T) Integer.valueOf(number.intValue());
+            }
+            if (Short.class.equals(type)) {
+                return (T) Short.valueOf(number.shortValue());
+            }
+            if (Byte.class.equals(type)) {
+                return (T) Byte.valueOf(number.byteValue());
+            }
+            if (Double.class.equals(type)) {
+                return (T) Double.valueOf(number.doubleValue());
+            }
+            if (Float.class.equals(type)) {
+                return (T) Float.valueOf(number.floatValue());
+            }
+            if (BigDecimal.class.equals(type)) {
+                return (T) new BigDecimal(number.toString());
+            }
+            if (BigInteger.class.equals(type)) {
+                return (T) new BigDecimal(number.toString()).toBigInteger();
+            }
+        }
+        if (String.class.equals(type)) {
+            return (T) value.toString();
+        }
+        throw new IllegalArgumentException("Cannot convert spilled value of " + value.getClass() + " to " + type);
+    }
+
+    /**
+     * The metadata of spilled row
+     */
+    public static class Metadata implements RowMetadata {
+
+        private final List<Column> columns;
+        private final Map<String, Integer> columnIndexes;
+
+        private Metadata(List<Column> columns) {
+            this.columns = Collections.unmodifiableList(columns);
+            this.columnIndexes = new HashMap<>(columns.size() * 2);
+            for (int i = 0; i < columns.size(); i++) {
+                this.columnIndexes.putIfAbsent(columns.get(i).getName().toUpperCase(Locale.ENGLISH), i);
+            }
+        }
+
+        /**
+         * New metadata from row metadata.
+         *
+         * @param rowMetadata the row metadata
+         * @return the metadata
+         */
+        public static Metadata of(RowMetadata rowMetadata) {
+            List<? extends ColumnMetadata> columnMetadatas = rowMetadata.getColumnMetadatas();
+            List<Column> columns = new ArrayList<>(columnMetadatas.size());
+            for (ColumnMetadata columnMetadata : columnMetadatas) {
+                columns.add(new Column(columnMetadata.getName(), columnMetadata.getJavaType()));
+            }
+            return new Metadata(columns);
+        }
+
+        private int indexOf(String name) {
+            Integer index = this.columnIndexes.get(name.toUpperCase(Locale.ENGLISH));
+            if (index == null) {
+                throw new NoSuchElementException("Column name '" + name + "' does not exist in column names " + this.columnIndexes.keySet());
+            }
+            return index;
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(int index) {
+            return this.columns.get(index);
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(String name) {
+            return this.columns.get(this.indexOf(name));
+        }
+
+        @Override
+        public List<? extends ColumnMetadata> getColumnMetadatas() {
+            return this.columns;
+        }
+
+        @Override
+        public boolean contains(String columnName) {
+            return this.columnIndexes.containsKey(columnName.toUpperCase(Locale.ENGLISH));
+        }
+    }
+
+    /**
+     * The column metadata of spilled row
+     */
+    private static class Column implements ColumnMetadata, Type {
+
+        private final String name;
+        private final Class<?> javaType;
+
+        private Column(String name, Class<?> javaType) {
+            this.name = name;
+            this.javaType = javaType == null ? Object.class : javaType;
+        }
+
+        @Override
+        public Class<?> getJavaType() {
+            return this.javaType;
+        }
+
+        @Override
+        public Type getType() {
+            return this;
+        }
+
+        @Override
+        public String getName() {
+            return this.name;
+        }
+    }
+}
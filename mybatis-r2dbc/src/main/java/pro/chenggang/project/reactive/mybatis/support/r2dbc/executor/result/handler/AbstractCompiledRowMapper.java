@@ -0,0 +1,100 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.handler;
+
+import io.r2dbc.spi.Readable;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.ReadableResultWrapper;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.type.R2dbcTypeHandlerAdapter;
+
+/**
+ * The super class of generated {@link CompiledRowMapper}s.
+ * <p>
+ * Every column mapping of the generated row mapper is addressed by its mapping index,
+ * the column values read through {@link R2dbcTypeHandlerAdapter}s and the properties
+ * which could not be assigned directly fall back to the helper methods of this class.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public abstract class AbstractCompiledRowMapper implements CompiledRowMapper {
+
+    /**
+     * The target types of the column values, indexed by mapping index
+     */
+    protected final Class<?>[] targetTypes;
+    private final R2dbcTypeHandlerAdapter<?>[] r2dbcTypeHandlerAdapters;
+    private final String[] columnNames;
+    private final String[] properties;
+    private final Invoker[] setInvokers;
+
+    /**
+     * Instantiates a new Abstract compiled row mapper.
+     *
+     * @param targetTypes              the target types
+     * @param r2dbcTypeHandlerAdapters the r2dbc type handler adapters
+     * @param columnNames              the column names
+     * @param properties               the properties
+     * @param setInvokers              the set invokers
+     */
+    protected AbstractCompiledRowMapper(Class<?>[] targetTypes,
+                                        R2dbcTypeHandlerAdapter<?>[] r2dbcTypeHandlerAdapters,
+                                        String[] columnNames,
+                                        String[] properties,
+                                        Invoker[] setInvokers) {
+        this.targetTypes = targetTypes;
+        this.r2dbcTypeHandlerAdapters = r2dbcTypeHandlerAdapters;
+        this.columnNames = columnNames;
+        this.properties = properties;
+        this.setInvokers = setInvokers;
+    }
+
+    /**
+     * Read the column value of the mapping with the registered r2dbc type handler adapter
+     *
+     * @param readableResultWrapper the readable result wrapper
+     * @param mappingIndex          the mapping index
+     * @return the column value
+     */
+    protected final Object getResultByR2dbcTypeHandlerAdapter(ReadableResultWrapper<? extends Readable> readableResultWrapper, int mappingIndex) {
+        String columnName = this.columnNames[mappingIndex];
+        return this.r2dbcTypeHandlerAdapters[mappingIndex].getResult(readableResultWrapper.getReadable(),
+                readableResultWrapper.getReadableMetadataByName(columnName),
+                columnName
+        );
+    }
+
+    /**
+     * Set the property value of the mapping through the set invoker of the reflector,
+     * which is used when the setter or field is not accessible from the generated row mapper
+     *
+     * @param resultObject the result object
+     * @param mappingIndex the mapping index
+     * @param value        the value
+     * @throws ReflectionException the reflection exception
+     */
+    protected final void setPropertyValue(Object resultObject, int mappingIndex, Object value) {
+        try {
+            this.setInvokers[mappingIndex].invoke(resultObject, new Object[]{value});
+        } catch (Throwable t) {
+            throw new ReflectionException("Could not set property '" + this.properties[mappingIndex] + "' of '" + resultObject.getClass()
+                    + "' with value '" + value + "' Cause: " + t.toString(), t);
+        }
+    }
+
+}
@@ -0,0 +1,42 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.handler;
+
+import io.r2dbc.spi.Readable;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.ReadableResultWrapper;
+
+/**
+ * The row mapper compiled for a simple result map and a column layout of readable results.
+ * <p>
+ * The column values are read by index and assigned to the properties of the result object
+ * through the setters or fields directly, instead of going through {@link org.apache.ibatis.reflection.MetaObject}
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public interface CompiledRowMapper {
+
+    /**
+     * Map the readable onto the result object
+     *
+     * @param readableResultWrapper the readable result wrapper
+     * @param resultObject          the result object
+     * @return whether any non-null column value is found
+     */
+    boolean map(ReadableResultWrapper<? extends Readable> readableResultWrapper, Object resultObject);
+
+}
@@ -0,0 +1,575 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.handler;
+
+import io.r2dbc.spi.Readable;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.ClassFileVersion;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.dynamic.loading.MultipleParentClassLoader;
+import net.bytebuddy.dynamic.scaffold.subclass.ConstructorStrategy;
+import net.bytebuddy.implementation.Implementation;
+import net.bytebuddy.implementation.bytecode.ByteCodeAppender;
+import net.bytebuddy.jar.asm.Label;
+import net.bytebuddy.jar.asm.MethodVisitor;
+import net.bytebuddy.jar.asm.Opcodes;
+import net.bytebuddy.jar.asm.Type;
+import net.bytebuddy.matcher.ElementMatchers;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.reflection.MetaClass;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.invoker.MethodInvoker;
+import org.apache.ibatis.reflection.invoker.SetFieldInvoker;
+import org.apache.ibatis.reflection.property.PropertyNamer;
+import org.apache.ibatis.reflection.wrapper.DefaultObjectWrapperFactory;
+import org.apache.ibatis.type.TypeHandler;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybatisConfiguration;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.ReadableResultShape;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.ReadableResultWrapper;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.type.R2dbcTypeHandlerAdapter;
+
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The factory of {@link CompiledRowMapper}s.
+ * <p>
+ * A row mapper class is generated on first use for each pair of simple result map and column layout.
+ * The column index, the target type and the setter of every column mapping are resolved while generating,
+ * so mapping a row neither resolves type handlers nor goes through {@link org.apache.ibatis.reflection.MetaObject}.
+ * Result maps with discriminator, constructor mappings, nested result maps, nested queries or nested properties
+ * are not compiled and still mapped by {@link DefaultReactiveResultHandler}.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class CompiledRowMapperFactory {
+
+    private static final Log log = LogFactory.getLog(CompiledRowMapperFactory.class);
+
+    private final R2dbcMybatisConfiguration r2dbcMybatisConfiguration;
+    private final Map<List<Object>, Optional<CompiledRowMapper>> compiledRowMapperCache = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiates a new Compiled row mapper factory.
+     *
+     * @param r2dbcMybatisConfiguration the r2dbc mybatis configuration
+     */
+    public CompiledRowMapperFactory(R2dbcMybatisConfiguration r2dbcMybatisConfiguration) {
+        this.r2dbcMybatisConfiguration = r2dbcMybatisConfiguration;
+    }
+
+    /**
+     * Gets the compiled row mapper of the result map and the column layout of the readable result,
+     * the row mapper is compiled on first use and shared by all results with the same column layout.
+     *
+     * @param mappedStatement       the mapped statement
+     * @param readableResultWrapper the readable result wrapper
+     * @param resultMap             the result map
+     * @param columnPrefix          the column prefix
+     * @param resultType            the actual type of result objects
+     * @param autoMapping           whether the unmapped columns are mapped automatically
+     * @return the compiled row mapper or empty if the result map could not be compiled
+     */
+    public Optional<CompiledRowMapper> getCompiledRowMapper(MappedStatement mappedStatement,
+                                                            ReadableResultWrapper<? extends Readable> readableResultWrapper,
+                                                            ResultMap resultMap,
+                                                            String columnPrefix,
+                                                            Class<?> resultType,
+                                                            boolean autoMapping) {
+        ReadableResultShape readableResultShape = readableResultWrapper.getReadableResultShape();
+        List<Object> cacheKey = Arrays.asList(resultMap.getId(),
+                columnPrefix,
+                resultType,
+                autoMapping,
+                r2dbcMybatisConfiguration.isCallSettersOnNulls(),
+                readableResultShape.getColumnNames(),
+                readableResultShape.getJavaTypes()
+        );
+        return compiledRowMapperCache.computeIfAbsent(cacheKey,
+                key -> this.compile(mappedStatement, readableResultWrapper, resultMap, columnPrefix, resultType, autoMapping)
+        );
+    }
+
+    private Optional<CompiledRowMapper> compile(MappedStatement mappedStatement,
+                                                ReadableResultWrapper<? extends Readable> readableResultWrapper,
+                                                ResultMap resultMap,
+                                                String columnPrefix,
+                                                Class<?> resultType,
+                                                boolean autoMapping) {
+        if (!this.isCompilable(resultMap, resultType)) {
+            return Optional.empty();
+        }
+        final Reflector reflector = r2dbcMybatisConfiguration.getReflectorFactory().findForClass(resultType);
+        final DelegateR2dbcResultRowDataHandler rowDataHandler = new DelegateR2dbcResultRowDataHandler(
+                r2dbcMybatisConfiguration.getNotSupportedDataTypes(),
+                r2dbcMybatisConfiguration.getR2dbcTypeHandlerAdapterRegistry()
+        );
+        final List<ColumnMapping> columnMappings = new ArrayList<>();
+        // automatic mappings are applied before property mappings,same as DefaultReactiveResultHandler
+        if (autoMapping && !this.resolveAutomaticMappings(mappedStatement, readableResultWrapper, resultMap, columnPrefix, resultType, reflector, rowDataHandler, columnMappings)) {
+            return Optional.empty();
+        }
+        if (!this.resolvePropertyMappings(readableResultWrapper, resultMap, columnPrefix, resultType, reflector, rowDataHandler, columnMappings)) {
+            return Optional.empty();
+        }
+        try {
+            CompiledRowMapper compiledRowMapper = this.generate(resultType, columnMappings);
+            if (log.isDebugEnabled()) {
+                log.debug("Compiled row mapper of result map '" + resultMap.getId() + "' with " + columnMappings.size() + " column mappings");
+            }
+            return Optional.of(compiledRowMapper);
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            log.warn("Could not compile row mapper of result map '" + resultMap.getId() + "', rows are mapped by reflection instead. Cause: " + e);
+            return Optional.empty();
+        }
+    }
+
+    private boolean isCompilable(ResultMap resultMap, Class<?> resultType) {
+        if (resultMap.getDiscriminator() != null
+                || resultMap.hasNestedResultMaps()
+                || resultMap.hasNestedQueries()
+                || !resultMap.getConstructorResultMappings().isEmpty()) {
+            return false;
+        }
+        if (!(r2dbcMybatisConfiguration.getObjectWrapperFactory() instanceof DefaultObjectWrapperFactory)) {
+            return false;
+        }
+        return !resultType.isInterface()
+                && !resultType.isArray()
+                && !Map.class.isAssignableFrom(resultType)
+                && !Collection.class.isAssignableFrom(resultType);
+    }
+
+    private boolean resolveAutomaticMappings(MappedStatement mappedStatement,
+                                             ReadableResultWrapper<? extends Readable> readableResultWrapper,
+                                             ResultMap resultMap,
+                                             String columnPrefix,
+                                             Class<?> resultType,
+                                             Reflector reflector,
+                                             DelegateR2dbcResultRowDataHandler rowDataHandler,
+                                             List<ColumnMapping> columnMappings) {
+        final MetaClass metaClass = MetaClass.forClass(resultType, r2dbcMybatisConfiguration.getReflectorFactory());
+        final List<String> columnNames = readableResultWrapper.getColumnNames();
+        for (String columnName : readableResultWrapper.getUnmappedColumnNames(resultMap, columnPrefix)) {
+            String propertyName = columnName;
+            if (columnPrefix != null && !columnPrefix.isEmpty()) {
+                // When columnPrefix is specified,
+                // ignore columns without the prefix.
+                if (columnName.toUpperCase(Locale.ENGLISH).startsWith(columnPrefix)) {
+                    propertyName = columnName.substring(columnPrefix.length());
+                } else {
+                    continue;
+                }
+            }
+            final String property = metaClass.findProperty(propertyName, r2dbcMybatisConfiguration.isMapUnderscoreToCamelCase());
+            if (property != null && metaClass.hasSetter(property)) {
+                if (resultMap.getMappedProperties().contains(property)) {
+                    continue;
+                }
+                final Class<?> propertyType = metaClass.getSetterType(property);
+                if (r2dbcMybatisConfiguration.getTypeHandlerRegistry().hasTypeHandler(propertyType)) {
+                    final TypeHandler<?> typeHandler = readableResultWrapper.getTypeHandler(propertyType, columnName);
+                    ColumnMapping columnMapping = this.resolveColumnMapping(readableResultWrapper, rowDataHandler, resultType, reflector,
+                            columnNames.indexOf(columnName), columnName, property, propertyType, typeHandler);
+                    if (columnMapping == null) {
+                        return false;
+                    }
+                    columnMappings.add(columnMapping);
+                } else {
+                    r2dbcMybatisConfiguration.getAutoMappingUnknownColumnBehavior()
+                            .doAction(mappedStatement, columnName, property, propertyType);
+                }
+            } else {
+                r2dbcMybatisConfiguration.getAutoMappingUnknownColumnBehavior()
+                        .doAction(mappedStatement, columnName, (property != null) ? property : propertyName, null);
+            }
+        }
+        return true;
+    }
+
+    private boolean resolvePropertyMappings(ReadableResultWrapper<? extends Readable> readableResultWrapper,
+                                            ResultMap resultMap,
+                                            String columnPrefix,
+                                            Class<?> resultType,
+                                            Reflector reflector,
+                                            DelegateR2dbcResultRowDataHandler rowDataHandler,
+                                            List<ColumnMapping> columnMappings) {
+        final List<String> columnNames = readableResultWrapper.getColumnNames();
+        final List<String> mappedColumnNames = readableResultWrapper.getMappedColumnNames(resultMap, columnPrefix);
+        for (ResultMapping propertyMapping : resultMap.getPropertyResultMappings()) {
+            if (propertyMapping.getNestedResultMapId() != null
+                    || propertyMapping.getResultSet() != null
+                    || propertyMapping.isCompositeResult()) {
+                return false;
+            }
+            final String column = this.prependPrefix(propertyMapping.getColumn(), columnPrefix);
+            // issue #541 make property optional
+            if (column == null || propertyMapping.getProperty() == null || !mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH))) {
+                continue;
+            }
+            ColumnMapping columnMapping = this.resolveColumnMapping(readableResultWrapper, rowDataHandler, resultType, reflector,
+                    this.indexOfColumn(columnNames, column), column, propertyMapping.getProperty(), propertyMapping.getJavaType(),
+                    propertyMapping.getTypeHandler()
+            );
+            if (columnMapping == null) {
+                return false;
+            }
+            columnMappings.add(columnMapping);
+        }
+        return true;
+    }
+
+    /**
+     * resolve the column mapping,null is returned if the column could only be mapped by DefaultReactiveResultHandler
+     */
+    private ColumnMapping resolveColumnMapping(ReadableResultWrapper<? extends Readable> readableResultWrapper,
+                                               DelegateR2dbcResultRowDataHandler rowDataHandler,
+                                               Class<?> resultType,
+                                               Reflector reflector,
+                                               int columnIndex,
+                                               String columnName,
+                                               String property,
+                                               Class<?> javaType,
+                                               TypeHandler<?> typeHandler) {
+        if (columnIndex < 0 || property.indexOf('.') >= 0 || property.indexOf('[') >= 0 || !reflector.hasSetter(property)) {
+            return null;
+        }
+        rowDataHandler.contextWith(javaType, typeHandler, readableResultWrapper);
+        final R2dbcTypeHandlerAdapter<?> r2dbcTypeHandlerAdapter;
+        try {
+            r2dbcTypeHandlerAdapter = rowDataHandler.resolveR2dbcTypeHandlerAdapter();
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            // the exception is raised while mapping rows
+            return null;
+        }
+        final Class<?> targetType = rowDataHandler.getTargetType();
+        final Class<?> setterType = reflector.getSetterType(property);
+        final Invoker setInvoker = reflector.getSetInvoker(property);
+        return new ColumnMapping(columnIndex,
+                columnName,
+                property,
+                targetType,
+                r2dbcTypeHandlerAdapter,
+                setterType,
+                setInvoker,
+                this.resolveAccessibleMember(resultType, property, setterType, targetType, setInvoker)
+        );
+    }
+
+    /**
+     * resolve the setter or field which is assigned by the generated row mapper directly,
+     * null is returned if the property could only be assigned through the set invoker
+     */
+    private Member resolveAccessibleMember(Class<?> resultType, String property, Class<?> setterType, Class<?> targetType, Invoker setInvoker) {
+        if (!this.isAccessible(resultType) || !this.isAccessible(setterType) || !this.isAssignable(setterType, targetType)) {
+            return null;
+        }
+        if (MethodInvoker.class.equals(setInvoker.getClass())) {
+            for (Method method : resultType.getMethods()) {
+                if (method.getParameterCount() == 1
+                        && !method.isBridge()
+                        && !Modifier.isStatic(method.getModifiers())
+                        && PropertyNamer.isSetter(method.getName())
+                        && property.equals(PropertyNamer.methodToProperty(method.getName()))
+                        && setterType.equals(method.getParameterTypes()[0])) {
+                    return method;
+                }
+            }
+            return null;
+        }
+        if (SetFieldInvoker.class.equals(setInvoker.getClass())) {
+            try {
+                Field field = resultType.getField(property);
+                int modifiers = field.getModifiers();
+                return !Modifier.isStatic(modifiers) && !Modifier.isFinal(modifiers) && setterType.equals(field.getType()) ? field : null;
+            } catch (NoSuchFieldException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private boolean isAccessible(Class<?> type) {
+        if (type.isPrimitive()) {
+            return true;
+        }
+        if (type.isArray()) {
+            return this.isAccessible(type.getComponentType());
+        }
+        return Modifier.isPublic(type.getModifiers());
+    }
+
+    private boolean isAssignable(Class<?> setterType, Class<?> targetType) {
+        if (setterType.isPrimitive()) {
+            return setterType != void.class && MethodType.methodType(setterType).wrap().returnType().equals(targetType);
+        }
+        return setterType.isAssignableFrom(targetType);
+    }
+
+    private int indexOfColumn(List<String> columnNames, String column) {
+        final String upperColumn = column.toUpperCase(Locale.ENGLISH);
+        for (int i = 0; i < columnNames.size(); i++) {
+            if (upperColumn.equals(columnNames.get(i).toUpperCase(Locale.ENGLISH))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private String prependPrefix(String columnName, String prefix) {
+        if (columnName == null || columnName.length() == 0 || prefix == null || prefix.length() == 0) {
+            return columnName;
+        }
+        return prefix + columnName;
+    }
+
+    private CompiledRowMapper generate(Class<?> resultType, List<ColumnMapping> columnMappings) throws ReflectiveOperationException {
+        int size = columnMappings.size();
+        Class<?>[] targetTypes = new Class<?>[size];
+        R2dbcTypeHandlerAdapter<?>[] r2dbcTypeHandlerAdapters = new R2dbcTypeHandlerAdapter<?>[size];
+        String[] columnNames = new String[size];
+        String[] properties = new String[size];
+        Invoker[] setInvokers = new Invoker[size];
+        for (int i = 0; i < size; i++) {
+            ColumnMapping columnMapping = columnMappings.get(i);
+            targetTypes[i] = columnMapping.targetType;
+            r2dbcTypeHandlerAdapters[i] = columnMapping.r2dbcTypeHandlerAdapter;
+            columnNames[i] = columnMapping.columnName;
+            properties[i] = columnMapping.property;
+            setInvokers[i] = columnMapping.setInvoker;
+        }
+        // the generated class has no stack map frames,which are not required by class file version 6
+        Class<? extends AbstractCompiledRowMapper> compiledRowMapperClass = new ByteBuddy(ClassFileVersion.JAVA_V6)
+                .subclass(AbstractCompiledRowMapper.class, ConstructorStrategy.Default.IMITATE_SUPER_CLASS_OPENING)
+                .method(ElementMatchers.named("map").and(ElementMatchers.takesArguments(2)))
+                .intercept(new Implementation.Simple(new RowMappingByteCodeAppender(resultType,
+                        columnMappings,
+                        r2dbcMybatisConfiguration.isCallSettersOnNulls()
+                )))
+                .make()
+                .load(new MultipleParentClassLoader.Builder()
+                        .appendMostSpecific(resultType, AbstractCompiledRowMapper.class)
+                        .build()
+                )
+                .getLoaded();
+        return compiledRowMapperClass
+                .getDeclaredConstructor(Class[].class, R2dbcTypeHandlerAdapter[].class, String[].class, String[].class, Invoker[].class)
+                .newInstance(targetTypes, r2dbcTypeHandlerAdapters, columnNames, properties, setInvokers);
+    }
+
+    private static class ColumnMapping {
+        private final int columnIndex;
+        private final String columnName;
+        private final String property;
+        private final Class<?> targetType;
+        private final R2dbcTypeHandlerAdapter<?> r2dbcTypeHandlerAdapter;
+        private final Class<?> setterType;
+        private final Invoker setInvoker;
+        private final Member accessibleMember;
+
+        private ColumnMapping(int columnIndex,
+                              String columnName,
+                              String property,
+                              Class<?> targetType,
+                              R2dbcTypeHandlerAdapter<?> r2dbcTypeHandlerAdapter,
+                              Class<?> setterType,
+                              Invoker setInvoker,
+                              Member accessibleMember) {
+            this.columnIndex = columnIndex;
+            this.columnName = columnName;
+            this.property = property;
+            this.targetType = targetType;
+            this.r2dbcTypeHandlerAdapter = r2dbcTypeHandlerAdapter;
+            this.setterType = setterType;
+            this.setInvoker = setInvoker;
+            this.accessibleMember = accessibleMember;
+        }
+    }
+
+    /**
+     * The byte code of {@link CompiledRowMapper#map(ReadableResultWrapper, Object)},
+     * which is equivalent to the following code for every column mapping:
+     * <pre>
+     * Object value = readable.get(columnIndex, targetTypes[mappingIndex]);
+     * if (value != null) {
+     *     foundValues = true;
+     *     resultObject.setProperty((SetterType) value);
+     * } else if (callSettersOnNulls &amp;&amp; !setterType.isPrimitive()) {
+     *     resultObject.setProperty(null);
+     * }
+     * </pre>
+     */
+    private static class RowMappingByteCodeAppender implements ByteCodeAppender {
+
+        private static final String ABSTRACT_COMPILED_ROW_MAPPER = Type.getInternalName(AbstractCompiledRowMapper.class);
+        private static final String READABLE_RESULT_WRAPPER = Type.getInternalName(ReadableResultWrapper.class);
+        private static final String READABLE = Type.getInternalName(Readable.class);
+        private static final int THIS_SLOT = 0;
+        private static final int READABLE_RESULT_WRAPPER_SLOT = 1;
+        private static final int RESULT_OBJECT_SLOT = 2;
+        private static final int READABLE_SLOT = 3;
+        private static final int FOUND_VALUES_SLOT = 4;
+        private static final int VALUE_SLOT = 5;
+        private static final int TYPED_RESULT_OBJECT_SLOT = 6;
+
+        private final Class<?> resultType;
+        private final List<ColumnMapping> columnMappings;
+        private final boolean callSettersOnNulls;
+
+        private RowMappingByteCodeAppender(Class<?> resultType, List<ColumnMapping> columnMappings, boolean callSettersOnNulls) {
+            this.resultType = resultType;
+            this.columnMappings = columnMappings;
+            this.callSettersOnNulls = callSettersOnNulls;
+        }
+
+        @Override
+        public Size apply(MethodVisitor methodVisitor, Implementation.Context implementationContext, MethodDescription instrumentedMethod) {
+            methodVisitor.visitVarInsn(Opcodes.ALOAD, READABLE_RESULT_WRAPPER_SLOT);
+            methodVisitor.visitMethodInsn(Opcodes.INVOKEVIRTUAL, READABLE_RESULT_WRAPPER, "getReadable", "()L" + READABLE + ";", false);
+            methodVisitor.visitVarInsn(Opcodes.ASTORE, READABLE_SLOT);
+            methodVisitor.visitInsn(Opcodes.ICONST_0);
+            methodVisitor.visitVarInsn(Opcodes.ISTORE, FOUND_VALUES_SLOT);
+            if (columnMappings.stream().anyMatch(columnMapping -> columnMapping.accessibleMember != null)) {
+                methodVisitor.visitVarInsn(Opcodes.ALOAD, RESULT_OBJECT_SLOT);
+                methodVisitor.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(resultType));
+                methodVisitor.visitVarInsn(Opcodes.ASTORE, TYPED_RESULT_OBJECT_SLOT);
+            }
+            for (int mappingIndex = 0; mappingIndex < columnMappings.size(); mappingIndex++) {
+                ColumnMapping columnMapping = columnMappings.get(mappingIndex);
+                Label nullValue = new Label();
+                Label next = new Label();
+                this.readValue(methodVisitor, mappingIndex, columnMapping);
+                methodVisitor.visitVarInsn(Opcodes.ASTORE, VALUE_SLOT);
+                methodVisitor.visitVarInsn(Opcodes.ALOAD, VALUE_SLOT);
+                methodVisitor.visitJumpInsn(Opcodes.IFNULL, nullValue);
+                methodVisitor.visitInsn(Opcodes.ICONST_1);
+                methodVisitor.visitVarInsn(Opcodes.ISTORE, FOUND_VALUES_SLOT);
+                this.setValue(methodVisitor, mappingIndex, columnMapping, true);
+                methodVisitor.visitJumpInsn(Opcodes.GOTO, next);
+                methodVisitor.visitLabel(nullValue);
+                if (callSettersOnNulls && !columnMapping.setterType.isPrimitive()) {
+                    // gcode issue #377, call setter on nulls (value is not 'found')
+                    this.setValue(methodVisitor, mappingIndex, columnMapping, false);
+                }
+                methodVisitor.visitLabel(next);
+            }
+            methodVisitor.visitVarInsn(Opcodes.ILOAD, FOUND_VALUES_SLOT);
+            methodVisitor.visitInsn(Opcodes.IRETURN);
+            return new Size(6, 7);
+        }
+
+        private void readValue(MethodVisitor methodVisitor, int mappingIndex, ColumnMapping columnMapping) {
+            if (columnMapping.r2dbcTypeHandlerAdapter != null) {
+                methodVisitor.visitVarInsn(Opcodes.ALOAD, THIS_SLOT);
+                methodVisitor.visitVarInsn(Opcodes.ALOAD, READABLE_RESULT_WRAPPER_SLOT);
+                this.pushInt(methodVisitor, mappingIndex);
+                methodVisitor.visitMethodInsn(Opcodes.INVOKEVIRTUAL, ABSTRACT_COMPILED_ROW_MAPPER, "getResultByR2dbcTypeHandlerAdapter",
+                        "(L" + READABLE_RESULT_WRAPPER + ";I)Ljava/lang/Object;", false);
+                return;
+            }
+            methodVisitor.visitVarInsn(Opcodes.ALOAD, READABLE_SLOT);
+            this.pushInt(methodVisitor, columnMapping.columnIndex);
+            methodVisitor.visitVarInsn(Opcodes.ALOAD, THIS_SLOT);
+            methodVisitor.visitFieldInsn(Opcodes.GETFIELD, ABSTRACT_COMPILED_ROW_MAPPER, "targetTypes", "[Ljava/lang/Class;");
+            this.pushInt(methodVisitor, mappingIndex);
+            methodVisitor.visitInsn(Opcodes.AALOAD);
+            methodVisitor.visitMethodInsn(Opcodes.INVOKEINTERFACE, READABLE, "get", "(ILjava/lang/Class;)Ljava/lang/Object;", true);
+        }
+
+        private void setValue(MethodVisitor methodVisitor, int mappingIndex, ColumnMapping columnMapping, boolean nonNullValue) {
+            if (columnMapping.accessibleMember == null) {
+                methodVisitor.visitVarInsn(Opcodes.ALOAD, THIS_SLOT);
+                methodVisitor.visitVarInsn(Opcodes.ALOAD, RESULT_OBJECT_SLOT);
+                this.pushInt(methodVisitor, mappingIndex);
+                this.loadValue(methodVisitor, nonNullValue);
+                methodVisitor.visitMethodInsn(Opcodes.INVOKEVIRTUAL, ABSTRACT_COMPILED_ROW_MAPPER, "setPropertyValue",
+                        "(Ljava/lang/Object;ILjava/lang/Object;)V", false);
+                return;
+            }
+            methodVisitor.visitVarInsn(Opcodes.ALOAD, TYPED_RESULT_OBJECT_SLOT);
+            this.loadValue(methodVisitor, nonNullValue);
+            if (nonNullValue) {
+                this.castValue(methodVisitor, columnMapping.setterType);
+            }
+            String owner = Type.getInternalName(resultType);
+            if (columnMapping.accessibleMember instanceof Field) {
+                Field field = (Field) columnMapping.accessibleMember;
+                methodVisitor.visitFieldInsn(Opcodes.PUTFIELD, owner, field.getName(), Type.getDescriptor(field.getType()));
+                return;
+            }
+            Method method = (Method) columnMapping.accessibleMember;
+            methodVisitor.visitMethodInsn(Opcodes.INVOKEVIRTUAL, owner, method.getName(), Type.getMethodDescriptor(method), false);
+            // setters returning values are also setters of reflector
+            int returnSize = Type.getReturnType(method).getSize();
+            if (returnSize == 1) {
+                methodVisitor.visitInsn(Opcodes.POP);
+            } else if (returnSize == 2) {
+                methodVisitor.visitInsn(Opcodes.POP2);
+            }
+        }
+
+        private void loadValue(MethodVisitor methodVisitor, boolean nonNullValue) {
+            if (nonNullValue) {
+                methodVisitor.visitVarInsn(Opcodes.ALOAD, VALUE_SLOT);
+            } else {
+                methodVisitor.visitInsn(Opcodes.ACONST_NULL);
+            }
+        }
+
+        private void castValue(MethodVisitor methodVisitor, Class<?> setterType) {
+            if (setterType.isPrimitive()) {
+                Class<?> wrapperType = MethodType.methodType(setterType).wrap().returnType();
+                String wrapperInternalName = Type.getInternalName(wrapperType);
+                methodVisitor.visitTypeInsn(Opcodes.CHECKCAST, wrapperInternalName);
+                methodVisitor.visitMethodInsn(Opcodes.INVOKEVIRTUAL, wrapperInternalName, setterType.getName() + "Value",
+                        "()" + Type.getDescriptor(setterType), false);
+            } else if (!Object.class.equals(setterType)) {
+                methodVisitor.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(setterType));
+            }
+        }
+
+        private void pushInt(MethodVisitor methodVisitor, int value) {
+            if (value <= 5) {
+                methodVisitor.visitInsn(Opcodes.ICONST_0 + value);
+            } else if (value <= Byte.MAX_VALUE) {
+                methodVisitor.visitIntInsn(Opcodes.BIPUSH, value);
+            } else if (value <= Short.MAX_VALUE) {
+                methodVisitor.visitIntInsn(Opcodes.SIPUSH, value);
+            } else {
+                methodVisitor.visitLdcInsn(value);
+            }
+        }
+    }
+
+}
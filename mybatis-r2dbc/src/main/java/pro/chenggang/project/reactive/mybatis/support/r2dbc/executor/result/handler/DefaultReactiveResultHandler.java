@@ -20,12 +20,15 @@ import io.r2dbc.spi.Result;
 import io.r2dbc.spi.Row;
 import org.apache.ibatis.annotations.AutomapConstructor;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.binding.MapperMethod.ParamMap;
 import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.executor.ExecutorException;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.executor.result.DefaultResultContext;
 import org.apache.ibatis.executor.result.DefaultResultHandler;
 import org.apache.ibatis.executor.result.ResultMapException;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.Discriminator;
 import org.apache.ibatis.mapping.MappedStatement;
@@ -44,11 +47,13 @@ import org.apache.ibatis.type.TypeHandlerRegistry;
 import org.apache.ibatis.util.MapUtil;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybatisConfiguration;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.exception.R2dbcResultException;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.ReadableResultShape;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.ReadableResultWrapper;
-import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.TypeHandleContext;
-import pro.chenggang.project.reactive.mybatis.support.r2dbc.support.ProxyInstanceFactory;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.SpilledRow;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.NestedSelectLoad;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Parameter;
@@ -64,7 +69,10 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.LongAdder;
 
 /**
@@ -77,6 +85,12 @@ import java.util.concurrent.atomic.LongAdder;
  */
 public class DefaultReactiveResultHandler implements ReactiveResultHandler {
 
+    private static final Log log = LogFactory.getLog(DefaultReactiveResultHandler.class);
+    private static final Object DEFERRED = new Object();
+    // the partitions of spilled rows,and the times a partition too large to be mapped in memory is split again
+    private static final int SPILL_PARTITION_COUNT = 16;
+    private static final int MAX_SPILL_SPLIT_DEPTH = 2;
+
     private final LongAdder totalCount = new LongAdder();
 
     private final R2dbcMybatisConfiguration r2dbcMybatisConfiguration;
@@ -91,10 +105,33 @@ public class DefaultReactiveResultHandler implements ReactiveResultHandler {
     // nested resultmaps
     private final Map<CacheKey, Object> nestedResultObjects = new HashMap<>();
     private final Map<String, Object> ancestorObjects = new HashMap<>();
-    private final TypeHandler<?> delegatedTypeHandler;
+    // row keys of root objects handled in streaming mode
+    private final Set<CacheKey> streamedRootRowKeys = new HashSet<>();
+    private final DelegateR2dbcResultRowDataHandler delegatedTypeHandler;
     private final List<Object> resultHolder = new ArrayList<>();
+    // multiple results
+    private final Map<String, ResultMapping> nextResultMaps = new HashMap<>();
+    private final List<Object> currentResults = new ArrayList<>();
+    private final List<Object> multipleResults = new ArrayList<>();
+    // nested select loads
+    private final Queue<NestedSelectLoad> nestedSelectLoads = new ConcurrentLinkedQueue<>();
+    // nested result objects limit
+    private final Integer nestedResultObjectsLimit;
+    private final NestedResultMapLimitPolicy nestedResultMapLimitPolicy;
+    private boolean partialResultsWarned;
+    private final List<SpilledRow> retainedRows = new ArrayList<>();
+    private final AtomicReference<ReadableResultShape> spilledRowShapeReference = new AtomicReference<>();
+    private SpilledRow.Metadata spilledRowMetadata;
+    private NestedResultSpillStore nestedResultSpillStore;
+    private int rowsPerSpillPartition;
     // temporary marking flag that indicate using constructor mapping (use field to reduce memory usage)
     private boolean useConstructorMappings;
+    // compiled row mapper of the latest simple result map and readable result shape
+    private ReadableResultShape compiledRowMapperShape;
+    private ResultMap compiledRowMapperResultMap;
+    private String compiledRowMapperColumnPrefix;
+    private Class<?> compiledRowMapperResultType;
+    private CompiledRowMapper compiledRowMapper;
     private final BoundSql boundSql;
     private final ParameterHandler parameterHandler;
 
@@ -114,6 +151,8 @@ public class DefaultReactiveResultHandler implements ReactiveResultHandler {
         this.reflectorFactory = r2dbcMybatisConfiguration.getReflectorFactory();
         this.typeHandlerRegistry = r2dbcMybatisConfiguration.getTypeHandlerRegistry();
         this.delegatedTypeHandler = this.initDelegateTypeHandler();
+        this.nestedResultObjectsLimit = r2dbcMybatisConfiguration.getNestedResultObjectsLimit();
+        this.nestedResultMapLimitPolicy = r2dbcMybatisConfiguration.getNestedResultMapLimitPolicy();
     }
 
     @Override
@@ -123,11 +162,11 @@ public class DefaultReactiveResultHandler implements ReactiveResultHandler {
 
     @SuppressWarnings("unchecked")
     @Override
-    public <T> Mono<T> handleResult(ReadableResultWrapper<? extends Readable> readableResultWrapper) {
+    public <T> Flux<T> handleResult(ReadableResultWrapper<? extends Readable> readableResultWrapper) {
         List<ResultMap> resultMaps = mappedStatement.getResultMaps();
         int resultMapCount = resultMaps.size();
         if (resultMapCount < 1) {
-            return Mono.error(new ExecutorException("A query was run and no Result Maps were found for the Mapped Statement '" + mappedStatement.getId()
+            return Flux.error(new ExecutorException("A query was run and no Result Maps were found for the Mapped Statement '" + mappedStatement.getId()
                     + "'.  It's likely that neither a Result Type nor a Result Map was specified."));
         }
         ResultMap resultMap = resultMaps.get(0);
@@ -136,26 +175,87 @@ public class DefaultReactiveResultHandler implements ReactiveResultHandler {
                 ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(readableResultWrapper, resultMap, null);
                 Object rowValue = getRowValueForSimpleResultMap(readableResultWrapper, discriminatedResultMap, null);
                 totalCount.increment();
-                return Mono.justOrEmpty((T) rowValue);
+                return Mono.justOrEmpty((T) rowValue).flux();
             } catch (SQLException e) {
-                return Mono.error(new R2dbcResultException(e));
+                return Flux.error(new R2dbcResultException(e));
             }
         }
         try {
+            if (this.isNestedResultObjectsLimited() && NestedResultMapLimitPolicy.SPILL.equals(this.nestedResultMapLimitPolicy)) {
+                this.handleRowValuesForNestedResultMapWithSpill(readableResultWrapper, resultMap);
+                totalCount.increment();
+                return Flux.empty();
+            }
             Object rowValue = handleRowValuesForNestedResultMap(readableResultWrapper, resultMap);
             totalCount.increment();
-            return Mono.justOrEmpty((T) rowValue);
+            if (rowValue != null) {
+                return Flux.just((T) rowValue);
+            }
+            if (this.isNestedResultObjectsLimited() && nestedResultObjects.size() > this.nestedResultObjectsLimit) {
+                return this.handleNestedResultObjectsExceeded();
+            }
+            return Flux.empty();
         } catch (SQLException e) {
-            return Mono.error(new R2dbcResultException(e));
+            return Flux.error(new R2dbcResultException(e));
+        } catch (ExecutorException e) {
+            return Flux.error(e);
         }
     }
 
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> Flux<T> handleResult(ReadableResultWrapper<? extends Readable> readableResultWrapper, int resultIndex) {
+        if (!this.isMultipleResults()) {
+            return this.handleResult(readableResultWrapper);
+        }
+        try {
+            List<ResultMap> resultMaps = mappedStatement.getResultMaps();
+            if (resultIndex < resultMaps.size()) {
+                this.handleRowValueForMultipleResults(readableResultWrapper, resultMaps.get(resultIndex), null);
+            } else {
+                ResultMapping parentMapping = this.getParentMappingOfResultSet(resultIndex);
+                // results without result map or linked parent property are ignored
+                if (parentMapping != null) {
+                    ResultMap resultMap = r2dbcMybatisConfiguration.getResultMap(parentMapping.getNestedResultMapId());
+                    this.handleRowValueForMultipleResults(readableResultWrapper, resultMap, parentMapping);
+                }
+            }
+            totalCount.increment();
+            return Flux.empty();
+        } catch (SQLException e) {
+            return Flux.error(new R2dbcResultException(e));
+        } catch (ExecutorException e) {
+            return Flux.error(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> Flux<T> completeResult(int resultIndex) {
+        if (!this.isMultipleResults()) {
+            return Flux.empty();
+        }
+        nestedResultObjects.clear();
+        if (resultIndex >= mappedStatement.getResultMaps().size()) {
+            return Flux.empty();
+        }
+        List<Object> resultList = new ArrayList<>(this.currentResults);
+        this.currentResults.clear();
+        if (mappedStatement.getResultSets() == null) {
+            // without linked result sets,each result is emitted as a list as soon as it completes
+            return Flux.just((T) resultList);
+        }
+        // result objects could still be linked with the following result sets
+        this.multipleResults.add(resultList);
+        return Flux.empty();
+    }
+
     @Override
     public <T> Mono<T> handleOutputParameters(ReadableResultWrapper<? extends Readable> readableResultWrapper) {
         final Object parameterObject = parameterHandler.getParameterObject();
         final MetaObject metaParam = r2dbcMybatisConfiguration.newMetaObject(parameterObject);
         final List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
-        final TypeHandler<?> outputDelegatedTypeHandler = this.initDelegateTypeHandler();
+        final DelegateR2dbcResultRowDataHandler outputDelegatedTypeHandler = this.initDelegateTypeHandler();
         return Flux.fromIterable(parameterMappings)
                 .filter(parameterMapping -> parameterMapping.getMode() == ParameterMode.OUT || parameterMapping.getMode() == ParameterMode.INOUT)
                 .concatMap(parameterMapping -> {
@@ -170,7 +270,7 @@ public class DefaultReactiveResultHandler implements ReactiveResultHandler {
                     }
                     try {
                         final TypeHandler<?> typeHandler = parameterMapping.getTypeHandler();
-                        ((TypeHandleContext) outputDelegatedTypeHandler).contextWith(parameterMapping.getJavaType(), typeHandler, readableResultWrapper);
+                        outputDelegatedTypeHandler.contextWith(parameterMapping.getJavaType(), typeHandler, readableResultWrapper);
                         Object value = outputDelegatedTypeHandler.getResult(null, parameterMapping.getProperty());
                         metaParam.setValue(parameterMapping.getProperty(), value);
                     }catch (SQLException e) {
@@ -185,18 +285,112 @@ public class DefaultReactiveResultHandler implements ReactiveResultHandler {
     @SuppressWarnings("unchecked")
     @Override
     public <T> Flux<T> getRemainedResults() {
+        if (!this.multipleResults.isEmpty()) {
+            if (mappedStatement.getResultMaps().size() == 1) {
+                return Flux.fromIterable((List<T>) this.multipleResults.get(0));
+            }
+            return Flux.fromIterable((List<T>) this.multipleResults);
+        }
+        if (this.nestedResultSpillStore != null) {
+            return this.replaySpilledRows();
+        }
         return (Flux<T>) Flux.fromIterable(this.resultHolder)
                 .filter(Objects::nonNull);
     }
 
+    @Override
+    public boolean isSpillable() {
+        return !this.isMultipleResults()
+                && this.isNestedResultObjectsLimited()
+                && NestedResultMapLimitPolicy.SPILL.equals(this.nestedResultMapLimitPolicy)
+                && !mappedStatement.getResultMaps().isEmpty()
+                && mappedStatement.getResultMaps().get(0).hasNestedResultMaps();
+    }
+
+    @Override
+    public List<NestedSelectLoad> drainNestedSelectLoads() {
+        List<NestedSelectLoad> drainedLoads = new ArrayList<>();
+        NestedSelectLoad nestedSelectLoad;
+        while ((nestedSelectLoad = this.nestedSelectLoads.poll()) != null) {
+            drainedLoads.add(nestedSelectLoad);
+        }
+        return drainedLoads;
+    }
+
     @Override
     public void cleanup() {
+        if (nestedResultSpillStore != null) {
+            nestedResultSpillStore.close();
+            nestedResultSpillStore = null;
+        }
+        retainedRows.clear();
         pendingRelations.clear();
         autoMappingsCache.clear();
         constructorAutoMappingColumns.clear();
         nestedResultObjects.clear();
         ancestorObjects.clear();
+        streamedRootRowKeys.clear();
         resultHolder.clear();
+        nextResultMaps.clear();
+        currentResults.clear();
+        multipleResults.clear();
+        compiledRowMapperShape = null;
+        compiledRowMapperResultMap = null;
+        compiledRowMapper = null;
+    }
+
+    /**
+     * whether the statement maps multiple results,
+     * which is the case with more than one result map or with named result sets
+     *
+     * @return the boolean
+     */
+    private boolean isMultipleResults() {
+        int resultMapCount = mappedStatement.getResultMaps().size();
+        return resultMapCount > 1 || (resultMapCount == 1 && mappedStatement.getResultSets() != null);
+    }
+
+    /**
+     * get the parent property mapping linked with the named result set at the given index
+     *
+     * @param resultIndex the result index
+     * @return the parent mapping or null
+     */
+    private ResultMapping getParentMappingOfResultSet(int resultIndex) {
+        String[] resultSets = mappedStatement.getResultSets();
+        if (resultSets == null || resultIndex >= resultSets.length) {
+            return null;
+        }
+        return nextResultMaps.get(resultSets[resultIndex]);
+    }
+
+    /**
+     * handle row value of multiple results,
+     * the row value is linked to parent objects if parent mapping exists,otherwise held as a result object of current result
+     *
+     * @param readableResultWrapper the RowResultWrapper<? extends Readable>
+     * @param resultMap             the ResultMap
+     * @param parentMapping         the parent mapping
+     * @throws SQLException the SQLException
+     */
+    private void handleRowValueForMultipleResults(ReadableResultWrapper<? extends Readable> readableResultWrapper, ResultMap resultMap, ResultMapping parentMapping) throws SQLException {
+        final ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(readableResultWrapper, resultMap, null);
+        Object rowValue;
+        if (!resultMap.hasNestedResultMaps()) {
+            rowValue = getRowValueForSimpleResultMap(readableResultWrapper, discriminatedResultMap, null);
+        } else {
+            final CacheKey rowKey = createRowKey(discriminatedResultMap, readableResultWrapper, null);
+            Object partialObject = nestedResultObjects.get(rowKey);
+            rowValue = getRowValueForNestedResultMap(readableResultWrapper, discriminatedResultMap, rowKey, null, partialObject);
+            if (partialObject != null) {
+                return;
+            }
+        }
+        if (parentMapping != null) {
+            linkToParents(readableResultWrapper, parentMapping, rowValue);
+        } else if (rowValue != null) {
+            this.currentResults.add(rowValue);
+        }
     }
 
     /**
@@ -211,6 +405,11 @@ public class DefaultReactiveResultHandler implements ReactiveResultHandler {
     private Object getRowValueForSimpleResultMap(ReadableResultWrapper<? extends Readable> readableResultWrapper, ResultMap resultMap, String columnPrefix) throws SQLException {
         Object rowValue = createResultObject(readableResultWrapper, resultMap, columnPrefix);
         if (rowValue != null && !hasTypeHandlerForResultObject(resultMap.getType()) && !hasR2dbcTypeHandlerAdapterForResultObject(resultMap.getType())) {
+            final CompiledRowMapper compiledRowMapper = getCompiledRowMapper(readableResultWrapper, resultMap, columnPrefix, rowValue);
+            if (compiledRowMapper != null) {
+                boolean foundValues = compiledRowMapper.map(readableResultWrapper, rowValue);
+                return foundValues || r2dbcMybatisConfiguration.isReturnInstanceForEmptyRow() ? rowValue : null;
+            }
             final MetaObject metaObject = r2dbcMybatisConfiguration.newMetaObject(rowValue);
             boolean foundValues = this.useConstructorMappings;
             if (shouldApplyAutomaticMappings(resultMap, false)) {
@@ -222,6 +421,38 @@ public class DefaultReactiveResultHandler implements ReactiveResultHandler {
         return rowValue;
     }
 
+    /**
+     * get the compiled row mapper of simple result map,
+     * the row mapper is memoized until the readable result shape or the result map changes
+     *
+     * @param readableResultWrapper the RowResultWrapper<? extends Readable>
+     * @param resultMap             the ResultMap
+     * @param columnPrefix          the columnPrefix
+     * @param rowValue              the created row value
+     * @return the compiled row mapper or null if rows are mapped by reflection
+     */
+    private CompiledRowMapper getCompiledRowMapper(ReadableResultWrapper<? extends Readable> readableResultWrapper, ResultMap resultMap, String columnPrefix, Object rowValue) {
+        if (!r2dbcMybatisConfiguration.isCompiledRowMapperEnabled() || this.useConstructorMappings) {
+            return null;
+        }
+        final ReadableResultShape readableResultShape = readableResultWrapper.getReadableResultShape();
+        if (readableResultShape != this.compiledRowMapperShape
+                || resultMap != this.compiledRowMapperResultMap
+                || !Objects.equals(columnPrefix, this.compiledRowMapperColumnPrefix)
+                || rowValue.getClass() != this.compiledRowMapperResultType) {
+            this.compiledRowMapper = r2dbcMybatisConfiguration.getCompiledRowMapperFactory()
+                    .getCompiledRowMapper(mappedStatement, readableResultWrapper, resultMap, columnPrefix, rowValue.getClass(),
+                            shouldApplyAutomaticMappings(resultMap, false)
+                    )
+                    .orElse(null);
+            this.compiledRowMapperShape = readableResultShape;
+            this.compiledRowMapperResultMap = resultMap;
+            this.compiledRowMapperColumnPrefix = columnPrefix;
+            this.compiledRowMapperResultType = rowValue.getClass();
+        }
+        return this.compiledRowMapper;
+    }
+
     /**
      * handle row values for nested resultMap
      *
@@ -234,7 +465,17 @@ public class DefaultReactiveResultHandler implements ReactiveResultHandler {
         final DefaultResultContext<Object> resultContext = new DefaultResultContext<>();
         final ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(readableResultWrapper, resultMap, null);
         final CacheKey rowKey = createRowKey(discriminatedResultMap, readableResultWrapper, null);
+        final boolean streaming = this.isStreamingNestedResultMap();
         Object partialObject = nestedResultObjects.get(rowKey);
+        // a new parent object begins,nested objects of previous parent object would never be referenced again
+        if (streaming && partialObject == null) {
+            if (rowKey != CacheKey.NULL_CACHE_KEY && !streamedRootRowKeys.add(rowKey)) {
+                throw new ExecutorException("The root result object of statement '" + mappedStatement.getId()
+                        + "' has already been emitted and would be split.  Rows of a nested result map in streaming mode"
+                        + " (resultOrdered=\"true\" or streamingNestedResultMap) must be ordered by the <id> columns of the root result map.");
+            }
+            nestedResultObjects.clear();
+        }
         Object rowValue = getRowValueForNestedResultMap(readableResultWrapper, discriminatedResultMap, rowKey, null, partialObject);
         if (partialObject == null) {
             storeObject(resultHandler, resultContext, rowValue, null, readableResultWrapper);
@@ -243,12 +484,12 @@ public class DefaultReactiveResultHandler implements ReactiveResultHandler {
         if(resultList == null || resultList.isEmpty()){
             return null;
         }
-        // if result is not ordered , then hold all results for nested result mapping
-        if(!mappedStatement.isResultOrdered()){
+        // if result is not streaming , then hold all results for nested result mapping
+        if(!streaming){
             this.resultHolder.addAll(resultList);
             return null;
         }
-        // result is ordered,then hold before next nested result mapping
+        // result is streaming,then hold before next nested result mapping
 
         // result holder has value then return hold results and clear hold results
         if(!this.resultHolder.isEmpty()){
@@ -262,6 +503,166 @@ public class DefaultReactiveResultHandler implements ReactiveResultHandler {
         return null;
     }
 
+    /**
+     * whether retained nested result objects are limited,queries in streaming mode are never limited
+     *
+     * @return the boolean
+     */
+    private boolean isNestedResultObjectsLimited() {
+        return this.nestedResultObjectsLimit != null && !this.isStreamingNestedResultMap();
+    }
+
+    /**
+     * handle nested result objects exceeded with FAIL_FAST or EMIT_PARTIAL policy
+     *
+     * @param <T> the type parameter
+     * @return the partial results if EMIT_PARTIAL,otherwise error
+     */
+    @SuppressWarnings("unchecked")
+    private <T> Flux<T> handleNestedResultObjectsExceeded() {
+        if (!NestedResultMapLimitPolicy.EMIT_PARTIAL.equals(this.nestedResultMapLimitPolicy)) {
+            return Flux.error(new ExecutorException("The nested result objects retained by statement '" + mappedStatement.getId()
+                    + "' exceed the limit of " + this.nestedResultObjectsLimit
+                    + ".  Order the result by the <id> columns and configure resultOrdered=\"true\" (or streamingNestedResultMap),"
+                    + " or raise nestedResultObjectsLimit."));
+        }
+        if (!this.partialResultsWarned) {
+            this.partialResultsWarned = true;
+            log.warn("The nested result objects retained by statement '" + mappedStatement.getId()
+                    + "' exceed the limit of " + this.nestedResultObjectsLimit
+                    + ",emit partial results early,parent objects may be emitted more than once with partial nested results");
+        }
+        List<Object> partialResults = new ArrayList<>(this.resultHolder);
+        this.resultHolder.clear();
+        this.nestedResultObjects.clear();
+        return (Flux<T>) Flux.fromIterable(partialResults)
+                .filter(Objects::nonNull);
+    }
+
+    /**
+     * handle row values for nested resultMap with SPILL policy.
+     * The row is captured before mapping,captured rows are spilled to a temporary file once the limit is exceeded,
+     * and all the following rows are spilled without mapping into the partition of their row keys.
+     *
+     * @param readableResultWrapper the RowResultWrapper<? extends Readable>
+     * @param resultMap             the ResultMap
+     * @throws SQLException the SQLException
+     */
+    private void handleRowValuesForNestedResultMapWithSpill(ReadableResultWrapper<? extends Readable> readableResultWrapper, ResultMap resultMap) throws SQLException {
+        SpilledRow spilledRow;
+        if (readableResultWrapper.getReadable() instanceof SpilledRow) {
+            // captured by the executor on the driver thread
+            spilledRow = (SpilledRow) readableResultWrapper.getReadable();
+        } else {
+            spilledRow = SpilledRow.capture((Row) readableResultWrapper.getReadable(), this.spilledRowMetadata);
+        }
+        this.spilledRowMetadata = spilledRow.getMetadata();
+        if (this.nestedResultSpillStore != null) {
+            this.nestedResultSpillStore.write(spilledRow, this.getSpilledRowKeyHash(spilledRow, resultMap));
+            return;
+        }
+        this.retainedRows.add(spilledRow);
+        handleRowValuesForNestedResultMap(ReadableResultWrapper.ofRow(spilledRow, this.spilledRowShapeReference, r2dbcMybatisConfiguration), resultMap);
+        if (nestedResultObjects.size() <= this.nestedResultObjectsLimit) {
+            return;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("The nested result objects retained by statement '" + mappedStatement.getId()
+                    + "' exceed the limit of " + this.nestedResultObjectsLimit + ",spill rows to temporary file");
+        }
+        this.nestedResultSpillStore = NestedResultSpillStore.create(mappedStatement.getId(), this.spilledRowMetadata, SPILL_PARTITION_COUNT);
+        for (SpilledRow retainedRow : this.retainedRows) {
+            this.nestedResultSpillStore.write(retainedRow, this.getSpilledRowKeyHash(retainedRow, resultMap));
+        }
+        this.rowsPerSpillPartition = this.retainedRows.size();
+        this.retainedRows.clear();
+        this.resultHolder.clear();
+        this.nestedResultObjects.clear();
+    }
+
+    /**
+     * get the hash of the row key of top level result map,
+     * rows of the same parent object have the same hash and are spilled into the same partition
+     *
+     * @param spilledRow the spilled row
+     * @param resultMap  the top level result map
+     * @return the row key hash
+     * @throws SQLException the SQLException
+     */
+    private int getSpilledRowKeyHash(SpilledRow spilledRow, ResultMap resultMap) throws SQLException {
+        ReadableResultWrapper<Row> readableResultWrapper = ReadableResultWrapper.ofRow(spilledRow, this.spilledRowShapeReference, r2dbcMybatisConfiguration);
+        ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(readableResultWrapper, resultMap, null);
+        return createRowKey(discriminatedResultMap, readableResultWrapper, null).hashCode();
+    }
+
+    /**
+     * replay spilled rows partition by partition,
+     * rows are partitioned by the row key of top level result map,so that a parent object is mapped within a single partition.
+     * Each partition is read once,a partition with more rows than retained before spilling is split again.
+     *
+     * @param <T> the type parameter
+     * @return the results
+     */
+    private <T> Flux<T> replaySpilledRows() {
+        final NestedResultSpillStore spillStore = this.nestedResultSpillStore;
+        return Flux.range(0, spillStore.getPartitionCount())
+                .concatMap(partition -> this.replaySpilledPartition(spillStore, partition, 0));
+    }
+
+    /**
+     * replay the spilled rows of the partition
+     *
+     * @param <T>        the type parameter
+     * @param spillStore the spill store
+     * @param partition  the partition
+     * @param splitDepth the split depth of the spill store
+     * @return the results of the partition
+     */
+    @SuppressWarnings("unchecked")
+    private <T> Flux<T> replaySpilledPartition(NestedResultSpillStore spillStore, int partition, int splitDepth) {
+        long partitionRowCount = spillStore.getRowCount(partition);
+        if (partitionRowCount == 0) {
+            return Flux.empty();
+        }
+        if (partitionRowCount > this.rowsPerSpillPartition && splitDepth < MAX_SPILL_SPLIT_DEPTH) {
+            int splitPartitionCount = (int) Math.min(SPILL_PARTITION_COUNT, (partitionRowCount + this.rowsPerSpillPartition - 1) / this.rowsPerSpillPartition);
+            return Flux.using(
+                    () -> spillStore.split(partition, Math.max(2, splitPartitionCount)),
+                    splitStore -> Flux.range(0, splitStore.getPartitionCount())
+                            .concatMap(splitPartition -> this.<T>replaySpilledPartition(splitStore, splitPartition, splitDepth + 1)),
+                    NestedResultSpillStore::close
+            ).subscribeOn(Schedulers.boundedElastic());
+        }
+        final ResultMap resultMap = mappedStatement.getResultMaps().get(0);
+        return Flux.defer(() -> {
+            this.resultHolder.clear();
+            this.nestedResultObjects.clear();
+            AtomicReference<ReadableResultShape> readableResultShapeReference = new AtomicReference<>();
+            try (NestedResultSpillStore.Reader reader = spillStore.openReader(partition)) {
+                SpilledRow spilledRow;
+                while ((spilledRow = reader.next()) != null) {
+                    handleRowValuesForNestedResultMap(ReadableResultWrapper.ofRow(spilledRow, readableResultShapeReference, r2dbcMybatisConfiguration), resultMap);
+                }
+            } catch (SQLException e) {
+                return Flux.error(new R2dbcResultException(e));
+            }
+            List<Object> partitionResults = new ArrayList<>(this.resultHolder);
+            this.resultHolder.clear();
+            this.nestedResultObjects.clear();
+            return (Flux<T>) Flux.fromIterable(partitionResults)
+                    .filter(Objects::nonNull);
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * whether nested result map is handled in streaming mode
+     *
+     * @return the boolean
+     */
+    private boolean isStreamingNestedResultMap() {
+        return mappedStatement.isResultOrdered() || r2dbcMybatisConfiguration.isStreamingNestedResultMap();
+    }
+
     private boolean applyNestedResultMappings(ReadableResultWrapper<? extends Readable> readableResultWrapper, ResultMap resultMap, MetaObject metaObject, String parentPrefix, CacheKey parentRowKey, boolean newObject) {
         boolean foundValues = false;
         for (ResultMapping resultMapping : resultMap.getPropertyResultMappings()) {
@@ -350,6 +751,11 @@ public class DefaultReactiveResultHandler implements ReactiveResultHandler {
                 if (property == null) {
                     continue;
                 }
+                if (value == DEFERRED) {
+                    // the value is set when the nested select is resolved
+                    foundValues = true;
+                    continue;
+                }
                 if (value != null) {
                     foundValues = true;
                 }
@@ -365,26 +771,100 @@ public class DefaultReactiveResultHandler implements ReactiveResultHandler {
     private Object getPropertyMappingValue(ReadableResultWrapper<? extends Readable> readableResultWrapper, MetaObject metaResultObject, ResultMapping propertyMapping, String columnPrefix)
             throws SQLException {
         if (propertyMapping.getNestedQueryId() != null) {
-            throw new UnsupportedOperationException("Not supported Nested query ");
+            return getNestedQueryMappingValue(readableResultWrapper, metaResultObject, propertyMapping, columnPrefix);
+        } else if (propertyMapping.getResultSet() != null) {
+            if (mappedStatement.getResultSets() == null) {
+                return null;
+            }
+            addPendingChildRelation(readableResultWrapper, metaResultObject, propertyMapping);
+            return DEFERRED;
         } else {
             final TypeHandler<?> typeHandler = propertyMapping.getTypeHandler();
             final String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
-            ((TypeHandleContext) this.delegatedTypeHandler).contextWith(propertyMapping.getJavaType(),typeHandler,
+            this.delegatedTypeHandler.contextWith(propertyMapping.getJavaType(),typeHandler,
                     readableResultWrapper
             );
             return this.delegatedTypeHandler.getResult(null, column);
         }
     }
 
+    //
+    // NESTED QUERY
+    //
+
+    private Object getNestedQueryMappingValue(ReadableResultWrapper<? extends Readable> readableResultWrapper, MetaObject metaResultObject, ResultMapping propertyMapping, String columnPrefix)
+            throws SQLException {
+        final String nestedQueryId = propertyMapping.getNestedQueryId();
+        final MappedStatement nestedQuery = r2dbcMybatisConfiguration.getMappedStatement(nestedQueryId);
+        final Class<?> nestedQueryParameterType = nestedQuery.getParameterMap().getType();
+        final Object nestedQueryParameterObject = prepareParameterForNestedQuery(readableResultWrapper, propertyMapping, nestedQueryParameterType, columnPrefix);
+        if (nestedQueryParameterObject == null) {
+            return null;
+        }
+        this.nestedSelectLoads.add(new NestedSelectLoad(metaResultObject, propertyMapping, nestedQuery, nestedQueryParameterObject));
+        return DEFERRED;
+    }
+
+    private Object prepareParameterForNestedQuery(ReadableResultWrapper<? extends Readable> readableResultWrapper, ResultMapping resultMapping, Class<?> parameterType, String columnPrefix)
+            throws SQLException {
+        if (resultMapping.isCompositeResult()) {
+            return prepareCompositeKeyParameter(readableResultWrapper, resultMapping, parameterType, columnPrefix);
+        }
+        return prepareSimpleKeyParameter(readableResultWrapper, resultMapping, parameterType, columnPrefix);
+    }
+
+    private Object prepareSimpleKeyParameter(ReadableResultWrapper<? extends Readable> readableResultWrapper, ResultMapping resultMapping, Class<?> parameterType, String columnPrefix)
+            throws SQLException {
+        final TypeHandler<?> typeHandler;
+        if (typeHandlerRegistry.hasTypeHandler(parameterType)) {
+            typeHandler = typeHandlerRegistry.getTypeHandler(parameterType);
+        } else {
+            typeHandler = typeHandlerRegistry.getUnknownTypeHandler();
+        }
+        this.delegatedTypeHandler.contextWith(parameterType == null ? Object.class : parameterType, typeHandler, readableResultWrapper);
+        return this.delegatedTypeHandler.getResult(null, prependPrefix(resultMapping.getColumn(), columnPrefix));
+    }
+
+    private Object prepareCompositeKeyParameter(ReadableResultWrapper<? extends Readable> readableResultWrapper, ResultMapping resultMapping, Class<?> parameterType, String columnPrefix)
+            throws SQLException {
+        final Object parameterObject = instantiateParameterObject(parameterType);
+        final MetaObject metaObject = r2dbcMybatisConfiguration.newMetaObject(parameterObject);
+        boolean foundValues = false;
+        for (ResultMapping innerResultMapping : resultMapping.getComposites()) {
+            final Class<?> propType = metaObject.getSetterType(innerResultMapping.getProperty());
+            final TypeHandler<?> typeHandler = typeHandlerRegistry.getTypeHandler(propType);
+            this.delegatedTypeHandler.contextWith(propType, typeHandler, readableResultWrapper);
+            final Object propValue = this.delegatedTypeHandler.getResult(null, prependPrefix(innerResultMapping.getColumn(), columnPrefix));
+            // issue #353 & #560 do not execute nested query if key is null
+            if (propValue != null) {
+                metaObject.setValue(innerResultMapping.getProperty(), propValue);
+                foundValues = true;
+            }
+        }
+        return foundValues ? parameterObject : null;
+    }
+
+    private Object instantiateParameterObject(Class<?> parameterType) {
+        if (parameterType == null) {
+            return new HashMap<>();
+        }
+        if (ParamMap.class.equals(parameterType)) {
+            return new HashMap<>(); // issue #649
+        }
+        return objectFactory.create(parameterType);
+    }
+
     private List<DefaultReactiveResultHandler.UnMappedColumnAutoMapping> createAutomaticMappings(ReadableResultWrapper<? extends Readable> readableResultWrapper, ResultMap resultMap, MetaObject metaObject, String columnPrefix) throws SQLException {
         final String mapKey = resultMap.getId() + ":" + columnPrefix;
         List<DefaultReactiveResultHandler.UnMappedColumnAutoMapping> autoMapping = autoMappingsCache.get(mapKey);
         if (autoMapping == null) {
             autoMapping = new ArrayList<>();
-            final List<String> unmappedColumnNames = readableResultWrapper.getUnmappedColumnNames(resultMap, columnPrefix);
+            List<String> unmappedColumnNames = readableResultWrapper.getUnmappedColumnNames(resultMap, columnPrefix);
             // Remove the entry to release the memory
             List<String> mappedInConstructorAutoMapping = constructorAutoMappingColumns.remove(mapKey);
             if (mappedInConstructorAutoMapping != null) {
+                // the unmapped column names are shared by all rows of the result, copy before removing
+                unmappedColumnNames = new ArrayList<>(unmappedColumnNames);
                 unmappedColumnNames.removeAll(mappedInConstructorAutoMapping);
             }
             for (String columnName : unmappedColumnNames) {
@@ -428,7 +908,7 @@ public class DefaultReactiveResultHandler implements ReactiveResultHandler {
         if (!autoMapping.isEmpty()) {
             for (DefaultReactiveResultHandler.UnMappedColumnAutoMapping mapping : autoMapping) {
                 TypeHandler<?> typeHandler = mapping.typeHandler;
-                ((TypeHandleContext) this.delegatedTypeHandler).contextWith(mapping.propertyType,typeHandler,
+                this.delegatedTypeHandler.contextWith(mapping.propertyType,typeHandler,
                         readableResultWrapper
                 );
                 final Object value = this.delegatedTypeHandler.getResult(null, mapping.column);
@@ -481,7 +961,8 @@ public class DefaultReactiveResultHandler implements ReactiveResultHandler {
             final Object value;
             try {
                 if (constructorMapping.getNestedQueryId() != null) {
-                    throw new UnsupportedOperationException("Unsupported constructor with nested query :" + constructorMapping.getNestedQueryId());
+                    throw new UnsupportedOperationException("Unsupported constructor with nested query :" + constructorMapping.getNestedQueryId()
+                            + ",nested select could only be mapped to properties");
                 } else if (constructorMapping.getNestedResultMapId() != null) {
                     String constructorColumnPrefix = getColumnPrefix(columnPrefix, constructorMapping);
                     final ResultMap resultMap = resolveDiscriminatedResultMap(readableResultWrapper,
@@ -489,7 +970,7 @@ public class DefaultReactiveResultHandler implements ReactiveResultHandler {
                     value = getRowValueForSimpleResultMap(readableResultWrapper, resultMap, constructorColumnPrefix);
                 } else {
                     final TypeHandler<?> typeHandler = constructorMapping.getTypeHandler();
-                    ((TypeHandleContext) this.delegatedTypeHandler).contextWith(constructorMapping.getJavaType(),typeHandler,
+                    this.delegatedTypeHandler.contextWith(constructorMapping.getJavaType(),typeHandler,
                             readableResultWrapper
                     );
                     value = this.delegatedTypeHandler.getResult(null, prependPrefix(column, columnPrefix));
@@ -562,7 +1043,7 @@ public class DefaultReactiveResultHandler implements ReactiveResultHandler {
             Class<?> parameterType = constructor.getParameterTypes()[i];
             String columnName = readableResultWrapper.getColumnNames().get(i);
             final TypeHandler<?> typeHandler = readableResultWrapper.getTypeHandler(parameterType, columnName);
-            ((TypeHandleContext) this.delegatedTypeHandler).contextWith(parameterType,typeHandler,
+            this.delegatedTypeHandler.contextWith(parameterType,typeHandler,
                     readableResultWrapper
             );
             Object value = delegatedTypeHandler.getResult(null, columnName);
@@ -586,7 +1067,7 @@ public class DefaultReactiveResultHandler implements ReactiveResultHandler {
                 if (columnMatchesParam(columnName, paramName, columnPrefix)) {
                     Class<?> paramType = param.getType();
                     TypeHandler<?> typeHandler = readableResultWrapper.getTypeHandler(paramType, columnName);
-                    ((TypeHandleContext) this.delegatedTypeHandler).contextWith(paramType,typeHandler,
+                    this.delegatedTypeHandler.contextWith(paramType,typeHandler,
                             readableResultWrapper
                     );
                     Object value = this.delegatedTypeHandler.getResult(null, columnName);
@@ -647,7 +1128,7 @@ public class DefaultReactiveResultHandler implements ReactiveResultHandler {
             columnName = readableResultWrapper.getColumnNames().get(0);
         }
         final TypeHandler<?> typeHandler = readableResultWrapper.getTypeHandler(resultType, columnName);
-        ((TypeHandleContext) this.delegatedTypeHandler).contextWith(resultType,typeHandler, readableResultWrapper);
+        this.delegatedTypeHandler.contextWith(resultType,typeHandler, readableResultWrapper);
         return delegatedTypeHandler.getResult(null, columnName);
     }
 
@@ -707,7 +1188,7 @@ public class DefaultReactiveResultHandler implements ReactiveResultHandler {
     private Object getDiscriminatorValue(ReadableResultWrapper<? extends Readable> readableResultWrapper, Discriminator discriminator, String columnPrefix) throws SQLException {
         final ResultMapping resultMapping = discriminator.getResultMapping();
         final TypeHandler<?> typeHandler = resultMapping.getTypeHandler();
-        ((TypeHandleContext) this.delegatedTypeHandler).contextWith(resultMapping.getJavaType(),typeHandler,
+        this.delegatedTypeHandler.contextWith(resultMapping.getJavaType(),typeHandler,
                 readableResultWrapper
         );
         return delegatedTypeHandler.getResult(null, prependPrefix(resultMapping.getColumn(), columnPrefix));
@@ -752,6 +1233,21 @@ public class DefaultReactiveResultHandler implements ReactiveResultHandler {
         }
     }
 
+    private void addPendingChildRelation(ReadableResultWrapper<? extends Readable> readableResultWrapper, MetaObject metaResultObject, ResultMapping parentMapping) {
+        CacheKey cacheKey = createKeyForMultipleResults(readableResultWrapper, parentMapping, parentMapping.getColumn(), parentMapping.getColumn());
+        DefaultReactiveResultHandler.PendingRelation deferLoad = new DefaultReactiveResultHandler.PendingRelation();
+        deferLoad.metaObject = metaResultObject;
+        deferLoad.propertyMapping = parentMapping;
+        List<DefaultReactiveResultHandler.PendingRelation> relations = MapUtil.computeIfAbsent(pendingRelations, cacheKey, k -> new ArrayList<>());
+        relations.add(deferLoad);
+        ResultMapping previous = nextResultMaps.get(parentMapping.getResultSet());
+        if (previous == null) {
+            nextResultMaps.put(parentMapping.getResultSet(), parentMapping);
+        } else if (!previous.equals(parentMapping)) {
+            throw new ExecutorException("Two different properties are mapped to the same resultSet");
+        }
+    }
+
     private CacheKey createKeyForMultipleResults(ReadableResultWrapper<? extends Readable> readableResultWrapper, ResultMapping resultMapping, String names, String columns) {
         CacheKey cacheKey = new CacheKey();
         cacheKey.update(resultMapping);
@@ -879,7 +1375,7 @@ public class DefaultReactiveResultHandler implements ReactiveResultHandler {
                 List<String> mappedColumnNames = readableResultWrapper.getMappedColumnNames(resultMap, columnPrefix);
                 // Issue #114
                 if (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH))) {
-                    ((TypeHandleContext) this.delegatedTypeHandler).contextWith(resultMapping.getJavaType(),typeHandler,
+                    this.delegatedTypeHandler.contextWith(resultMapping.getJavaType(),typeHandler,
                             readableResultWrapper
                     );
                     final Object value = this.delegatedTypeHandler.getResult(null, column);
@@ -964,14 +1460,10 @@ public class DefaultReactiveResultHandler implements ReactiveResultHandler {
      *
      * @return TypeHandler
      */
-    private TypeHandler<?> initDelegateTypeHandler() {
-        return ProxyInstanceFactory.newInstanceOfInterfaces(
-                TypeHandler.class,
-                () -> new DelegateR2dbcResultRowDataHandler(
-                        this.r2dbcMybatisConfiguration.getNotSupportedDataTypes(),
-                        this.r2dbcMybatisConfiguration.getR2dbcTypeHandlerAdapterRegistry()
-                ),
-                TypeHandleContext.class
+    private DelegateR2dbcResultRowDataHandler initDelegateTypeHandler() {
+        return new DelegateR2dbcResultRowDataHandler(
+                this.r2dbcMybatisConfiguration.getNotSupportedDataTypes(),
+                this.r2dbcMybatisConfiguration.getR2dbcTypeHandlerAdapterRegistry()
         );
     }
 
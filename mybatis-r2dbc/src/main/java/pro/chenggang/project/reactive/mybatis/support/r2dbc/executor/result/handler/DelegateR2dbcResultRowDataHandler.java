@@ -18,35 +18,47 @@ package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.han
 import io.r2dbc.spi.Readable;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeHandler;
 import org.apache.ibatis.type.TypeReference;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.ReadableResultWrapper;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.TypeHandleContext;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.type.R2dbcTypeHandlerAdapter;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.type.R2dbcTypeHandlerAdapterRegistry;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.type.support.ForceToUseR2dbcTypeHandlerAdapter;
 
-import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
 import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Stream;
 
 /**
  * The type Delegate R2dbc result row data handler.
+ * <p>
+ * Implements {@link TypeHandler} directly and reads the column value from R2dbc {@link Readable}
  *
  * @author Gang Cheng
  * @version 1.0.0
  */
-public class DelegateR2dbcResultRowDataHandler implements InvocationHandler {
+@SuppressWarnings({"unchecked", "rawtypes"})
+public class DelegateR2dbcResultRowDataHandler implements TypeHandler<Object>, TypeHandleContext {
 
     private static final Log log = LogFactory.getLog(DelegateR2dbcResultRowDataHandler.class);
+    private static final ClassValue<Optional<Class<?>>> TYPE_HANDLER_ARGUMENT_TYPE = new ClassValue<Optional<Class<?>>>() {
+        @Override
+        protected Optional<Class<?>> computeValue(Class<?> typeHandlerClass) {
+            return resolveTypeHandlerArgumentType(typeHandlerClass);
+        }
+    };
     private final Set<Class<?>> notSupportedDataTypes;
     private final R2dbcTypeHandlerAdapterRegistry r2dbcTypeHandlerAdapterRegistry;
-    private TypeHandler<?> delegatedTypeHandler;
+    private TypeHandler delegatedTypeHandler;
     private ReadableResultWrapper<? extends Readable> readableResultWrapper;
     private Class<?> targetType;
     private boolean forceToUseR2dbcTypeHandlerAdapter = false;
@@ -64,52 +76,103 @@ public class DelegateR2dbcResultRowDataHandler implements InvocationHandler {
     }
 
     @Override
-    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-        if ("contextWith".equals(method.getName())) {
-            this.delegatedTypeHandler = (TypeHandler<?>) args[1];
-            this.readableResultWrapper = (ReadableResultWrapper<? extends Readable>) args[2];
-            this.forceToUseR2dbcTypeHandlerAdapter = false;
-            Optional<Class<?>> typeHandlerArgumentType = this.getTypeHandlerArgumentType(delegatedTypeHandler);
-            if (!typeHandlerArgumentType.isPresent()) {
-                this.targetType = (Class<?>) args[0];
-            } else if (this.delegatedTypeHandler != null && ForceToUseR2dbcTypeHandlerAdapter.class.equals(this.delegatedTypeHandler.getClass())) {
-                this.targetType = (Class<?>) args[0];
-                this.forceToUseR2dbcTypeHandlerAdapter = true;
-            } else {
-                this.targetType = typeHandlerArgumentType.get();
-            }
-            return null;
+    public void contextWith(Class<?> targetType, TypeHandler<?> delegatedTypeHandler, ReadableResultWrapper<? extends Readable> readableResultWrapper) {
+        this.delegatedTypeHandler = delegatedTypeHandler;
+        this.readableResultWrapper = readableResultWrapper;
+        this.forceToUseR2dbcTypeHandlerAdapter = false;
+        Optional<Class<?>> typeHandlerArgumentType = this.getTypeHandlerArgumentType(delegatedTypeHandler);
+        if (!typeHandlerArgumentType.isPresent()) {
+            this.targetType = targetType;
+        } else if (this.delegatedTypeHandler != null && ForceToUseR2dbcTypeHandlerAdapter.class.equals(this.delegatedTypeHandler.getClass())) {
+            this.targetType = targetType;
+            this.forceToUseR2dbcTypeHandlerAdapter = true;
+        } else {
+            this.targetType = typeHandlerArgumentType.get();
         }
-        //not getResult() method ,return original invocation
-        if (!"getResult".equals(method.getName())) {
-            return method.invoke(delegatedTypeHandler, args);
+    }
+
+    @Override
+    public void setParameter(PreparedStatement ps, int i, Object parameter, JdbcType jdbcType) throws SQLException {
+        delegatedTypeHandler.setParameter(ps, i, parameter, jdbcType);
+    }
+
+    @Override
+    public Object getResult(ResultSet rs, String columnName) throws SQLException {
+        if (null == columnName) {
+            return delegatedTypeHandler.getResult(rs, columnName);
         }
-        Object firstArg = args[0];
-        Object secondArg = args[1];
-        if (null == secondArg) {
-            return method.invoke(delegatedTypeHandler, args);
+        this.checkTargetType();
+        //using adapter
+        R2dbcTypeHandlerAdapter<?> r2dbcTypeHandlerAdapter = this.getR2dbcTypeHandlerAdapter();
+        if (r2dbcTypeHandlerAdapter != null) {
+            return r2dbcTypeHandlerAdapter.getResult(readableResultWrapper.getReadable(), readableResultWrapper.getReadableMetadataByName(columnName), columnName);
         }
-        if (firstArg instanceof CallableStatement) {
-            return method.invoke(delegatedTypeHandler, args);
+        return readableResultWrapper.getReadable().get(columnName, targetType);
+    }
+
+    @Override
+    public Object getResult(ResultSet rs, int columnIndex) throws SQLException {
+        this.checkTargetType();
+        int index = columnIndex - 1;
+        //using adapter
+        R2dbcTypeHandlerAdapter<?> r2dbcTypeHandlerAdapter = this.getR2dbcTypeHandlerAdapter();
+        if (r2dbcTypeHandlerAdapter != null) {
+            return r2dbcTypeHandlerAdapter.getResult(readableResultWrapper.getReadable(), readableResultWrapper.getReadableMetadataByIndex(index), index);
         }
+        return readableResultWrapper.getReadable().get(index, targetType);
+    }
+
+    @Override
+    public Object getResult(CallableStatement cs, int columnIndex) throws SQLException {
+        return delegatedTypeHandler.getResult(cs, columnIndex);
+    }
+
+    /**
+     * Gets the target type of current context which the column value is read as
+     *
+     * @return the target type
+     */
+    Class<?> getTargetType() {
+        return this.targetType;
+    }
+
+    /**
+     * Resolve the r2dbc type handler adapter of current context once,
+     * so that the column value could be read without resolving it for every row
+     *
+     * @return the r2dbc type handler adapter or null if the column value is read from the readable directly
+     * @throws IllegalArgumentException if target type is not supported
+     * @throws IllegalStateException    if the original TypeHandler is ForceToUseR2dbcTypeHandlerAdapter but no adapter registered
+     */
+    R2dbcTypeHandlerAdapter<?> resolveR2dbcTypeHandlerAdapter() {
+        this.checkTargetType();
+        return this.getR2dbcTypeHandlerAdapter();
+    }
+
+    /**
+     * check whether target type is supported
+     */
+    private void checkTargetType() {
         //not supported
         if (notSupportedDataTypes.contains(this.targetType)) {
             throw new IllegalArgumentException("Unsupported Result Data type : " + targetType);
         }
-        //using adapter
+    }
+
+    /**
+     * get r2dbc type handler adapter of target type
+     *
+     * @return the r2dbc type handler adapter or null if not registered
+     * @throws IllegalStateException if the original TypeHandler is ForceToUseR2dbcTypeHandlerAdapter but no adapter registered
+     */
+    private R2dbcTypeHandlerAdapter<?> getR2dbcTypeHandlerAdapter() {
         if (r2dbcTypeHandlerAdapterRegistry.hasR2dbcTypeHandlerAdapter(this.targetType)) {
-            log.trace("Found r2dbc type handler adapter fro result type : " + this.targetType);
-            R2dbcTypeHandlerAdapter<?> r2dbcTypeHandlerAdapter = r2dbcTypeHandlerAdapterRegistry.getR2dbcTypeHandlerAdapter(this.targetType);
-            // T getResult(ResultSet rs, String columnName)
-            if (secondArg instanceof String) {
-                return r2dbcTypeHandlerAdapter.getResult(readableResultWrapper.getReadable(), readableResultWrapper.getReadableMetadataByName((String) secondArg), (String) secondArg);
-            }
-            // T getResult(ResultSet rs, int columnIndex)
-            if (secondArg instanceof Integer) {
-                return r2dbcTypeHandlerAdapter.getResult(readableResultWrapper.getReadable(), readableResultWrapper.getReadableMetadataByIndex((Integer) secondArg - 1), (Integer) secondArg - 1);
+            if (log.isTraceEnabled()) {
+                log.trace("Found r2dbc type handler adapter fro result type : " + this.targetType);
             }
+            return r2dbcTypeHandlerAdapterRegistry.getR2dbcTypeHandlerAdapter(this.targetType);
         }
-        if(forceToUseR2dbcTypeHandlerAdapter){
+        if (forceToUseR2dbcTypeHandlerAdapter) {
             throw new IllegalStateException(
                     "The original TypeHandler is set to be ForceToUseR2dbcTypeHandlerAdapter, " +
                             "but no R2dbcTypeHandlerAdapter found in R2dbcConfiguration, " +
@@ -117,14 +180,6 @@ public class DelegateR2dbcResultRowDataHandler implements InvocationHandler {
                             + this.targetType
                             + " into R2dbcConfiguration");
         }
-        // T getResult(ResultSet rs, String columnName)
-        if (secondArg instanceof String) {
-            return readableResultWrapper.getReadable().get((String) secondArg, targetType);
-        }
-        // T getResult(ResultSet rs, int columnIndex)
-        if (secondArg instanceof Integer) {
-            return readableResultWrapper.getReadable().get((Integer) secondArg - 1, targetType);
-        }
         return null;
     }
 
@@ -134,20 +189,49 @@ public class DelegateR2dbcResultRowDataHandler implements InvocationHandler {
      * @return Optional class
      */
     private Optional<Class<?>> getTypeHandlerArgumentType(TypeHandler<?> typeHandler) {
-        if (typeHandler instanceof TypeReference) {
-            TypeReference<?> typeReference = (TypeReference<?>) typeHandler;
-            return Optional.ofNullable(this.extraType(typeReference.getRawType()));
+        return TYPE_HANDLER_ARGUMENT_TYPE.get(typeHandler.getClass());
+    }
+
+    /**
+     * resolve type handler actual type argument
+     *
+     * @return Optional class
+     */
+    private static Optional<Class<?>> resolveTypeHandlerArgumentType(Class<?> typeHandlerClass) {
+        if (TypeReference.class.isAssignableFrom(typeHandlerClass)) {
+            return Optional.ofNullable(extraType(resolveTypeReferenceRawType(typeHandlerClass)));
         }
-        return Stream.of(typeHandler.getClass().getGenericSuperclass())
+        return Stream.of(typeHandlerClass.getGenericSuperclass())
                 .filter(type -> type instanceof ParameterizedType)
                 .map(ParameterizedType.class::cast)
                 .filter(parameterizedType -> TypeHandler.class.isAssignableFrom((Class<?>) (parameterizedType.getRawType())))
                 .flatMap(parameterizedType -> Stream.of(parameterizedType.getActualTypeArguments()))
                 .findFirst()
-                .map(this::extraType);
+                .map(DelegateR2dbcResultRowDataHandler::extraType);
+    }
+
+    /**
+     * resolve the raw type of {@link TypeReference} subclass the same way as {@link TypeReference#getRawType()}
+     *
+     * @param typeReferenceClass the type reference class
+     * @return the raw type or null if the type parameter is missing
+     */
+    private static Type resolveTypeReferenceRawType(Class<?> typeReferenceClass) {
+        Type genericSuperclass = typeReferenceClass.getGenericSuperclass();
+        if (genericSuperclass instanceof Class) {
+            if (TypeReference.class != genericSuperclass) {
+                return resolveTypeReferenceRawType((Class<?>) genericSuperclass);
+            }
+            return null;
+        }
+        Type rawType = ((ParameterizedType) genericSuperclass).getActualTypeArguments()[0];
+        if (rawType instanceof ParameterizedType) {
+            rawType = ((ParameterizedType) rawType).getRawType();
+        }
+        return rawType;
     }
 
-    private Class<?> extraType(Type type){
+    private static Class<?> extraType(Type type){
         if(type instanceof Class){
             return (Class<?>) type;
         }
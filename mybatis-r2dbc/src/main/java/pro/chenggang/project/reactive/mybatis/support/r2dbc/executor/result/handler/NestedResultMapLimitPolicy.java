@@ -0,0 +1,45 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.handler;
+
+/**
+ * The policy applied when the nested result objects retained by an unordered nested result mapping
+ * exceed {@code nestedResultObjectsLimit} of configuration.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public enum NestedResultMapLimitPolicy {
+
+    /**
+     * Fail the query with an {@link org.apache.ibatis.executor.ExecutorException} naming the statement.
+     */
+    FAIL_FAST,
+
+    /**
+     * Emit the retained parent objects early with a warning,
+     * rows arriving later for an emitted parent object produce another partial parent object.
+     */
+    EMIT_PARTIAL,
+
+    /**
+     * Spill the rows to a local temporary file and map them partition by partition at completion,
+     * rows of the same parent object are always mapped within the same partition.
+     */
+    SPILL,
+    ;
+}
@@ -0,0 +1,284 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.handler;
+
+import org.apache.ibatis.executor.ExecutorException;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.SpilledRow;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The temporary file backed store of spilled rows for nested result mapping.
+ * <p>
+ * Rows are partitioned by the hash of their row key when written,each partition is appended to its own temporary file,
+ * so that a partition could be read on its own with a single pass after all rows are written.
+ * A partition which is still too large could be split into a new store with another partitioning of the same row key hashes.
+ * The files are deleted when the store is closed.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class NestedResultSpillStore implements Closeable {
+
+    private static final int RESET_INTERVAL = 1_024;
+
+    private final String statementId;
+    private final SpilledRow.Metadata metadata;
+    private final int level;
+    private final Path[] partitionFiles;
+    private final ObjectOutputStream[] outputStreams;
+    private final long[] partitionRowCounts;
+    private boolean writable = true;
+    private long rowCount;
+
+    private NestedResultSpillStore(String statementId, SpilledRow.Metadata metadata, int partitionCount, int level) {
+        this.statementId = statementId;
+        this.metadata = metadata;
+        this.level = level;
+        this.partitionFiles = new Path[partitionCount];
+        this.outputStreams = new ObjectOutputStream[partitionCount];
+        this.partitionRowCounts = new long[partitionCount];
+    }
+
+    /**
+     * Create nested result spill store,the temporary file of a partition is created when the first row of it is written.
+     *
+     * @param statementId    the statement id
+     * @param metadata       the metadata of spilled rows
+     * @param partitionCount the partition count
+     * @return the nested result spill store
+     */
+    public static NestedResultSpillStore create(String statementId, SpilledRow.Metadata metadata, int partitionCount) {
+        return new NestedResultSpillStore(statementId, metadata, partitionCount, 0);
+    }
+
+    /**
+     * Write spilled row into the partition of its row key hash.
+     *
+     * @param spilledRow the spilled row
+     * @param rowKeyHash the hash of the row key which groups the rows of the same result object
+     */
+    public void write(SpilledRow spilledRow, int rowKeyHash) {
+        if (!this.writable) {
+            throw new IllegalStateException("Spill store of statement '" + statementId + "' is not writable");
+        }
+        int partition = this.partitionOf(rowKeyHash);
+        try {
+            ObjectOutputStream outputStream = this.getOutputStream(partition);
+            outputStream.writeInt(rowKeyHash);
+            outputStream.writeUnshared(spilledRow.getValues());
+            this.partitionRowCounts[partition]++;
+            this.rowCount++;
+            // release back references of written values
+            if (this.partitionRowCounts[partition] % RESET_INTERVAL == 0) {
+                outputStream.reset();
+            }
+        } catch (NotSerializableException e) {
+            throw new ExecutorException("Error spilling rows of statement '" + statementId + "',column value is not serializable : " + e.getMessage(), e);
+        } catch (IOException e) {
+            throw new ExecutorException("Error spilling rows of statement '" + statementId + "'.  Cause: " + e, e);
+        }
+    }
+
+    /**
+     * Gets written row count.
+     *
+     * @return the row count
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Gets partition count.
+     *
+     * @return the partition count
+     */
+    public int getPartitionCount() {
+        return partitionFiles.length;
+    }
+
+    /**
+     * Gets written row count of the partition.
+     *
+     * @param partition the partition
+     * @return the row count of the partition
+     */
+    public long getRowCount(int partition) {
+        return partitionRowCounts[partition];
+    }
+
+    /**
+     * Open a reader of the written rows of the partition,no more rows could be written after opening a reader.
+     *
+     * @param partition the partition
+     * @return the reader
+     */
+    public Reader openReader(int partition) {
+        this.finishWriting();
+        if (this.partitionFiles[partition] == null) {
+            return new Reader(null, 0);
+        }
+        try {
+            ObjectInputStream inputStream = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(this.partitionFiles[partition])));
+            return new Reader(inputStream, this.partitionRowCounts[partition]);
+        } catch (IOException e) {
+            throw new ExecutorException("Error reading spill file of statement '" + statementId + "'.  Cause: " + e, e);
+        }
+    }
+
+    /**
+     * Split the partition into a new store with the given partition count,
+     * the rows of the partition are read once and partitioned by another function of the same row key hashes.
+     *
+     * @param partition      the partition
+     * @param partitionCount the partition count of the new store
+     * @return the new store,which should be closed by the caller
+     */
+    public NestedResultSpillStore split(int partition, int partitionCount) {
+        NestedResultSpillStore splitStore = new NestedResultSpillStore(this.statementId, this.metadata, partitionCount, this.level + 1);
+        try (Reader reader = this.openReader(partition)) {
+            SpilledRow spilledRow;
+            while ((spilledRow = reader.next()) != null) {
+                splitStore.write(spilledRow, reader.getRowKeyHash());
+            }
+        } catch (RuntimeException e) {
+            splitStore.close();
+            throw e;
+        }
+        return splitStore;
+    }
+
+    @Override
+    public void close() {
+        this.finishWriting();
+        for (Path partitionFile : this.partitionFiles) {
+            deleteQuietly(partitionFile);
+        }
+    }
+
+    private int partitionOf(int rowKeyHash) {
+        int hash = rowKeyHash;
+        // each level partitions the same hashes with other bits
+        for (int i = 0; i < this.level; i++) {
+            hash = Integer.rotateLeft(hash * 0x9E3779B9, 13);
+        }
+        return Math.floorMod(hash, this.partitionFiles.length);
+    }
+
+    private ObjectOutputStream getOutputStream(int partition) throws IOException {
+        ObjectOutputStream outputStream = this.outputStreams[partition];
+        if (outputStream != null) {
+            return outputStream;
+        }
+        Path partitionFile = Files.createTempFile("mybatis-r2dbc-spill-", ".tmp");
+        this.partitionFiles[partition] = partitionFile;
+        partitionFile.toFile().deleteOnExit();
+        outputStream = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(partitionFile)));
+        this.outputStreams[partition] = outputStream;
+        return outputStream;
+    }
+
+    private void finishWriting() {
+        this.writable = false;
+        for (int i = 0; i < this.outputStreams.length; i++) {
+            if (this.outputStreams[i] != null) {
+                try {
+                    this.outputStreams[i].close();
+                } catch (IOException e) {
+                    // ignore
+                }
+                this.outputStreams[i] = null;
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+
+    /**
+     * The reader of spilled rows of a partition
+     */
+    public class Reader implements Closeable {
+
+        private final ObjectInputStream inputStream;
+        private final long partitionRowCount;
+        private long readCount;
+        private int rowKeyHash;
+
+        private Reader(ObjectInputStream inputStream, long partitionRowCount) {
+            this.inputStream = inputStream;
+            this.partitionRowCount = partitionRowCount;
+        }
+
+        /**
+         * Read next spilled row.
+         *
+         * @return the spilled row or null if all rows are read
+         */
+        public SpilledRow next() {
+            if (readCount >= partitionRowCount) {
+                return null;
+            }
+            try {
+                this.rowKeyHash = this.inputStream.readInt();
+                Object[] values = (Object[]) this.inputStream.readUnshared();
+                readCount++;
+                return SpilledRow.restore(metadata, values);
+            } catch (IOException | ClassNotFoundException e) {
+                throw new ExecutorException("Error reading spill file of statement '" + statementId + "'.  Cause: " + e, e);
+            }
+        }
+
+        /**
+         * Gets the row key hash of the latest read row.
+         *
+         * @return the row key hash
+         */
+        public int getRowKeyHash() {
+            return rowKeyHash;
+        }
+
+        @Override
+        public void close() {
+            if (this.inputStream == null) {
+                return;
+            }
+            try {
+                this.inputStream.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+}
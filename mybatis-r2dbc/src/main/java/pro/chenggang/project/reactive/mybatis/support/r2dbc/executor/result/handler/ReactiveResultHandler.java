@@ -17,9 +17,13 @@ package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.han
 
 import io.r2dbc.spi.Readable;
 import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.ReadableResultWrapper;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.NestedSelectLoad;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * The interface Reactive result handler.
  *
@@ -37,13 +41,38 @@ public interface ReactiveResultHandler {
     Integer getResultRowTotalCount();
 
     /**
-     * handle result with RowResultWrapper
+     * handle result with RowResultWrapper,
+     * nested result mapping may emit none or more than one result objects for a single row
      *
      * @param <T>              the type parameter
      * @param readableResultWrapper the row result wrapper
-     * @return list
+     * @return the result objects could be emitted
+     */
+    <T> Flux<T> handleResult(ReadableResultWrapper<? extends Readable> readableResultWrapper);
+
+    /**
+     * handle result with RowResultWrapper of the result at the given index,
+     * statements returning multiple results map each result with its corresponding result map
+     *
+     * @param <T>                   the type parameter
+     * @param readableResultWrapper the row result wrapper
+     * @param resultIndex           the index of the result the row belongs to
+     * @return the result objects could be emitted
+     */
+    default <T> Flux<T> handleResult(ReadableResultWrapper<? extends Readable> readableResultWrapper, int resultIndex) {
+        return this.handleResult(readableResultWrapper);
+    }
+
+    /**
+     * complete the result at the given index after all of its rows are handled
+     *
+     * @param <T>         the type parameter
+     * @param resultIndex the index of the completed result
+     * @return the result objects could be emitted
      */
-    <T> Mono<T> handleResult(ReadableResultWrapper<? extends Readable> readableResultWrapper);
+    default <T> Flux<T> completeResult(int resultIndex) {
+        return Flux.empty();
+    }
 
     /**
      * Handle output parameters.
@@ -60,6 +89,27 @@ public interface ReactiveResultHandler {
      */
     <T> Flux<T> getRemainedResults();
 
+    /**
+     * drain the nested select loads registered by the result objects mapped so far,
+     * the properties with nested select are set after these loads are resolved
+     *
+     * @return the nested select loads
+     */
+    default List<NestedSelectLoad> drainNestedSelectLoads() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * whether the rows could be spilled to temporary files,
+     * such rows should be captured as {@link pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.SpilledRow}
+     * on the driver thread and handled on a thread which allows blocking file operations
+     *
+     * @return the boolean
+     */
+    default boolean isSpillable() {
+        return false;
+    }
+
     /**
      * Clean up
      */
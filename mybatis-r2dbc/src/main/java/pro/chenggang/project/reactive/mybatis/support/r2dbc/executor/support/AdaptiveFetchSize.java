@@ -0,0 +1,170 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support;
+
+import io.r2dbc.spi.Blob;
+import io.r2dbc.spi.Clob;
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.RowMetadata;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.RowBounds;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybatisConfiguration;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongFunction;
+
+/**
+ * The adaptive fetch size of streaming statements.
+ * <p>
+ * A select statement is streamed when it is registered by {@link R2dbcMybatisConfiguration#addStreamingStatement(String)}
+ * (the {@code streamingStatements} setting) or declared with {@code fetchSize} of {@link Integer#MIN_VALUE}
+ * (the streaming hint of MySQL JDBC driver),
+ * the fetch size of a streaming statement is always set,so that the driver keeps a cursor (or portal) open
+ * and fetches rows on demand instead of materializing the whole result.
+ * <p>
+ * The fetch size is derived from the first downstream demand,
+ * bounded by {@code streamingFetchSizeMax} and by {@code streamingFetchBufferBytes} divided by the estimated row size,
+ * the row size is estimated from the row metadata of previous executions of the same statement.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class AdaptiveFetchSize {
+
+    private static final int ROW_OVERHEAD_BYTES = 64;
+    private static final int FIXED_COLUMN_BYTES = 16;
+    private static final int UNBOUNDED_COLUMN_BYTES = 8_192;
+
+    private final R2dbcMybatisConfiguration configuration;
+    private final Map<String, Integer> estimatedRowBytes = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiates a new Adaptive fetch size.
+     *
+     * @param configuration the configuration
+     */
+    public AdaptiveFetchSize(R2dbcMybatisConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * Whether the mapped statement is streamed
+     *
+     * @param mappedStatement the mapped statement
+     * @return the boolean
+     */
+    public boolean isStreaming(MappedStatement mappedStatement) {
+        return configuration.isStreamingStatement(mappedStatement.getId())
+                || Integer.valueOf(Integer.MIN_VALUE).equals(mappedStatement.getFetchSize());
+    }
+
+    /**
+     * Resolve fetch size of streaming statement.
+     *
+     * @param mappedStatement the mapped statement
+     * @param rowBounds       the row bounds
+     * @param demand          the first downstream demand
+     * @return the fetch size
+     */
+    public int resolveFetchSize(MappedStatement mappedStatement, RowBounds rowBounds, long demand) {
+        long fetchSize = Math.min(demand, configuration.getStreamingFetchSizeMax());
+        Integer mappedStatementFetchSize = mappedStatement.getFetchSize();
+        if (mappedStatementFetchSize != null && mappedStatementFetchSize > 0) {
+            fetchSize = Math.min(fetchSize, mappedStatementFetchSize);
+        }
+        Integer rowBytes = this.estimatedRowBytes.get(mappedStatement.getId());
+        if (rowBytes != null) {
+            fetchSize = Math.min(fetchSize, configuration.getStreamingFetchBufferBytes() / rowBytes);
+        }
+        if (rowBounds != null && rowBounds.getLimit() != RowBounds.NO_ROW_LIMIT) {
+            fetchSize = Math.min(fetchSize, (long) rowBounds.getOffset() + rowBounds.getLimit());
+        }
+        return (int) Math.max(1L, fetchSize);
+    }
+
+    /**
+     * Record the row metadata of the mapped statement,
+     * only the first recorded row metadata of each statement is estimated.
+     *
+     * @param mappedStatement the mapped statement
+     * @param rowMetadata     the row metadata
+     */
+    public void recordRowMetadata(MappedStatement mappedStatement, RowMetadata rowMetadata) {
+        this.estimatedRowBytes.computeIfAbsent(mappedStatement.getId(), statementId -> estimateRowBytes(rowMetadata));
+    }
+
+    /**
+     * Gets estimated row bytes.
+     *
+     * @param mappedStatement the mapped statement
+     * @return the estimated row bytes,null if not recorded yet
+     */
+    public Integer getEstimatedRowBytes(MappedStatement mappedStatement) {
+        return this.estimatedRowBytes.get(mappedStatement.getId());
+    }
+
+    /**
+     * Execute the query once the first downstream demand is requested.
+     *
+     * @param <E>   the type parameter
+     * @param query the query with first demand
+     * @return the flux
+     */
+    public static <E> Flux<E> onFirstDemand(LongFunction<Flux<E>> query) {
+        Sinks.One<Long> firstDemand = Sinks.one();
+        return firstDemand.asMono()
+                .flatMapMany(query::apply)
+                .doOnRequest(demand -> firstDemand.tryEmitValue(demand));
+    }
+
+    /**
+     * estimate row bytes from row metadata
+     *
+     * @param rowMetadata the row metadata
+     * @return the estimated row bytes
+     */
+    static int estimateRowBytes(RowMetadata rowMetadata) {
+        long rowBytes = ROW_OVERHEAD_BYTES;
+        for (ColumnMetadata columnMetadata : rowMetadata.getColumnMetadatas()) {
+            rowBytes += estimateColumnBytes(columnMetadata);
+        }
+        return (int) Math.min(Integer.MAX_VALUE, rowBytes);
+    }
+
+    private static int estimateColumnBytes(ColumnMetadata columnMetadata) {
+        Class<?> javaType = columnMetadata.getJavaType();
+        boolean variableLength = javaType == null
+                || CharSequence.class.isAssignableFrom(javaType)
+                || byte[].class.equals(javaType)
+                || ByteBuffer.class.isAssignableFrom(javaType)
+                || Clob.class.isAssignableFrom(javaType)
+                || Blob.class.isAssignableFrom(javaType);
+        if (!variableLength) {
+            return FIXED_COLUMN_BYTES;
+        }
+        Integer precision = columnMetadata.getPrecision();
+        if (precision == null || precision <= 0 || precision > UNBOUNDED_COLUMN_BYTES) {
+            return UNBOUNDED_COLUMN_BYTES;
+        }
+        // characters are retained as utf-16
+        return precision * 2;
+    }
+}
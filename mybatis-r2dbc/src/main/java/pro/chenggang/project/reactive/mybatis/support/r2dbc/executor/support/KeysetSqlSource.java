@@ -0,0 +1,167 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.defaults.KeysetPagination;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The sql source of a keyset page.
+ * <p>
+ * The sql of original statement is wrapped as a derived table,
+ * filtered by the sort key values of last result of previous page and ordered by the sort keys:
+ * <pre>
+ * SELECT * FROM (original sql) keyset_page WHERE k1 &gt; ? OR (k1 = ? AND k2 &gt; ?) ORDER BY k1, k2
+ * </pre>
+ * The page size is applied with pagination clause of placeholder dialect.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class KeysetSqlSource implements SqlSource {
+
+    private static final String KEYSET_PARAMETER_PREFIX = "_keysetValue";
+
+    private final Configuration configuration;
+    private final SqlSource delegate;
+    private final KeysetPagination keysetPagination;
+    private final Object[] lastKeyValues;
+
+    private KeysetSqlSource(Configuration configuration, SqlSource delegate, KeysetPagination keysetPagination, Object[] lastKeyValues) {
+        this.configuration = configuration;
+        this.delegate = delegate;
+        this.keysetPagination = keysetPagination;
+        this.lastKeyValues = lastKeyValues;
+    }
+
+    /**
+     * New mapped statement of a keyset page,derived from the original statement.
+     * The local cache is flushed before each page,so that pages of a long export are not retained.
+     *
+     * @param mappedStatement  the original mapped statement
+     * @param keysetPagination the keyset pagination
+     * @param lastKeyValues    the sort key values of last result of previous page,null for the first page
+     * @return the mapped statement
+     */
+    public static MappedStatement newPageStatement(MappedStatement mappedStatement, KeysetPagination keysetPagination, Object[] lastKeyValues) {
+        Configuration configuration = mappedStatement.getConfiguration();
+        KeysetSqlSource keysetSqlSource = new KeysetSqlSource(configuration, mappedStatement.getSqlSource(), keysetPagination, lastKeyValues);
+        return new MappedStatement.Builder(configuration, mappedStatement.getId(), keysetSqlSource, mappedStatement.getSqlCommandType())
+                .resource(mappedStatement.getResource())
+                .fetchSize(mappedStatement.getFetchSize())
+                .timeout(mappedStatement.getTimeout())
+                .statementType(mappedStatement.getStatementType())
+                .resultSetType(mappedStatement.getResultSetType())
+                .parameterMap(mappedStatement.getParameterMap())
+                .resultMaps(mappedStatement.getResultMaps())
+                .databaseId(mappedStatement.getDatabaseId())
+                .lang(mappedStatement.getLang())
+                .flushCacheRequired(true)
+                .useCache(false)
+                .build();
+    }
+
+    /**
+     * Extract the sort key values of the result object
+     *
+     * @param configuration    the configuration
+     * @param keysetPagination the keyset pagination
+     * @param resultObject     the result object
+     * @return the sort key values
+     */
+    public static Object[] extractKeyValues(Configuration configuration, KeysetPagination keysetPagination, Object resultObject) {
+        MetaObject metaObject = configuration.newMetaObject(resultObject);
+        List<KeysetPagination.SortKey> sortKeys = keysetPagination.getSortKeys();
+        Object[] keyValues = new Object[sortKeys.size()];
+        for (int i = 0; i < keyValues.length; i++) {
+            String property = sortKeys.get(i).getProperty();
+            Object keyValue = metaObject.getValue(property);
+            if (keyValue == null) {
+                throw new IllegalStateException("The sort key property '" + property + "' of keyset pagination is null");
+            }
+            keyValues[i] = keyValue;
+        }
+        return keyValues;
+    }
+
+    @Override
+    public BoundSql getBoundSql(Object parameterObject) {
+        BoundSql boundSql = delegate.getBoundSql(parameterObject);
+        List<KeysetPagination.SortKey> sortKeys = keysetPagination.getSortKeys();
+        List<ParameterMapping> parameterMappings = new ArrayList<>(boundSql.getParameterMappings());
+        StringBuilder sqlBuilder = new StringBuilder(boundSql.getSql().length() + 64)
+                .append("SELECT * FROM (")
+                .append(trimSql(boundSql.getSql()))
+                .append(") keyset_page");
+        if (lastKeyValues != null) {
+            // expanded row value comparison,supported by all dialects
+            String operator = keysetPagination.isDescending() ? " < ?" : " > ?";
+            sqlBuilder.append(" WHERE ");
+            for (int i = 0; i < sortKeys.size(); i++) {
+                if (i > 0) {
+                    sqlBuilder.append(" OR ");
+                }
+                sqlBuilder.append('(');
+                for (int j = 0; j < i; j++) {
+                    sqlBuilder.append(sortKeys.get(j).getColumn()).append(" = ? AND ");
+                    parameterMappings.add(this.keysetParameterMapping(j));
+                }
+                sqlBuilder.append(sortKeys.get(i).getColumn()).append(operator).append(')');
+                parameterMappings.add(this.keysetParameterMapping(i));
+            }
+        }
+        sqlBuilder.append(" ORDER BY ");
+        for (int i = 0; i < sortKeys.size(); i++) {
+            if (i > 0) {
+                sqlBuilder.append(", ");
+            }
+            sqlBuilder.append(sortKeys.get(i).getColumn());
+            if (keysetPagination.isDescending()) {
+                sqlBuilder.append(" DESC");
+            }
+        }
+        BoundSql keysetBoundSql = new BoundSql(configuration, sqlBuilder.toString(), parameterMappings, parameterObject);
+        boundSql.getAdditionalParameters().forEach(keysetBoundSql::setAdditionalParameter);
+        if (lastKeyValues != null) {
+            for (int i = 0; i < lastKeyValues.length; i++) {
+                keysetBoundSql.setAdditionalParameter(KEYSET_PARAMETER_PREFIX + i, lastKeyValues[i]);
+            }
+        }
+        return keysetBoundSql;
+    }
+
+    private ParameterMapping keysetParameterMapping(int index) {
+        return new ParameterMapping.Builder(configuration, KEYSET_PARAMETER_PREFIX + index, lastKeyValues[index].getClass())
+                .build();
+    }
+
+    private static String trimSql(String sql) {
+        String trimmedSql = sql.trim();
+        while (trimmedSql.endsWith(";")) {
+            trimmedSql = trimmedSql.substring(0, trimmedSql.length() - 1).trim();
+        }
+        return trimmedSql;
+    }
+}
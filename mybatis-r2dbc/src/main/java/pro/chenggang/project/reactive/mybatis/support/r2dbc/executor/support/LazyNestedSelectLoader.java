@@ -0,0 +1,194 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support;
+
+import org.apache.ibatis.mapping.MappedStatement;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybatisConfiguration;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.util.context.ContextView;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * The loader of lazy nested selects of properties typed as {@link Mono} or {@link Flux}.
+ * <p>
+ * The nested select of a lazy property is executed only when the property is subscribed,
+ * loads subscribed within {@code lazyLoadBatchWindow} from the same reactor context are coalesced
+ * and resolved together by {@link NestedSelectLoader},
+ * so that the loads of the same nested select are fetched with one batch statement if configured.
+ * Each batch is executed within the reactor context of its subscribers,
+ * so the attributes of the subscriber such as the routing key or the parent observation are kept,
+ * and loads of unrelated subscribers are never fetched together.
+ * Lazy loads are executed outside of the transaction of parent query,each execution acquires its own connection.
+ * The execution of a batch is cancelled once all of its loads are cancelled.
+ * The loaded results are not retained by the property,each subscription loads again.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class LazyNestedSelectLoader {
+
+    private final R2dbcMybatisConfiguration configuration;
+    private final NestedSelectLoader nestedSelectLoader;
+    private final BiFunction<MappedStatement, Object, Flux<Object>> queryFunction;
+    // the batches of current windows keyed by the reactor context of subscribers
+    private final Map<ContextView, PendingBatch> pendingBatches = new IdentityHashMap<>();
+
+    /**
+     * Instantiates a new Lazy nested select loader.
+     *
+     * @param configuration      the configuration
+     * @param nestedSelectLoader the nested select loader
+     * @param queryFunction      the query function of a mapped statement with parameter,executed with its own executor context
+     */
+    public LazyNestedSelectLoader(R2dbcMybatisConfiguration configuration,
+                                  NestedSelectLoader nestedSelectLoader,
+                                  BiFunction<MappedStatement, Object, Flux<Object>> queryFunction) {
+        this.configuration = configuration;
+        this.nestedSelectLoader = nestedSelectLoader;
+        this.queryFunction = queryFunction;
+    }
+
+    /**
+     * Resolve the lazy load by setting a publisher which loads the property when subscribed.
+     *
+     * @param nestedSelectLoad the lazy nested select load
+     */
+    public void resolve(NestedSelectLoad nestedSelectLoad) {
+        MappedStatement nestedQuery = nestedSelectLoad.getNestedQuery();
+        Object parameterObject = nestedSelectLoad.getParameterObject();
+        Class<?> targetType = nestedSelectLoad.getTargetType();
+        Mono<List<Object>> loadedResults = Mono.deferContextual(contextView -> Mono.create(
+                sink -> this.enqueue(new PendingLoad(nestedQuery, parameterObject, sink), contextView)
+        ));
+        if (Flux.class.equals(targetType)) {
+            nestedSelectLoad.setValue(loadedResults.flatMapIterable(results -> results));
+            return;
+        }
+        nestedSelectLoad.setValue(loadedResults.flatMap(results -> (Mono<?>) nestedSelectLoader.extractValue(results, targetType)));
+    }
+
+    /**
+     * enqueue the pending load into the batch of its context,the first pending load of a batch schedules the flush of the batch
+     *
+     * @param pendingLoad the pending load
+     * @param contextView the reactor context of the subscriber
+     */
+    private void enqueue(PendingLoad pendingLoad, ContextView contextView) {
+        PendingBatch pendingBatch;
+        boolean firstOfWindow;
+        synchronized (this) {
+            pendingBatch = this.pendingBatches.computeIfAbsent(contextView, PendingBatch::new);
+            firstOfWindow = pendingBatch.loads.isEmpty();
+            pendingBatch.loads.add(pendingLoad);
+        }
+        pendingLoad.sink.onCancel(() -> this.cancel(pendingBatch, pendingLoad));
+        if (firstOfWindow) {
+            pendingBatch.execution.update(Mono.delay(configuration.getLazyLoadBatchWindow())
+                    .subscribe(ignore -> this.flush(pendingBatch))
+            );
+        }
+    }
+
+    /**
+     * cancel the pending load,the batch is disposed if all of its loads are cancelled
+     *
+     * @param pendingBatch the pending batch of the load
+     * @param pendingLoad  the cancelled pending load
+     */
+    private void cancel(PendingBatch pendingBatch, PendingLoad pendingLoad) {
+        boolean allCancelled;
+        synchronized (this) {
+            pendingBatch.loads.remove(pendingLoad);
+            allCancelled = pendingBatch.loads.isEmpty();
+            if (allCancelled && !pendingBatch.flushed) {
+                this.pendingBatches.remove(pendingBatch.contextView, pendingBatch);
+            }
+        }
+        if (allCancelled) {
+            pendingBatch.execution.dispose();
+        }
+    }
+
+    /**
+     * flush the pending loads of the batch within the reactor context of its subscribers
+     *
+     * @param pendingBatch the pending batch
+     */
+    @SuppressWarnings("unchecked")
+    private void flush(PendingBatch pendingBatch) {
+        List<PendingLoad> loads;
+        synchronized (this) {
+            this.pendingBatches.remove(pendingBatch.contextView, pendingBatch);
+            pendingBatch.flushed = true;
+            loads = new ArrayList<>(pendingBatch.loads);
+        }
+        if (loads.isEmpty()) {
+            return;
+        }
+        List<NestedSelectLoad> nestedSelectLoads = new ArrayList<>(loads.size());
+        for (PendingLoad pendingLoad : loads) {
+            nestedSelectLoads.add(new NestedSelectLoad(pendingLoad.nestedQuery,
+                    pendingLoad.parameterObject,
+                    List.class,
+                    value -> pendingLoad.sink.success((List<Object>) value)
+            ));
+        }
+        Disposable execution = nestedSelectLoader.load(nestedSelectLoads, queryFunction, configuration.getNestedSelectConcurrency())
+                .contextWrite(pendingBatch.contextView)
+                .subscribe(null,
+                        throwable -> loads.forEach(pendingLoad -> pendingLoad.sink.error(throwable)),
+                        // loads without value (e.g. cancelled) are completed empty
+                        () -> loads.forEach(pendingLoad -> pendingLoad.sink.success())
+                );
+        // the delay of the window is completed,it is replaced without being disposed
+        pendingBatch.execution.replace(execution);
+    }
+
+    private static class PendingBatch {
+
+        private final ContextView contextView;
+        private final List<PendingLoad> loads = new ArrayList<>();
+        private final Disposable.Swap execution = Disposables.swap();
+        private boolean flushed;
+
+        private PendingBatch(ContextView contextView) {
+            this.contextView = contextView;
+        }
+    }
+
+    private static class PendingLoad {
+
+        private final MappedStatement nestedQuery;
+        private final Object parameterObject;
+        private final MonoSink<List<Object>> sink;
+
+        private PendingLoad(MappedStatement nestedQuery, Object parameterObject, MonoSink<List<Object>> sink) {
+            this.nestedQuery = nestedQuery;
+            this.parameterObject = parameterObject;
+            this.sink = sink;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support;
+
+/**
+ * The batch statement of a nested select.
+ * <p>
+ * The batch statement receives a list of keys as parameter (eg: {@code <foreach collection="list">} within {@code IN (...)}),
+ * and the key of each returned object is read from {@code keyProperty} to match the parent objects.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class NestedSelectBatch {
+
+    private final String batchStatementId;
+    private final String keyProperty;
+
+    /**
+     * Instantiates a new Nested select batch.
+     *
+     * @param batchStatementId the batch statement id
+     * @param keyProperty      the key property of returned objects
+     */
+    public NestedSelectBatch(String batchStatementId, String keyProperty) {
+        this.batchStatementId = batchStatementId;
+        this.keyProperty = keyProperty;
+    }
+
+    /**
+     * Gets batch statement id.
+     *
+     * @return the batch statement id
+     */
+    public String getBatchStatementId() {
+        return batchStatementId;
+    }
+
+    /**
+     * Gets key property.
+     *
+     * @return the key property
+     */
+    public String getKeyProperty() {
+        return keyProperty;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support;
+
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.reflection.MetaObject;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Consumer;
+
+/**
+ * The deferred load of a property mapped with nested select.
+ * <p>
+ * The result handler registers a load instead of executing the nested select for each row,
+ * loads are resolved in batch by {@link NestedSelectLoader} before the result objects are emitted,
+ * except lazy loads of reactive properties which are resolved by {@link LazyNestedSelectLoader} when subscribed.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class NestedSelectLoad {
+
+    private final MappedStatement nestedQuery;
+    private final Object parameterObject;
+    private final Class<?> targetType;
+    private final boolean lazy;
+    private final Consumer<Object> valueConsumer;
+
+    /**
+     * Instantiates a new Nested select load.
+     *
+     * @param metaResultObject the meta object of result object to load property
+     * @param propertyMapping  the property mapping with nested select
+     * @param nestedQuery      the nested query
+     * @param parameterObject  the parameter object of nested query
+     */
+    public NestedSelectLoad(MetaObject metaResultObject, ResultMapping propertyMapping, MappedStatement nestedQuery, Object parameterObject) {
+        this.nestedQuery = nestedQuery;
+        this.parameterObject = parameterObject;
+        this.targetType = propertyMapping.getJavaType();
+        this.lazy = propertyMapping.isLazy() && isReactiveType(this.targetType);
+        this.valueConsumer = value -> metaResultObject.setValue(propertyMapping.getProperty(), value);
+    }
+
+    /**
+     * Instantiates a new Nested select load whose loaded value is passed to the value consumer.
+     *
+     * @param nestedQuery     the nested query
+     * @param parameterObject the parameter object of nested query
+     * @param targetType      the target type of loaded value
+     * @param valueConsumer   the value consumer
+     */
+    public NestedSelectLoad(MappedStatement nestedQuery, Object parameterObject, Class<?> targetType, Consumer<Object> valueConsumer) {
+        this.nestedQuery = nestedQuery;
+        this.parameterObject = parameterObject;
+        this.targetType = targetType;
+        this.lazy = false;
+        this.valueConsumer = valueConsumer;
+    }
+
+    /**
+     * Gets nested query.
+     *
+     * @return the nested query
+     */
+    public MappedStatement getNestedQuery() {
+        return nestedQuery;
+    }
+
+    /**
+     * Gets parameter object.
+     *
+     * @return the parameter object
+     */
+    public Object getParameterObject() {
+        return parameterObject;
+    }
+
+    /**
+     * Gets target type.
+     *
+     * @return the target type
+     */
+    public Class<?> getTargetType() {
+        return targetType;
+    }
+
+    /**
+     * Whether the property is lazily loaded,
+     * only the lazy property typed as {@link Mono} or {@link Flux} is loaded when subscribed.
+     *
+     * @return the boolean
+     */
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    /**
+     * Set loaded value to the property of result object.
+     *
+     * @param value the value
+     */
+    public void setValue(Object value) {
+        if (value != null) {
+            valueConsumer.accept(value);
+        }
+    }
+
+    /**
+     * Whether the type is reactive type (Mono or Flux)
+     *
+     * @param type the type
+     * @return the boolean
+     */
+    public static boolean isReactiveType(Class<?> type) {
+        return Mono.class.equals(type) || Flux.class.equals(type);
+    }
+}
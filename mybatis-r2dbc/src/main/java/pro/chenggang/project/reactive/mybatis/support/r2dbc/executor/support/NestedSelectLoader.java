@@ -0,0 +1,225 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support;
+
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.ResultExtractor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.reflection.ParamNameResolver;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybatisConfiguration;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * The loader of nested selects which resolves the registered {@link NestedSelectLoad}s in batch.
+ * <p>
+ * Loads of the same nested select are grouped by the parameter,
+ * if a {@link NestedSelectBatch} is configured for the nested select,
+ * distinct simple keys are fetched with the batch statement,at most {@code nestedSelectWindowSize} keys per execution,
+ * otherwise the nested select is executed once per distinct parameter.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class NestedSelectLoader {
+
+    private final R2dbcMybatisConfiguration configuration;
+    private final ResultExtractor resultExtractor;
+    private final Map<String, Boolean> nestedQueriesCache = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiates a new Nested select loader.
+     *
+     * @param configuration the configuration
+     */
+    public NestedSelectLoader(R2dbcMybatisConfiguration configuration) {
+        this.configuration = configuration;
+        this.resultExtractor = new ResultExtractor(configuration, configuration.getObjectFactory());
+    }
+
+    /**
+     * Whether any result map of mapped statement (including nested result maps) has nested queries
+     *
+     * @param mappedStatement the mapped statement
+     * @return the boolean
+     */
+    public boolean hasNestedQueries(MappedStatement mappedStatement) {
+        return nestedQueriesCache.computeIfAbsent(mappedStatement.getId(), id -> {
+            Set<String> visitedResultMapIds = new HashSet<>();
+            for (ResultMap resultMap : mappedStatement.getResultMaps()) {
+                if (this.hasNestedQueries(resultMap, visitedResultMapIds)) {
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
+    private boolean hasNestedQueries(ResultMap resultMap, Set<String> visitedResultMapIds) {
+        if (!visitedResultMapIds.add(resultMap.getId())) {
+            return false;
+        }
+        if (resultMap.hasNestedQueries()) {
+            return true;
+        }
+        for (ResultMapping resultMapping : resultMap.getResultMappings()) {
+            String nestedResultMapId = resultMapping.getNestedResultMapId();
+            if (nestedResultMapId != null && this.hasNestedQueries(configuration.getResultMap(nestedResultMapId), visitedResultMapIds)) {
+                return true;
+            }
+        }
+        if (resultMap.getDiscriminator() != null) {
+            for (String discriminatedResultMapId : resultMap.getDiscriminator().getDiscriminatorMap().values()) {
+                if (this.hasNestedQueries(configuration.getResultMap(discriminatedResultMapId), visitedResultMapIds)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Resolve nested select loads
+     *
+     * @param nestedSelectLoads the nested select loads
+     * @param queryFunction     the query function of a mapped statement with parameter
+     * @param concurrency       the max nested select executions in flight
+     * @return mono
+     */
+    public Mono<Void> load(List<NestedSelectLoad> nestedSelectLoads,
+                           BiFunction<MappedStatement, Object, Flux<Object>> queryFunction,
+                           int concurrency) {
+        if (nestedSelectLoads.isEmpty()) {
+            return Mono.empty();
+        }
+        Map<String, Map<Object, List<NestedSelectLoad>>> groupedLoads = new LinkedHashMap<>();
+        for (NestedSelectLoad nestedSelectLoad : nestedSelectLoads) {
+            groupedLoads.computeIfAbsent(nestedSelectLoad.getNestedQuery().getId(), key -> new LinkedHashMap<>())
+                    .computeIfAbsent(normalizeKey(nestedSelectLoad.getParameterObject()), key -> new ArrayList<>())
+                    .add(nestedSelectLoad);
+        }
+        List<Mono<Void>> executions = new ArrayList<>();
+        groupedLoads.forEach((nestedQueryId, loadsByKey) -> {
+            NestedSelectBatch nestedSelectBatch = configuration.getNestedSelectBatch(nestedQueryId);
+            List<Object> batchKeys = new ArrayList<>();
+            loadsByKey.forEach((key, loads) -> {
+                if (nestedSelectBatch != null && isSimpleKey(loads.get(0).getParameterObject())) {
+                    batchKeys.add(key);
+                    return;
+                }
+                NestedSelectLoad firstLoad = loads.get(0);
+                executions.add(queryFunction.apply(firstLoad.getNestedQuery(), firstLoad.getParameterObject())
+                        .collectList()
+                        .doOnNext(results -> this.setValues(loads, results))
+                        .then()
+                );
+            });
+            if (batchKeys.isEmpty()) {
+                return;
+            }
+            MappedStatement batchStatement = configuration.getMappedStatement(nestedSelectBatch.getBatchStatementId());
+            int windowSize = configuration.getNestedSelectWindowSize();
+            for (int fromIndex = 0; fromIndex < batchKeys.size(); fromIndex += windowSize) {
+                List<Object> keys = batchKeys.subList(fromIndex, Math.min(fromIndex + windowSize, batchKeys.size()));
+                List<Object> parameterKeys = new ArrayList<>(keys.size());
+                keys.forEach(key -> parameterKeys.add(loadsByKey.get(key).get(0).getParameterObject()));
+                executions.add(queryFunction.apply(batchStatement, ParamNameResolver.wrapToMapIfCollection(parameterKeys, null))
+                        .collectList()
+                        .doOnNext(results -> {
+                            Map<Object, List<Object>> resultsByKey = new LinkedHashMap<>();
+                            for (Object result : results) {
+                                Object key = normalizeKey(configuration.newMetaObject(result).getValue(nestedSelectBatch.getKeyProperty()));
+                                resultsByKey.computeIfAbsent(key, ignore -> new ArrayList<>()).add(result);
+                            }
+                            keys.forEach(key -> this.setValues(loadsByKey.get(key), resultsByKey.getOrDefault(key, Collections.emptyList())));
+                        })
+                        .then()
+                );
+            }
+        });
+        return Flux.fromIterable(executions)
+                .flatMap(execution -> execution, concurrency)
+                .then();
+    }
+
+    private void setValues(List<NestedSelectLoad> nestedSelectLoads, List<Object> results) {
+        for (NestedSelectLoad nestedSelectLoad : nestedSelectLoads) {
+            // every load gets its own collection instance
+            Object value = this.extractValue(new ArrayList<>(results), nestedSelectLoad.getTargetType());
+            nestedSelectLoad.setValue(value);
+        }
+    }
+
+    /**
+     * Extract the value of target type from results,
+     * results of {@link Mono} or {@link Flux} target type are emitted by the returned publisher.
+     *
+     * @param results    the results
+     * @param targetType the target type
+     * @return the value
+     */
+    public Object extractValue(List<Object> results, Class<?> targetType) {
+        if (Flux.class.equals(targetType)) {
+            return Flux.fromIterable(results);
+        }
+        if (Mono.class.equals(targetType)) {
+            if (results.size() > 1) {
+                return Mono.error(new ExecutorException("Statement returned more than one row, where no more than one was expected."));
+            }
+            return Mono.justOrEmpty(results.isEmpty() ? null : results.get(0));
+        }
+        return resultExtractor.extractObjectFromList(results, targetType);
+    }
+
+    private static boolean isSimpleKey(Object parameterObject) {
+        return !(parameterObject instanceof Map);
+    }
+
+    /**
+     * normalize key,so that keys of different numeric types read from parent rows and nested results are matched
+     *
+     * @param key the key
+     * @return the normalized key
+     */
+    private static Object normalizeKey(Object key) {
+        if (key instanceof Long || key instanceof Integer || key instanceof Short || key instanceof Byte) {
+            return BigDecimal.valueOf(((Number) key).longValue());
+        }
+        if (key instanceof BigInteger) {
+            return new BigDecimal((BigInteger) key);
+        }
+        if (key instanceof BigDecimal) {
+            BigDecimal decimal = ((BigDecimal) key).stripTrailingZeros();
+            return decimal.scale() < 0 ? decimal.setScale(0) : decimal;
+        }
+        return key;
+    }
+}
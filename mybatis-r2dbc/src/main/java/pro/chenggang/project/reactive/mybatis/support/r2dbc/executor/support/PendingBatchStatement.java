@@ -0,0 +1,163 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support;
+
+import io.r2dbc.spi.Statement;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+
+import java.util.List;
+
+/**
+ * The type Pending batch statement.
+ * <p>
+ * Consecutive executions of the same mapped statement and sql,
+ * a parameterized statement accumulates its bindings with {@link Statement#add()},
+ * a parameterless statement is executed within {@link io.r2dbc.spi.Batch} with other parameterless statements.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class PendingBatchStatement {
+
+    private final MappedStatement mappedStatement;
+    private final BoundSql boundSql;
+    private final Statement statement;
+    private final R2dbcStatementLog r2dbcStatementLog;
+    private final BatchResult batchResult;
+    private int executionCount = 1;
+
+    /**
+     * Instantiates a new Pending batch statement.
+     *
+     * @param mappedStatement   the mapped statement
+     * @param boundSql          the bound sql of first execution
+     * @param statement         the statement,null if the sql is parameterless
+     * @param r2dbcStatementLog the r2dbc statement log
+     * @param parameter         the parameter of first execution
+     */
+    public PendingBatchStatement(MappedStatement mappedStatement,
+                                 BoundSql boundSql,
+                                 Statement statement,
+                                 R2dbcStatementLog r2dbcStatementLog,
+                                 Object parameter) {
+        this.mappedStatement = mappedStatement;
+        this.boundSql = boundSql;
+        this.statement = statement;
+        this.r2dbcStatementLog = r2dbcStatementLog;
+        this.batchResult = new BatchResult(mappedStatement, boundSql.getSql(), parameter);
+    }
+
+    /**
+     * Whether the given execution could be accumulated into this pending batch statement
+     *
+     * @param mappedStatement the mapped statement
+     * @param sql             the sql
+     * @return the boolean
+     */
+    public boolean matches(MappedStatement mappedStatement, String sql) {
+        return this.mappedStatement.equals(mappedStatement) && this.boundSql.getSql().equals(sql);
+    }
+
+    /**
+     * Add an execution with parameter,the parameter should be bound to the statement already.
+     *
+     * @param parameter the parameter
+     */
+    public void addExecution(Object parameter) {
+        this.executionCount++;
+        this.batchResult.addParameterObject(parameter);
+    }
+
+    /**
+     * Is parameterless boolean.
+     *
+     * @return the boolean
+     */
+    public boolean isParameterless() {
+        return this.statement == null;
+    }
+
+    /**
+     * Gets sql.
+     *
+     * @return the sql
+     */
+    public String getSql() {
+        return boundSql.getSql();
+    }
+
+    /**
+     * Gets bound sql of first execution.
+     *
+     * @return the bound sql
+     */
+    public BoundSql getBoundSql() {
+        return boundSql;
+    }
+
+    /**
+     * Gets statement.
+     *
+     * @return the statement
+     */
+    public Statement getStatement() {
+        return statement;
+    }
+
+    /**
+     * Gets r2dbc statement log.
+     *
+     * @return the r2dbc statement log
+     */
+    public R2dbcStatementLog getR2dbcStatementLog() {
+        return r2dbcStatementLog;
+    }
+
+    /**
+     * Gets execution count.
+     *
+     * @return the execution count
+     */
+    public int getExecutionCount() {
+        return executionCount;
+    }
+
+    /**
+     * Gets batch result.
+     *
+     * @return the batch result
+     */
+    public BatchResult getBatchResult() {
+        return batchResult;
+    }
+
+    /**
+     * Sets update counts.
+     *
+     * @param updateCounts the update counts
+     */
+    public void setUpdateCounts(List<Long> updateCounts) {
+        int[] counts = new int[updateCounts.size()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = updateCounts.get(i).intValue();
+        }
+        this.batchResult.setUpdateCounts(counts);
+    }
+
+}
@@ -0,0 +1,232 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support;
+
+import org.apache.ibatis.builder.SqlSourceBuilder;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.reflection.MetaObject;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybatisConfiguration;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The slow query log.
+ * <p>
+ * A statement is recorded when its elapsed time exceeds the slow query threshold of the statement,
+ * the record contains the statement id, the normalized sql, the bind values, the rows and the elapsed time.
+ * The bind values are read from the parameter object when the record is written,
+ * values of parameters whose property name contains any masked parameter name are masked.
+ * <p>
+ * Hot statements are sampled: at most one record of the same statement is written within the sampling interval,
+ * the slow executions in between are counted and reported with the next record.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class R2dbcSlowQueryLog {
+
+    private static final String MASKED_VALUE = "******";
+
+    private final R2dbcMybatisConfiguration configuration;
+    private final Log log;
+    private final Map<String, Sampler> samplers = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiates a new slow query log.
+     *
+     * @param configuration the configuration
+     */
+    public R2dbcSlowQueryLog(R2dbcMybatisConfiguration configuration) {
+        this(configuration, LogFactory.getLog(R2dbcSlowQueryLog.class));
+    }
+
+    /**
+     * Instantiates a new slow query log.
+     *
+     * @param configuration the configuration
+     * @param log           the log which slow query records are written to
+     */
+    public R2dbcSlowQueryLog(R2dbcMybatisConfiguration configuration, Log log) {
+        this.configuration = configuration;
+        this.log = log;
+    }
+
+    /**
+     * Whether slow query log is enabled for the statement
+     *
+     * @param mappedStatement the mapped statement
+     * @return the boolean
+     */
+    public boolean isEnabled(MappedStatement mappedStatement) {
+        return Objects.nonNull(configuration.getSlowQueryThreshold(mappedStatement.getId()));
+    }
+
+    /**
+     * Record the execution of the statement if it exceeds the slow query threshold.
+     *
+     * @param mappedStatement the mapped statement
+     * @param boundSql        the executed bound sql,null if it's resolved from the parameter when recording
+     * @param parameter       the parameter
+     * @param rows            the returned or updated rows
+     * @param startNanos      the {@link System#nanoTime()} when the execution started
+     */
+    public void logIfSlow(MappedStatement mappedStatement, BoundSql boundSql, Object parameter, long rows, long startNanos) {
+        Duration threshold = configuration.getSlowQueryThreshold(mappedStatement.getId());
+        if (Objects.isNull(threshold)) {
+            return;
+        }
+        long now = System.nanoTime();
+        long elapsedNanos = now - startNanos;
+        if (elapsedNanos < threshold.toNanos()) {
+            return;
+        }
+        Sampler sampler = samplers.computeIfAbsent(mappedStatement.getId(), statementId -> new Sampler());
+        long suppressed = sampler.sample(now, configuration.getSlowQueryLogSamplingInterval().toNanos());
+        if (suppressed < 0) {
+            return;
+        }
+        BoundSql executedBoundSql = Objects.nonNull(boundSql) ? boundSql : mappedStatement.getBoundSql(parameter);
+        StringBuilder builder = new StringBuilder("Slow query [")
+                .append(mappedStatement.getId())
+                .append("] elapsed: ")
+                .append(Duration.ofNanos(elapsedNanos).toMillis())
+                .append(" ms, rows: ")
+                .append(rows);
+        if (suppressed > 0) {
+            builder.append(", suppressed: ").append(suppressed);
+        }
+        builder.append("\n       SQL: ")
+                .append(SqlSourceBuilder.removeExtraWhitespaces(executedBoundSql.getSql()))
+                .append("\nParameters: ")
+                .append(this.getParameterValueString(executedBoundSql));
+        log.warn(builder.toString());
+    }
+
+    /**
+     * get the bind values string of the bound sql
+     *
+     * @param boundSql the bound sql
+     * @return the bind values string
+     */
+    private String getParameterValueString(BoundSql boundSql) {
+        List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+        if (Objects.isNull(parameterMappings) || parameterMappings.isEmpty()) {
+            return "";
+        }
+        Set<String> maskedParameters = configuration.getSlowQueryMaskedParameters();
+        Object parameterObject = boundSql.getParameterObject();
+        MetaObject metaObject = null;
+        StringBuilder builder = new StringBuilder();
+        for (ParameterMapping parameterMapping : parameterMappings) {
+            if (builder.length() > 0) {
+                builder.append(", ");
+            }
+            String propertyName = parameterMapping.getProperty();
+            if (ParameterMode.OUT.equals(parameterMapping.getMode())) {
+                builder.append("OUT");
+                continue;
+            }
+            if (this.isMasked(propertyName, maskedParameters)) {
+                builder.append(MASKED_VALUE);
+                continue;
+            }
+            Object value;
+            try {
+                if (boundSql.hasAdditionalParameter(propertyName)) {
+                    value = boundSql.getAdditionalParameter(propertyName);
+                } else if (parameterObject == null) {
+                    value = null;
+                } else if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass())) {
+                    value = parameterObject;
+                } else {
+                    if (metaObject == null) {
+                        metaObject = configuration.newMetaObject(parameterObject);
+                    }
+                    value = metaObject.getValue(propertyName);
+                }
+            } catch (RuntimeException e) {
+                builder.append("?");
+                continue;
+            }
+            if (value == null) {
+                builder.append("null");
+            } else {
+                builder.append(value).append("(").append(value.getClass().getSimpleName()).append(")");
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * whether the parameter is masked
+     *
+     * @param propertyName     the parameter property name
+     * @param maskedParameters the masked parameter names in lower case
+     * @return the boolean
+     */
+    private boolean isMasked(String propertyName, Set<String> maskedParameters) {
+        if (Objects.isNull(propertyName) || maskedParameters.isEmpty()) {
+            return false;
+        }
+        String lowerCasePropertyName = propertyName.toLowerCase(Locale.ENGLISH);
+        for (String maskedParameter : maskedParameters) {
+            if (lowerCasePropertyName.contains(maskedParameter)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The sampler of slow query records of a statement
+     */
+    private static class Sampler {
+
+        private final AtomicLong lastRecordNanos = new AtomicLong();
+        private final AtomicLong suppressed = new AtomicLong();
+        private volatile boolean recorded;
+
+        /**
+         * sample a slow execution
+         *
+         * @param now                    the current nano time
+         * @param samplingIntervalNanos the sampling interval nanos
+         * @return the suppressed count since the last record,negative if this execution is suppressed
+         */
+        private long sample(long now, long samplingIntervalNanos) {
+            long lastRecord = lastRecordNanos.get();
+            if ((!recorded || now - lastRecord >= samplingIntervalNanos) && lastRecordNanos.compareAndSet(lastRecord, now)) {
+                recorded = true;
+                return suppressed.getAndSet(0);
+            }
+            suppressed.incrementAndGet();
+            return -1;
+        }
+    }
+}
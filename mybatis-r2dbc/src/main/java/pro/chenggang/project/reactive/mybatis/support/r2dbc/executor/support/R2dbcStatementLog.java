@@ -46,6 +46,16 @@ public class R2dbcStatementLog {
         this.statementLog = statementLog;
     }
 
+    /**
+     * Whether the statement log is debug enabled,
+     * the parameter values are only collected for logging when it's enabled
+     *
+     * @return the boolean
+     */
+    public boolean isDebugEnabled() {
+        return statementLog.isDebugEnabled();
+    }
+
     /**
      * Log sql.
      *
@@ -60,10 +70,12 @@ public class R2dbcStatementLog {
     /**
      * Log parameters.
      *
-     * @param columnValues the column values
+     * @param columnValues the column values,null if not collected
      */
     public void logParameters(List<Object> columnValues) {
-        debug("Parameters: " + getParameterValueString(columnValues), true);
+        if (columnValues != null && statementLog.isDebugEnabled()) {
+            debug("Parameters: " + getParameterValueString(columnValues), true);
+        }
     }
 
     /**
@@ -72,7 +84,9 @@ public class R2dbcStatementLog {
      * @param updateCount the update count
      */
     public void logUpdates(Long updateCount) {
-        debug("   Updates: " + updateCount, false);
+        if (statementLog.isDebugEnabled()) {
+            debug("   Updates: " + updateCount, false);
+        }
     }
 
     /**
@@ -81,7 +95,9 @@ public class R2dbcStatementLog {
      * @param rows the rows
      */
     public void logTotal(Integer rows) {
-        debug("     Total: " + rows, false);
+        if (statementLog.isDebugEnabled()) {
+            debug("     Total: " + rows, false);
+        }
     }
 
     private String getParameterValueString(List<Object> columnValues) {
@@ -17,8 +17,18 @@ package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support;
 
 import io.r2dbc.spi.Connection;
 import io.r2dbc.spi.IsolationLevel;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cache.TransactionalCacheManager;
+import org.apache.ibatis.session.ExecutorType;
+import reactor.core.publisher.Flux;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -32,13 +42,19 @@ public class ReactiveExecutorContext {
 
     private final AtomicBoolean activeTransaction = new AtomicBoolean(false);
     private final AtomicReference<Connection> connectionReference = new AtomicReference<>();
+    private final AtomicReference<Duration> appliedStatementTimeout = new AtomicReference<>(Duration.ZERO);
     private final AtomicBoolean forceCommit = new AtomicBoolean(false);
     private final AtomicBoolean forceRollback = new AtomicBoolean(false);
     private final AtomicBoolean requireClosed = new AtomicBoolean(false);
     private final AtomicBoolean dirty = new AtomicBoolean(false);
     private final AtomicBoolean withTransaction = new AtomicBoolean(false);
+    private final AtomicBoolean transactionSynchronized = new AtomicBoolean(false);
+    private final TransactionalCacheManager transactionalCacheManager = new TransactionalCacheManager();
+    private final Map<CacheKey, Flux<Object>> localCache = new ConcurrentHashMap<>();
+    private final List<PendingBatchStatement> pendingBatchStatements = new ArrayList<>();
     private final boolean autoCommit;
     private final IsolationLevel isolationLevel;
+    private final ExecutorType executorType;
     private R2dbcStatementLog r2dbcStatementLog;
 
     /**
@@ -48,8 +64,20 @@ public class ReactiveExecutorContext {
      * @param isolationLevel the isolation level
      */
     public ReactiveExecutorContext(boolean autoCommit, IsolationLevel isolationLevel) {
+        this(autoCommit, isolationLevel, ExecutorType.SIMPLE);
+    }
+
+    /**
+     * Instantiates a new Reactive executor context.
+     *
+     * @param autoCommit     the auto commit
+     * @param isolationLevel the isolation level
+     * @param executorType   the executor type
+     */
+    public ReactiveExecutorContext(boolean autoCommit, IsolationLevel isolationLevel, ExecutorType executorType) {
         this.autoCommit = autoCommit;
         this.isolationLevel = isolationLevel;
+        this.executorType = executorType;
     }
 
     /**
@@ -143,6 +171,25 @@ public class ReactiveExecutorContext {
         return this.withTransaction.get();
     }
 
+    /**
+     * Set transaction synchronized,
+     * the staged second level cache entries are committed or rolled back by an external transaction.
+     *
+     * @return whether the flag is set by this invocation
+     */
+    public boolean setTransactionSynchronized() {
+        return this.transactionSynchronized.compareAndSet(false, true);
+    }
+
+    /**
+     * Is transaction synchronized.
+     *
+     * @return the boolean
+     */
+    public boolean isTransactionSynchronized() {
+        return this.transactionSynchronized.get();
+    }
+
     /**
      * Set active transaction.
      *
@@ -188,6 +235,26 @@ public class ReactiveExecutorContext {
         return isolationLevel;
     }
 
+    /**
+     * Gets executor type.
+     *
+     * @return the executor type
+     */
+    public ExecutorType getExecutorType() {
+        return executorType;
+    }
+
+    /**
+     * Is batch execution boolean.
+     * <p>
+     * Batch execution only works within transaction
+     *
+     * @return the boolean
+     */
+    public boolean isBatchExecution() {
+        return ExecutorType.BATCH.equals(this.executorType) && this.isWithTransaction();
+    }
+
     /**
      * Gets r2dbc statement log.
      *
@@ -206,6 +273,73 @@ public class ReactiveExecutorContext {
         this.r2dbcStatementLog = r2dbcStatementLog;
     }
 
+    /**
+     * Gets transactional cache manager.
+     * <p>
+     * Second level cache entries staged by this context,any access should be synchronized on the returned manager
+     *
+     * @return the transactional cache manager
+     */
+    public TransactionalCacheManager getTransactionalCacheManager() {
+        return transactionalCacheManager;
+    }
+
+    /**
+     * Gets local cache.
+     * <p>
+     * Shared query results of current context,keyed by cache key
+     *
+     * @return the local cache
+     */
+    public Map<CacheKey, Flux<Object>> getLocalCache() {
+        return localCache;
+    }
+
+    /**
+     * Clear local cache.
+     */
+    public void clearLocalCache() {
+        this.localCache.clear();
+    }
+
+    /**
+     * Gets pending batch statements.
+     * <p>
+     * Any access should be synchronized on the returned list
+     *
+     * @return the pending batch statements
+     */
+    public List<PendingBatchStatement> getPendingBatchStatements() {
+        return pendingBatchStatements;
+    }
+
+    /**
+     * Has pending batch statements.
+     *
+     * @return the boolean
+     */
+    public boolean hasPendingBatchStatements() {
+        synchronized (this.pendingBatchStatements) {
+            return !this.pendingBatchStatements.isEmpty();
+        }
+    }
+
+    /**
+     * Drain pending batch statements.
+     *
+     * @return the pending batch statements in execution order
+     */
+    public List<PendingBatchStatement> drainPendingBatchStatements() {
+        synchronized (this.pendingBatchStatements) {
+            if (this.pendingBatchStatements.isEmpty()) {
+                return Collections.emptyList();
+            }
+            List<PendingBatchStatement> drained = new ArrayList<>(this.pendingBatchStatements);
+            this.pendingBatchStatements.clear();
+            return drained;
+        }
+    }
+
     /**
      * Bind connection boolean.
      *
@@ -222,6 +356,7 @@ public class ReactiveExecutorContext {
      * @return the optional
      */
     public Optional<Connection> clearConnection() {
+        this.appliedStatementTimeout.set(Duration.ZERO);
         return Optional.ofNullable(this.connectionReference.getAndSet(null));
     }
 
@@ -234,6 +369,26 @@ public class ReactiveExecutorContext {
         return Optional.ofNullable(this.connectionReference.get());
     }
 
+    /**
+     * Gets applied statement timeout.
+     * <p>
+     * The statement timeout currently set on the connection bound to this context,{@link Duration#ZERO} if none
+     *
+     * @return the applied statement timeout
+     */
+    public Duration getAppliedStatementTimeout() {
+        return appliedStatementTimeout.get();
+    }
+
+    /**
+     * Sets applied statement timeout.
+     *
+     * @param appliedStatementTimeout the statement timeout set on the connection bound to this context
+     */
+    public void setAppliedStatementTimeout(Duration appliedStatementTimeout) {
+        this.appliedStatementTimeout.set(appliedStatementTimeout);
+    }
+
     @Override
     public String toString() {
         return "ReactiveExecutorContext [" +
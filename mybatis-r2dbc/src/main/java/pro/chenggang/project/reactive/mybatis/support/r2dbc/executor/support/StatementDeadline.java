@@ -0,0 +1,107 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * The deadline of statements executed within a Reactor Context.
+ * <p>
+ * The remaining time of the deadline becomes the statement timeout
+ * if it is shorter than the timeout configured on the mapped statement.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class StatementDeadline {
+
+    private final Instant deadline;
+    private final Clock clock;
+
+    private StatementDeadline(Instant deadline, Clock clock) {
+        this.deadline = Objects.requireNonNull(deadline, "The deadline can not be null");
+        this.clock = Objects.requireNonNull(clock, "The clock can not be null");
+    }
+
+    /**
+     * New statement deadline at the given instant.
+     *
+     * @param deadline the deadline
+     * @return the statement deadline
+     */
+    public static StatementDeadline of(Instant deadline) {
+        return new StatementDeadline(deadline, Clock.systemUTC());
+    }
+
+    /**
+     * New statement deadline after the given timeout from now.
+     *
+     * @param timeout the timeout
+     * @return the statement deadline
+     */
+    public static StatementDeadline after(Duration timeout) {
+        Objects.requireNonNull(timeout, "The timeout can not be null");
+        Clock clock = Clock.systemUTC();
+        return new StatementDeadline(clock.instant().plus(timeout), clock);
+    }
+
+    /**
+     * Gets deadline.
+     *
+     * @return the deadline
+     */
+    public Instant getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Gets the remaining time before the deadline,zero if the deadline is exceeded.
+     *
+     * @return the remaining duration
+     */
+    public Duration remaining() {
+        Duration remaining = Duration.between(clock.instant(), deadline);
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    /**
+     * Whether the deadline is exceeded
+     *
+     * @return the boolean
+     */
+    public boolean isExceeded() {
+        return this.remaining().isZero();
+    }
+
+    /**
+     * Whether this deadline is earlier than the other one
+     *
+     * @param other the other deadline
+     * @return the boolean
+     */
+    public boolean isBefore(StatementDeadline other) {
+        return this.deadline.isBefore(other.deadline);
+    }
+
+    @Override
+    public String toString() {
+        return "StatementDeadline[" + deadline + "]";
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.scripting;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.apache.ibatis.builder.ParameterExpression;
+import org.apache.ibatis.builder.SqlSourceBuilder;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.parsing.GenericTokenParser;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.scripting.xmltags.DynamicContext;
+import org.apache.ibatis.scripting.xmltags.SqlNode;
+import org.apache.ibatis.session.Configuration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The type Compiled dynamic sql source.
+ * <p>
+ * {@link org.apache.ibatis.scripting.xmltags.DynamicSqlSource} which parses the {@code #{}} placeholders
+ * of each distinct generated sql only once,
+ * the parameter mappings are resolved with {@link SqlSourceBuilder} once per parameter type and property type.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class CompiledDynamicSqlSource implements SqlSource {
+
+    // distinct sql generated by a statement is usually limited,unless '${}' substitution is used
+    private static final int PARSED_SQL_CACHE_MAX_SIZE = 1_000;
+
+    private final Configuration configuration;
+    private final SqlNode rootSqlNode;
+    private final Cache<String, ParsedSql> parsedSqlCache = Caffeine.newBuilder()
+            .maximumSize(PARSED_SQL_CACHE_MAX_SIZE)
+            .initialCapacity(10)
+            .build();
+
+    public CompiledDynamicSqlSource(Configuration configuration, SqlNode rootSqlNode) {
+        this.configuration = configuration;
+        this.rootSqlNode = rootSqlNode;
+    }
+
+    @Override
+    public BoundSql getBoundSql(Object parameterObject) {
+        DynamicContext context = new DynamicContext(configuration, parameterObject);
+        rootSqlNode.apply(context);
+        Class<?> parameterType = parameterObject == null ? Object.class : parameterObject.getClass();
+        ParsedSql parsedSql = parsedSqlCache.get(context.getSql(), this::parse);
+        List<ParameterMapping> parameterMappings = parsedSql.getParameterMappings(parameterType, context.getBindings());
+        BoundSql boundSql = new BoundSql(configuration, parsedSql.sql, parameterMappings, parameterObject);
+        context.getBindings().forEach(boundSql::setAdditionalParameter);
+        return boundSql;
+    }
+
+    /**
+     * parse the generated sql,same as {@link SqlSourceBuilder#parse(String, Class, Map)}
+     *
+     * @param originalSql the generated sql
+     * @return the parsed sql
+     */
+    private ParsedSql parse(String originalSql) {
+        List<ParameterToken> parameterTokens = new ArrayList<>();
+        GenericTokenParser parser = new GenericTokenParser("#{", "}", content -> {
+            parameterTokens.add(new ParameterToken(content));
+            return "?";
+        });
+        String sql;
+        if (configuration.isShrinkWhitespacesInSql()) {
+            sql = parser.parse(SqlSourceBuilder.removeExtraWhitespaces(originalSql));
+        } else {
+            sql = parser.parse(originalSql);
+        }
+        return new ParsedSql(sql, parameterTokens);
+    }
+
+    private class ParsedSql {
+
+        private final String sql;
+        private final List<ParameterToken> parameterTokens;
+
+        ParsedSql(String sql, List<ParameterToken> parameterTokens) {
+            this.sql = sql;
+            this.parameterTokens = parameterTokens;
+        }
+
+        List<ParameterMapping> getParameterMappings(Class<?> parameterType, Map<String, Object> additionalParameters) {
+            List<ParameterMapping> parameterMappings = new ArrayList<>(parameterTokens.size());
+            if (parameterTokens.isEmpty()) {
+                return parameterMappings;
+            }
+            MetaObject metaParameters = configuration.newMetaObject(additionalParameters);
+            for (ParameterToken parameterToken : parameterTokens) {
+                parameterMappings.add(parameterToken.getParameterMapping(parameterType, additionalParameters, metaParameters));
+            }
+            return parameterMappings;
+        }
+    }
+
+    private class ParameterToken {
+
+        private final String content;
+        private final String property;
+        // [parameter type , property type from additional parameters] --> parameter mapping
+        private final Map<List<Class<?>>, ParameterMapping> parameterMappings = new ConcurrentHashMap<>();
+
+        ParameterToken(String content) {
+            this.content = content;
+            this.property = new ParameterExpression(content).get("property");
+        }
+
+        ParameterMapping getParameterMapping(Class<?> parameterType, Map<String, Object> additionalParameters, MetaObject metaParameters) {
+            if (property == null) {
+                return this.buildParameterMapping(parameterType, additionalParameters);
+            }
+            // issue #448 the property type is from additional params if exists
+            Class<?> additionalPropertyType = metaParameters.hasGetter(property) ? metaParameters.getGetterType(property) : null;
+            return parameterMappings.computeIfAbsent(Arrays.asList(parameterType, additionalPropertyType),
+                    key -> this.buildParameterMapping(parameterType, additionalParameters)
+            );
+        }
+
+        private ParameterMapping buildParameterMapping(Class<?> parameterType, Map<String, Object> additionalParameters) {
+            SqlSource sqlSource = new SqlSourceBuilder(configuration).parse("#{" + content + "}", parameterType, additionalParameters);
+            return sqlSource.getBoundSql(null).getParameterMappings().get(0);
+        }
+    }
+}
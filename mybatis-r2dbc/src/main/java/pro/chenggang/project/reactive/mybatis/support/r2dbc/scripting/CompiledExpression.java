@@ -0,0 +1,537 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.scripting;
+
+import org.apache.ibatis.ognl.OgnlOps;
+import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.scripting.xmltags.DynamicContext;
+import org.apache.ibatis.scripting.xmltags.ExpressionEvaluator;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The type Compiled expression.
+ * <p>
+ * Compile the common subset of OGNL used by test expressions into evaluators once :
+ * property paths,zero-argument method calls,string/char/integer/boolean/null literals,
+ * comparison operators ({@code == != < > <= >=} and their keyword forms),{@code and/or/not} and parentheses.
+ * Operators are evaluated with {@link OgnlOps} so the results are the same as OGNL.
+ * <p>
+ * Expressions out of the subset,or any evaluation could not be resolved by the compiled evaluator
+ * (eg: null target or special accessors of OGNL),are evaluated by {@link ExpressionEvaluator}.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public final class CompiledExpression {
+
+    private static final Object UNRESOLVED = new Object();
+    private static final ExpressionEvaluator EXPRESSION_EVALUATOR = new ExpressionEvaluator();
+    private static final ReflectorFactory REFLECTOR_FACTORY = new DefaultReflectorFactory();
+    private static final Set<String> RESERVED_WORDS = new HashSet<>(Arrays.asList(
+            "and", "or", "not", "eq", "neq", "lt", "gt", "lte", "gte", "in", "instanceof", "new",
+            "shl", "shr", "ushr", "band", "bor", "xor", "null", "true", "false"
+    ));
+    // property names handled specially by OGNL's map property accessor
+    private static final Set<String> MAP_PROPERTY_NAMES = new HashSet<>(Arrays.asList(
+            "size", "keys", "keySet", "values", "isEmpty"
+    ));
+
+    private final String expression;
+    private final Evaluation evaluation;
+
+    private CompiledExpression(String expression, Evaluation evaluation) {
+        this.expression = expression;
+        this.evaluation = evaluation;
+    }
+
+    /**
+     * compile expression
+     *
+     * @param expression the OGNL expression
+     * @return the compiled expression
+     */
+    public static CompiledExpression compile(String expression) {
+        Evaluation evaluation;
+        try {
+            evaluation = new Parser(expression).parse();
+        } catch (UnsupportedExpressionException e) {
+            evaluation = null;
+        }
+        return new CompiledExpression(expression, evaluation);
+    }
+
+    /**
+     * whether the expression is compiled,otherwise it's always evaluated by OGNL
+     *
+     * @return the boolean
+     */
+    public boolean isCompiled() {
+        return this.evaluation != null;
+    }
+
+    /**
+     * evaluate boolean with the bindings of {@link DynamicContext}
+     *
+     * @param bindings the bindings of dynamic context
+     * @return the boolean
+     */
+    public boolean evaluateBoolean(Map<String, Object> bindings) {
+        if (this.evaluation != null) {
+            Object value;
+            try {
+                value = this.evaluation.evaluate(bindings);
+            } catch (RuntimeException e) {
+                value = UNRESOLVED;
+            }
+            if (value != UNRESOLVED) {
+                return toBoolean(value);
+            }
+        }
+        return EXPRESSION_EVALUATOR.evaluateBoolean(this.expression, bindings);
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledExpression[" + expression + ", compiled=" + this.isCompiled() + "]";
+    }
+
+    /**
+     * {@link ExpressionEvaluator#evaluateBoolean(String, Object)}
+     */
+    private static boolean toBoolean(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        if (value instanceof Number) {
+            return new BigDecimal(String.valueOf(value)).compareTo(BigDecimal.ZERO) != 0;
+        }
+        return value != null;
+    }
+
+    private static Object getRootProperty(Map<String, Object> bindings, String name) {
+        // same as the context accessor of DynamicContext
+        Object value = bindings.get(name);
+        if (value == null && !bindings.containsKey(name)) {
+            Object parameterObject = bindings.get(DynamicContext.PARAMETER_OBJECT_KEY);
+            if (parameterObject instanceof Map) {
+                return ((Map<?, ?>) parameterObject).get(name);
+            }
+        }
+        return value;
+    }
+
+    private static Object getProperty(Object target, String name) throws ReflectiveOperationException {
+        if (target == null) {
+            return UNRESOLVED;
+        }
+        if (target instanceof Map) {
+            if (MAP_PROPERTY_NAMES.contains(name)) {
+                return UNRESOLVED;
+            }
+            return ((Map<?, ?>) target).get(name);
+        }
+        if (target instanceof Collection || target instanceof Iterator || target instanceof Enumeration || target.getClass().isArray()) {
+            return UNRESOLVED;
+        }
+        Reflector reflector = REFLECTOR_FACTORY.findForClass(target.getClass());
+        if (!reflector.hasGetter(name)) {
+            return UNRESOLVED;
+        }
+        return reflector.getGetInvoker(name).invoke(target, null);
+    }
+
+    private static Optional<MethodHandle> resolveMethodHandle(Class<?> type, String name) {
+        List<Class<?>> candidateTypes = new ArrayList<>();
+        collectPublicTypes(type, candidateTypes);
+        for (Class<?> candidateType : candidateTypes) {
+            try {
+                Method method = candidateType.getMethod(name);
+                if (Modifier.isStatic(method.getModifiers())) {
+                    return Optional.empty();
+                }
+                MethodHandle methodHandle = MethodHandles.publicLookup()
+                        .unreflect(method)
+                        .asType(MethodType.methodType(Object.class, Object.class));
+                return Optional.of(methodHandle);
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                // try next public type
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static void collectPublicTypes(Class<?> type, List<Class<?>> candidateTypes) {
+        if (type == null || candidateTypes.contains(type)) {
+            return;
+        }
+        if (Modifier.isPublic(type.getModifiers())) {
+            candidateTypes.add(type);
+        }
+        collectPublicTypes(type.getSuperclass(), candidateTypes);
+        for (Class<?> interfaceType : type.getInterfaces()) {
+            collectPublicTypes(interfaceType, candidateTypes);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Evaluation {
+
+        Object evaluate(Map<String, Object> bindings);
+    }
+
+    @FunctionalInterface
+    private interface Accessor {
+
+        Object access(Object target) throws Throwable;
+    }
+
+    private static Evaluation path(String rootName, List<Accessor> accessors) {
+        return bindings -> {
+            Object value = getRootProperty(bindings, rootName);
+            for (Accessor accessor : accessors) {
+                if (value == UNRESOLVED) {
+                    return UNRESOLVED;
+                }
+                try {
+                    value = accessor.access(value);
+                } catch (Throwable e) {
+                    return UNRESOLVED;
+                }
+            }
+            return value;
+        };
+    }
+
+    private static Accessor methodCall(String name) {
+        Map<Class<?>, Optional<MethodHandle>> methodHandles = new ConcurrentHashMap<>();
+        return target -> {
+            if (target == null) {
+                return UNRESOLVED;
+            }
+            Optional<MethodHandle> methodHandle = methodHandles.computeIfAbsent(target.getClass(), type -> resolveMethodHandle(type, name));
+            if (!methodHandle.isPresent()) {
+                return UNRESOLVED;
+            }
+            return methodHandle.get().invokeExact(target);
+        };
+    }
+
+    private enum Operator {
+        OR, AND, EQ, NEQ, LT, GT, LTE, GTE
+    }
+
+    private static Evaluation binary(Operator operator, Evaluation left, Evaluation right) {
+        return bindings -> {
+            Object leftValue = left.evaluate(bindings);
+            if (leftValue == UNRESOLVED) {
+                return UNRESOLVED;
+            }
+            // logical operators return the deciding operand like OGNL does
+            if (operator == Operator.OR && OgnlOps.booleanValue(leftValue)) {
+                return leftValue;
+            }
+            if (operator == Operator.AND && !OgnlOps.booleanValue(leftValue)) {
+                return leftValue;
+            }
+            Object rightValue = right.evaluate(bindings);
+            if (rightValue == UNRESOLVED) {
+                return UNRESOLVED;
+            }
+            switch (operator) {
+                case OR:
+                case AND:
+                    return rightValue;
+                case EQ:
+                    return OgnlOps.equal(leftValue, rightValue);
+                case NEQ:
+                    return !OgnlOps.equal(leftValue, rightValue);
+                case LT:
+                    return OgnlOps.less(leftValue, rightValue);
+                case GT:
+                    return OgnlOps.greater(leftValue, rightValue);
+                case LTE:
+                    return !OgnlOps.greater(leftValue, rightValue);
+                case GTE:
+                    return !OgnlOps.less(leftValue, rightValue);
+                default:
+                    return UNRESOLVED;
+            }
+        };
+    }
+
+    private static Evaluation not(Evaluation operand) {
+        return bindings -> {
+            Object value = operand.evaluate(bindings);
+            if (value == UNRESOLVED) {
+                return UNRESOLVED;
+            }
+            return !OgnlOps.booleanValue(value);
+        };
+    }
+
+    private static Evaluation literal(Object value) {
+        return bindings -> value;
+    }
+
+    private static class UnsupportedExpressionException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        UnsupportedExpressionException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * recursive descent parser with the operator precedence of OGNL
+     */
+    private static class Parser {
+
+        private final String expression;
+        private int position;
+
+        Parser(String expression) {
+            this.expression = expression == null ? "" : expression;
+        }
+
+        Evaluation parse() {
+            Evaluation evaluation = parseOr();
+            skipWhitespace();
+            if (position != expression.length()) {
+                throw new UnsupportedExpressionException();
+            }
+            return evaluation;
+        }
+
+        private Evaluation parseOr() {
+            Evaluation left = parseAnd();
+            while (acceptSymbol("||") || acceptKeyword("or")) {
+                left = binary(Operator.OR, left, parseAnd());
+            }
+            return left;
+        }
+
+        private Evaluation parseAnd() {
+            Evaluation left = parseEquality();
+            while (acceptSymbol("&&") || acceptKeyword("and")) {
+                left = binary(Operator.AND, left, parseEquality());
+            }
+            return left;
+        }
+
+        private Evaluation parseEquality() {
+            Evaluation left = parseRelational();
+            while (true) {
+                if (acceptSymbol("==") || acceptKeyword("eq")) {
+                    left = binary(Operator.EQ, left, parseRelational());
+                } else if (acceptSymbol("!=") || acceptKeyword("neq")) {
+                    left = binary(Operator.NEQ, left, parseRelational());
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        private Evaluation parseRelational() {
+            Evaluation left = parseUnary();
+            while (true) {
+                if (acceptSymbol("<=") || acceptKeyword("lte")) {
+                    left = binary(Operator.LTE, left, parseUnary());
+                } else if (acceptSymbol(">=") || acceptKeyword("gte")) {
+                    left = binary(Operator.GTE, left, parseUnary());
+                } else if (acceptSymbol("<") || acceptKeyword("lt")) {
+                    left = binary(Operator.LT, left, parseUnary());
+                } else if (acceptSymbol(">") || acceptKeyword("gt")) {
+                    left = binary(Operator.GT, left, parseUnary());
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        private Evaluation parseUnary() {
+            skipWhitespace();
+            if (peek() == '!' && peek(1) != '=') {
+                position++;
+                return not(parseUnary());
+            }
+            if (acceptKeyword("not")) {
+                return not(parseUnary());
+            }
+            return parsePrimary();
+        }
+
+        private Evaluation parsePrimary() {
+            skipWhitespace();
+            char current = peek();
+            if (current == '(') {
+                position++;
+                Evaluation evaluation = parseOr();
+                if (!acceptSymbol(")")) {
+                    throw new UnsupportedExpressionException();
+                }
+                return evaluation;
+            }
+            if (current == '\'' || current == '"') {
+                return literal(parseString(current));
+            }
+            if (Character.isDigit(current)) {
+                return literal(parseInteger());
+            }
+            if (Character.isJavaIdentifierStart(current)) {
+                String name = parseIdentifier();
+                switch (name) {
+                    case "null":
+                        return literal(null);
+                    case "true":
+                        return literal(Boolean.TRUE);
+                    case "false":
+                        return literal(Boolean.FALSE);
+                    default:
+                        if (RESERVED_WORDS.contains(name) || peek() == '(') {
+                            throw new UnsupportedExpressionException();
+                        }
+                        return path(name, parseAccessors());
+                }
+            }
+            throw new UnsupportedExpressionException();
+        }
+
+        private List<Accessor> parseAccessors() {
+            List<Accessor> accessors = new ArrayList<>();
+            while (peek() == '.') {
+                position++;
+                if (!Character.isJavaIdentifierStart(peek())) {
+                    throw new UnsupportedExpressionException();
+                }
+                String name = parseIdentifier();
+                if (peek() == '(') {
+                    position++;
+                    skipWhitespace();
+                    if (peek() != ')') {
+                        throw new UnsupportedExpressionException();
+                    }
+                    position++;
+                    accessors.add(methodCall(name));
+                } else {
+                    accessors.add(target -> getProperty(target, name));
+                }
+            }
+            return accessors;
+        }
+
+        private Object parseString(char quote) {
+            int start = ++position;
+            while (position < expression.length() && expression.charAt(position) != quote) {
+                if (expression.charAt(position) == '\\') {
+                    throw new UnsupportedExpressionException();
+                }
+                position++;
+            }
+            if (position >= expression.length()) {
+                throw new UnsupportedExpressionException();
+            }
+            String value = expression.substring(start, position++);
+            // single-quoted single character is a char literal in OGNL
+            if (quote == '\'' && value.length() == 1) {
+                return value.charAt(0);
+            }
+            return value;
+        }
+
+        private Object parseInteger() {
+            int start = position;
+            while (Character.isDigit(peek())) {
+                position++;
+            }
+            String digits = expression.substring(start, position);
+            // octal,hex,decimal and suffixed numbers are left to OGNL
+            if ((digits.length() > 1 && digits.charAt(0) == '0') || peek() == '.' || isIdentifierPart(peek())) {
+                throw new UnsupportedExpressionException();
+            }
+            try {
+                return Integer.valueOf(digits);
+            } catch (NumberFormatException e) {
+                throw new UnsupportedExpressionException();
+            }
+        }
+
+        private String parseIdentifier() {
+            int start = position;
+            while (isIdentifierPart(peek())) {
+                position++;
+            }
+            return expression.substring(start, position);
+        }
+
+        private boolean acceptSymbol(String symbol) {
+            skipWhitespace();
+            if (!expression.startsWith(symbol, position)) {
+                return false;
+            }
+            position += symbol.length();
+            return true;
+        }
+
+        private boolean acceptKeyword(String keyword) {
+            skipWhitespace();
+            if (!expression.startsWith(keyword, position) || isIdentifierPart(peek(keyword.length()))) {
+                return false;
+            }
+            position += keyword.length();
+            return true;
+        }
+
+        private boolean isIdentifierPart(char character) {
+            return character != '\0' && Character.isJavaIdentifierPart(character);
+        }
+
+        private void skipWhitespace() {
+            while (position < expression.length() && Character.isWhitespace(expression.charAt(position))) {
+                position++;
+            }
+        }
+
+        private char peek() {
+            return peek(0);
+        }
+
+        private char peek(int offset) {
+            int index = position + offset;
+            return index < expression.length() ? expression.charAt(index) : '\0';
+        }
+    }
+}
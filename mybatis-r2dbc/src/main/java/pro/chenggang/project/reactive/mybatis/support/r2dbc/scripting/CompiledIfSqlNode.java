@@ -0,0 +1,48 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.scripting;
+
+import org.apache.ibatis.scripting.xmltags.DynamicContext;
+import org.apache.ibatis.scripting.xmltags.SqlNode;
+
+/**
+ * The type Compiled if sql node.
+ * <p>
+ * {@link org.apache.ibatis.scripting.xmltags.IfSqlNode} with the test expression compiled by {@link CompiledExpression}
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class CompiledIfSqlNode implements SqlNode {
+
+    private final SqlNode contents;
+    private final CompiledExpression test;
+
+    public CompiledIfSqlNode(SqlNode contents, CompiledExpression test) {
+        this.contents = contents;
+        this.test = test;
+    }
+
+    @Override
+    public boolean apply(DynamicContext context) {
+        if (test.evaluateBoolean(context.getBindings())) {
+            contents.apply(context);
+            return true;
+        }
+        return false;
+    }
+}
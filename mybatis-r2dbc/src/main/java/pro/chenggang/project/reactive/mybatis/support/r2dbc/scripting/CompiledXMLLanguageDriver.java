@@ -0,0 +1,65 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.scripting;
+
+import org.apache.ibatis.builder.xml.XMLMapperEntityResolver;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.parsing.PropertyParser;
+import org.apache.ibatis.parsing.XNode;
+import org.apache.ibatis.parsing.XPathParser;
+import org.apache.ibatis.scripting.defaults.RawSqlSource;
+import org.apache.ibatis.scripting.xmltags.TextSqlNode;
+import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * The type Compiled xml language driver.
+ * <p>
+ * Same syntax as {@link XMLLanguageDriver},but each dynamic statement is compiled once when it is built :
+ * {@code <if test>} and {@code <when test>} expressions are compiled into evaluators
+ * and the {@code #{}} placeholders of each generated sql are parsed only once.
+ * The produced {@link org.apache.ibatis.mapping.BoundSql} is the same as the one produced by {@link XMLLanguageDriver}.
+ * <p>
+ * Use it with {@code lang="COMPILED_XML"} or set it as {@code defaultScriptingLanguage}.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+public class CompiledXMLLanguageDriver extends XMLLanguageDriver {
+
+    @Override
+    public SqlSource createSqlSource(Configuration configuration, XNode script, Class<?> parameterType) {
+        CompiledXMLScriptBuilder builder = new CompiledXMLScriptBuilder(configuration, script, parameterType);
+        return builder.parseScriptNode();
+    }
+
+    @Override
+    public SqlSource createSqlSource(Configuration configuration, String script, Class<?> parameterType) {
+        // issue #3
+        if (script.startsWith("<script>")) {
+            XPathParser parser = new XPathParser(script, false, configuration.getVariables(), new XMLMapperEntityResolver());
+            return createSqlSource(configuration, parser.evalNode("/script"), parameterType);
+        }
+        // issue #127
+        script = PropertyParser.parse(script, configuration.getVariables());
+        TextSqlNode textSqlNode = new TextSqlNode(script);
+        if (textSqlNode.isDynamic()) {
+            return new CompiledDynamicSqlSource(configuration, textSqlNode);
+        }
+        return new RawSqlSource(configuration, script, parameterType);
+    }
+}
@@ -16,18 +16,30 @@
 package pro.chenggang.project.reactive.mybatis.support.r2dbc.support;
 
 import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.TypeCache;
+import net.bytebuddy.description.modifier.Visibility;
+import net.bytebuddy.implementation.FieldAccessor;
 import net.bytebuddy.implementation.InvocationHandlerAdapter;
+import net.bytebuddy.implementation.MethodCall;
 import net.bytebuddy.matcher.ElementMatchers;
 
+import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.Supplier;
 
 /**
  * The type Proxy instance factory.
+ * <p>
+ * The proxy class of each distinct interface set is generated only once,
+ * the {@link InvocationHandler} is bound per instance through the generated constructor.
+ * The cache references both the class loader of target interface and the generated proxy class weakly
+ * and is keyed by the names of target interfaces,
+ * so the class loader could still be unloaded once it's no longer used (e.g. redeployed applications).
  *
  * @author Gang Cheng
  * @version 2.0.0
@@ -36,6 +48,21 @@ import java.util.function.Supplier;
 @SuppressWarnings("unchecked")
 public class ProxyInstanceFactory {
 
+    private static final String INVOCATION_HANDLER_FIELD_NAME = "invocationHandler";
+
+    private static final TypeCache<Object> PROXY_CLASS_CACHE = new TypeCache.WithInlineExpunction<>(TypeCache.Sort.WEAK);
+
+    private static final ClassValue<Constructor<?>> PROXY_CONSTRUCTOR = new ClassValue<Constructor<?>>() {
+        @Override
+        protected Constructor<?> computeValue(Class<?> proxyClass) {
+            try {
+                return proxyClass.getDeclaredConstructor(InvocationHandler.class);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException("Unable create target interface Proxy Class", e);
+            }
+        }
+    };
+
     /**
      * New instance of target interface
      *
@@ -53,23 +80,63 @@ public class ProxyInstanceFactory {
         if (!isInterface) {
             throw new IllegalStateException("Target Class's type isn't an interface, @Mapper only support interface");
         }
-        List<Class<?>> targetInterfaces = new ArrayList<>();
-        targetInterfaces.add(interfaceType);
-        if (null != otherInterfaces && otherInterfaces.length != 0) {
-            targetInterfaces.addAll(Arrays.asList(otherInterfaces));
+        ClassLoader classLoader = interfaceType.getClassLoader();
+        Class<?> proxyClass;
+        if (null == otherInterfaces || otherInterfaces.length == 0) {
+            proxyClass = PROXY_CLASS_CACHE.findOrInsert(classLoader,
+                    interfaceType.getName(),
+                    () -> createProxyClass(classLoader, Collections.singletonList(interfaceType)),
+                    PROXY_CLASS_CACHE
+            );
+        } else {
+            List<String> targetInterfaceNames = new ArrayList<>(otherInterfaces.length + 1);
+            targetInterfaceNames.add(interfaceType.getName());
+            for (Class<?> otherInterface : otherInterfaces) {
+                targetInterfaceNames.add(otherInterface.getName());
+            }
+            proxyClass = PROXY_CLASS_CACHE.findOrInsert(classLoader,
+                    targetInterfaceNames,
+                    () -> {
+                        List<Class<?>> targetInterfaces = new ArrayList<>();
+                        targetInterfaces.add(interfaceType);
+                        targetInterfaces.addAll(Arrays.asList(otherInterfaces));
+                        return createProxyClass(classLoader, targetInterfaces);
+                    },
+                    PROXY_CLASS_CACHE
+            );
+        }
+        try {
+            return (T) PROXY_CONSTRUCTOR.get(proxyClass).newInstance(invocationHandlerSupplier.get());
+        } catch (IllegalAccessException | InstantiationException | InvocationTargetException e) {
+            throw new IllegalStateException("Unable create target interface Proxy Class", e);
         }
+    }
+
+    /**
+     * Generate the proxy class of target interfaces with a constructor which accepts an {@link InvocationHandler}
+     *
+     * @param classLoader      the class loader of target interface
+     * @param targetInterfaces the target interfaces
+     * @return the proxy class
+     * @throws IllegalStateException when unable create target interface Proxy Class
+     */
+    private static Class<?> createProxyClass(ClassLoader classLoader, List<Class<?>> targetInterfaces) {
         try {
-            return (T) new ByteBuddy()
+            return new ByteBuddy()
                     .subclass(Object.class)
                     .implement(targetInterfaces)
+                    .defineField(INVOCATION_HANDLER_FIELD_NAME, InvocationHandler.class, Visibility.PRIVATE)
+                    .defineConstructor(Visibility.PUBLIC)
+                    .withParameters(InvocationHandler.class)
+                    .intercept(MethodCall.invoke(Object.class.getConstructor())
+                            .andThen(FieldAccessor.ofField(INVOCATION_HANDLER_FIELD_NAME).setsArgumentAt(0))
+                    )
                     .method(ElementMatchers.isPublic())
-                    .intercept(InvocationHandlerAdapter.of(invocationHandlerSupplier.get()))
+                    .intercept(InvocationHandlerAdapter.toField(INVOCATION_HANDLER_FIELD_NAME))
                     .make()
-                    .load(interfaceType.getClassLoader())
-                    .getLoaded()
-                    .getDeclaredConstructor()
-                    .newInstance();
-        } catch (IllegalAccessException | InstantiationException | NoSuchMethodException | InvocationTargetException e) {
+                    .load(classLoader)
+                    .getLoaded();
+        } catch (NoSuchMethodException e) {
             throw new IllegalStateException("Unable create target interface Proxy Class", e);
         }
     }
@@ -0,0 +1,122 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.defaults.ReactiveSqlSessionProfile;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple3;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+class ReactiveSqlSessionOperatorTests {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final ReactiveSqlSessionOperator reactiveSqlSessionOperator = new ReactiveSqlSessionOperator() {
+        @Override
+        public <T> Flux<T> executeThenClose(ReactiveSqlSessionProfile reactiveSqlSessionProfile,
+                                            BiFunction<ReactiveSqlSession, ReactiveSqlSessionProfile, Publisher<T>> execution) {
+            return Flux.defer(() -> {
+                        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                        return execution.apply(null, reactiveSqlSessionProfile);
+                    })
+                    .doOnTerminate(inFlight::decrementAndGet);
+        }
+    };
+
+    @Test
+    void executeAllThenClose() {
+        List<BiFunction<ReactiveSqlSession, ReactiveSqlSessionProfile, Publisher<Integer>>> executions = Arrays.asList(
+                this.delayed(300, 1, 2),
+                this.delayed(100, 3),
+                this.delayed(200, 4, 5, 6),
+                this.delayed(100)
+        );
+        long start = System.nanoTime();
+        List<List<Integer>> results = reactiveSqlSessionOperator.executeAllThenClose(executions).block();
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        Assertions.assertEquals(Arrays.asList(Arrays.asList(1, 2), Arrays.asList(3), Arrays.asList(4, 5, 6), Arrays.asList()), results);
+        Assertions.assertEquals(4, maxInFlight.get());
+        Assertions.assertTrue(elapsed.compareTo(Duration.ofMillis(600)) < 0, "Executions are serialized: " + elapsed);
+    }
+
+    @Test
+    void executeAllThenCloseWithParallelism() {
+        List<BiFunction<ReactiveSqlSession, ReactiveSqlSessionProfile, Publisher<Integer>>> executions = Arrays.asList(
+                this.delayed(50, 1),
+                this.delayed(50, 2),
+                this.delayed(50, 3),
+                this.delayed(50, 4),
+                this.delayed(50, 5)
+        );
+        List<List<Integer>> results = reactiveSqlSessionOperator.executeAllThenClose(2, executions).block();
+        Assertions.assertNotNull(results);
+        Assertions.assertEquals(5, results.size());
+        Assertions.assertEquals(2, maxInFlight.get());
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> reactiveSqlSessionOperator.executeAllThenClose(ReactiveSqlSession.DEFAULT_PROFILE, 2, executions).block()
+        );
+    }
+
+    @Test
+    void executeAllThenCloseWithDifferentResultTypes() {
+        List<ReactiveSqlSessionProfile> reactiveSqlSessionProfiles = new CopyOnWriteArrayList<>();
+        Tuple3<List<Integer>, List<String>, List<Long>> results = reactiveSqlSessionOperator.executeAllThenClose(
+                this.delayed(100, 1, 2),
+                (reactiveSqlSession, reactiveSqlSessionProfile) -> {
+                    reactiveSqlSessionProfiles.add(reactiveSqlSessionProfile);
+                    return Mono.delay(Duration.ofMillis(100)).thenReturn("a");
+                },
+                (reactiveSqlSession, reactiveSqlSessionProfile) -> {
+                    reactiveSqlSessionProfiles.add(reactiveSqlSessionProfile);
+                    reactiveSqlSessionProfile.forceToRollback();
+                    return Flux.<Long>empty().delaySubscription(Duration.ofMillis(100));
+                }
+        ).block();
+        Assertions.assertNotNull(results);
+        Assertions.assertEquals(Arrays.asList(1, 2), results.getT1());
+        Assertions.assertEquals(Arrays.asList("a"), results.getT2());
+        Assertions.assertTrue(results.getT3().isEmpty());
+        Assertions.assertEquals(3, maxInFlight.get());
+        Assertions.assertEquals(2, reactiveSqlSessionProfiles.size());
+        for (ReactiveSqlSessionProfile reactiveSqlSessionProfile : reactiveSqlSessionProfiles) {
+            Assertions.assertFalse(reactiveSqlSessionProfile.isEnableTransaction());
+        }
+        // the profile is not shared,forcing one execution to rollback doesn't affect others
+        Assertions.assertNotSame(reactiveSqlSessionProfiles.get(0), reactiveSqlSessionProfiles.get(1));
+        Assertions.assertFalse(ReactiveSqlSessionProfile.nonTransactional().isForceToRollback());
+    }
+
+    @SafeVarargs
+    private final <T> BiFunction<ReactiveSqlSession, ReactiveSqlSessionProfile, Publisher<T>> delayed(long millis, T... values) {
+        return (reactiveSqlSession, reactiveSqlSessionProfile) -> Mono.delay(Duration.ofMillis(millis))
+                .thenMany(Flux.fromArray(values));
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.builder;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybatisConfiguration;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.NestedSelectBatch;
+
+import java.io.StringReader;
+
+/**
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+class R2dbcXMLConfigBuilderTests {
+
+    @Test
+    void parseNestedSelectBatchesSetting() {
+        R2dbcMybatisConfiguration configuration = this.parse("nestedSelectBatches", "test.DeptMapper.selectEmps:test.EmpMapper.selectByDeptNos:deptNo,\n"
+                + "      test.EmpMapper.selectDept:test.DeptMapper.selectByDeptNos:deptNo");
+        Assertions.assertEquals(2, configuration.getNestedSelectBatches().size());
+        NestedSelectBatch nestedSelectBatch = configuration.getNestedSelectBatch("test.EmpMapper.selectDept");
+        Assertions.assertNotNull(nestedSelectBatch);
+        Assertions.assertEquals("test.DeptMapper.selectByDeptNos", nestedSelectBatch.getBatchStatementId());
+        Assertions.assertEquals("deptNo", nestedSelectBatch.getKeyProperty());
+        Assertions.assertEquals("test.EmpMapper.selectByDeptNos", configuration.getNestedSelectBatch("test.DeptMapper.selectEmps").getBatchStatementId());
+        Assertions.assertThrows(BuilderException.class, () -> this.parse("nestedSelectBatches", "test.DeptMapper.selectEmps:test.EmpMapper.selectByDeptNos"));
+    }
+
+    @Test
+    void parseStreamingStatementsSetting() {
+        R2dbcMybatisConfiguration configuration = this.parse("streamingStatements", "test.EmpMapper.streamAll, test.DeptMapper.streamAll,");
+        Assertions.assertEquals(2, configuration.getStreamingStatements().size());
+        Assertions.assertTrue(configuration.isStreamingStatement("test.EmpMapper.streamAll"));
+        Assertions.assertTrue(configuration.isStreamingStatement("test.DeptMapper.streamAll"));
+        Assertions.assertFalse(configuration.isStreamingStatement("test.EmpMapper.selectAll"));
+    }
+
+    private R2dbcMybatisConfiguration parse(String settingName, String settingValue) {
+        String configXml = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
+                + "<!DOCTYPE configuration PUBLIC \"-//mybatis.org//DTD Config 3.0//EN\" \"https://mybatis.org/dtd/mybatis-3-config.dtd\">\n"
+                + "<configuration>\n"
+                + "  <settings>\n"
+                + "    <setting name=\"" + settingName + "\" value=\"" + settingValue + "\"/>\n"
+                + "  </settings>\n"
+                + "</configuration>";
+        return new R2dbcXMLConfigBuilder(new StringReader(configXml)).parse();
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.defaults;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+class BulkInsertProfileTests {
+
+    @Test
+    void resolveChunkSize() {
+        BulkInsertProfile bulkInsertProfile = BulkInsertProfile.of(1000, 2100, 1);
+        Assertions.assertEquals(1000, bulkInsertProfile.resolveChunkSize(0));
+        Assertions.assertEquals(1000, bulkInsertProfile.resolveChunkSize(2));
+        Assertions.assertEquals(700, bulkInsertProfile.resolveChunkSize(3));
+        Assertions.assertEquals(1, bulkInsertProfile.resolveChunkSize(3000));
+    }
+
+    @Test
+    void invalidProfile() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BulkInsertProfile.of(0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BulkInsertProfile.of(10, 0, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BulkInsertProfile.of(10, 10, 0));
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.execution.query.streaming;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import pro.chenggang.project.reactive.mybatis.support.MybatisR2dbcBaseTests;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Streams 10 million rows and samples the heap,excluded from the default test run,
+ * run with {@code mvn test -Pperformance-tests}.
+ *
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+@Tag("performance")
+public class StreamingQueryMapperTests extends MybatisR2dbcBaseTests {
+
+    private static final long ROW_COUNT = 10_000_000L;
+    private static final long SAMPLE_INTERVAL = 1_000_000L;
+    private static final long MAX_HEAP_GROWTH = 64L * 1024 * 1024;
+
+    @Test
+    void streamSyntheticRowsWithConstantMemory() {
+        super.<Tuple2<Long, Long>>newTestRunner()
+                .filterDatabases(PostgreSQLContainer.class::equals)
+                .customizeR2dbcConfiguration(r2dbcMybatisConfiguration -> {
+                    r2dbcMybatisConfiguration.addMapper(StreamingQueryMapper.class);
+                    r2dbcMybatisConfiguration.addStreamingStatement(StreamingQueryMapper.class.getName() + ".streamSyntheticRows");
+                    r2dbcMybatisConfiguration.setStreamingFetchSizeMax(512);
+                })
+                .runWith((type, reactiveSqlSession) -> {
+                    StreamingQueryMapper streamingQueryMapper = reactiveSqlSession.getMapper(StreamingQueryMapper.class);
+                    AtomicLong baselineHeap = new AtomicLong(-1);
+                    AtomicLong maxHeapGrowth = new AtomicLong();
+                    return streamingQueryMapper.streamSyntheticRows(ROW_COUNT)
+                            .index()
+                            .doOnNext(indexed -> {
+                                if (indexed.getT1() % SAMPLE_INTERVAL != SAMPLE_INTERVAL - 1) {
+                                    return;
+                                }
+                                long usedHeap = usedHeapAfterGc();
+                                if (!baselineHeap.compareAndSet(-1, usedHeap)) {
+                                    maxHeapGrowth.accumulateAndGet(usedHeap - baselineHeap.get(), Math::max);
+                                }
+                            })
+                            .count()
+                            .map(count -> Tuples.of(count, maxHeapGrowth.get()));
+                })
+                .verifyWith(firstStep -> firstStep
+                        .assertNext(result -> {
+                            assertEquals(ROW_COUNT, result.getT1());
+                            assertTrue(result.getT2() < MAX_HEAP_GROWTH, "Heap grows " + result.getT2() + " bytes while streaming");
+                        })
+                        .verifyComplete()
+                )
+                .run();
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
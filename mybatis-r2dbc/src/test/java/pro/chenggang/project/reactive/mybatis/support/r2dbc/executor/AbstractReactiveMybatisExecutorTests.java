@@ -0,0 +1,296 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.LocalCacheScope;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.MybatisReactiveContextManager;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybatisConfiguration;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.exception.R2dbcStatementTimeoutException;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.observation.StatementExecutionObserver;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.PendingBatchStatement;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.ReactiveExecutorContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+class AbstractReactiveMybatisExecutorTests {
+
+    private final R2dbcMybatisConfiguration configuration = new R2dbcMybatisConfiguration();
+    private final AtomicInteger executionCount = new AtomicInteger();
+
+    @Test
+    void queryFromLocalCacheWithSessionScope() {
+        TestReactiveMybatisExecutor executor = new TestReactiveMybatisExecutor(configuration);
+        ReactiveExecutorContext reactiveExecutorContext = new ReactiveExecutorContext(false, null);
+        CacheKey cacheKey = new CacheKey(new Object[]{"test.select", 1L});
+        List<String> first = executor.queryFromLocalCache(reactiveExecutorContext, cacheKey, this::execute)
+                .collectList()
+                .block();
+        List<String> second = executor.queryFromLocalCache(reactiveExecutorContext, new CacheKey(new Object[]{"test.select", 1L}), this::execute)
+                .collectList()
+                .block();
+        Assertions.assertEquals(first, second);
+        Assertions.assertEquals(1, executionCount.get());
+        reactiveExecutorContext.clearLocalCache();
+        executor.queryFromLocalCache(reactiveExecutorContext, cacheKey, this::execute)
+                .blockLast();
+        Assertions.assertEquals(2, executionCount.get());
+    }
+
+    @Test
+    void queryFromLocalCacheWithStatementScope() {
+        configuration.setLocalCacheScope(LocalCacheScope.STATEMENT);
+        TestReactiveMybatisExecutor executor = new TestReactiveMybatisExecutor(configuration);
+        ReactiveExecutorContext reactiveExecutorContext = new ReactiveExecutorContext(false, null);
+        CacheKey cacheKey = new CacheKey(new Object[]{"test.select", 1L});
+        Sinks.Empty<Void> trigger = Sinks.empty();
+        Flux<String> first = executor.queryFromLocalCache(reactiveExecutorContext, cacheKey,
+                () -> trigger.asMono().thenMany(this.execute())
+        );
+        Flux<String> second = executor.queryFromLocalCache(reactiveExecutorContext, cacheKey, this::execute);
+        Assertions.assertSame(first, second);
+        Mono<List<List<String>>> both = Flux.merge(first.collectList(), second.collectList()).collectList();
+        Mono.delay(Duration.ofMillis(50)).subscribe(ignore -> trigger.tryEmitEmpty());
+        List<List<String>> results = both.block();
+        Assertions.assertEquals(results.get(0), results.get(1));
+        Assertions.assertEquals(1, executionCount.get());
+        Assertions.assertTrue(reactiveExecutorContext.getLocalCache().isEmpty());
+    }
+
+    @Test
+    void queryFromLocalCacheEvictFailure() {
+        TestReactiveMybatisExecutor executor = new TestReactiveMybatisExecutor(configuration);
+        ReactiveExecutorContext reactiveExecutorContext = new ReactiveExecutorContext(false, null);
+        CacheKey cacheKey = new CacheKey(new Object[]{"test.select", 1L});
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> executor.queryFromLocalCache(reactiveExecutorContext, cacheKey,
+                        () -> Flux.<String>error(new IllegalStateException("failure"))
+                ).blockLast()
+        );
+        Assertions.assertTrue(reactiveExecutorContext.getLocalCache().isEmpty());
+        executor.queryFromLocalCache(reactiveExecutorContext, cacheKey, this::execute).blockLast();
+        Assertions.assertEquals(1, executionCount.get());
+    }
+
+    @Test
+    void rollbackDiscardPendingBatchStatements() {
+        TestReactiveMybatisExecutor executor = new TestReactiveMybatisExecutor(configuration);
+        ReactiveExecutorContext reactiveExecutorContext = new ReactiveExecutorContext(false, null, ExecutorType.BATCH);
+        reactiveExecutorContext.setWithTransaction();
+        Assertions.assertTrue(reactiveExecutorContext.isBatchExecution());
+        MappedStatement update = new MappedStatement.Builder(configuration, "test.update", new StaticSqlSource(configuration, "UPDATE test SET value = 1"), SqlCommandType.UPDATE)
+                .build();
+        reactiveExecutorContext.getPendingBatchStatements()
+                .add(new PendingBatchStatement(update, update.getBoundSql(null), null, configuration.getR2dbcStatementLog(update), null));
+        Assertions.assertTrue(reactiveExecutorContext.hasPendingBatchStatements());
+        executor.rollback(true)
+                .contextWrite(context -> context.put(ReactiveExecutorContext.class, reactiveExecutorContext))
+                .block();
+        Assertions.assertFalse(reactiveExecutorContext.hasPendingBatchStatements());
+        List<BatchResult> batchResults = executor.flushStatements()
+                .contextWrite(context -> context.put(ReactiveExecutorContext.class, reactiveExecutorContext))
+                .block();
+        Assertions.assertNotNull(batchResults);
+        Assertions.assertTrue(batchResults.isEmpty());
+    }
+
+    @Test
+    void flushStatementsObservedWithFirstPendingStatement() {
+        List<String> observedStatements = new ArrayList<>();
+        List<Long> observedRows = new ArrayList<>();
+        configuration.setStatementExecutionObserver(new StatementExecutionObserver() {
+            @Override
+            public Mono<Long> observe(MappedStatement mappedStatement, BoundSql boundSql, Mono<Long> execution) {
+                observedStatements.add(mappedStatement.getId() + ":" + boundSql.getSql());
+                return execution.doOnNext(observedRows::add);
+            }
+
+            @Override
+            public <T> Flux<T> observeMany(MappedStatement mappedStatement, BoundSql boundSql, Flux<T> execution) {
+                return execution;
+            }
+        });
+        Connection connection = this.connection(new ArrayList<>());
+        ConnectionFactory connectionFactory = (ConnectionFactory) Proxy.newProxyInstance(ConnectionFactory.class.getClassLoader(), new Class<?>[]{ConnectionFactory.class},
+                (proxy, method, args) -> Mono.just(connection)
+        );
+        TestReactiveMybatisExecutor executor = new TestReactiveMybatisExecutor(configuration, connectionFactory);
+        ReactiveExecutorContext reactiveExecutorContext = new ReactiveExecutorContext(false, null, ExecutorType.BATCH);
+        MappedStatement update = new MappedStatement.Builder(configuration, "test.update", new StaticSqlSource(configuration, "UPDATE test SET value = 1"), SqlCommandType.UPDATE)
+                .build();
+        MappedStatement delete = new MappedStatement.Builder(configuration, "test.delete", new StaticSqlSource(configuration, "DELETE FROM test"), SqlCommandType.DELETE)
+                .build();
+        PendingBatchStatement pendingUpdate = new PendingBatchStatement(update, update.getBoundSql(null), null, configuration.getR2dbcStatementLog(update), null);
+        pendingUpdate.addExecution(null);
+        reactiveExecutorContext.getPendingBatchStatements().add(pendingUpdate);
+        reactiveExecutorContext.getPendingBatchStatements()
+                .add(new PendingBatchStatement(delete, delete.getBoundSql(null), null, configuration.getR2dbcStatementLog(delete), null));
+        List<BatchResult> batchResults = executor.flushStatements()
+                .contextWrite(context -> context.put(ReactiveExecutorContext.class, reactiveExecutorContext))
+                .block();
+        Assertions.assertNotNull(batchResults);
+        Assertions.assertEquals(2, batchResults.size());
+        Assertions.assertEquals(Collections.singletonList("test.update:UPDATE test SET value = 1"), observedStatements);
+        Assertions.assertEquals(Collections.singletonList(3L), observedRows);
+    }
+
+    @Test
+    void statementTimeoutWithExceededDeadline() {
+        TestReactiveMybatisExecutor executor = new TestReactiveMybatisExecutor(configuration);
+        Instant deadline = Instant.now().minusSeconds(1);
+        Assertions.assertThrows(R2dbcStatementTimeoutException.class,
+                () -> executor.withStatementTimeout(null, "test.select", 10, this.execute())
+                        .contextWrite(context -> MybatisReactiveContextManager.withDeadline(context, deadline))
+                        .contextWrite(context -> MybatisReactiveContextManager.withTimeout(context, Duration.ofMinutes(1)))
+                        .blockLast()
+        );
+        Assertions.assertEquals(0, executionCount.get());
+        List<String> results = executor.withStatementTimeout(null, "test.select", null, this.execute())
+                .collectList()
+                .block();
+        Assertions.assertNotNull(results);
+        Assertions.assertEquals(2, results.size());
+    }
+
+    @Test
+    void statementTimeoutResetWhenFailedOrCancelled() {
+        TestReactiveMybatisExecutor executor = new TestReactiveMybatisExecutor(configuration);
+        List<Duration> statementTimeouts = new ArrayList<>();
+        Connection connection = this.connection(statementTimeouts);
+        Assertions.assertThrows(R2dbcStatementTimeoutException.class,
+                () -> executor.withStatementTimeout(connection, "test.select", 10, Flux.error(new TimeoutException()))
+                        .blockLast()
+        );
+        Assertions.assertEquals(Arrays.asList(Duration.ofSeconds(10), Duration.ZERO), statementTimeouts);
+        statementTimeouts.clear();
+        executor.withStatementTimeout(connection, "test.select", 10, Flux.never())
+                .subscribe()
+                .dispose();
+        Assertions.assertEquals(Arrays.asList(Duration.ofSeconds(10), Duration.ZERO), statementTimeouts);
+    }
+
+    @Test
+    void statementTimeoutAppliedOnceWithinTransaction() {
+        TestReactiveMybatisExecutor executor = new TestReactiveMybatisExecutor(configuration);
+        List<Duration> statementTimeouts = new ArrayList<>();
+        Connection connection = this.connection(statementTimeouts);
+        ReactiveExecutorContext reactiveExecutorContext = new ReactiveExecutorContext(false, null);
+        reactiveExecutorContext.setWithTransaction();
+        reactiveExecutorContext.bindConnection(connection);
+        Flux.concat(
+                        executor.withStatementTimeout(connection, "test.select", 10, this.execute()),
+                        executor.withStatementTimeout(connection, "test.select", 10, this.execute())
+                )
+                .contextWrite(context -> context.put(ReactiveExecutorContext.class, reactiveExecutorContext))
+                .blockLast();
+        Assertions.assertEquals(Collections.singletonList(Duration.ofSeconds(10)), statementTimeouts);
+        executor.withStatementTimeout(connection, "test.select", null, this.execute())
+                .contextWrite(context -> context.put(ReactiveExecutorContext.class, reactiveExecutorContext))
+                .blockLast();
+        Assertions.assertEquals(Arrays.asList(Duration.ofSeconds(10), Duration.ZERO), statementTimeouts);
+        executor.withStatementTimeout(connection, "test.select", 5, this.execute())
+                .then(executor.close(false))
+                .contextWrite(context -> context.put(ReactiveExecutorContext.class, reactiveExecutorContext))
+                .block();
+        Assertions.assertEquals(Arrays.asList(Duration.ofSeconds(10), Duration.ZERO, Duration.ofSeconds(5), Duration.ZERO), statementTimeouts);
+    }
+
+    private Connection connection(List<Duration> statementTimeouts) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+            if ("setStatementTimeout".equals(method.getName())) {
+                statementTimeouts.add((Duration) args[0]);
+                return Mono.empty();
+            }
+            if ("close".equals(method.getName())) {
+                return Mono.empty();
+            }
+            if ("toString".equals(method.getName())) {
+                return "TestConnection";
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private Flux<String> execute() {
+        return Flux.defer(() -> {
+            int count = executionCount.incrementAndGet();
+            return Flux.just("row-" + count, "row-" + count + "-next");
+        });
+    }
+
+    private static class TestReactiveMybatisExecutor extends AbstractReactiveMybatisExecutor {
+
+        TestReactiveMybatisExecutor(R2dbcMybatisConfiguration configuration) {
+            this(configuration, null);
+        }
+
+        TestReactiveMybatisExecutor(R2dbcMybatisConfiguration configuration, ConnectionFactory connectionFactory) {
+            super(configuration, connectionFactory);
+        }
+
+        @Override
+        protected Mono<Long> doUpdateWithConnection(Connection connection, MappedStatement mappedStatement, Object parameter) {
+            return Mono.error(new UnsupportedOperationException());
+        }
+
+        @Override
+        protected Mono<Long> doUpdateBatchWithConnection(Connection connection, MappedStatement mappedStatement, List<?> parameters) {
+            return Mono.error(new UnsupportedOperationException());
+        }
+
+        @Override
+        protected Mono<List<BatchResult>> doFlushStatementsWithConnection(Connection connection, List<PendingBatchStatement> pendingBatchStatements) {
+            List<BatchResult> batchResults = new ArrayList<>();
+            for (PendingBatchStatement pendingBatchStatement : pendingBatchStatements) {
+                pendingBatchStatement.setUpdateCounts(Collections.nCopies(pendingBatchStatement.getExecutionCount(), 1L));
+                batchResults.add(pendingBatchStatement.getBatchResult());
+            }
+            return Mono.just(batchResults);
+        }
+
+        @Override
+        protected <E> Flux<E> doQueryWithConnection(Connection connection, MappedStatement mappedStatement, Object parameter, RowBounds rowBounds, BoundSql boundSql) {
+            return Flux.error(new UnsupportedOperationException());
+        }
+    }
+}
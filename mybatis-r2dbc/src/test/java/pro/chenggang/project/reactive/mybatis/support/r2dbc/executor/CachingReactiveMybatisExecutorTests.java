@@ -0,0 +1,237 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor;
+
+import io.r2dbc.spi.Connection;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybatisConfiguration;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.PendingBatchStatement;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.ReactiveExecutorContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+class CachingReactiveMybatisExecutorTests {
+
+    private final R2dbcMybatisConfiguration configuration = new R2dbcMybatisConfiguration();
+    private final Cache cache = new PerpetualCache("test");
+    private final CountingReactiveMybatisExecutor countingExecutor = new CountingReactiveMybatisExecutor(configuration);
+    private final CachingReactiveMybatisExecutor cachingExecutor = new CachingReactiveMybatisExecutor(countingExecutor);
+
+    @Test
+    void queryWithoutTransaction() {
+        MappedStatement select = this.select("test.select");
+        List<Object> first = this.query(select, 1L, false);
+        List<Object> second = this.query(select, 1L, false);
+        Assertions.assertEquals(first, second);
+        Assertions.assertEquals(1, countingExecutor.queryCount.get());
+        this.query(select, 2L, false);
+        Assertions.assertEquals(2, countingExecutor.queryCount.get());
+        this.query(select, 1L, false, new RowBounds(0, 1));
+        Assertions.assertEquals(3, countingExecutor.queryCount.get());
+        Assertions.assertEquals(3, cache.getSize());
+    }
+
+    @Test
+    void queryWithTransaction() {
+        MappedStatement select = this.select("test.select");
+        ReactiveExecutorContext reactiveExecutorContext = this.newContext(true);
+        this.query(select, 1L, reactiveExecutorContext);
+        this.query(select, 1L, reactiveExecutorContext);
+        Assertions.assertEquals(2, countingExecutor.queryCount.get());
+        Assertions.assertEquals(0, cache.getSize());
+        cachingExecutor.commit(true)
+                .contextWrite(context -> context.put(ReactiveExecutorContext.class, reactiveExecutorContext))
+                .block();
+        Assertions.assertEquals(1, cache.getSize());
+        this.query(select, 1L, false);
+        Assertions.assertEquals(2, countingExecutor.queryCount.get());
+    }
+
+    @Test
+    void rollbackDiscardStagedEntries() {
+        MappedStatement select = this.select("test.select");
+        ReactiveExecutorContext reactiveExecutorContext = this.newContext(true);
+        this.query(select, 1L, reactiveExecutorContext);
+        cachingExecutor.rollback(true)
+                .contextWrite(context -> context.put(ReactiveExecutorContext.class, reactiveExecutorContext))
+                .block();
+        Assertions.assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    void transactionSynchronizedContextIgnoreSessionCompletion() {
+        MappedStatement select = this.select("test.select");
+        ReactiveExecutorContext reactiveExecutorContext = this.newContext(false);
+        reactiveExecutorContext.setTransactionSynchronized();
+        this.query(select, 1L, reactiveExecutorContext);
+        Assertions.assertEquals(0, cache.getSize());
+        cachingExecutor.close(false)
+                .contextWrite(context -> context.put(ReactiveExecutorContext.class, reactiveExecutorContext))
+                .block();
+        Assertions.assertEquals(0, cache.getSize());
+        reactiveExecutorContext.getTransactionalCacheManager().commit();
+        Assertions.assertEquals(1, cache.getSize());
+    }
+
+    @Test
+    void updateFlushCache() {
+        MappedStatement select = this.select("test.select");
+        MappedStatement update = new MappedStatement.Builder(configuration, "test.update", new StaticSqlSource(configuration, "UPDATE test SET value = 1"), SqlCommandType.UPDATE)
+                .cache(cache)
+                .flushCacheRequired(true)
+                .build();
+        this.query(select, 1L, false);
+        Assertions.assertEquals(1, cache.getSize());
+        ReactiveExecutorContext reactiveExecutorContext = this.newContext(true);
+        cachingExecutor.update(update, null)
+                .contextWrite(context -> context.put(ReactiveExecutorContext.class, reactiveExecutorContext))
+                .block();
+        Assertions.assertEquals(1, cache.getSize());
+        this.query(select, 1L, reactiveExecutorContext);
+        Assertions.assertEquals(2, countingExecutor.queryCount.get());
+        cachingExecutor.commit(true)
+                .contextWrite(context -> context.put(ReactiveExecutorContext.class, reactiveExecutorContext))
+                .block();
+        Assertions.assertEquals(1, cache.getSize());
+        Assertions.assertEquals(1, countingExecutor.updateCount.get());
+    }
+
+    @Test
+    void cancelledQueryNotCached() {
+        MappedStatement select = this.select("test.select");
+        cachingExecutor.query(select, 1L, RowBounds.DEFAULT)
+                .take(1)
+                .contextWrite(context -> context.put(ReactiveExecutorContext.class, this.newContext(false)))
+                .blockLast();
+        this.query(select, 1L, false);
+        Assertions.assertEquals(2, countingExecutor.queryCount.get());
+    }
+
+    private MappedStatement select(String id) {
+        StaticSqlSource sqlSource = new StaticSqlSource(configuration,
+                "SELECT * FROM test WHERE id = ?",
+                Collections.singletonList(new ParameterMapping.Builder(configuration, "id", Long.class).build())
+        );
+        return new MappedStatement.Builder(configuration, id, sqlSource, SqlCommandType.SELECT)
+                .cache(cache)
+                .useCache(true)
+                .build();
+    }
+
+    private List<Object> query(MappedStatement mappedStatement, Object parameter, boolean withTransaction) {
+        return this.query(mappedStatement, parameter, withTransaction, RowBounds.DEFAULT);
+    }
+
+    private List<Object> query(MappedStatement mappedStatement, Object parameter, boolean withTransaction, RowBounds rowBounds) {
+        return cachingExecutor.query(mappedStatement, parameter, rowBounds)
+                .contextWrite(context -> context.put(ReactiveExecutorContext.class, this.newContext(withTransaction)))
+                .collectList()
+                .block();
+    }
+
+    private List<Object> query(MappedStatement mappedStatement, Object parameter, ReactiveExecutorContext reactiveExecutorContext) {
+        return cachingExecutor.query(mappedStatement, parameter, RowBounds.DEFAULT)
+                .contextWrite(context -> context.put(ReactiveExecutorContext.class, reactiveExecutorContext))
+                .collectList()
+                .block();
+    }
+
+    private ReactiveExecutorContext newContext(boolean withTransaction) {
+        ReactiveExecutorContext reactiveExecutorContext = new ReactiveExecutorContext(!withTransaction, null);
+        if (withTransaction) {
+            reactiveExecutorContext.setWithTransaction();
+        }
+        return reactiveExecutorContext;
+    }
+
+    private static class CountingReactiveMybatisExecutor extends AbstractReactiveMybatisExecutor {
+
+        private final AtomicInteger queryCount = new AtomicInteger();
+        private final AtomicInteger updateCount = new AtomicInteger();
+
+        CountingReactiveMybatisExecutor(R2dbcMybatisConfiguration configuration) {
+            super(configuration, null);
+        }
+
+        @Override
+        public Mono<Long> update(MappedStatement mappedStatement, Object parameter) {
+            return Mono.fromSupplier(() -> (long) updateCount.incrementAndGet());
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <E> Flux<E> query(MappedStatement mappedStatement, Object parameter, RowBounds rowBounds, BoundSql boundSql) {
+            return Flux.defer(() -> {
+                int count = queryCount.incrementAndGet();
+                return Flux.just((E) (parameter + "-" + count), (E) (parameter + "-" + count + "-next"));
+            });
+        }
+
+        @Override
+        public Mono<Void> commit(boolean required) {
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<Void> rollback(boolean required) {
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<Void> close(boolean forceRollback) {
+            return Mono.empty();
+        }
+
+        @Override
+        protected Mono<Long> doUpdateWithConnection(Connection connection, MappedStatement mappedStatement, Object parameter) {
+            return Mono.error(new UnsupportedOperationException());
+        }
+
+        @Override
+        protected Mono<Long> doUpdateBatchWithConnection(Connection connection, MappedStatement mappedStatement, List<?> parameters) {
+            return Mono.error(new UnsupportedOperationException());
+        }
+
+        @Override
+        protected Mono<List<BatchResult>> doFlushStatementsWithConnection(Connection connection, List<PendingBatchStatement> pendingBatchStatements) {
+            return Mono.error(new UnsupportedOperationException());
+        }
+
+        @Override
+        protected <E> Flux<E> doQueryWithConnection(Connection connection, MappedStatement mappedStatement, Object parameter, RowBounds rowBounds, BoundSql boundSql) {
+            return Flux.error(new UnsupportedOperationException());
+        }
+    }
+}
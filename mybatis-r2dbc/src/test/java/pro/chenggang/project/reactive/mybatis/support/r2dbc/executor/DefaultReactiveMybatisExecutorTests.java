@@ -0,0 +1,242 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor;
+
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionMetadata;
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Statement;
+import io.r2dbc.spi.Type;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.MybatisReactiveContextManager;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybatisConfiguration;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.ReactiveExecutorContext;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.mapping.R2dbcEnvironment;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+class DefaultReactiveMybatisExecutorTests {
+
+    private final R2dbcMybatisConfiguration configuration = new R2dbcMybatisConfiguration();
+
+    @Test
+    void queryWithUpdateCountBeforeResultSets() {
+        configuration.setR2dbcEnvironment(new R2dbcEnvironment.Builder("test")
+                .connectionFactory(this.proxy(ConnectionFactory.class, null))
+                .withDefaultTransactionProxy(false)
+                .build()
+        );
+        MappedStatement select = new MappedStatement.Builder(configuration, "test.select", new StaticSqlSource(configuration, "CALL test()"), SqlCommandType.SELECT)
+                .resultMaps(Arrays.asList(this.resultMap("test.first", "first"), this.resultMap("test.second", "second")))
+                .build();
+        DefaultReactiveMybatisExecutor executor = new DefaultReactiveMybatisExecutor(configuration);
+        Connection connection = this.connection(Arrays.asList(
+                new TestResult(Collections.singletonList((Result.UpdateCount) () -> 3L)),
+                new TestResult(Collections.singletonList(this.rowSegment(1L))),
+                new TestResult(Collections.singletonList((Result.UpdateCount) () -> 1L)),
+                new TestResult(Collections.singletonList(this.rowSegment(2L)))
+        ));
+        ReactiveExecutorContext reactiveExecutorContext = new ReactiveExecutorContext(true, null);
+        reactiveExecutorContext.setR2dbcStatementLog(configuration.getR2dbcStatementLog(select));
+        List<Object> results = executor.doQueryWithConnection(connection, select, null, RowBounds.DEFAULT, select.getBoundSql(null))
+                .contextWrite(context -> context.put(ReactiveExecutorContext.class, reactiveExecutorContext))
+                .contextWrite(MybatisReactiveContextManager::initReactiveExecutorContextAttribute)
+                .collectList()
+                .block();
+        // each result set is mapped as a list with its own result map
+        Assertions.assertEquals(Arrays.asList(
+                Collections.singletonList(Collections.singletonMap("first", 1L)),
+                Collections.singletonList(Collections.singletonMap("second", 2L))
+        ), results);
+    }
+
+    private ResultMap resultMap(String id, String property) {
+        ResultMapping resultMapping = new ResultMapping.Builder(configuration, property, "value", Long.class).build();
+        ResultMap resultMap = new ResultMap.Builder(configuration, id, HashMap.class, Collections.singletonList(resultMapping), false).build();
+        configuration.addResultMap(resultMap);
+        return resultMap;
+    }
+
+    private Result.RowSegment rowSegment(Long value) {
+        TestRow testRow = new TestRow(Collections.singletonMap("value", value));
+        return () -> testRow;
+    }
+
+    private Connection connection(List<Result> results) {
+        Statement statement = this.proxy(Statement.class, (proxy, methodName) -> {
+            if ("execute".equals(methodName)) {
+                return Flux.fromIterable(results);
+            }
+            return proxy;
+        });
+        ConnectionMetadata connectionMetadata = this.proxy(ConnectionMetadata.class, (proxy, methodName) -> "test");
+        return this.proxy(Connection.class, (proxy, methodName) -> {
+            if ("createStatement".equals(methodName)) {
+                return statement;
+            }
+            if ("getMetadata".equals(methodName)) {
+                return connectionMetadata;
+            }
+            throw new UnsupportedOperationException(methodName);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T proxy(Class<T> type, BiFunction<Object, String, Object> invocation) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if ("toString".equals(method.getName())) {
+                return type.getSimpleName();
+            }
+            if (invocation == null) {
+                throw new UnsupportedOperationException(method.getName());
+            }
+            return invocation.apply(proxy, method.getName());
+        });
+    }
+
+    private static class TestResult implements Result {
+
+        private final List<Segment> segments;
+
+        TestResult(List<Segment> segments) {
+            this.segments = segments;
+        }
+
+        @Override
+        public Publisher<Long> getRowsUpdated() {
+            return Flux.fromIterable(segments)
+                    .filter(UpdateCount.class::isInstance)
+                    .map(segment -> ((UpdateCount) segment).value());
+        }
+
+        @Override
+        public <T> Publisher<T> map(BiFunction<Row, RowMetadata, ? extends T> mappingFunction) {
+            return this.map(readable -> mappingFunction.apply((Row) readable, ((Row) readable).getMetadata()));
+        }
+
+        @Override
+        public <T> Publisher<T> map(Function<? super Readable, ? extends T> mappingFunction) {
+            return Flux.fromIterable(segments)
+                    .filter(RowSegment.class::isInstance)
+                    .map(segment -> mappingFunction.apply(((RowSegment) segment).row()));
+        }
+
+        @Override
+        public Result filter(Predicate<Segment> filter) {
+            return new TestResult(segments.stream().filter(filter).collect(Collectors.toList()));
+        }
+
+        @Override
+        public <T> Publisher<T> flatMap(Function<Segment, ? extends Publisher<? extends T>> mappingFunction) {
+            return Flux.fromIterable(segments)
+                    .concatMap(mappingFunction);
+        }
+    }
+
+    private static class TestRow implements Row, RowMetadata {
+
+        private final Map<String, Object> values;
+
+        TestRow(Map<String, Object> values) {
+            this.values = values;
+        }
+
+        @Override
+        public RowMetadata getMetadata() {
+            return this;
+        }
+
+        @Override
+        public Object get(int index) {
+            return this.get(this.getColumnMetadata(index).getName());
+        }
+
+        @Override
+        public <T> T get(int index, Class<T> type) {
+            return this.get(this.getColumnMetadata(index).getName(), type);
+        }
+
+        @Override
+        public <T> T get(String name, Class<T> type) {
+            return type.cast(values.get(name));
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(int index) {
+            return this.getColumnMetadatas().get(index);
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(String name) {
+            return this.getColumnMetadatas().stream()
+                    .filter(columnMetadata -> columnMetadata.getName().equals(name))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException(name));
+        }
+
+        @Override
+        public List<? extends ColumnMetadata> getColumnMetadatas() {
+            return values.keySet()
+                    .stream()
+                    .map(name -> new ColumnMetadata() {
+                        @Override
+                        public Type getType() {
+                            return null;
+                        }
+
+                        @Override
+                        public String getName() {
+                            return name;
+                        }
+
+                        @Override
+                        public Class<?> getJavaType() {
+                            return Long.class;
+                        }
+                    })
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.metrics;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybatisConfiguration;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+class StatementExecutionMetricsTests {
+
+    private final R2dbcMybatisConfiguration configuration = new R2dbcMybatisConfiguration();
+    private final MappedStatement select = new MappedStatement.Builder(configuration, "test.select", new StaticSqlSource(configuration, "SELECT * FROM test"), SqlCommandType.SELECT)
+            .build();
+    private final RecordingStatementMetricsRecorder recorder = new RecordingStatementMetricsRecorder();
+
+    @Test
+    void recordQuery() {
+        List<Integer> results = Flux.defer(() -> {
+                    StatementExecutionMetrics statementExecutionMetrics = new StatementExecutionMetrics(recorder, select);
+                    statementExecutionMetrics.onConnectionAcquired();
+                    return Flux.just(1, 2, 3)
+                            .doOnNext(row -> statementExecutionMetrics.onRow())
+                            .doFinally(statementExecutionMetrics::onFinally);
+                })
+                .collectList()
+                .block();
+        Assertions.assertEquals(3, results.size());
+        Assertions.assertEquals(1, recorder.connectionAcquireTimes.size());
+        Assertions.assertEquals(1, recorder.firstRowTimes.size());
+        Assertions.assertEquals(1, recorder.totalTimes.size());
+        Assertions.assertEquals(3L, recorder.rows.get(0));
+        Assertions.assertTrue(recorder.errors.isEmpty());
+    }
+
+    @Test
+    void recordFailedQuery() {
+        Assertions.assertThrows(IllegalStateException.class, () -> Flux.defer(() -> {
+                    StatementExecutionMetrics statementExecutionMetrics = new StatementExecutionMetrics(recorder, select);
+                    return Flux.<Integer>error(new IllegalStateException("failure"))
+                            .doOnError(statementExecutionMetrics::onError)
+                            .doFinally(statementExecutionMetrics::onFinally);
+                })
+                .blockLast()
+        );
+        Assertions.assertTrue(recorder.connectionAcquireTimes.isEmpty());
+        Assertions.assertTrue(recorder.firstRowTimes.isEmpty());
+        Assertions.assertEquals(1, recorder.totalTimes.size());
+        Assertions.assertEquals(0L, recorder.rows.get(0));
+        Assertions.assertEquals(1, recorder.errors.size());
+    }
+
+    private static class RecordingStatementMetricsRecorder implements StatementMetricsRecorder {
+
+        private final List<Long> connectionAcquireTimes = new ArrayList<>();
+        private final List<Long> firstRowTimes = new ArrayList<>();
+        private final List<Long> totalTimes = new ArrayList<>();
+        private final List<Long> rows = new ArrayList<>();
+        private final List<Throwable> errors = new ArrayList<>();
+
+        @Override
+        public void recordConnectionAcquireTime(MappedStatement mappedStatement, long nanos) {
+            connectionAcquireTimes.add(nanos);
+        }
+
+        @Override
+        public void recordFirstRowTime(MappedStatement mappedStatement, long nanos) {
+            firstRowTimes.add(nanos);
+        }
+
+        @Override
+        public void recordTotalTime(MappedStatement mappedStatement, long nanos) {
+            totalTimes.add(nanos);
+        }
+
+        @Override
+        public void recordRows(MappedStatement mappedStatement, long rows) {
+            this.rows.add(rows);
+        }
+
+        @Override
+        public void recordError(MappedStatement mappedStatement, Throwable throwable) {
+            errors.add(throwable);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.observation;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybatisConfiguration;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+class MicrometerStatementExecutionObserverTests {
+
+    private final R2dbcMybatisConfiguration configuration = new R2dbcMybatisConfiguration();
+    private final List<Observation.Context> stoppedContexts = new ArrayList<>();
+
+    @Test
+    void observeQueryWithParentFromReactorContext() {
+        ObservationRegistry observationRegistry = this.newObservationRegistry();
+        MicrometerStatementExecutionObserver observer = new MicrometerStatementExecutionObserver(observationRegistry);
+        MappedStatement select = this.mappedStatement("test.select", "SELECT *\n  FROM test\n WHERE id = ?", SqlCommandType.SELECT);
+        Observation parent = Observation.start("parent", observationRegistry);
+        List<Object> observedParents = new ArrayList<>();
+        Flux<String> execution = Flux.deferContextual(contextView -> {
+            observedParents.add(contextView.get(MicrometerStatementExecutionObserver.OBSERVATION_CONTEXT_KEY));
+            return Flux.just("row-1", "row-2");
+        });
+        List<String> results = observer.observeMany(select, select.getBoundSql(1L), execution)
+                .contextWrite(context -> context.put(MicrometerStatementExecutionObserver.OBSERVATION_CONTEXT_KEY, parent))
+                .collectList()
+                .block();
+        Assertions.assertEquals(2, results.size());
+        Assertions.assertEquals(1, stoppedContexts.size());
+        R2dbcStatementObservationContext observationContext = (R2dbcStatementObservationContext) stoppedContexts.get(0);
+        Assertions.assertSame(parent.getContext(), observationContext.getParentObservation().getContextView());
+        Assertions.assertNotSame(parent, observedParents.get(0));
+        Assertions.assertEquals(2, observationContext.getRows());
+        Assertions.assertEquals("test.select", this.keyValue(observationContext, DefaultR2dbcStatementObservationConvention.STATEMENT_KEY));
+        Assertions.assertEquals("SELECT", this.keyValue(observationContext, DefaultR2dbcStatementObservationConvention.COMMAND_KEY));
+        Assertions.assertNull(observationContext.getLowCardinalityKeyValue(DefaultR2dbcStatementObservationConvention.SQL_KEY));
+        Assertions.assertEquals("SELECT * FROM test WHERE id = ?", observationContext.getHighCardinalityKeyValue(DefaultR2dbcStatementObservationConvention.SQL_KEY).getValue());
+        Assertions.assertEquals("2", this.keyValue(observationContext, DefaultR2dbcStatementObservationConvention.ROWS_KEY));
+    }
+
+    @Test
+    void observeFailedUpdate() {
+        MicrometerStatementExecutionObserver observer = new MicrometerStatementExecutionObserver(this.newObservationRegistry());
+        MappedStatement update = this.mappedStatement("test.update", "UPDATE test SET value = 1", SqlCommandType.UPDATE);
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> observer.observe(update, null, Mono.error(new IllegalStateException("failure"))).block()
+        );
+        Assertions.assertEquals(1, stoppedContexts.size());
+        Assertions.assertInstanceOf(IllegalStateException.class, stoppedContexts.get(0).getError());
+        Assertions.assertNull(this.keyValue(stoppedContexts.get(0), DefaultR2dbcStatementObservationConvention.SQL_KEY));
+        Mono<Long> execution = Mono.just(1L);
+        Assertions.assertSame(execution, new MicrometerStatementExecutionObserver(ObservationRegistry.NOOP).observe(update, null, execution));
+    }
+
+    private ObservationRegistry newObservationRegistry() {
+        ObservationRegistry observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig().observationHandler(new ObservationHandler<Observation.Context>() {
+
+            @Override
+            public void onStop(Observation.Context context) {
+                if (context instanceof R2dbcStatementObservationContext) {
+                    stoppedContexts.add(context);
+                }
+            }
+
+            @Override
+            public boolean supportsContext(Observation.Context context) {
+                return true;
+            }
+        });
+        return observationRegistry;
+    }
+
+    private String keyValue(Observation.Context context, String key) {
+        KeyValue keyValue = context.getLowCardinalityKeyValue(key);
+        if (keyValue == null) {
+            keyValue = context.getHighCardinalityKeyValue(key);
+        }
+        return keyValue == null ? null : keyValue.getValue();
+    }
+
+    private MappedStatement mappedStatement(String id, String sql, SqlCommandType sqlCommandType) {
+        return new MappedStatement.Builder(configuration, id, new StaticSqlSource(configuration, sql), sqlCommandType)
+                .build();
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.placeholder.defaults;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.r2dbc.spi.ConnectionMetadata;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybatisConfiguration;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.placeholder.PaginationSql;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.placeholder.dialect.PostgreSQLPlaceholderDialect;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support.ReactiveExecutorContextAttribute;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+/**
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+class DefaultPlaceholderFormatterTests {
+
+    private final DefaultPlaceholderFormatter placeholderFormatter = new DefaultPlaceholderFormatter(
+            new DefaultPlaceholderDialectRegistry(),
+            100,
+            Duration.ofMinutes(1)
+    );
+    private final ReactiveExecutorContextAttribute reactiveExecutorContextAttribute = new ReactiveExecutorContextAttribute();
+
+    @Test
+    void getPaginationSql() {
+        PaginationSql mysql = placeholderFormatter.getPaginationSql(this.metadata("MySQL"), "SELECT * FROM dept ; ", true, reactiveExecutorContextAttribute)
+                .orElseThrow(IllegalStateException::new);
+        Assertions.assertEquals("SELECT * FROM dept LIMIT ?, ?", mysql.getSql());
+        Assertions.assertEquals(Arrays.asList(PaginationSql.Parameter.OFFSET, PaginationSql.Parameter.LIMIT), mysql.getParameters());
+        PaginationSql postgresql = placeholderFormatter.getPaginationSql(this.metadata("PostgreSQL"), "SELECT * FROM dept", true, reactiveExecutorContextAttribute)
+                .orElseThrow(IllegalStateException::new);
+        Assertions.assertEquals("SELECT * FROM dept LIMIT ? OFFSET ?", postgresql.getSql());
+        Assertions.assertEquals(Arrays.asList(PaginationSql.Parameter.LIMIT, PaginationSql.Parameter.OFFSET), postgresql.getParameters());
+        PaginationSql limitOnly = placeholderFormatter.getPaginationSql(this.metadata("PostgreSQL"), "SELECT * FROM dept", false, reactiveExecutorContextAttribute)
+                .orElseThrow(IllegalStateException::new);
+        Assertions.assertEquals(Collections.singletonList(PaginationSql.Parameter.LIMIT), limitOnly.getParameters());
+        Assertions.assertSame(postgresql, placeholderFormatter.getPaginationSql(this.metadata("PostgreSQL"), "SELECT * FROM dept", true, reactiveExecutorContextAttribute)
+                .orElse(null));
+    }
+
+    @Test
+    void getPaginationSqlNotSupported() {
+        Optional<PaginationSql> withoutOrderBy = placeholderFormatter.getPaginationSql(this.metadata("Microsoft SQL Server"), "SELECT * FROM dept", true, reactiveExecutorContextAttribute);
+        Assertions.assertFalse(withoutOrderBy.isPresent());
+        Optional<PaginationSql> withOrderBy = placeholderFormatter.getPaginationSql(this.metadata("Microsoft SQL Server"), "SELECT * FROM dept ORDER BY dept_no", true, reactiveExecutorContextAttribute);
+        Assertions.assertTrue(withOrderBy.isPresent());
+        Optional<PaginationSql> unknown = placeholderFormatter.getPaginationSql(this.metadata("Unknown"), "SELECT * FROM dept", true, reactiveExecutorContextAttribute);
+        Assertions.assertFalse(unknown.isPresent());
+    }
+
+    @Test
+    void replaceSqlPlaceholderOfStaticStatement() {
+        R2dbcMybatisConfiguration configuration = new R2dbcMybatisConfiguration();
+        StaticSqlSource sqlSource = new StaticSqlSource(configuration,
+                "SELECT * FROM dept WHERE dept_no = ? AND dept_name = ?",
+                Arrays.asList(
+                        new ParameterMapping.Builder(configuration, "deptNo", Long.class).build(),
+                        new ParameterMapping.Builder(configuration, "deptName", String.class).build()
+                )
+        );
+        MappedStatement select = new MappedStatement.Builder(configuration, "test.select", sqlSource, SqlCommandType.SELECT)
+                .build();
+        placeholderFormatter.preformatStaticSql(Collections.singletonList(select));
+        BoundSql boundSql = select.getBoundSql(null);
+        String postgresql = placeholderFormatter.replaceSqlPlaceholder(this.metadata("PostgreSQL"), select, boundSql, reactiveExecutorContextAttribute);
+        Assertions.assertEquals("SELECT * FROM dept WHERE dept_no = $1 AND dept_name = $2", postgresql);
+        String sqlServer = placeholderFormatter.replaceSqlPlaceholder(this.metadata("Microsoft SQL Server"), select, boundSql, reactiveExecutorContextAttribute);
+        Assertions.assertEquals("SELECT * FROM dept WHERE dept_no = @Ms_deptNo AND dept_name = @Ms_deptName", sqlServer);
+        CacheStats cacheStats = placeholderFormatter.getFormattedSqlCacheStats().get(PostgreSQLPlaceholderDialect.class);
+        Assertions.assertEquals(0, cacheStats.requestCount());
+        // rewritten sql of the static statement is formatted as dynamic sql
+        BoundSql rewrittenBoundSql = new BoundSql(configuration, boundSql.getSql() + " LIMIT ?", boundSql.getParameterMappings(), null);
+        String rewritten = placeholderFormatter.replaceSqlPlaceholder(this.metadata("PostgreSQL"), select, rewrittenBoundSql, reactiveExecutorContextAttribute);
+        Assertions.assertEquals("SELECT * FROM dept WHERE dept_no = $1 AND dept_name = $2 LIMIT $3", rewritten);
+        placeholderFormatter.replaceSqlPlaceholder(this.metadata("PostgreSQL"), select, rewrittenBoundSql, reactiveExecutorContextAttribute);
+        cacheStats = placeholderFormatter.getFormattedSqlCacheStats().get(PostgreSQLPlaceholderDialect.class);
+        Assertions.assertEquals(1, cacheStats.missCount());
+        Assertions.assertEquals(1, cacheStats.hitCount());
+    }
+
+    private ConnectionMetadata metadata(String productName) {
+        return new ConnectionMetadata() {
+            @Override
+            public String getDatabaseProductName() {
+                return productName;
+            }
+
+            @Override
+            public String getDatabaseVersion() {
+                return "1.0";
+            }
+        };
+    }
+}
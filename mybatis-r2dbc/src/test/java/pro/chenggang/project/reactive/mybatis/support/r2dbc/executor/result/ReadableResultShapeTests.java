@@ -0,0 +1,141 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result;
+
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Type;
+import org.apache.ibatis.type.LongTypeHandler;
+import org.apache.ibatis.type.StringTypeHandler;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybatisConfiguration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+class ReadableResultShapeTests {
+
+    private final R2dbcMybatisConfiguration configuration = new R2dbcMybatisConfiguration();
+
+    @Test
+    void shapeReusedAcrossRowsOfResult() {
+        List<String> columnNames = Arrays.asList("id", "name");
+        List<Class<?>> javaTypes = Arrays.asList(Long.class, String.class);
+        AtomicReference<ReadableResultShape> shapeReference = new AtomicReference<>();
+        ReadableResultWrapper<Row> first = ReadableResultWrapper.ofRow(new TestRow(columnNames, javaTypes, 1L, "a"), shapeReference, configuration);
+        ReadableResultWrapper<Row> second = ReadableResultWrapper.ofRow(new TestRow(columnNames, javaTypes, 2L, "b"), shapeReference, configuration);
+        ReadableResultShape readableResultShape = first.getReadableResultShape();
+        Assertions.assertSame(readableResultShape, shapeReference.get());
+        Assertions.assertSame(readableResultShape, second.getReadableResultShape());
+        Assertions.assertEquals(columnNames, readableResultShape.getColumnNames());
+        Assertions.assertEquals(javaTypes, readableResultShape.getJavaTypes());
+        // the type handlers resolved for the first row are reused by the following rows
+        Assertions.assertSame(first.getTypeHandler(Long.class, "id"), second.getTypeHandler(Long.class, "id"));
+        Assertions.assertInstanceOf(LongTypeHandler.class, second.getTypeHandler(Long.class, "id"));
+    }
+
+    @Test
+    void shapeCreatedForDifferentColumns() {
+        List<Class<?>> javaTypes = Arrays.asList(Long.class, String.class);
+        ReadableResultShape readableResultShape = ReadableResultWrapper.ofRow(new TestRow(Arrays.asList("id", "name"), javaTypes, 1L, "a"), new AtomicReference<>(), configuration)
+                .getReadableResultShape();
+        // each result has its own shape reference
+        ReadableResultShape renamedShape = ReadableResultWrapper.ofRow(new TestRow(Arrays.asList("id", "title"), javaTypes, 1L, "a"), new AtomicReference<>(), configuration)
+                .getReadableResultShape();
+        Assertions.assertNotSame(readableResultShape, renamedShape);
+        Assertions.assertEquals(Arrays.asList("id", "title"), renamedShape.getColumnNames());
+        ReadableResultShape retypedShape = ReadableResultWrapper.ofRow(new TestRow(Arrays.asList("id", "name"), Arrays.asList(String.class, String.class), "1", "a"), new AtomicReference<>(), configuration)
+                .getReadableResultShape();
+        Assertions.assertNotSame(readableResultShape, retypedShape);
+        Assertions.assertEquals(Arrays.asList(String.class, String.class), retypedShape.getJavaTypes());
+        Assertions.assertEquals(Arrays.asList("String", "String"), retypedShape.getClassNames());
+        Assertions.assertInstanceOf(LongTypeHandler.class, readableResultShape.getTypeHandler(Long.class, "id"));
+        Assertions.assertInstanceOf(StringTypeHandler.class, retypedShape.getTypeHandler(String.class, "id"));
+    }
+
+    private static class TestRow implements Row, RowMetadata {
+
+        private final List<String> columnNames;
+        private final List<Class<?>> javaTypes;
+        private final Object[] values;
+
+        TestRow(List<String> columnNames, List<Class<?>> javaTypes, Object... values) {
+            this.columnNames = columnNames;
+            this.javaTypes = javaTypes;
+            this.values = values;
+        }
+
+        @Override
+        public RowMetadata getMetadata() {
+            return this;
+        }
+
+        @Override
+        public <T> T get(int index, Class<T> type) {
+            return type.cast(values[index]);
+        }
+
+        @Override
+        public <T> T get(String name, Class<T> type) {
+            return this.get(columnNames.indexOf(name), type);
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(int index) {
+            return this.getColumnMetadatas().get(index);
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(String name) {
+            return this.getColumnMetadata(columnNames.indexOf(name));
+        }
+
+        @Override
+        public List<? extends ColumnMetadata> getColumnMetadatas() {
+            List<ColumnMetadata> columnMetadatas = new ArrayList<>();
+            for (int i = 0; i < columnNames.size(); i++) {
+                String name = columnNames.get(i);
+                Class<?> javaType = javaTypes.get(i);
+                columnMetadatas.add(new ColumnMetadata() {
+                    @Override
+                    public Type getType() {
+                        return null;
+                    }
+
+                    @Override
+                    public String getName() {
+                        return name;
+                    }
+
+                    @Override
+                    public Class<?> getJavaType() {
+                        return javaType;
+                    }
+                });
+            }
+            return columnMetadatas;
+        }
+    }
+}
@@ -0,0 +1,418 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.handler;
+
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Type;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultFlag;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybatisConfiguration;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.ReadableResultShape;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.ReadableResultWrapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+class DefaultReactiveResultHandlerTests {
+
+    private final R2dbcMybatisConfiguration configuration = new R2dbcMybatisConfiguration();
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void handleMultipleResultsGrouped() {
+        ResultMap dept = this.resultMap("test.dept", Collections.emptyList());
+        ResultMap emp = this.resultMap("test.emp", Collections.emptyList());
+        MappedStatement mappedStatement = this.select(Arrays.asList(dept, emp), null);
+        List<List<Object[]>> results = Arrays.asList(
+                Arrays.asList(new Object[]{1L, "a"}, new Object[]{2L, "b"}),
+                Collections.emptyList()
+        );
+        List<Object> resultObjects = this.handle(mappedStatement, Arrays.asList("dept_no", "dept_name"), results);
+        Assertions.assertEquals(2, resultObjects.size());
+        List<Map<String, Object>> depts = (List<Map<String, Object>>) resultObjects.get(0);
+        Assertions.assertEquals(2, depts.size());
+        Assertions.assertEquals("b", depts.get(1).get("dept_name"));
+        Assertions.assertTrue(((List<?>) resultObjects.get(1)).isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void handleMultipleResultsLinkedByResultSet() {
+        ResultMap emp = this.resultMap("test.emp", Collections.emptyList());
+        ResultMapping emps = new ResultMapping.Builder(configuration, "emps", "dept_no", List.class)
+                .nestedResultMapId(emp.getId())
+                .resultSet("emps")
+                .foreignColumn("dept_no")
+                .build();
+        ResultMap dept = this.resultMap("test.dept", Collections.singletonList(emps));
+        MappedStatement mappedStatement = this.select(Collections.singletonList(dept), new String[]{"depts", "emps"});
+        List<List<Object[]>> results = Arrays.asList(
+                Arrays.asList(new Object[]{1L, "a"}, new Object[]{2L, "b"}),
+                Arrays.asList(new Object[]{1L, "emp-1"}, new Object[]{1L, "emp-2"}, new Object[]{3L, "emp-3"})
+        );
+        List<Object> resultObjects = this.handle(mappedStatement, Arrays.asList("dept_no", "dept_name"), results);
+        Assertions.assertEquals(2, resultObjects.size());
+        Map<String, Object> first = (Map<String, Object>) resultObjects.get(0);
+        Assertions.assertEquals(2, ((List<?>) first.get("emps")).size());
+        Map<String, Object> second = (Map<String, Object>) resultObjects.get(1);
+        Assertions.assertNull(second.get("emps"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void handleMultipleResultsWithDistinctColumnsIgnoringUnmappedResult() {
+        ResultMap dept = this.resultMap("test.dept", Collections.emptyList());
+        ResultMap emp = this.resultMap("test.emp", Collections.emptyList());
+        MappedStatement mappedStatement = this.select(Arrays.asList(dept, emp), null);
+        List<List<String>> columnNames = Arrays.asList(
+                Arrays.asList("dept_no", "dept_name"),
+                Arrays.asList("emp_no", "dept_no"),
+                Collections.singletonList("total")
+        );
+        List<List<Object[]>> results = Arrays.asList(
+                Collections.singletonList(new Object[]{1L, "a"}),
+                Arrays.asList(new Object[]{10L, 1L}, new Object[]{20L, 2L}),
+                Collections.singletonList(new Object[]{3L})
+        );
+        List<Object> resultObjects = this.handleWithColumnNames(mappedStatement, columnNames, results);
+        Assertions.assertEquals(2, resultObjects.size());
+        List<Map<String, Object>> depts = (List<Map<String, Object>>) resultObjects.get(0);
+        Assertions.assertEquals(1, depts.size());
+        Assertions.assertEquals("a", depts.get(0).get("dept_name"));
+        List<Map<String, Object>> emps = (List<Map<String, Object>>) resultObjects.get(1);
+        Assertions.assertEquals(2, emps.size());
+        Assertions.assertEquals(20L, emps.get(1).get("emp_no"));
+        Assertions.assertFalse(emps.get(0).containsKey("dept_name"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void handleUnorderedNestedResultMapWithSpill() {
+        configuration.setNestedResultObjectsLimit(2);
+        configuration.setNestedResultMapLimitPolicy(NestedResultMapLimitPolicy.SPILL);
+        ResultMapping empNo = new ResultMapping.Builder(configuration, "emp_no", "emp_no", Long.class)
+                .flags(Collections.singletonList(ResultFlag.ID))
+                .build();
+        ResultMap emp = new ResultMap.Builder(configuration, "test.spill.emp", HashMap.class, Collections.singletonList(empNo), true).build();
+        configuration.addResultMap(emp);
+        ResultMapping emps = new ResultMapping.Builder(configuration, "emps", null, List.class)
+                .nestedResultMapId(emp.getId())
+                .build();
+        ResultMap dept = this.resultMap("test.spill.dept", Collections.singletonList(emps));
+        MappedStatement mappedStatement = this.select(Collections.singletonList(dept), null);
+        DefaultReactiveResultHandler reactiveResultHandler = new DefaultReactiveResultHandler(configuration, mappedStatement, null, null);
+        Assertions.assertTrue(reactiveResultHandler.isSpillable());
+        AtomicReference<ReadableResultShape> readableResultShapeReference = new AtomicReference<>();
+        List<String> columnNames = Arrays.asList("dept_no", "emp_no");
+        for (long empNoValue = 0; empNoValue < 60; empNoValue++) {
+            Row row = new TestRow(columnNames, new Object[]{empNoValue % 20, empNoValue});
+            Assertions.assertNull(reactiveResultHandler.handleResult(ReadableResultWrapper.ofRow(row, readableResultShapeReference, configuration)).blockFirst());
+        }
+        List<Map<String, Object>> depts = reactiveResultHandler.<Map<String, Object>>getRemainedResults()
+                .collectList()
+                .block();
+        reactiveResultHandler.cleanup();
+        Assertions.assertNotNull(depts);
+        Assertions.assertEquals(20, depts.size());
+        Set<Object> deptNos = new HashSet<>();
+        for (Map<String, Object> deptObject : depts) {
+            Assertions.assertTrue(deptNos.add(deptObject.get("dept_no")));
+            List<Map<String, Object>> deptEmps = (List<Map<String, Object>>) deptObject.get("emps");
+            Assertions.assertEquals(3, deptEmps.size());
+            for (Map<String, Object> empObject : deptEmps) {
+                Assertions.assertEquals(deptObject.get("dept_no"), (Long) empObject.get("emp_no") % 20);
+            }
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void handleOrderedNestedResultMapWithStreaming() {
+        configuration.setStreamingNestedResultMap(true);
+        MappedStatement mappedStatement = this.select(Collections.singletonList(this.nestedDeptResultMap()), null);
+        DefaultReactiveResultHandler reactiveResultHandler = new DefaultReactiveResultHandler(configuration, mappedStatement, null, null);
+        Assertions.assertFalse(reactiveResultHandler.isSpillable());
+        AtomicReference<ReadableResultShape> readableResultShapeReference = new AtomicReference<>();
+        List<String> columnNames = Arrays.asList("dept_no", "emp_no");
+        List<Object[]> rows = Arrays.asList(
+                new Object[]{1L, 10L},
+                new Object[]{1L, 11L},
+                new Object[]{2L, 20L},
+                new Object[]{3L, 30L},
+                new Object[]{3L, 31L},
+                new Object[]{3L, 32L}
+        );
+        // the parent object emitted by each row,null until the group boundary of the parent is reached
+        List<Long> expectedEmittedDeptNos = Arrays.asList(null, null, 1L, 2L, null, null);
+        List<Map<String, Object>> depts = new ArrayList<>();
+        for (int rowIndex = 0; rowIndex < rows.size(); rowIndex++) {
+            Row row = new TestRow(columnNames, rows.get(rowIndex));
+            Map<String, Object> emitted = reactiveResultHandler.<Map<String, Object>>handleResult(ReadableResultWrapper.ofRow(row, readableResultShapeReference, configuration))
+                    .blockFirst();
+            Assertions.assertEquals(expectedEmittedDeptNos.get(rowIndex), emitted == null ? null : emitted.get("dept_no"));
+            if (emitted != null) {
+                depts.add(emitted);
+            }
+        }
+        depts.addAll(reactiveResultHandler.<Map<String, Object>>getRemainedResults().collectList().block());
+        Assertions.assertEquals(3, depts.size());
+        Assertions.assertEquals(Arrays.asList(2, 1, 3), depts.stream()
+                .map(dept -> ((List<?>) dept.get("emps")).size())
+                .collect(Collectors.toList()));
+        Assertions.assertEquals(3L, depts.get(2).get("dept_no"));
+    }
+
+    @Test
+    void handleUnorderedNestedResultMapWithStreaming() {
+        configuration.setStreamingNestedResultMap(true);
+        MappedStatement mappedStatement = this.select(Collections.singletonList(this.nestedDeptResultMap()), null);
+        DefaultReactiveResultHandler reactiveResultHandler = new DefaultReactiveResultHandler(configuration, mappedStatement, null, null);
+        AtomicReference<ReadableResultShape> readableResultShapeReference = new AtomicReference<>();
+        List<String> columnNames = Arrays.asList("dept_no", "emp_no");
+        List<Object[]> rows = Arrays.asList(new Object[]{1L, 10L}, new Object[]{2L, 20L});
+        for (Object[] values : rows) {
+            reactiveResultHandler.handleResult(ReadableResultWrapper.ofRow(new TestRow(columnNames, values), readableResultShapeReference, configuration))
+                    .blockFirst();
+        }
+        // rows of the same parent object are not adjacent,the parent object must not be split
+        Row unorderedRow = new TestRow(columnNames, new Object[]{1L, 11L});
+        ExecutorException executorException = Assertions.assertThrows(ExecutorException.class, () -> reactiveResultHandler.handleResult(ReadableResultWrapper.ofRow(unorderedRow, readableResultShapeReference, configuration))
+                .blockFirst());
+        Assertions.assertTrue(executorException.getMessage().contains(mappedStatement.getId()));
+    }
+
+    @Test
+    void handleSimpleResultMapWithCompiledRowMapper() {
+        ResultMapping id = new ResultMapping.Builder(configuration, "id", "emp_id", Long.class).build();
+        ResultMap resultMap = new ResultMap.Builder(configuration, "test.employee", TestEmployee.class, Collections.singletonList(id), true).build();
+        configuration.addResultMap(resultMap);
+        MappedStatement mappedStatement = this.select(Collections.singletonList(resultMap), null);
+        List<String> columnNames = Arrays.asList("emp_id", "name", "age", "note");
+        List<Object[]> rows = Arrays.asList(new Object[]{1L, "a", 30, "note-1"}, new Object[]{2L, null, 40, null});
+        List<TestEmployee> compiled = this.handleSimple(mappedStatement, columnNames, rows);
+        configuration.setCompiledRowMapperEnabled(false);
+        List<TestEmployee> reflected = this.handleSimple(mappedStatement, columnNames, rows);
+        configuration.setCompiledRowMapperEnabled(true);
+        Assertions.assertEquals(reflected, compiled);
+        Assertions.assertEquals(2L, compiled.get(1).getId());
+        Assertions.assertEquals("unknown", compiled.get(1).getName());
+        Assertions.assertEquals(40, compiled.get(1).getAge());
+        Assertions.assertEquals("note-1", compiled.get(0).note);
+        ReadableResultWrapper<Row> readableResultWrapper = ReadableResultWrapper.ofRow(new TestRow(columnNames, rows.get(0)), configuration);
+        CompiledRowMapperFactory compiledRowMapperFactory = configuration.getCompiledRowMapperFactory();
+        Assertions.assertTrue(compiledRowMapperFactory.getCompiledRowMapper(mappedStatement, readableResultWrapper, resultMap, null, TestEmployee.class, true).isPresent());
+        ResultMap mapResultMap = this.resultMap("test.map", Collections.emptyList());
+        Assertions.assertFalse(compiledRowMapperFactory.getCompiledRowMapper(mappedStatement, readableResultWrapper, mapResultMap, null, HashMap.class, true).isPresent());
+    }
+
+    private List<TestEmployee> handleSimple(MappedStatement mappedStatement, List<String> columnNames, List<Object[]> rows) {
+        DefaultReactiveResultHandler reactiveResultHandler = new DefaultReactiveResultHandler(configuration, mappedStatement, null, null);
+        AtomicReference<ReadableResultShape> readableResultShapeReference = new AtomicReference<>();
+        List<TestEmployee> resultObjects = new ArrayList<>();
+        for (Object[] values : rows) {
+            ReadableResultWrapper<Row> readableResultWrapper = ReadableResultWrapper.ofRow(new TestRow(columnNames, values), readableResultShapeReference, configuration);
+            reactiveResultHandler.<TestEmployee>handleResult(readableResultWrapper).subscribe(resultObjects::add);
+        }
+        return resultObjects;
+    }
+
+    private List<Object> handle(MappedStatement mappedStatement, List<String> columnNames, List<List<Object[]>> results) {
+        return this.handleWithColumnNames(mappedStatement, Collections.nCopies(results.size(), columnNames), results);
+    }
+
+    private List<Object> handleWithColumnNames(MappedStatement mappedStatement, List<List<String>> columnNames, List<List<Object[]>> results) {
+        DefaultReactiveResultHandler reactiveResultHandler = new DefaultReactiveResultHandler(configuration, mappedStatement, null, null);
+        List<Object> resultObjects = new ArrayList<>();
+        for (int resultIndex = 0; resultIndex < results.size(); resultIndex++) {
+            AtomicReference<ReadableResultShape> readableResultShapeReference = new AtomicReference<>();
+            for (Object[] values : results.get(resultIndex)) {
+                ReadableResultWrapper<Row> readableResultWrapper = ReadableResultWrapper.ofRow(new TestRow(columnNames.get(resultIndex), values), readableResultShapeReference, configuration);
+                reactiveResultHandler.handleResult(readableResultWrapper, resultIndex).subscribe(resultObjects::add);
+            }
+            reactiveResultHandler.completeResult(resultIndex).subscribe(resultObjects::add);
+        }
+        reactiveResultHandler.getRemainedResults().subscribe(resultObjects::add);
+        return resultObjects;
+    }
+
+    private ResultMap resultMap(String id, List<ResultMapping> propertyMappings) {
+        List<ResultMapping> resultMappings = new ArrayList<>();
+        resultMappings.add(new ResultMapping.Builder(configuration, "dept_no", "dept_no", Long.class)
+                .flags(Collections.singletonList(ResultFlag.ID))
+                .build());
+        resultMappings.addAll(propertyMappings);
+        ResultMap resultMap = new ResultMap.Builder(configuration, id, HashMap.class, resultMappings, true).build();
+        configuration.addResultMap(resultMap);
+        return resultMap;
+    }
+
+    private ResultMap nestedDeptResultMap() {
+        ResultMapping empNo = new ResultMapping.Builder(configuration, "emp_no", "emp_no", Long.class)
+                .flags(Collections.singletonList(ResultFlag.ID))
+                .build();
+        ResultMap emp = new ResultMap.Builder(configuration, "test.nested.emp", HashMap.class, Collections.singletonList(empNo), true).build();
+        configuration.addResultMap(emp);
+        ResultMapping emps = new ResultMapping.Builder(configuration, "emps", null, List.class)
+                .nestedResultMapId(emp.getId())
+                .build();
+        return this.resultMap("test.nested.dept", Collections.singletonList(emps));
+    }
+
+    private MappedStatement select(List<ResultMap> resultMaps, String[] resultSets) {
+        MappedStatement.Builder builder = new MappedStatement.Builder(configuration, "test.select", new StaticSqlSource(configuration, "SELECT * FROM test"), SqlCommandType.SELECT)
+                .resultMaps(resultMaps);
+        if (resultSets != null) {
+            builder.resultSets(String.join(",", resultSets));
+        }
+        return builder.build();
+    }
+
+    public static class TestEmployee {
+
+        private Long id;
+        private String name = "unknown";
+        private int age;
+        public String note;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public TestEmployee setAge(int age) {
+            this.age = age;
+            return this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TestEmployee)) {
+                return false;
+            }
+            TestEmployee that = (TestEmployee) o;
+            return age == that.age && Objects.equals(id, that.id) && Objects.equals(name, that.name) && Objects.equals(note, that.note);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, name, age, note);
+        }
+    }
+
+    private static class TestRow implements Row, RowMetadata {
+
+        private final List<String> columnNames;
+        private final Object[] values;
+
+        TestRow(List<String> columnNames, Object[] values) {
+            this.columnNames = columnNames;
+            this.values = values;
+        }
+
+        @Override
+        public RowMetadata getMetadata() {
+            return this;
+        }
+
+        @Override
+        public Object get(int index) {
+            return values[index];
+        }
+
+        @Override
+        public <T> T get(int index, Class<T> type) {
+            return type.cast(values[index]);
+        }
+
+        @Override
+        public <T> T get(String name, Class<T> type) {
+            return this.get(columnNames.indexOf(name), type);
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(int index) {
+            return this.getColumnMetadatas().get(index);
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(String name) {
+            return this.getColumnMetadata(columnNames.indexOf(name));
+        }
+
+        @Override
+        public List<? extends ColumnMetadata> getColumnMetadatas() {
+            return columnNames.stream()
+                    .map(name -> new ColumnMetadata() {
+                        @Override
+                        public Type getType() {
+                            return null;
+                        }
+
+                        @Override
+                        public String getName() {
+                            return name;
+                        }
+
+                        @Override
+                        public Class<?> getJavaType() {
+                            return Object.class;
+                        }
+                    })
+                    .collect(Collectors.toList());
+        }
+    }
+}
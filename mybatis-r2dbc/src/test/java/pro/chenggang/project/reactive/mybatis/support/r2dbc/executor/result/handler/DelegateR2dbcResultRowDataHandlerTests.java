@@ -0,0 +1,107 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.handler;
+
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.EnumTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.LongTypeHandler;
+import org.apache.ibatis.type.StringTypeHandler;
+import org.apache.ibatis.type.TypeHandler;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybatisConfiguration;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+
+/**
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+class DelegateR2dbcResultRowDataHandlerTests {
+
+    private final R2dbcMybatisConfiguration configuration = new R2dbcMybatisConfiguration();
+    private final DelegateR2dbcResultRowDataHandler rowDataHandler = new DelegateR2dbcResultRowDataHandler(
+            configuration.getNotSupportedDataTypes(),
+            configuration.getR2dbcTypeHandlerAdapterRegistry()
+    );
+
+    @Test
+    void resolveTargetTypeFromTypeHandler() {
+        Assertions.assertEquals(String.class, this.targetTypeOf(Object.class, new StringTypeHandler()));
+        Assertions.assertEquals(Long.class, this.targetTypeOf(Object.class, new LongTypeHandler()));
+        // the type variable of generic type handler without class bound keeps the target type
+        Assertions.assertEquals(JdbcType.class, this.targetTypeOf(JdbcType.class, new EnumTypeHandler<>(JdbcType.class)));
+        // the raw type of parameterized type argument
+        Assertions.assertEquals(List.class, this.targetTypeOf(Object.class, new ListTypeHandler()));
+        // type handler without type argument keeps the target type
+        Assertions.assertEquals(Integer.class, this.targetTypeOf(Integer.class, new RawTypeHandler()));
+    }
+
+    private Class<?> targetTypeOf(Class<?> targetType, TypeHandler<?> typeHandler) {
+        rowDataHandler.contextWith(targetType, typeHandler, null);
+        return rowDataHandler.getTargetType();
+    }
+
+    private static class ListTypeHandler extends BaseTypeHandler<List<String>> {
+
+        @Override
+        public void setNonNullParameter(PreparedStatement ps, int i, List<String> parameter, JdbcType jdbcType) {
+        }
+
+        @Override
+        public List<String> getNullableResult(ResultSet rs, String columnName) {
+            return null;
+        }
+
+        @Override
+        public List<String> getNullableResult(ResultSet rs, int columnIndex) {
+            return null;
+        }
+
+        @Override
+        public List<String> getNullableResult(CallableStatement cs, int columnIndex) {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static class RawTypeHandler implements TypeHandler {
+
+        @Override
+        public void setParameter(PreparedStatement ps, int i, Object parameter, JdbcType jdbcType) {
+        }
+
+        @Override
+        public Object getResult(ResultSet rs, String columnName) {
+            return null;
+        }
+
+        @Override
+        public Object getResult(ResultSet rs, int columnIndex) {
+            return null;
+        }
+
+        @Override
+        public Object getResult(CallableStatement cs, int columnIndex) {
+            return null;
+        }
+    }
+}
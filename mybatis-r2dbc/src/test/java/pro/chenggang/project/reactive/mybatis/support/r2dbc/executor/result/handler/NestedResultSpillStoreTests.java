@@ -0,0 +1,153 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.handler;
+
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Type;
+import org.apache.ibatis.executor.ExecutorException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.result.SpilledRow;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+class NestedResultSpillStoreTests {
+
+    @Test
+    void writeAndReadSpilledRows() {
+        SpilledRow.Metadata metadata = null;
+        try (NestedResultSpillStore spillStore = NestedResultSpillStore.create("test.select", SpilledRow.Metadata.of(new TestRow(0L).getMetadata()), 4)) {
+            for (long i = 0; i < 3_000; i++) {
+                SpilledRow spilledRow = SpilledRow.capture(new TestRow(i), metadata);
+                metadata = spilledRow.getMetadata();
+                spillStore.write(spilledRow, (int) i);
+            }
+            Assertions.assertEquals(3_000, spillStore.getRowCount());
+            long readCount = 0;
+            for (int partition = 0; partition < spillStore.getPartitionCount(); partition++) {
+                Assertions.assertEquals(750, spillStore.getRowCount(partition));
+                try (NestedResultSpillStore.Reader reader = spillStore.openReader(partition)) {
+                    long expected = partition;
+                    SpilledRow spilledRow;
+                    while ((spilledRow = reader.next()) != null) {
+                        Assertions.assertEquals((int) expected, reader.getRowKeyHash());
+                        Assertions.assertEquals((int) expected, spilledRow.get("ID", Integer.class));
+                        Assertions.assertEquals("name-" + expected, spilledRow.get("name", String.class));
+                        ByteBuffer content = spilledRow.get(2, ByteBuffer.class);
+                        Assertions.assertEquals(expected % 128, content.get());
+                        expected += spillStore.getPartitionCount();
+                        readCount++;
+                    }
+                }
+            }
+            Assertions.assertEquals(3_000, readCount);
+            try (NestedResultSpillStore splitStore = spillStore.split(1, 3)) {
+                Assertions.assertEquals(750, splitStore.getRowCount());
+                for (int partition = 0; partition < splitStore.getPartitionCount(); partition++) {
+                    try (NestedResultSpillStore.Reader reader = splitStore.openReader(partition)) {
+                        SpilledRow spilledRow;
+                        while ((spilledRow = reader.next()) != null) {
+                            Assertions.assertEquals(1, Math.floorMod(spilledRow.get("id", Integer.class), 4));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void spillNotSerializableValue() {
+        TestRow row = new TestRow(1L);
+        row.values[1] = new Object();
+        SpilledRow spilledRow = SpilledRow.capture(row, null);
+        try (NestedResultSpillStore spillStore = NestedResultSpillStore.create("test.select", spilledRow.getMetadata(), 4)) {
+            Assertions.assertThrows(ExecutorException.class, () -> spillStore.write(spilledRow, 1));
+        }
+    }
+
+    private static class TestRow implements Row, RowMetadata {
+
+        private static final List<String> COLUMN_NAMES = Arrays.asList("id", "name", "content");
+
+        private final Object[] values;
+
+        TestRow(long id) {
+            this.values = new Object[]{id, "name-" + id, ByteBuffer.wrap(new byte[]{(byte) (id % 128)})};
+        }
+
+        @Override
+        public RowMetadata getMetadata() {
+            return this;
+        }
+
+        @Override
+        public Object get(int index) {
+            return values[index];
+        }
+
+        @Override
+        public <T> T get(int index, Class<T> type) {
+            return type.cast(values[index]);
+        }
+
+        @Override
+        public <T> T get(String name, Class<T> type) {
+            return this.get(COLUMN_NAMES.indexOf(name), type);
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(int index) {
+            return this.getColumnMetadatas().get(index);
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(String name) {
+            return this.getColumnMetadata(COLUMN_NAMES.indexOf(name));
+        }
+
+        @Override
+        public List<? extends ColumnMetadata> getColumnMetadatas() {
+            return COLUMN_NAMES.stream()
+                    .map(name -> new ColumnMetadata() {
+                        @Override
+                        public Type getType() {
+                            return null;
+                        }
+
+                        @Override
+                        public String getName() {
+                            return name;
+                        }
+
+                        @Override
+                        public Class<?> getJavaType() {
+                            return null;
+                        }
+                    })
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybatisConfiguration;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+class AdaptiveFetchSizeTests {
+
+    private final R2dbcMybatisConfiguration configuration = new R2dbcMybatisConfiguration();
+    private final AdaptiveFetchSize adaptiveFetchSize = new AdaptiveFetchSize(configuration);
+
+    @Test
+    void resolveFetchSize() {
+        configuration.setStreamingFetchSizeMax(500);
+        configuration.addStreamingStatement("test.streaming");
+        configuration.addStreamingStatement("test.bounded");
+        MappedStatement streaming = this.select("test.streaming", null, null);
+        MappedStatement mysqlStreaming = this.select("test.mysqlStreaming", null, Integer.MIN_VALUE);
+        Assertions.assertTrue(adaptiveFetchSize.isStreaming(streaming));
+        Assertions.assertTrue(adaptiveFetchSize.isStreaming(mysqlStreaming));
+        Assertions.assertFalse(adaptiveFetchSize.isStreaming(this.select("test.select", null, 100)));
+        // forward only result set type alone doesn't enable streaming
+        Assertions.assertFalse(adaptiveFetchSize.isStreaming(this.select("test.forwardOnly", ResultSetType.FORWARD_ONLY, null)));
+        Assertions.assertEquals(32, adaptiveFetchSize.resolveFetchSize(streaming, RowBounds.DEFAULT, 32));
+        Assertions.assertEquals(500, adaptiveFetchSize.resolveFetchSize(streaming, RowBounds.DEFAULT, Long.MAX_VALUE));
+        Assertions.assertEquals(15, adaptiveFetchSize.resolveFetchSize(streaming, new RowBounds(5, 10), Long.MAX_VALUE));
+        Assertions.assertEquals(500, adaptiveFetchSize.resolveFetchSize(mysqlStreaming, RowBounds.DEFAULT, Long.MAX_VALUE));
+        Assertions.assertEquals(40, adaptiveFetchSize.resolveFetchSize(this.select("test.bounded", null, 40), RowBounds.DEFAULT, 256));
+    }
+
+    @Test
+    void onFirstDemand() {
+        List<Long> demands = new CopyOnWriteArrayList<>();
+        Flux<Long> flux = AdaptiveFetchSize.onFirstDemand(demand -> {
+            demands.add(demand);
+            return Flux.range(0, 100).map(Integer::longValue);
+        });
+        StepVerifier.create(flux, 8)
+                .expectNextCount(8)
+                .thenRequest(92)
+                .expectNextCount(92)
+                .verifyComplete();
+        Assertions.assertEquals(1, demands.size());
+        Assertions.assertEquals(8L, demands.get(0));
+    }
+
+    private MappedStatement select(String id, ResultSetType resultSetType, Integer fetchSize) {
+        return new MappedStatement.Builder(configuration, id, new StaticSqlSource(configuration, "SELECT * FROM test"), SqlCommandType.SELECT)
+                .resultSetType(resultSetType)
+                .fetchSize(fetchSize)
+                .build();
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ResultFlag;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.defaults.DefaultReactiveSqlSession;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.defaults.KeysetPagination;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybatisConfiguration;
+import reactor.test.StepVerifier;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+class KeysetSqlSourceTests {
+
+    private final R2dbcMybatisConfiguration configuration = new R2dbcMybatisConfiguration();
+    private final KeysetPagination keysetPagination = KeysetPagination.descending(10,
+            KeysetPagination.SortKey.of("created_at", "createdAt"),
+            KeysetPagination.SortKey.of("id", "id")
+    );
+
+    @Test
+    void firstPage() {
+        MappedStatement pageStatement = KeysetSqlSource.newPageStatement(this.select(), keysetPagination, null);
+        BoundSql boundSql = pageStatement.getBoundSql(1L);
+        Assertions.assertEquals("SELECT * FROM (SELECT id, created_at FROM test WHERE type = ?) keyset_page ORDER BY created_at DESC, id DESC",
+                boundSql.getSql());
+        Assertions.assertEquals(1, boundSql.getParameterMappings().size());
+        Assertions.assertTrue(pageStatement.isFlushCacheRequired());
+        Assertions.assertFalse(pageStatement.isUseCache());
+    }
+
+    @Test
+    void nextPage() {
+        Map<String, Object> lastResult = new HashMap<>();
+        lastResult.put("createdAt", 20240101L);
+        lastResult.put("id", 42L);
+        Object[] lastKeyValues = KeysetSqlSource.extractKeyValues(configuration, keysetPagination, lastResult);
+        Assertions.assertArrayEquals(new Object[]{20240101L, 42L}, lastKeyValues);
+        BoundSql boundSql = KeysetSqlSource.newPageStatement(this.select(), keysetPagination, lastKeyValues)
+                .getBoundSql(1L);
+        Assertions.assertEquals("SELECT * FROM (SELECT id, created_at FROM test WHERE type = ?) keyset_page"
+                        + " WHERE (created_at < ?) OR (created_at = ? AND id < ?) ORDER BY created_at DESC, id DESC",
+                boundSql.getSql());
+        List<Object> keysetValues = boundSql.getParameterMappings()
+                .stream()
+                .skip(1)
+                .map(parameterMapping -> boundSql.getAdditionalParameter(parameterMapping.getProperty()))
+                .collect(Collectors.toList());
+        Assertions.assertEquals(Arrays.asList(20240101L, 20240101L, 42L), keysetValues);
+        lastResult.put("id", null);
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> KeysetSqlSource.extractKeyValues(configuration, keysetPagination, lastResult)
+        );
+    }
+
+    @Test
+    void rejectNestedResultMapsLazily() {
+        ResultMap child = new ResultMap.Builder(configuration, "test.child", HashMap.class, Collections.emptyList(), true).build();
+        configuration.addResultMap(child);
+        List<ResultMapping> resultMappings = Arrays.asList(
+                new ResultMapping.Builder(configuration, "id", "id", Long.class)
+                        .flags(Collections.singletonList(ResultFlag.ID))
+                        .build(),
+                new ResultMapping.Builder(configuration, "children", null, List.class)
+                        .nestedResultMapId(child.getId())
+                        .build()
+        );
+        ResultMap parent = new ResultMap.Builder(configuration, "test.parent", HashMap.class, resultMappings, true).build();
+        configuration.addResultMap(parent);
+        MappedStatement nestedStatement = new MappedStatement.Builder(configuration, "test.selectNested", this.select().getSqlSource(), SqlCommandType.SELECT)
+                .resultMaps(Collections.singletonList(parent))
+                .build();
+        configuration.addMappedStatement(nestedStatement);
+        DefaultReactiveSqlSession reactiveSqlSession = new DefaultReactiveSqlSession(configuration, null, null);
+        StepVerifier.create(reactiveSqlSession.selectKeyset(nestedStatement.getId(), 1L, keysetPagination))
+                .expectError(UnsupportedOperationException.class)
+                .verify();
+    }
+
+    private MappedStatement select() {
+        StaticSqlSource sqlSource = new StaticSqlSource(configuration,
+                "SELECT id, created_at FROM test WHERE type = ?;",
+                Collections.singletonList(new ParameterMapping.Builder(configuration, "type", Long.class).build())
+        );
+        return new MappedStatement.Builder(configuration, "test.select", sqlSource, SqlCommandType.SELECT)
+                .build();
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybatisConfiguration;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+class LazyNestedSelectLoaderTests {
+
+    private final R2dbcMybatisConfiguration configuration = new R2dbcMybatisConfiguration();
+    private final MappedStatement nestedQuery = this.select("test.selectChildren");
+    private final MappedStatement batchQuery = this.select("test.selectChildrenBatch");
+    private final List<Collection<?>> executedKeys = new ArrayList<>();
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void loadWhenSubscribed() {
+        configuration.setLazyLoadBatchWindow(Duration.ofMillis(50));
+        configuration.addNestedSelectBatch(nestedQuery.getId(), batchQuery.getId(), "parentId");
+        LazyNestedSelectLoader lazyNestedSelectLoader = new LazyNestedSelectLoader(configuration, new NestedSelectLoader(configuration), this::query);
+        List<Map<String, Object>> parents = new ArrayList<>();
+        for (NestedSelectLoad nestedSelectLoad : this.loads(parents, Flux.class, 1L, 2L, 3L)) {
+            Assertions.assertTrue(nestedSelectLoad.isLazy());
+            lazyNestedSelectLoader.resolve(nestedSelectLoad);
+        }
+        Assertions.assertTrue(executedKeys.isEmpty());
+        List<List<Object>> children = Flux.fromIterable(parents)
+                .flatMapSequential(parent -> ((Flux<Object>) parent.get("children")).collectList())
+                .collectList()
+                .block();
+        Assertions.assertNotNull(children);
+        Assertions.assertEquals(1, executedKeys.size());
+        Assertions.assertEquals(3, executedKeys.get(0).size());
+        Assertions.assertEquals(2, children.get(0).size());
+        Assertions.assertEquals(2, children.get(1).size());
+        Assertions.assertTrue(children.get(2).isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void loadMonoProperty() {
+        LazyNestedSelectLoader lazyNestedSelectLoader = new LazyNestedSelectLoader(configuration, new NestedSelectLoader(configuration), this::query);
+        List<Map<String, Object>> parents = new ArrayList<>();
+        this.loads(parents, Mono.class, 1L, 3L).forEach(lazyNestedSelectLoader::resolve);
+        Assertions.assertThrows(Exception.class, () -> ((Mono<Object>) parents.get(0).get("children")).block());
+        Assertions.assertNull(((Mono<Object>) parents.get(1).get("children")).block());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void loadWithinContextOfSubscriber() {
+        configuration.setLazyLoadBatchWindow(Duration.ofMillis(50));
+        configuration.addNestedSelectBatch(nestedQuery.getId(), batchQuery.getId(), "parentId");
+        List<String> tenants = new ArrayList<>();
+        LazyNestedSelectLoader lazyNestedSelectLoader = new LazyNestedSelectLoader(configuration, new NestedSelectLoader(configuration),
+                (mappedStatement, parameter) -> Flux.deferContextual(contextView -> {
+                    synchronized (tenants) {
+                        tenants.add(contextView.get("tenant"));
+                    }
+                    return this.query(mappedStatement, parameter);
+                })
+        );
+        List<Map<String, Object>> parents = new ArrayList<>();
+        this.loads(parents, Flux.class, 1L, 2L, 3L).forEach(lazyNestedSelectLoader::resolve);
+        Mono<Long> tenantA = Flux.fromIterable(parents.subList(0, 2))
+                .flatMap(parent -> (Flux<Object>) parent.get("children"))
+                .count()
+                .contextWrite(context -> context.put("tenant", "a"));
+        Mono<Long> tenantB = Flux.fromIterable(parents.subList(2, 3))
+                .flatMap(parent -> (Flux<Object>) parent.get("children"))
+                .count()
+                .contextWrite(context -> context.put("tenant", "b"));
+        Assertions.assertEquals(4L, Mono.zip(tenantA, tenantB, Long::sum).block());
+        Assertions.assertEquals(2, executedKeys.size());
+        tenants.sort(String::compareTo);
+        Assertions.assertEquals(Arrays.asList("a", "b"), tenants);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void cancelPendingLoad() throws InterruptedException {
+        configuration.setLazyLoadBatchWindow(Duration.ofMillis(50));
+        LazyNestedSelectLoader lazyNestedSelectLoader = new LazyNestedSelectLoader(configuration, new NestedSelectLoader(configuration), this::query);
+        List<Map<String, Object>> parents = new ArrayList<>();
+        this.loads(parents, Flux.class, 1L).forEach(lazyNestedSelectLoader::resolve);
+        ((Flux<Object>) parents.get(0).get("children")).subscribe().dispose();
+        Thread.sleep(150);
+        Assertions.assertTrue(executedKeys.isEmpty());
+        Assertions.assertEquals(2, ((Flux<Object>) parents.get(0).get("children")).count().block());
+    }
+
+    private Flux<Object> query(MappedStatement mappedStatement, Object parameter) {
+        Collection<?> keys;
+        if (mappedStatement == batchQuery) {
+            keys = (Collection<?>) ((Map<?, ?>) parameter).get("list");
+        } else {
+            keys = Collections.singletonList(parameter);
+        }
+        executedKeys.add(keys);
+        return Flux.fromIterable(keys)
+                .filter(key -> !key.equals(3L))
+                .flatMap(key -> Flux.just(this.child(key), this.child(key)));
+    }
+
+    private List<NestedSelectLoad> loads(List<Map<String, Object>> parents, Class<?> propertyType, Long... keys) {
+        ResultMapping propertyMapping = new ResultMapping.Builder(configuration, "children", "parent_id", propertyType)
+                .nestedQueryId(nestedQuery.getId())
+                .lazy(true)
+                .build();
+        List<NestedSelectLoad> nestedSelectLoads = new ArrayList<>();
+        for (Long key : keys) {
+            Map<String, Object> parent = new HashMap<>();
+            parents.add(parent);
+            nestedSelectLoads.add(new NestedSelectLoad(configuration.newMetaObject(parent), propertyMapping, nestedQuery, key));
+        }
+        return nestedSelectLoads;
+    }
+
+    private Object child(Object parentId) {
+        Map<String, Object> child = new HashMap<>();
+        child.put("parentId", parentId);
+        return child;
+    }
+
+    private MappedStatement select(String id) {
+        MappedStatement mappedStatement = new MappedStatement.Builder(configuration, id, new StaticSqlSource(configuration, "SELECT * FROM test"), SqlCommandType.SELECT)
+                .build();
+        configuration.addMappedStatement(mappedStatement);
+        return mappedStatement;
+    }
+}
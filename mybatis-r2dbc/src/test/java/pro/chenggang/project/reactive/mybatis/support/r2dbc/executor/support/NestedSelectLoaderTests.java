@@ -0,0 +1,127 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultFlag;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybatisConfiguration;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+class NestedSelectLoaderTests {
+
+    private final R2dbcMybatisConfiguration configuration = new R2dbcMybatisConfiguration();
+    private final MappedStatement nestedQuery = this.select("test.selectChildren");
+    private final MappedStatement batchQuery = this.select("test.selectChildrenBatch");
+
+    @Test
+    void loadPerDistinctKey() {
+        NestedSelectLoader nestedSelectLoader = new NestedSelectLoader(configuration);
+        List<Map<String, Object>> parents = new ArrayList<>();
+        List<NestedSelectLoad> nestedSelectLoads = this.loads(parents, 1L, 2L, 1L);
+        List<Object> executedParameters = new ArrayList<>();
+        nestedSelectLoader.load(nestedSelectLoads, (mappedStatement, parameter) -> {
+            Assertions.assertSame(nestedQuery, mappedStatement);
+            executedParameters.add(parameter);
+            return Flux.just(this.child(parameter), this.child(parameter));
+        }, 1).block();
+        Assertions.assertEquals(2, executedParameters.size());
+        Assertions.assertEquals(2, ((List<?>) parents.get(0).get("children")).size());
+        Assertions.assertNotSame(parents.get(0).get("children"), parents.get(2).get("children"));
+        Assertions.assertEquals(parents.get(0).get("children"), parents.get(2).get("children"));
+    }
+
+    @Test
+    void loadWithBatchStatement() {
+        configuration.setNestedSelectWindowSize(2);
+        configuration.addNestedSelectBatch(nestedQuery.getId(), batchQuery.getId(), "parentId");
+        NestedSelectLoader nestedSelectLoader = new NestedSelectLoader(configuration);
+        List<Map<String, Object>> parents = new ArrayList<>();
+        List<NestedSelectLoad> nestedSelectLoads = this.loads(parents, 1L, 2L, 3L, 2L);
+        List<Collection<?>> executedKeys = new ArrayList<>();
+        nestedSelectLoader.load(nestedSelectLoads, (mappedStatement, parameter) -> {
+            Assertions.assertSame(batchQuery, mappedStatement);
+            Collection<?> keys = (Collection<?>) ((Map<?, ?>) parameter).get("list");
+            executedKeys.add(keys);
+            // keys of returned objects are read with another numeric type
+            return Flux.fromIterable(keys)
+                    .filter(key -> !key.equals(3L))
+                    .map(key -> this.child(((Long) key).intValue()));
+        }, 1).block();
+        Assertions.assertEquals(2, executedKeys.size());
+        Assertions.assertEquals(2, executedKeys.get(0).size());
+        Assertions.assertEquals(1, executedKeys.get(1).size());
+        Assertions.assertEquals(1, ((List<?>) parents.get(0).get("children")).size());
+        Assertions.assertEquals(1, ((List<?>) parents.get(3).get("children")).size());
+        Assertions.assertTrue(((List<?>) parents.get(2).get("children")).isEmpty());
+    }
+
+    @Test
+    void rejectConstructorNestedSelect() {
+        ResultMapping constructorMapping = new ResultMapping.Builder(configuration, null, "parent_id", List.class)
+                .nestedQueryId(nestedQuery.getId())
+                .flags(Collections.singletonList(ResultFlag.CONSTRUCTOR))
+                .build();
+        ResultMap resultMap = new ResultMap.Builder(configuration, "test.parentResultMap", HashMap.class, Collections.singletonList(constructorMapping))
+                .build();
+        Assertions.assertThrows(BuilderException.class, () -> configuration.addResultMap(resultMap));
+        Assertions.assertFalse(configuration.hasResultMap(resultMap.getId()));
+    }
+
+    private List<NestedSelectLoad> loads(List<Map<String, Object>> parents, Long... keys) {
+        ResultMapping propertyMapping = new ResultMapping.Builder(configuration, "children", "parent_id", List.class)
+                .nestedQueryId(nestedQuery.getId())
+                .build();
+        List<NestedSelectLoad> nestedSelectLoads = new ArrayList<>();
+        for (Long key : keys) {
+            Map<String, Object> parent = new HashMap<>();
+            parents.add(parent);
+            nestedSelectLoads.add(new NestedSelectLoad(configuration.newMetaObject(parent), propertyMapping, nestedQuery, key));
+        }
+        return nestedSelectLoads;
+    }
+
+    private Object child(Object parentId) {
+        Map<String, Object> child = new HashMap<>();
+        child.put("parentId", parentId);
+        return child;
+    }
+
+    private MappedStatement select(String id) {
+        MappedStatement mappedStatement = new MappedStatement.Builder(configuration, id, new StaticSqlSource(configuration, "SELECT * FROM test"), SqlCommandType.SELECT)
+                .build();
+        configuration.addMappedStatement(mappedStatement);
+        return mappedStatement;
+    }
+}
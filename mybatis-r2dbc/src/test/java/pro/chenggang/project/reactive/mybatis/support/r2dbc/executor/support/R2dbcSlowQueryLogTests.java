@@ -0,0 +1,140 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.executor.support;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybatisConfiguration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+class R2dbcSlowQueryLogTests {
+
+    private final R2dbcMybatisConfiguration configuration = new R2dbcMybatisConfiguration();
+    private final List<String> records = new ArrayList<>();
+    private final R2dbcSlowQueryLog slowQueryLog = new R2dbcSlowQueryLog(configuration, new RecordingLog(records));
+    private final MappedStatement select = this.select("test.select");
+
+    @Test
+    void logWithThresholdAndMasking() {
+        Assertions.assertFalse(slowQueryLog.isEnabled(select));
+        slowQueryLog.logIfSlow(select, null, this.parameter(), 1, System.nanoTime() - Duration.ofHours(1).toNanos());
+        Assertions.assertTrue(records.isEmpty());
+        configuration.setSlowQueryThreshold(Duration.ofMinutes(1));
+        configuration.addSlowQueryThreshold(select.getId(), Duration.ofMillis(100));
+        Assertions.assertTrue(slowQueryLog.isEnabled(select));
+        slowQueryLog.logIfSlow(select, null, this.parameter(), 1, System.nanoTime());
+        Assertions.assertTrue(records.isEmpty());
+        BoundSql boundSql = select.getBoundSql(this.parameter());
+        slowQueryLog.logIfSlow(select, boundSql, this.parameter(), 2, System.nanoTime() - Duration.ofSeconds(1).toNanos());
+        Assertions.assertEquals(1, records.size());
+        String record = records.get(0);
+        Assertions.assertTrue(record.contains("[test.select]"));
+        Assertions.assertTrue(record.contains("rows: 2"));
+        Assertions.assertTrue(record.contains("SQL: SELECT * FROM users WHERE name = ? AND password = ?"));
+        Assertions.assertTrue(record.contains("Parameters: admin(String), ******"));
+        Assertions.assertFalse(record.contains("secret-value"));
+    }
+
+    @Test
+    void logWithSampling() {
+        configuration.setSlowQueryThreshold(Duration.ZERO);
+        configuration.setSlowQueryLogSamplingInterval(Duration.ofHours(1));
+        for (int i = 0; i < 5; i++) {
+            slowQueryLog.logIfSlow(select, null, this.parameter(), 1, System.nanoTime());
+        }
+        Assertions.assertEquals(1, records.size());
+        configuration.setSlowQueryLogSamplingInterval(Duration.ZERO);
+        slowQueryLog.logIfSlow(select, null, this.parameter(), 1, System.nanoTime());
+        Assertions.assertEquals(2, records.size());
+        Assertions.assertTrue(records.get(1).contains("suppressed: 4"));
+    }
+
+    private Map<String, Object> parameter() {
+        Map<String, Object> parameter = new HashMap<>();
+        parameter.put("name", "admin");
+        parameter.put("password", "secret-value");
+        return parameter;
+    }
+
+    private MappedStatement select(String id) {
+        StaticSqlSource sqlSource = new StaticSqlSource(configuration,
+                "SELECT *\n FROM users WHERE name = ? AND password = ?",
+                Arrays.asList(
+                        new ParameterMapping.Builder(configuration, "name", String.class).build(),
+                        new ParameterMapping.Builder(configuration, "password", String.class).build()
+                )
+        );
+        return new MappedStatement.Builder(configuration, id, sqlSource, SqlCommandType.SELECT)
+                .build();
+    }
+
+    private static class RecordingLog implements Log {
+
+        private final List<String> records;
+
+        RecordingLog(List<String> records) {
+            this.records = records;
+        }
+
+        @Override
+        public boolean isDebugEnabled() {
+            return false;
+        }
+
+        @Override
+        public boolean isTraceEnabled() {
+            return false;
+        }
+
+        @Override
+        public void error(String s, Throwable e) {
+        }
+
+        @Override
+        public void error(String s) {
+        }
+
+        @Override
+        public void debug(String s) {
+        }
+
+        @Override
+        public void trace(String s) {
+        }
+
+        @Override
+        public void warn(String s) {
+            records.add(s);
+        }
+    }
+}
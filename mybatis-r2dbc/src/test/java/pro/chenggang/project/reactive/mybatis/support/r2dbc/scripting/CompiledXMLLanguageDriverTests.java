@@ -0,0 +1,117 @@
+/*
+ *    Copyright 2009-2024 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package pro.chenggang.project.reactive.mybatis.support.r2dbc.scripting;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.scripting.xmltags.DynamicContext;
+import org.apache.ibatis.scripting.xmltags.ExpressionEvaluator;
+import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pro.chenggang.project.reactive.mybatis.support.r2dbc.delegate.R2dbcMybatisConfiguration;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Gang Cheng
+ * @version 2.0.0
+ * @since 2.0.0
+ */
+class CompiledXMLLanguageDriverTests {
+
+    private static final String SCRIPT = "<script>SELECT * FROM emp"
+            + "<where>"
+            + "<if test=\"name != null and name != ''\"> AND name = #{name}</if>"
+            + "<if test=\"dept != null and dept.deptNo gt 0\"> AND dept_no = #{dept.deptNo,jdbcType=BIGINT}</if>"
+            + "<choose>"
+            + "<when test=\"ids != null and !ids.isEmpty()\"> AND id IN <foreach collection=\"ids\" item=\"id\" open=\"(\" separator=\",\" close=\")\">#{id}</foreach></when>"
+            + "<when test=\"status == 'ON' or status eq 'ACTIVE'\"> AND status = #{status}</when>"
+            + "<otherwise> AND deleted = 0</otherwise>"
+            + "</choose>"
+            + "</where></script>";
+
+    private final R2dbcMybatisConfiguration configuration = new R2dbcMybatisConfiguration();
+
+    @Test
+    void boundSqlSameAsXmlLanguageDriver() {
+        SqlSource expectedSqlSource = new XMLLanguageDriver().createSqlSource(configuration, SCRIPT, Map.class);
+        SqlSource compiledSqlSource = configuration.getLanguageDriver(CompiledXMLLanguageDriver.class).createSqlSource(configuration, SCRIPT, Map.class);
+        Assertions.assertTrue(compiledSqlSource instanceof CompiledDynamicSqlSource);
+        List<Map<String, Object>> parameters = Arrays.asList(
+                new HashMap<>(),
+                this.parameter("name", "test", "dept", Collections.singletonMap("deptNo", 10L), "ids", Arrays.asList(1, 2, 3)),
+                this.parameter("name", "", "dept", Collections.singletonMap("deptNo", 0L), "ids", Collections.emptyList(), "status", "ON"),
+                this.parameter("status", "ACTIVE", "ids", Arrays.asList("a", "b")),
+                this.parameter("ids", Arrays.asList(1L, 2L))
+        );
+        for (int round = 0; round < 2; round++) {
+            for (Map<String, Object> parameter : parameters) {
+                BoundSql expected = expectedSqlSource.getBoundSql(parameter);
+                BoundSql actual = compiledSqlSource.getBoundSql(parameter);
+                Assertions.assertEquals(expected.getSql(), actual.getSql());
+                Assertions.assertEquals(expected.getParameterMappings().size(), actual.getParameterMappings().size());
+                for (int i = 0; i < expected.getParameterMappings().size(); i++) {
+                    ParameterMapping expectedMapping = expected.getParameterMappings().get(i);
+                    ParameterMapping actualMapping = actual.getParameterMappings().get(i);
+                    Assertions.assertEquals(expectedMapping.toString(), actualMapping.toString());
+                    Assertions.assertEquals(expected.getAdditionalParameter(expectedMapping.getProperty()), actual.getAdditionalParameter(actualMapping.getProperty()));
+                }
+            }
+        }
+    }
+
+    @Test
+    void evaluateSameAsOgnl() {
+        Map<String, Object> parameter = this.parameter("name", "test", "empty", "", "count", 3, "flag", Boolean.TRUE,
+                "dept", Collections.singletonMap("deptNo", 10L), "ids", Arrays.asList(1, 2), "status", "A", "nothing", null);
+        DynamicContext context = new DynamicContext(configuration, parameter);
+        ExpressionEvaluator expressionEvaluator = new ExpressionEvaluator();
+        List<String> compiledExpressions = Arrays.asList(
+                "name != null", "name == null", "empty != ''", "empty == ''", "nothing == null and name != null",
+                "count > 2", "count >= 3 && count lt 4", "count == 3L", "!flag", "not flag or count", "(count gt 5) or !(name eq 'x')",
+                "dept.deptNo == 10", "dept.deptNo > 5", "ids.size() > 1", "!ids.isEmpty()", "name.length() == 4",
+                "status == 'A'", "status == \"A\"", "nothing.length() > 0", "missing", "ids.size", "count"
+        );
+        for (String expression : compiledExpressions) {
+            CompiledExpression compiledExpression = CompiledExpression.compile(expression);
+            boolean expected;
+            try {
+                expected = expressionEvaluator.evaluateBoolean(expression, context.getBindings());
+            } catch (RuntimeException e) {
+                Assertions.assertThrows(e.getClass(), () -> compiledExpression.evaluateBoolean(context.getBindings()), expression);
+                continue;
+            }
+            Assertions.assertEquals(expected, compiledExpression.evaluateBoolean(context.getBindings()), expression);
+        }
+        Assertions.assertTrue(CompiledExpression.compile("dept.deptNo gt 0 and ids.size() > 0").isCompiled());
+        Assertions.assertFalse(CompiledExpression.compile("count + 1 > 2").isCompiled());
+        Assertions.assertFalse(CompiledExpression.compile("@java.lang.Math@max(count, 1) > 2").isCompiled());
+    }
+
+    private Map<String, Object> parameter(Object... keyValues) {
+        Map<String, Object> parameter = new HashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            parameter.put((String) keyValues[i], keyValues[i + 1]);
+        }
+        return parameter;
+    }
+}
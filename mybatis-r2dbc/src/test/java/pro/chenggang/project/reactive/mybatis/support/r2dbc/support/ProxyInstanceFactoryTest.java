@@ -20,6 +20,8 @@ import org.junit.jupiter.api.Test;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
 
 /**
  * @author Gang Cheng
@@ -46,8 +48,61 @@ class ProxyInstanceFactoryTest {
         );
     }
 
+    @Test
+    void newInstanceOfInterfacesReuseProxyClass() {
+        TestInterface first = ProxyInstanceFactory.newInstanceOfInterfaces(
+                TestInterface.class,
+                () -> (proxy, method, args) -> "first"
+        );
+        TestInterface second = ProxyInstanceFactory.newInstanceOfInterfaces(
+                TestInterface.class,
+                () -> (proxy, method, args) -> "second"
+        );
+        Assertions.assertSame(first.getClass(), second.getClass());
+        Assertions.assertNotSame(first, second);
+        Assertions.assertEquals("first", first.value());
+        Assertions.assertEquals("second", second.value());
+        TestInterface withOtherInterface = ProxyInstanceFactory.newInstanceOfInterfaces(
+                TestInterface.class,
+                () -> (proxy, method, args) -> "other",
+                OtherTestInterface.class
+        );
+        Assertions.assertNotSame(first.getClass(), withOtherInterface.getClass());
+        Assertions.assertTrue(withOtherInterface instanceof OtherTestInterface);
+        Assertions.assertEquals("other", withOtherInterface.value());
+    }
+
+    @Test
+    void newInstanceOfInterfacesPerClassLoader() throws Exception {
+        URL testClassesLocation = TestInterface.class.getProtectionDomain().getCodeSource().getLocation();
+        try (URLClassLoader isolatedClassLoader = new URLClassLoader(new URL[]{testClassesLocation}, null)) {
+            Class<?> isolatedInterface = isolatedClassLoader.loadClass(TestInterface.class.getName());
+            Assertions.assertNotSame(TestInterface.class, isolatedInterface);
+            Object isolated = ProxyInstanceFactory.newInstanceOfInterfaces(
+                    isolatedInterface,
+                    () -> (proxy, method, args) -> "isolated"
+            );
+            TestInterface current = ProxyInstanceFactory.newInstanceOfInterfaces(
+                    TestInterface.class,
+                    () -> (proxy, method, args) -> "current"
+            );
+            Assertions.assertTrue(isolatedInterface.isInstance(isolated));
+            Assertions.assertFalse(isolated instanceof TestInterface);
+            Assertions.assertNotSame(current.getClass(), isolated.getClass());
+            Assertions.assertEquals("isolated", isolatedInterface.getMethod("value").invoke(isolated));
+        }
+    }
+
     public interface TestInterface {
 
+        default String value() {
+            return null;
+        }
+
+    }
+
+    public interface OtherTestInterface {
+
     }
 
     public class TestClass {